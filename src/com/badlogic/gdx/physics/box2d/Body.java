@@ -30,6 +30,20 @@ public class Body
 	/** user data **/
 	private Object userData;
 	
+	/** the slot of this body in the World's transform array, -1 if not registered **/
+	protected int transformSlot = -1;
+	
+	/** static and inactive bodies only have their transform copied again after setTransform or setType **/
+	protected boolean isStatic;
+	protected boolean transformDirty = true;
+	
+	/** the active state and type, as last set, so they can be read without going through JNI **/
+	protected boolean active = true;
+	protected BodyType type = BodyType.StaticBody;
+	
+	/** the state of the body when simulated by the Java backend, null otherwise **/
+	protected JavaBody java;
+	
 	/**
 	 * Constructs a new body with the given address
 	 * @param world the world
@@ -52,7 +66,24 @@ public class Body
 	 */	 
 	public Fixture createFixture(FixtureDef def)
 	{				
+		if( java != null )
+		{
+			Fixture fixture = new Fixture( world, this, world.java.nextAddress( ) );
+			fixture.friction = def.friction;
+			fixture.restitution = def.restitution;
+			fixture.density = def.density;
+			fixture.sensor = def.isSensor;
+			fixture.categoryBits = def.filter.categoryBits;
+			fixture.maskBits = def.filter.maskBits;
+			fixture.groupIndex = def.filter.groupIndex;
+			addJavaFixture( fixture, def.shape );
+			return fixture;
+		}
 		Fixture fixture = new Fixture( world, this, jniCreateFixture(addr, def.shape.addr, def.friction, def.restitution, def.density, def.isSensor, def.filter.categoryBits, def.filter.maskBits, def.filter.groupIndex) );
+		fixture.categoryBits = def.filter.categoryBits;
+		fixture.maskBits = def.filter.maskBits;
+		fixture.groupIndex = def.filter.groupIndex;
+		fixture.setGeometry( def.shape );
 		this.world.fixtures.put( fixture.addr, fixture );
 		this.fixtures.add( fixture );
 		return fixture;
@@ -71,7 +102,15 @@ public class Body
 	 */
 	public Fixture createFixture(Shape shape, float density)
 	{
+		if( java != null )
+		{
+			Fixture fixture = new Fixture( world, this, world.java.nextAddress( ) );
+			fixture.density = density;
+			addJavaFixture( fixture, shape );
+			return fixture;
+		}
 		Fixture fixture = new Fixture( world, this, jniCreateFixture(addr, shape.addr, density));
+		fixture.setGeometry( shape );
 		this.world.fixtures.put( fixture.addr, fixture );
 		this.fixtures.add( fixture );
 		return fixture;
@@ -79,6 +118,19 @@ public class Body
 	
 	private native long jniCreateFixture( long addr, long shapeAddr, float density );
 	
+	/**
+	 * Adds a fixture to the Java backend's broad-phase, and updates the mass as b2Body::CreateFixture does
+	 */
+	private void addJavaFixture( Fixture fixture, Shape shape )
+	{
+		fixture.setGeometry( shape );
+		this.world.fixtures.put( fixture.addr, fixture );
+		this.fixtures.add( fixture );
+		world.java.addFixture( fixture );
+		if( fixture.density > 0 )
+			java.resetMassData( fixtures );
+	}
+	
 	/**
 	 * Destroy a fixture. This removes the fixture from the broad-phase and
 	 * destroys all contacts associated with this fixture. This will
@@ -90,9 +142,16 @@ public class Body
 	 */
 	public void destroyFixture(Fixture fixture)
 	{
-		jniDestroyFixture( addr, fixture.addr );
-		this.world.fixtures.remove(fixture);
+		if( java != null )
+			world.java.removeFixture( fixture );
+		else
+			jniDestroyFixture( addr, fixture.addr );
+		this.world.fixtures.remove(fixture.addr);
 		this.fixtures.remove(fixture);
+		if( java != null )
+			java.resetMassData( fixtures );
+		if( world.bufferedContactCount > 0 )
+			world.forgetBufferedFixture( fixture.addr );
 	}
 	
 	private native void jniDestroyFixture( long addr, long fixtureAddr );
@@ -106,7 +165,14 @@ public class Body
 	 */
 	public void setTransform(Vector2 position, float angle)
 	{
-		jniSetTransform( addr, position.x, position.y, angle);
+		if( java != null )
+		{
+			java.setTransform( position.x, position.y, angle );
+			world.java.synchronizeFixtures( java );
+		}
+		else
+			jniSetTransform( addr, position.x, position.y, angle);
+		transformDirty = true;
 	}	
 	
 	private native void jniSetTransform( long addr, float positionX, float positionY, float angle );
@@ -126,6 +192,8 @@ public class Body
 	private final Vector2 position = new Vector2( );
 	public Vector2 getPosition()
 	{
+		if( java != null )
+			return position.set( java.x, java.y );
 		jniGetPosition( addr, tmp );
 		position.x = tmp[0]; position.y = tmp[1];
 		return position;
@@ -139,6 +207,8 @@ public class Body
 	 */
 	public float getAngle()
 	{
+		if( java != null )
+			return java.angle;
 		return jniGetAngle( addr );
 	}
 
@@ -150,6 +220,8 @@ public class Body
 	private final Vector2 worldCenter = new Vector2( );
 	public Vector2 getWorldCenter()
 	{
+		if( java != null )
+			return worldCenter.set( java.cx, java.cy );
 		jniGetWorldCenter( addr, tmp );
 		worldCenter.x = tmp[0]; worldCenter.y = tmp[1];
 		return worldCenter;
@@ -163,6 +235,8 @@ public class Body
 	private final Vector2 localCenter = new Vector2( );
 	public Vector2 getLocalCenter()
 	{
+		if( java != null )
+			return localCenter.set( java.localCenterX, java.localCenterY );
 		jniGetLocalCenter( addr, tmp );
 		localCenter.x = tmp[0]; localCenter.y = tmp[1];
 		return localCenter;
@@ -175,6 +249,16 @@ public class Body
 	 */
 	public void setLinearVelocity(Vector2 v)
 	{
+		if( java != null )
+		{
+			if( java.type == BodyType.StaticBody )
+				return;
+			if( v.x * v.x + v.y * v.y > 0 )
+				java.setAwake( true );
+			java.vx = v.x;
+			java.vy = v.y;
+			return;
+		}
 		jniSetLinearVelocity( addr, v.x, v.y );
 	}
 	
@@ -186,6 +270,8 @@ public class Body
 	private final Vector2 linearVelocity = new Vector2( );
 	public Vector2 getLinearVelocity()
 	{
+		if( java != null )
+			return linearVelocity.set( java.vx, java.vy );
 		jniGetLinearVelocity( addr, tmp );
 		linearVelocity.x = tmp[0]; linearVelocity.y = tmp[1];
 		return linearVelocity;
@@ -198,6 +284,15 @@ public class Body
 	 */
 	public void setAngularVelocity(float omega)
 	{
+		if( java != null )
+		{
+			if( java.type == BodyType.StaticBody )
+				return;
+			if( omega * omega > 0 )
+				java.setAwake( true );
+			java.w = omega;
+			return;
+		}
 		jniSetAngularVelocity(addr, omega);
 	}
 	
@@ -208,6 +303,8 @@ public class Body
 	 */
 	public float getAngularVelocity()
 	{
+		if( java != null )
+			return java.w;
 		return jniGetAngularVelocity( addr );
 	}
 	
@@ -222,6 +319,11 @@ public class Body
 	 */
 	public void applyForce(Vector2 force, Vector2 point)
 	{
+		if( java != null )
+		{
+			java.applyForce( force.x, force.y, point.x, point.y );
+			return;
+		}
 		jniApplyForce( addr, force.x, force.y, point.x, point.y );
 	}
 	
@@ -235,6 +337,14 @@ public class Body
 	 */
 	public void applyTorque(float torque)
 	{
+		if( java != null )
+		{
+			if( java.type != BodyType.DynamicBody )
+				return;
+			java.setAwake( true );
+			java.torque += torque;
+			return;
+		}
 		jniApplyTorque( addr, torque );
 	}
 	
@@ -249,6 +359,11 @@ public class Body
 	 */
 	public void applyLinearImpulse(Vector2 impulse, Vector2 point)
 	{
+		if( java != null )
+		{
+			java.applyLinearImpulse( impulse.x, impulse.y, point.x, point.y );
+			return;
+		}
 		jniApplyLinearImpulse( addr, impulse.x, impulse.y, point.x, point.y );
 	}
 	
@@ -260,6 +375,14 @@ public class Body
 	 */
 	public void applyAngularImpulse(float impulse)
 	{
+		if( java != null )
+		{
+			if( java.type != BodyType.DynamicBody )
+				return;
+			java.setAwake( true );
+			java.w += java.invI * impulse;
+			return;
+		}
 		jniApplyAngularImpulse( addr, impulse );
 	}
 	
@@ -271,6 +394,8 @@ public class Body
 	 */
 	public float getMass()
 	{
+		if( java != null )
+			return java.mass;
 		return jniGetMass( addr );
 	}
 	
@@ -282,6 +407,8 @@ public class Body
 	 */
 	public float getInertia()
 	{
+		if( java != null )
+			return java.I + java.mass * (java.localCenterX * java.localCenterX + java.localCenterY * java.localCenterY);
 		return jniGetInertia( addr );
 	}
 	
@@ -294,12 +421,20 @@ public class Body
 	private final MassData massData = new MassData( );
 	public MassData getMassData()
 	{
+		if( java != null )
+		{
+			massData.mass = java.mass;
+			massData.center.x = java.localCenterX;
+			massData.center.y = java.localCenterY;
+			massData.I = getInertia( );
+			return massData;
+		}
 		jniGetMassData(addr, tmp);
 		massData.mass = tmp[0];
 		massData.center.x = tmp[1];
 		massData.center.y = tmp[2];
 		massData.I = tmp[3];
-		return null;
+		return massData;
 	}
 	
 	private native void jniGetMassData( long addr, float[] massData );
@@ -313,6 +448,11 @@ public class Body
 	 */
 	public void setMassData(MassData data)
 	{
+		if( java != null )
+		{
+			java.setMassData( data.mass, data.center.x, data.center.y, data.I, false );
+			return;
+		}
 		jniSetMassData( addr, data.mass, data.center.x, data.center.y, data.I );
 	}
 	
@@ -325,6 +465,11 @@ public class Body
 	 */
 	public void resetMassData()
 	{
+		if( java != null )
+		{
+			java.resetMassData( fixtures );
+			return;
+		}
 		jniResetMassData( addr );
 	}
 	
@@ -338,6 +483,8 @@ public class Body
 	private final Vector2 localPoint = new Vector2( );
 	public Vector2 getWorldPoint(Vector2 localPoint)
 	{
+		if( java != null )
+			return this.localPoint.set( java.getWorldPointX( localPoint.x, localPoint.y ), java.getWorldPointY( localPoint.x, localPoint.y ) );
 		jniGetWorldPoint( addr, localPoint.x, localPoint.y, tmp );
 		this.localPoint.x = tmp[0]; this.localPoint.y = tmp[1];
 		return this.localPoint;
@@ -353,6 +500,8 @@ public class Body
 	private final Vector2 worldVector = new Vector2( );
 	public Vector2 getWorldVector(Vector2 localVector)
 	{
+		if( java != null )
+			return worldVector.set( java.cos * localVector.x - java.sin * localVector.y, java.sin * localVector.x + java.cos * localVector.y );
 		jniGetWorldVector( addr, localVector.x, localVector.y, tmp );
 		worldVector.x = tmp[0]; worldVector.y = tmp[1];
 		return worldVector;
@@ -368,6 +517,11 @@ public class Body
 	public final Vector2 localPoint2 = new Vector2( );
 	public Vector2 getLocalPoint(Vector2 worldPoint)
 	{
+		if( java != null )
+		{
+			final float x = worldPoint.x - java.x, y = worldPoint.y - java.y;
+			return localPoint2.set( java.cos * x + java.sin * y, -java.sin * x + java.cos * y );
+		}
 		jniGetLocalPoint( addr, worldPoint.x, worldPoint.y, tmp );
 		localPoint2.x = tmp[0]; localPoint2.y = tmp[1];
 		return localPoint2;
@@ -383,6 +537,8 @@ public class Body
 	public final Vector2 localVector = new Vector2( );
 	public Vector2 getLocalVector(Vector2 worldVector)
 	{
+		if( java != null )
+			return localVector.set( java.cos * worldVector.x + java.sin * worldVector.y, -java.sin * worldVector.x + java.cos * worldVector.y );
 		jniGetLocalVector( addr, worldVector.x, worldVector.y, tmp );
 		localVector.x = tmp[0]; localVector.y = tmp[1];
 		return localVector;
@@ -398,6 +554,8 @@ public class Body
 	public final Vector2 linVelWorld = new Vector2( );
 	public Vector2 getLinearVelocityFromWorldPoint(Vector2 worldPoint)
 	{
+		if( java != null )
+			return linVelWorld.set( java.vx - java.w * (worldPoint.y - java.cy), java.vy + java.w * (worldPoint.x - java.cx) );
 		jniGetLinearVelocityFromWorldPoint( addr, worldPoint.x, worldPoint.y, tmp );
 		linVelWorld.x = tmp[0]; linVelWorld.y = tmp[1];
 		return linVelWorld;
@@ -414,6 +572,11 @@ public class Body
 	
 	public Vector2 getLinearVelocityFromLocalPoint(Vector2 localPoint)
 	{
+		if( java != null )
+		{
+			final float x = java.getWorldPointX( localPoint.x, localPoint.y ), y = java.getWorldPointY( localPoint.x, localPoint.y );
+			return linVelLoc.set( java.vx - java.w * (y - java.cy), java.vy + java.w * (x - java.cx) );
+		}
 		jniGetLinearVelocityFromLocalPoint( addr, localPoint.x, localPoint.y, tmp );
 		linVelLoc.x = tmp[0]; linVelLoc.y = tmp[1];
 		return linVelLoc;
@@ -426,6 +589,8 @@ public class Body
 	 */
 	public float getLinearDamping()
 	{
+		if( java != null )
+			return java.linearDamping;
 		return jniGetLinearDamping( addr );
 	}
 	
@@ -436,6 +601,11 @@ public class Body
 	 */
 	public void setLinearDamping(float linearDamping)
 	{
+		if( java != null )
+		{
+			java.linearDamping = linearDamping;
+			return;
+		}
 		jniSetLinearDamping( addr, linearDamping );
 	}
 
@@ -446,6 +616,8 @@ public class Body
 	 */
 	public float getAngularDamping()
 	{
+		if( java != null )
+			return java.angularDamping;
 		return jniGetAngularDamping( addr );
 	}
 	
@@ -456,6 +628,11 @@ public class Body
 	 */
 	public void setAngularDamping(float angularDamping)
 	{
+		if( java != null )
+		{
+			java.angularDamping = angularDamping;
+			return;
+		}
 		jniSetAngularDamping( addr, angularDamping );
 	}
 	
@@ -466,7 +643,17 @@ public class Body
 	 */
 	public void setType(BodyType type)
 	{
-		jniSetType( addr, type.getValue() );
+		if( java != null )
+		{
+			java.setType( type, fixtures );
+			for( int i = 0; i < fixtures.size(); i++ )
+				world.java.destroyContacts( fixtures.get( i ) );
+		}
+		else
+			jniSetType( addr, type.getValue() );
+		this.type = type;
+		isStatic = type == BodyType.StaticBody;
+		transformDirty = true;
 	}
 	
 	private native void jniSetType( long addr, int type );
@@ -476,14 +663,7 @@ public class Body
 	 */
 	public BodyType getType()
 	{
-		int type = jniGetType( addr );
-		if( type == 0 )
-			return BodyType.StaticBody;
-		if( type == 1 )
-			return BodyType.KinematicBody;
-		if( type == 2 )
-			return BodyType.DynamicBody;
-		return BodyType.StaticBody;
+		return type;
 	}
 	
 	private native int jniGetType( long addr );
@@ -493,6 +673,11 @@ public class Body
 	 */
 	public void setBullet(boolean flag)
 	{
+		if( java != null )
+		{
+			java.bullet = flag;
+			return;
+		}
 		jniSetBullet( addr, flag );		
 	}
 	
@@ -503,6 +688,8 @@ public class Body
 	 */
 	public boolean isBullet()
 	{
+		if( java != null )
+			return java.bullet;
 		return jniIsBullet( addr );
 	}
 	
@@ -513,6 +700,13 @@ public class Body
 	 */
 	public void setSleepingAllowed(boolean flag)
 	{
+		if( java != null )
+		{
+			java.sleepAllowed = flag;
+			if( !flag )
+				java.setAwake( true );
+			return;
+		}
 		jniSetSleepingAllowed( addr, flag );
 	}
 	
@@ -523,6 +717,8 @@ public class Body
 	 */
 	public boolean isSleepingAllowed()
 	{
+		if( java != null )
+			return java.sleepAllowed;
 		return jniIsSleepingAllowed( addr );
 	}
 	
@@ -535,6 +731,11 @@ public class Body
 	 */
 	public void setAwake(boolean flag)
 	{
+		if( java != null )
+		{
+			java.setAwake( flag );
+			return;
+		}
 		jniSetAwake( addr, flag );		
 	}
 	
@@ -546,6 +747,8 @@ public class Body
 	 */
 	public boolean isAwake()
 	{
+		if( java != null )
+			return java.awake;
 		return jniIsAwake( addr );
 	}
 	
@@ -568,7 +771,9 @@ public class Body
 	 */
 	public void setActive(boolean flag)
 	{
-		jniSetActive( addr, flag );
+		if( java == null )
+			jniSetActive( addr, flag );
+		active = flag;
 	}
 	
 	private native void jniSetActive( long addr, boolean flag );
@@ -578,7 +783,7 @@ public class Body
 	 */
 	public boolean isActive()
 	{
-		return jniIsActive( addr );
+		return active;
 	}
 	
 	private native boolean jniIsActive( long addr );
@@ -589,6 +794,13 @@ public class Body
 	 */
 	public void setFixedRotation(boolean flag)
 	{
+		if( java != null )
+		{
+			java.fixedRotation = flag;
+			java.w = 0;
+			java.resetMassData( fixtures );
+			return;
+		}
 		jniSetFixedRotation( addr, flag );
 	}
 	
@@ -599,6 +811,8 @@ public class Body
 	 */
 	public boolean isFixedRotation()
 	{
+		if( java != null )
+			return java.fixedRotation;
 		return jniIsFixedRotation( addr );
 	}
 	
@@ -633,6 +847,14 @@ public class Body
 //		return contacts;
 //	}
 	
+	/**
+	 * @return the slot of this body in the World's transform array, -1 if it is not registered with World.addTransformSync
+	 */
+	public int getTransformSlot()
+	{
+		return transformSlot;
+	}
+	
 	/**
 	 *  Get the parent world of this body.
 	 */
@@ -11,7 +11,8 @@ public class CircleShape extends Shape
 {
 	public CircleShape( )
 	{
-		addr = newCircleShape( );
+		if( World.isNativeAvailable( ) )
+			addr = newCircleShape( );
 	}
 	
 	private native long newCircleShape( );
@@ -32,6 +33,8 @@ public class CircleShape extends Shape
 	private final Vector2 position = new Vector2( );
 	public Vector2 getPosition( )
 	{
+		if( addr == 0 )
+			return position;
 		jniGetPosition( addr, tmp );
 		position.x = tmp[0]; position.y = tmp[1];
 		return position;
@@ -44,6 +47,11 @@ public class CircleShape extends Shape
 	 */
 	public void setPosition( Vector2 position )
 	{
+		if( addr == 0 )
+		{
+			this.position.set( position.x, position.y );
+			return;
+		}
 		jniSetPosition( addr, position.x, position.y );
 	}
 	
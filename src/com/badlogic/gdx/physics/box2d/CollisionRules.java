@@ -0,0 +1,149 @@
+package com.badlogic.gdx.physics.box2d;
+
+/**
+ * Declarative collision filtering, set with World.setCollisionRules. A rule decides a pair of fixtures
+ * without calling the ContactFilter, which is only asked about the pairs a rule marks as CUSTOM. The
+ * rules are checked in order: the group table for fixtures sharing a non-zero group index, the owner rule
+ * for fixtures whose bodies share the same non-null user data, then the category matrix. A pair left at
+ * DEFAULT by all of them is filtered with the fixtures' Filter data, as b2ContactFilter does.
+ * 
+ * Rules are applied when a pair of fixtures first overlaps, changing them does not affect existing contacts.
+ */
+public class CollisionRules 
+{
+	/** the pair is filtered with the fixtures' Filter data **/
+	public static final int DEFAULT = 0;
+	
+	/** the pair collides, whatever its Filter data **/
+	public static final int COLLIDE = 1;
+	
+	/** the pair does not collide **/
+	public static final int IGNORE = 2;
+	
+	/** the pair is passed to the World's ContactFilter, or filtered as DEFAULT if there is none **/
+	public static final int CUSTOM = 3;
+	
+	/** the number of category bits in a Filter **/
+	public static final int CATEGORIES = 16;
+	
+	/** the rule for each pair of categories, a fixture with several category bits takes the highest rule **/
+	private final byte[] matrix = new byte[CATEGORIES * CATEGORIES];
+	
+	/** the rule for each group index, created when first needed **/
+	private byte[] groups = null;
+	
+	private int ownerRule = DEFAULT;
+	
+	/**
+	 * Sets the rule between two categories, in both directions
+	 * @param categoryA the index of the category bit, 0 to 15
+	 * @param categoryB the index of the category bit, 0 to 15
+	 * @param rule DEFAULT, COLLIDE, IGNORE or CUSTOM
+	 */
+	public void setCategoryRule( int categoryA, int categoryB, int rule )
+	{
+		matrix[categoryA * CATEGORIES + categoryB] = (byte)rule;
+		matrix[categoryB * CATEGORIES + categoryA] = (byte)rule;
+	}
+	
+	/**
+	 * @return the rule between two categories, given as bit indices
+	 */
+	public int getCategoryRule( int categoryA, int categoryB )
+	{
+		return matrix[categoryA * CATEGORIES + categoryB];
+	}
+	
+	/**
+	 * Sets the rule between a category and every category, including itself
+	 */
+	public void setCategoryRule( int category, int rule )
+	{
+		for( int i = 0; i < CATEGORIES; i++ )
+			setCategoryRule( category, i, rule );
+	}
+	
+	/**
+	 * Sets the rule for pairs of fixtures which share a group index, this overrides the sign of the index
+	 * @param groupIndex a non-zero group index
+	 * @param rule DEFAULT, COLLIDE, IGNORE or CUSTOM
+	 */
+	public void setGroupRule( int groupIndex, int rule )
+	{
+		if( groups == null )
+		{
+			if( rule == DEFAULT )
+				return;
+			groups = new byte[1 << 16];
+		}
+		groups[groupIndex & 0xFFFF] = (byte)rule;
+	}
+	
+	/**
+	 * @return the rule for pairs of fixtures with a group index
+	 */
+	public int getGroupRule( int groupIndex )
+	{
+		return groups == null ? DEFAULT : groups[groupIndex & 0xFFFF];
+	}
+	
+	/**
+	 * Sets the rule for pairs of fixtures whose bodies share the same user data, such as two Bodies of one
+	 * PhysicalSprite, or parts of the same object
+	 * @param rule DEFAULT, COLLIDE, IGNORE or CUSTOM
+	 */
+	public void setOwnerRule( int rule )
+	{
+		ownerRule = rule;
+	}
+	
+	public int getOwnerRule( )
+	{
+		return ownerRule;
+	}
+	
+	/**
+	 * Sets every rule back to DEFAULT
+	 */
+	public void clear( )
+	{
+		for( int i = 0; i < matrix.length; i++ )
+			matrix[i] = DEFAULT;
+		groups = null;
+		ownerRule = DEFAULT;
+	}
+	
+	/**
+	 * @return the rule which applies to a pair of fixtures
+	 */
+	public int getRule( Fixture fixtureA, Fixture fixtureB )
+	{
+		if( groups != null && fixtureA.groupIndex == fixtureB.groupIndex && fixtureA.groupIndex != 0 )
+		{
+			final int rule = groups[fixtureA.groupIndex & 0xFFFF];
+			if( rule != DEFAULT )
+				return rule;
+		}
+		if( ownerRule != DEFAULT )
+		{
+			final Object owner = fixtureA.getBody( ).getUserData( );
+			if( owner != null && owner == fixtureB.getBody( ).getUserData( ) )
+				return ownerRule;
+		}
+		int rule = DEFAULT;
+		int categoriesA = fixtureA.categoryBits & 0xFFFF;
+		final int categoriesB = fixtureB.categoryBits & 0xFFFF;
+		for( int i = 0; categoriesA != 0; i++, categoriesA >>>= 1 )
+		{
+			if( (categoriesA & 1) == 0 )
+				continue;
+			final int row = i * CATEGORIES;
+			for( int j = 0; j < CATEGORIES; j++ )
+			{
+				if( (categoriesB & (1 << j)) != 0 && matrix[row + j] > rule )
+					rule = matrix[row + j];
+			}
+		}
+		return rule;
+	}
+}
@@ -20,6 +20,14 @@ public class Contact
 	/** the world manifold **/
 	protected final WorldManifold worldManifold = new WorldManifold( );
 	
+	/** a buffered contact keeps its fixtures and touching state from when it was recorded **/
+	protected boolean buffered;
+	protected Fixture fixtureA, fixtureB;
+	protected boolean touching;
+	
+	/** the contact when simulated by the Java backend, null otherwise **/
+	protected JavaContact java;
+	
 	protected Contact( World world, long addr )
 	{
 		this.addr = addr;
@@ -27,12 +35,62 @@ public class Contact
 	}
 	
 	/**
-	 * Get the world manifold.
-	 */	
+	 * Sets the state recorded by the world during a step, so it can be read after the step has finished
+	 * @param manifolds the recorded manifolds, or null if they were not recorded
+	 */
+	protected void buffer( Fixture fixtureA, Fixture fixtureB, boolean touching, float[] manifolds, int offset )
+	{
+		buffered = true;
+		addr = 0;
+		java = null;
+		this.fixtureA = fixtureA;
+		this.fixtureB = fixtureB;
+		this.touching = touching;
+		if( manifolds == null )
+		{
+			worldManifold.numContactPoints = 0;
+			worldManifold.normal.set( 0, 0 );
+			return;
+		}
+		int numContactPoints = (int)manifolds[offset];
+		worldManifold.numContactPoints = numContactPoints;
+		worldManifold.normal.set( manifolds[offset + 1], manifolds[offset + 2] );
+		for( int i = 0; i < numContactPoints; i++ )
+		{
+			Vector2 point = worldManifold.points[i];
+			point.x = manifolds[offset + 3 + i * 2];
+			point.y = manifolds[offset + 3 + i * 2 + 1];
+		}
+	}
+	
+	protected void release( )
+	{
+		buffered = false;
+		fixtureA = null;
+		fixtureB = null;
+		java = null;
+		addr = 0;
+	}
+	
+	/**
+	 * @return true if this contact was recorded during a step, and is being read after it. setEnabled has no effect on these.
+	 */
+	public boolean isBuffered( )
+	{
+		return buffered;
+	}
+	
 	private final float[] tmp = new float[6];
+	
+	/**
+	 * Get the world manifold. For a buffered contact this is the manifold recorded during the step,
+	 * which is empty if World.setBufferManifolds was turned off.
+	 */	
 	public WorldManifold GetWorldManifold()
 	{
-		int numContactPoints = jniGetWorldManifold( addr, tmp );
+		if( buffered )
+			return worldManifold;
+		int numContactPoints = computeWorldManifold( tmp );
 		
 		worldManifold.numContactPoints = numContactPoints;
 		worldManifold.normal.set( tmp[0], tmp[1] );
@@ -46,14 +104,29 @@ public class Contact
 		return worldManifold;
 	}
 	
-	private native int jniGetWorldManifold( long addr, float[] manifold );
+	native int jniGetWorldManifold( long addr, float[] manifold );
+	
+	/**
+	 * Computes the world manifold into an array, the normal followed by the points
+	 * @return the number of points
+	 */
+	protected int computeWorldManifold( float[] manifold )
+	{
+		if( java != null )
+			return java.getWorldManifold( manifold );
+		return jniGetWorldManifold( addr, manifold );
+	}
 	
 	public boolean isTouching( )
 	{
+		if( buffered )
+			return touching;
+		if( java != null )
+			return java.touching;
 		return jniIsTouching( addr );
 	}
 	
-	private native boolean jniIsTouching( long addr );
+	native boolean jniIsTouching( long addr );
 	
 	/**
 	 *  Enable/disable this contact. This can be used inside the pre-solve
@@ -62,6 +135,13 @@ public class Contact
 	 */
 	public void setEnabled(boolean flag)
 	{
+		if( buffered )
+			return;
+		if( java != null )
+		{
+			java.enabled = flag;
+			return;
+		}
 		jniSetEnabled( addr, flag );
 	}
 	
@@ -72,6 +152,10 @@ public class Contact
 	 */
 	public boolean isEnabled()
 	{
+		if( buffered )
+			return true;
+		if( java != null )
+			return java.enabled;
 		return jniIsEnabled( addr );
 	}
 	
@@ -82,18 +166,26 @@ public class Contact
 	 */
 	public Fixture getFixtureA()
 	{
+		if( buffered )
+			return fixtureA;
+		if( java != null )
+			return java.fixtureA;
 		return world.fixtures.get( jniGetFixtureA( addr ) );		
 	}	
 	
-	private native long jniGetFixtureA( long addr );
+	native long jniGetFixtureA( long addr );
 
 	/**
 	 *  Get the second fixture in this contact.
 	 */
 	public Fixture getFixtureB()
 	{
+		if( buffered )
+			return fixtureB;
+		if( java != null )
+			return java.fixtureB;
 		return world.fixtures.get( jniGetFixtureB( addr ) );
 	}	
 	
-	private native long jniGetFixtureB( long addr );
+	native long jniGetFixtureB( long addr );
 }
@@ -10,13 +10,13 @@ public class Filter
 	/**
 	 * The collision category bits. Normally you would just set one bit.
 	 */
-	public short categoryBits;
+	public short categoryBits = 0x0001;
 	
 	/**
 	 * The collision mask bits. This states the categories that this
 	 * shape would accept for collision.
 	 */
-	public short maskBits;
+	public short maskBits = -1;
 	
 	/**
 	 * Collision groups allow a certain group of objects to never collide (negative)
@@ -14,6 +14,28 @@ public class Fixture
 	/** the address of the fixture **/
 	protected final long addr;
 	
+	/** the local shape, x, y and radius for a circle or x and y for each vertex of a polygon. null if not known **/
+	protected float[] geometry = null;
+	
+	/** the number of vertices in geometry, 0 for a circle **/
+	protected int vertexCount = 0;
+	
+	/** the outward normal of each edge of a polygon, x and y for each **/
+	protected float[] normals = null;
+	
+	/** the radius of a circle, or the skin of a polygon **/
+	protected float radius;
+	
+	/** the state of the fixture when simulated by the Java backend, as b2Fixture with the defaults of b2FixtureDef **/
+	protected float friction = 0.2f, restitution, density;
+	protected boolean sensor;
+	
+	/** the filter data, kept with both backends so filtering needs no native calls **/
+	protected short categoryBits = 0x0001, maskBits = -1, groupIndex;
+	
+	/** the AABB of the fixture in the Java backend's broad-phase **/
+	protected float lowerX, lowerY, upperX, upperY;
+	
 	/**
 	 * Constructs a new fixture
 	 * @param addr the address of the fixture
@@ -31,6 +53,8 @@ public class Fixture
 	 */
 	public Type getType()
 	{
+		if( world.java != null )
+			return vertexCount == 0 ? Type.Circle : Type.Polygon;
 		int type = jniGetType( addr );
 		if( type == 0 )
 			return Type.Circle;
@@ -51,6 +75,12 @@ public class Fixture
 	 */
 	public void setSensor(boolean sensor)
 	{
+		if( world.java != null )
+		{
+			this.sensor = sensor;
+			world.java.destroyContacts( this );
+			return;
+		}
 		jniSetSensor( addr, sensor );
 	}
 	
@@ -62,6 +92,8 @@ public class Fixture
 	 */	
 	public boolean isSensor()
 	{
+		if( world.java != null )
+			return sensor;
 		return jniIsSensor( addr );
 	}
 	
@@ -73,6 +105,14 @@ public class Fixture
 	 */
 	public void setFilterData(Filter filter)
 	{
+		categoryBits = filter.categoryBits;
+		maskBits = filter.maskBits;
+		groupIndex = filter.groupIndex;
+		if( world.java != null )
+		{
+			world.java.destroyContacts( this );
+			return;
+		}
 		jniSetFilterData( addr, filter.categoryBits, filter.maskBits, filter.groupIndex );
 	}
 	
@@ -85,6 +125,13 @@ public class Fixture
 	private final Filter filter = new Filter( );
 	public Filter getFilterData()
 	{
+		if( world.java != null )
+		{
+			filter.categoryBits = categoryBits;
+			filter.maskBits = maskBits;
+			filter.groupIndex = groupIndex;
+			return filter;
+		}
 		jniGetFilterData( addr, tmp );
 		filter.categoryBits = tmp[0];
 		filter.maskBits = tmp[1];
@@ -108,6 +155,8 @@ public class Fixture
 	 */
 	public boolean testPoint(Vector2 p)
 	{
+		if( world.java != null )
+			return testPoint( body.java, p.x, p.y );
 		return jniTestPoint( addr, p.x, p.y );
 	}
 	
@@ -131,6 +180,212 @@ public class Fixture
 //	/// @param output the ray-cast results.
 //	/// @param input the ray-cast input parameters.
 //	bool RayCast(b2RayCastOutput* output, const b2RayCastInput& input) const;
+
+	/**
+	 * Keeps a copy of the shape's local geometry, so rays can be cast against this fixture in Java.
+	 */
+	protected void setGeometry( Shape shape )
+	{
+		radius = shape.getRadius( );
+		if( shape instanceof CircleShape )
+		{
+			Vector2 position = ((CircleShape)shape).getPosition( );
+			geometry = new float[] { position.x, position.y, radius };
+			vertexCount = 0;
+		}
+		else if( shape instanceof PolygonShape )
+		{
+			geometry = ((PolygonShape)shape).vertices;
+			vertexCount = geometry == null ? 0 : geometry.length / 2;
+			if( vertexCount > 0 )
+			{
+				normals = new float[vertexCount * 2];
+				for( int i = 0; i < vertexCount; i++ )
+				{
+					final int j = i + 1 == vertexCount ? 0 : i + 1;
+					float nx = geometry[j * 2 + 1] - geometry[i * 2 + 1], ny = geometry[i * 2] - geometry[j * 2];
+					final float length = (float)Math.sqrt( nx * nx + ny * ny );
+					if( length > EPSILON )
+					{
+						nx /= length;
+						ny /= length;
+					}
+					normals[i * 2] = nx;
+					normals[i * 2 + 1] = ny;
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Tests a point in world coordinates against the geometry, for the Java backend
+	 */
+	private boolean testPoint( JavaBody body, float x, float y )
+	{
+		if( geometry == null )
+			return false;
+		final float dx = x - body.x, dy = y - body.y;
+		final float px = body.cos * dx + body.sin * dy, py = -body.sin * dx + body.cos * dy;
+		if( vertexCount == 0 )
+			return (px - geometry[0]) * (px - geometry[0]) + (py - geometry[1]) * (py - geometry[1]) <= geometry[2] * geometry[2];
+		for( int i = 0; i < vertexCount; i++ )
+		{
+			if( normals[i * 2] * (px - geometry[i * 2]) + normals[i * 2 + 1] * (py - geometry[i * 2 + 1]) > 0 )
+				return false;
+		}
+		return true;
+	}
+	
+	/**
+	 * Computes the mass of the geometry from the density, as b2Shape::ComputeMass, for the Java backend.
+	 * Polygons with fewer than three vertices have no mass.
+	 * @param out receives the mass, the centre of mass, and the rotational inertia about the body's origin
+	 */
+	protected void computeMass( float[] out )
+	{
+		out[0] = out[1] = out[2] = out[3] = 0;
+		if( geometry == null )
+			return;
+		if( vertexCount == 0 )
+		{
+			final float x = geometry[0], y = geometry[1], r = geometry[2];
+			out[0] = density * (float)Math.PI * r * r;
+			out[1] = x;
+			out[2] = y;
+			out[3] = out[0] * (0.5f * r * r + x * x + y * y);
+			return;
+		}
+		if( vertexCount < 3 )
+			return;
+		float area = 0, centerX = 0, centerY = 0, I = 0;
+		for( int i = 0; i < vertexCount; i++ )
+		{
+			final int j = i + 1 == vertexCount ? 0 : i + 1;
+			final float ex1 = geometry[i * 2], ey1 = geometry[i * 2 + 1];
+			final float ex2 = geometry[j * 2], ey2 = geometry[j * 2 + 1];
+			final float D = ex1 * ey2 - ey1 * ex2;
+			final float triangleArea = 0.5f * D;
+			area += triangleArea;
+			centerX += triangleArea * (ex1 + ex2) / 3;
+			centerY += triangleArea * (ey1 + ey2) / 3;
+			I += D * ((ex1 * ex1 + ex2 * ex1 + ex2 * ex2) + (ey1 * ey1 + ey2 * ey1 + ey2 * ey2)) / 12;
+		}
+		if( area <= EPSILON )
+			return;
+		out[0] = density * area;
+		out[1] = centerX / area;
+		out[2] = centerY / area;
+		out[3] = density * I;
+	}
+	
+	/**
+	 * Casts a ray against the geometry of this fixture. Like Box2D, a ray starting inside a
+	 * circle or polygon does not hit it.
+	 * @param bodyX the x position of the body's origin
+	 * @param bodyY the y position of the body's origin
+	 * @param cos the cosine of the body's angle
+	 * @param sin the sine of the body's angle
+	 * @param out receives the fraction and the normal in world coordinates
+	 * @return true if the ray hits before maxFraction
+	 */
+	protected boolean rayCast( float x1, float y1, float x2, float y2, float maxFraction, float bodyX, float bodyY, float cos, float sin, float[] out )
+	{
+		if( geometry == null )
+			return false;
+		
+		// the ray in local coordinates
+		float px = x1 - bodyX, py = y1 - bodyY;
+		final float p1x = cos * px + sin * py, p1y = -sin * px + cos * py;
+		px = x2 - bodyX; py = y2 - bodyY;
+		final float dx = cos * px + sin * py - p1x, dy = -sin * px + cos * py - p1y;
+		
+		float fraction, normalX, normalY;
+		if( vertexCount == 0 )
+		{
+			final float sx = p1x - geometry[0], sy = p1y - geometry[1];
+			final float b = sx * sx + sy * sy - geometry[2] * geometry[2];
+			final float c = sx * dx + sy * dy;
+			final float rr = dx * dx + dy * dy;
+			final float sigma = c * c - rr * b;
+			if( sigma < 0 || rr < EPSILON )
+				return false;
+			float a = -(c + (float)Math.sqrt( sigma ));
+			if( a < 0 || a > maxFraction * rr )
+				return false;
+			fraction = a / rr;
+			normalX = sx + fraction * dx;
+			normalY = sy + fraction * dy;
+		}
+		else if( vertexCount == 2 )
+		{
+			final float ex = geometry[2] - geometry[0], ey = geometry[3] - geometry[1];
+			normalX = ey;
+			normalY = -ex;
+			final float denominator = normalX * dx + normalY * dy;
+			if( denominator == 0 )
+				return false;
+			fraction = (normalX * (geometry[0] - p1x) + normalY * (geometry[1] - p1y)) / denominator;
+			if( fraction < 0 || fraction > maxFraction )
+				return false;
+			final float s = ((p1x + fraction * dx - geometry[0]) * ex + (p1y + fraction * dy - geometry[1]) * ey) / (ex * ex + ey * ey);
+			if( s < 0 || s > 1 )
+				return false;
+			if( denominator > 0 )
+			{
+				normalX = -normalX;
+				normalY = -normalY;
+			}
+		}
+		else
+		{
+			float lower = 0, upper = maxFraction;
+			normalX = normalY = 0;
+			int index = -1;
+			for( int i = 0; i < vertexCount; i++ )
+			{
+				final int j = i + 1 == vertexCount ? 0 : i + 1;
+				final float vx = geometry[i * 2], vy = geometry[i * 2 + 1];
+				final float nx = geometry[j * 2 + 1] - vy, ny = vx - geometry[j * 2];
+				final float numerator = nx * (vx - p1x) + ny * (vy - p1y);
+				final float denominator = nx * dx + ny * dy;
+				if( denominator == 0 )
+				{
+					if( numerator < 0 )
+						return false;
+				}
+				else if( denominator < 0 && numerator < lower * denominator )
+				{
+					lower = numerator / denominator;
+					index = i;
+					normalX = nx;
+					normalY = ny;
+				}
+				else if( denominator > 0 && numerator < upper * denominator )
+				{
+					upper = numerator / denominator;
+				}
+				if( upper < lower )
+					return false;
+			}
+			if( index < 0 )
+				return false;
+			fraction = lower;
+		}
+		
+		// the normal back in world coordinates
+		final float length = (float)Math.sqrt( normalX * normalX + normalY * normalY );
+		if( length > 0 )
+		{
+			normalX /= length;
+			normalY /= length;
+		}
+		out[0] = fraction;
+		out[1] = cos * normalX - sin * normalY;
+		out[2] = sin * normalX + cos * normalY;
+		return true;
+	}
+	
+	private static final float EPSILON = 1.192092896e-7f;
 //
 //	/// Get the mass data for this fixture. The mass data is based on the density and
 //	/// the shape. The rotational inertia is about the shape's origin. This operation
@@ -143,6 +398,11 @@ public class Fixture
 	 */
 	public void setDensity(float density)
 	{
+		if( world.java != null )
+		{
+			this.density = density;
+			return;
+		}
 		jniSetDensity( addr, density );
 	}
 	
@@ -153,6 +413,8 @@ public class Fixture
 	 */
 	public float getDensity()
 	{
+		if( world.java != null )
+			return density;
 		return jniGetDensity( addr );
 	}
 	
@@ -163,6 +425,8 @@ public class Fixture
 	 */
 	public float getFriction()
 	{
+		if( world.java != null )
+			return friction;
 		return jniGetFriction( addr );	
 	}
 	
@@ -173,6 +437,11 @@ public class Fixture
 	 */
 	public void setFriction(float friction)
 	{
+		if( world.java != null )
+		{
+			this.friction = friction;
+			return;
+		}
 		jniSetFriction( addr, friction );
 	}
 	
@@ -183,6 +452,8 @@ public class Fixture
 	 */
 	public float getRestitution()
 	{
+		if( world.java != null )
+			return restitution;
 		return jniGetRestitution( addr );
 	}
 	
@@ -193,6 +464,11 @@ public class Fixture
 	 */
 	public void setRestitution(float restitution)
 	{
+		if( world.java != null )
+		{
+			this.restitution = restitution;
+			return;
+		}
 		jniSetRestitution( addr, restitution );
 	}
 	
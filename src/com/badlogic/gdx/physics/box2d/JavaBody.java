@@ -0,0 +1,250 @@
+package com.badlogic.gdx.physics.box2d;
+
+import java.util.ArrayList;
+
+import com.badlogic.gdx.physics.box2d.BodyDef.BodyType;
+
+/**
+ * The state of a body simulated by the Java backend, see JavaWorld.
+ * Follows b2Body, the sweep is reduced to the current centre of mass and angle.
+ */
+class JavaBody 
+{
+	/** the body this is the state of **/
+	protected final Body body;
+	
+	protected BodyType type;
+	
+	/** the body origin, its angle and the cosine and sine of that **/
+	protected float x, y, angle, cos = 1, sin = 0;
+	
+	/** the centre of mass, in world and local coordinates **/
+	protected float cx, cy, localCenterX, localCenterY;
+	
+	protected float vx, vy, w;
+	protected float forceX, forceY, torque;
+	protected float mass, invMass, I, invI;
+	protected float linearDamping, angularDamping, inertiaScale;
+	protected boolean awake, sleepAllowed, fixedRotation, bullet;
+	protected float sleepTime;
+	
+	/** the contacts touching this body, used to build islands **/
+	protected JavaContact[] contacts = new JavaContact[4];
+	protected int contactCount;
+	
+	/** set while building islands **/
+	protected boolean islandFlag;
+	
+	/** the index of this body in JavaWorld **/
+	protected int index;
+	
+	protected JavaBody( Body body, BodyDef def )
+	{
+		this.body = body;
+		type = def.type;
+		linearDamping = def.linearDamping;
+		angularDamping = def.angularDamping;
+		inertiaScale = def.inertiaScale;
+		sleepAllowed = def.allowSleep;
+		awake = def.awake;
+		fixedRotation = def.fixedRotation;
+		bullet = def.bullet;
+		setTransform( def.position.x, def.position.y, def.angle );
+		if( type != BodyType.StaticBody )
+		{
+			vx = def.linearVelocity.x;
+			vy = def.linearVelocity.y;
+			w = def.angularVelocity;
+		}
+		if( type == BodyType.DynamicBody )
+		{
+			mass = 1;
+			invMass = 1;
+		}
+	}
+	
+	protected void setTransform( float positionX, float positionY, float angle )
+	{
+		this.x = positionX;
+		this.y = positionY;
+		this.angle = angle;
+		cos = (float)Math.cos( angle );
+		sin = (float)Math.sin( angle );
+		cx = x + cos * localCenterX - sin * localCenterY;
+		cy = y + sin * localCenterX + cos * localCenterY;
+	}
+	
+	/**
+	 * Updates the origin from the centre of mass and angle
+	 */
+	protected void synchronizeTransform( )
+	{
+		cos = (float)Math.cos( angle );
+		sin = (float)Math.sin( angle );
+		x = cx - (cos * localCenterX - sin * localCenterY);
+		y = cy - (sin * localCenterX + cos * localCenterY);
+	}
+	
+	protected float getWorldPointX( float localX, float localY )
+	{
+		return x + cos * localX - sin * localY;
+	}
+	
+	protected float getWorldPointY( float localX, float localY )
+	{
+		return y + sin * localX + cos * localY;
+	}
+	
+	protected void setAwake( boolean flag )
+	{
+		if( flag )
+		{
+			if( !awake )
+			{
+				awake = true;
+				sleepTime = 0;
+			}
+		}
+		else
+		{
+			awake = false;
+			sleepTime = 0;
+			vx = vy = w = 0;
+			forceX = forceY = torque = 0;
+		}
+	}
+	
+	protected void setType( BodyType type, ArrayList<Fixture> fixtures )
+	{
+		this.type = type;
+		resetMassData( fixtures );
+		if( type == BodyType.StaticBody )
+		{
+			vx = vy = w = 0;
+		}
+		setAwake( true );
+		forceX = forceY = torque = 0;
+	}
+	
+	protected void applyForce( float fx, float fy, float pointX, float pointY )
+	{
+		if( type != BodyType.DynamicBody )
+			return;
+		setAwake( true );
+		forceX += fx;
+		forceY += fy;
+		torque += (pointX - cx) * fy - (pointY - cy) * fx;
+	}
+	
+	protected void applyLinearImpulse( float impulseX, float impulseY, float pointX, float pointY )
+	{
+		if( type != BodyType.DynamicBody )
+			return;
+		setAwake( true );
+		vx += invMass * impulseX;
+		vy += invMass * impulseY;
+		w += invI * ((pointX - cx) * impulseY - (pointY - cy) * impulseX);
+	}
+	
+	/**
+	 * Sums the mass of the fixtures, as b2Body::ResetMassData
+	 */
+	protected void resetMassData( ArrayList<Fixture> fixtures )
+	{
+		mass = 0;
+		invMass = 0;
+		I = 0;
+		invI = 0;
+		localCenterX = 0;
+		localCenterY = 0;
+		if( type != BodyType.DynamicBody )
+		{
+			cx = x;
+			cy = y;
+			return;
+		}
+		float centerX = 0, centerY = 0;
+		for( int i = 0; i < fixtures.size(); i++ )
+		{
+			Fixture fixture = fixtures.get( i );
+			if( fixture.density == 0 )
+				continue;
+			fixture.computeMass( massTmp );
+			mass += massTmp[0];
+			centerX += massTmp[0] * massTmp[1];
+			centerY += massTmp[0] * massTmp[2];
+			I += massTmp[3];
+		}
+		if( mass > 0 )
+		{
+			invMass = 1 / mass;
+			centerX *= invMass;
+			centerY *= invMass;
+		}
+		else
+		{
+			mass = 1;
+			invMass = 1;
+		}
+		setMassData( mass, centerX, centerY, I, true );
+	}
+	
+	private final float[] massTmp = new float[4];
+	
+	/**
+	 * @param I the rotational inertia about the body origin
+	 */
+	protected void setMassData( float mass, float centerX, float centerY, float I, boolean reset )
+	{
+		if( type != BodyType.DynamicBody )
+			return;
+		if( !reset )
+		{
+			this.mass = mass > 0 ? mass : 1;
+			invMass = 1 / this.mass;
+		}
+		if( I > 0 && !fixedRotation )
+		{
+			this.I = inertiaScale * (I - this.mass * (centerX * centerX + centerY * centerY));
+			invI = this.I > 0 ? 1 / this.I : 0;
+		}
+		else
+		{
+			this.I = 0;
+			invI = 0;
+		}
+		float oldCenterX = cx, oldCenterY = cy;
+		localCenterX = centerX;
+		localCenterY = centerY;
+		cx = x + cos * localCenterX - sin * localCenterY;
+		cy = y + sin * localCenterX + cos * localCenterY;
+		// keep the velocity of the new centre of mass
+		vx += -w * (cy - oldCenterY);
+		vy += w * (cx - oldCenterX);
+	}
+	
+	protected void addContact( JavaContact contact )
+	{
+		if( contactCount == contacts.length )
+		{
+			JavaContact[] newContacts = new JavaContact[contacts.length * 2];
+			System.arraycopy( contacts, 0, newContacts, 0, contactCount );
+			contacts = newContacts;
+		}
+		contacts[contactCount++] = contact;
+	}
+	
+	protected void removeContact( JavaContact contact )
+	{
+		for( int i = 0; i < contactCount; i++ )
+		{
+			if( contacts[i] == contact )
+			{
+				contactCount--;
+				contacts[i] = contacts[contactCount];
+				contacts[contactCount] = null;
+				return;
+			}
+		}
+	}
+}
@@ -0,0 +1,417 @@
+package com.badlogic.gdx.physics.box2d;
+
+/**
+ * A contact between two fixtures simulated by the Java backend, see JavaWorld. Holds the local
+ * manifold and the contact constraint, following b2Contact, b2Manifold and b2ContactSolver of Box2D 2.1.
+ * A polygon is always fixture A of a contact between a polygon and a circle.
+ */
+class JavaContact 
+{
+	/** the manifold types **/
+	protected static final int CIRCLES = 0;
+	protected static final int FACE_A = 1;
+	protected static final int FACE_B = 2;
+	
+	protected final Fixture fixtureA, fixtureB;
+	protected final JavaBody bodyA, bodyB;
+	
+	/** the key of the fixture pair in JavaWorld **/
+	protected final long key;
+	
+	/** the index of this contact in JavaWorld, and the last step its fixtures' AABBs overlapped **/
+	protected int index;
+	protected int stamp;
+	
+	protected boolean touching, enabled = true, sensor, islandFlag;
+	
+	/** the local manifold **/
+	protected int type, pointCount;
+	protected float localNormalX, localNormalY, localPointX, localPointY;
+	protected final float[] localPoints = new float[4];
+	protected final int[] ids = new int[2];
+	protected final float[] normalImpulses = new float[2];
+	protected final float[] tangentImpulses = new float[2];
+	
+	/** the contact constraint, set up by JavaWorld for each step **/
+	protected float normalX, normalY, friction, restitution;
+	protected int constraintCount;
+	protected final float[] rA = new float[4], rB = new float[4];
+	protected final float[] normalMass = new float[2], tangentMass = new float[2], velocityBias = new float[2];
+	protected float k11, k12, k22, invK11, invK12, invK22;
+	
+	/** the manifold of the last update, for matching contact ids **/
+	private final int[] oldIds = new int[2];
+	private final float[] oldNormalImpulses = new float[2];
+	private final float[] oldTangentImpulses = new float[2];
+	
+	protected JavaContact( Fixture fixtureA, Fixture fixtureB, long key )
+	{
+		this.fixtureA = fixtureA;
+		this.fixtureB = fixtureB;
+		this.bodyA = fixtureA.getBody( ).java;
+		this.bodyB = fixtureB.getBody( ).java;
+		this.key = key;
+		sensor = fixtureA.sensor || fixtureB.sensor;
+	}
+	
+	/**
+	 * Updates the manifold, keeping the impulses of points which persist
+	 * @return true if the contact was touching before the update
+	 */
+	protected boolean update( )
+	{
+		boolean wasTouching = touching;
+		int oldCount = pointCount;
+		for( int i = 0; i < oldCount; i++ )
+		{
+			oldIds[i] = ids[i];
+			oldNormalImpulses[i] = normalImpulses[i];
+			oldTangentImpulses[i] = tangentImpulses[i];
+		}
+		enabled = true;
+		evaluate( );
+		touching = pointCount > 0;
+		if( sensor )
+		{
+			pointCount = 0;
+			return wasTouching;
+		}
+		for( int i = 0; i < pointCount; i++ )
+		{
+			normalImpulses[i] = 0;
+			tangentImpulses[i] = 0;
+			for( int j = 0; j < oldCount; j++ )
+			{
+				if( oldIds[j] == ids[i] )
+				{
+					normalImpulses[i] = oldNormalImpulses[j];
+					tangentImpulses[i] = oldTangentImpulses[j];
+					break;
+				}
+			}
+		}
+		return wasTouching;
+	}
+	
+	private void evaluate( )
+	{
+		pointCount = 0;
+		if( fixtureA.vertexCount == 0 && fixtureB.vertexCount == 0 )
+			collideCircles( );
+		else if( fixtureB.vertexCount == 0 )
+			collidePolygonAndCircle( );
+		else
+			collidePolygons( );
+	}
+	
+	private void collideCircles( )
+	{
+		final float[] a = fixtureA.geometry, b = fixtureB.geometry;
+		final float dx = bodyB.getWorldPointX( b[0], b[1] ) - bodyA.getWorldPointX( a[0], a[1] );
+		final float dy = bodyB.getWorldPointY( b[0], b[1] ) - bodyA.getWorldPointY( a[0], a[1] );
+		final float radius = a[2] + b[2];
+		if( dx * dx + dy * dy > radius * radius )
+			return;
+		type = CIRCLES;
+		localPointX = a[0];
+		localPointY = a[1];
+		localNormalX = localNormalY = 0;
+		localPoints[0] = b[0];
+		localPoints[1] = b[1];
+		ids[0] = 0;
+		pointCount = 1;
+	}
+	
+	private void collidePolygonAndCircle( )
+	{
+		final float[] vertices = fixtureA.geometry, normals = fixtureA.normals, circle = fixtureB.geometry;
+		final int count = fixtureA.vertexCount;
+		
+		// the circle centre in the frame of the polygon
+		final float wx = bodyB.getWorldPointX( circle[0], circle[1] ) - bodyA.x;
+		final float wy = bodyB.getWorldPointY( circle[0], circle[1] ) - bodyA.y;
+		final float cx = bodyA.cos * wx + bodyA.sin * wy, cy = -bodyA.sin * wx + bodyA.cos * wy;
+		
+		final float radius = fixtureA.radius + circle[2];
+		float separation = -Float.MAX_VALUE;
+		int normalIndex = 0;
+		for( int i = 0; i < count; i++ )
+		{
+			float s = normals[i * 2] * (cx - vertices[i * 2]) + normals[i * 2 + 1] * (cy - vertices[i * 2 + 1]);
+			if( s > radius )
+				return;
+			if( s > separation )
+			{
+				separation = s;
+				normalIndex = i;
+			}
+		}
+		final int next = normalIndex + 1 < count ? normalIndex + 1 : 0;
+		final float v1x = vertices[normalIndex * 2], v1y = vertices[normalIndex * 2 + 1];
+		final float v2x = vertices[next * 2], v2y = vertices[next * 2 + 1];
+		
+		type = FACE_A;
+		localPoints[0] = circle[0];
+		localPoints[1] = circle[1];
+		ids[0] = 0;
+		if( separation < EPSILON )
+		{
+			localNormalX = normals[normalIndex * 2];
+			localNormalY = normals[normalIndex * 2 + 1];
+			localPointX = 0.5f * (v1x + v2x);
+			localPointY = 0.5f * (v1y + v2y);
+			pointCount = 1;
+			return;
+		}
+		final float u1 = (cx - v1x) * (v2x - v1x) + (cy - v1y) * (v2y - v1y);
+		final float u2 = (cx - v2x) * (v1x - v2x) + (cy - v2y) * (v1y - v2y);
+		if( u1 <= 0 || u2 <= 0 )
+		{
+			final float vx = u1 <= 0 ? v1x : v2x, vy = u1 <= 0 ? v1y : v2y;
+			float nx = cx - vx, ny = cy - vy;
+			float distanceSquared = nx * nx + ny * ny;
+			if( distanceSquared > radius * radius )
+				return;
+			float length = (float)Math.sqrt( distanceSquared );
+			if( length > EPSILON )
+			{
+				nx /= length;
+				ny /= length;
+			}
+			localNormalX = nx;
+			localNormalY = ny;
+			localPointX = vx;
+			localPointY = vy;
+		}
+		else
+		{
+			final float faceX = 0.5f * (v1x + v2x), faceY = 0.5f * (v1y + v2y);
+			separation = (cx - faceX) * normals[normalIndex * 2] + (cy - faceY) * normals[normalIndex * 2 + 1];
+			if( separation > radius )
+				return;
+			localNormalX = normals[normalIndex * 2];
+			localNormalY = normals[normalIndex * 2 + 1];
+			localPointX = faceX;
+			localPointY = faceY;
+		}
+		pointCount = 1;
+	}
+	
+	/** the incident edge and the clipped points, x, y and id for each. An id holds the two feature indices and whether the first is a face, small enough to keep in a float **/
+	private final float[] clip0 = new float[6], clip1 = new float[6], clip2 = new float[6];
+	private int maxEdge;
+	
+	private void collidePolygons( )
+	{
+		final float totalRadius = fixtureA.radius + fixtureB.radius;
+		final float separationA = findMaxSeparation( fixtureA, bodyA, fixtureB, bodyB );
+		if( separationA > totalRadius )
+			return;
+		final int edgeA = maxEdge;
+		final float separationB = findMaxSeparation( fixtureB, bodyB, fixtureA, bodyA );
+		if( separationB > totalRadius )
+			return;
+		final int edgeB = maxEdge;
+		
+		final Fixture poly1, poly2;
+		final JavaBody body1, body2;
+		final int edge1;
+		final boolean flip;
+		if( separationB > 0.98f * separationA + 0.001f )
+		{
+			poly1 = fixtureB; body1 = bodyB;
+			poly2 = fixtureA; body2 = bodyA;
+			edge1 = edgeB;
+			type = FACE_B;
+			flip = true;
+		}
+		else
+		{
+			poly1 = fixtureA; body1 = bodyA;
+			poly2 = fixtureB; body2 = bodyB;
+			edge1 = edgeA;
+			type = FACE_A;
+			flip = false;
+		}
+		
+		// the incident edge is the edge of poly2 most anti-parallel to the reference edge
+		final float[] normals1 = poly1.normals;
+		float nx = body1.cos * normals1[edge1 * 2] - body1.sin * normals1[edge1 * 2 + 1];
+		float ny = body1.sin * normals1[edge1 * 2] + body1.cos * normals1[edge1 * 2 + 1];
+		final float n2x = body2.cos * nx + body2.sin * ny, n2y = -body2.sin * nx + body2.cos * ny;
+		final float[] vertices2 = poly2.geometry, normals2 = poly2.normals;
+		final int count2 = poly2.vertexCount;
+		int incident = 0;
+		float minDot = Float.MAX_VALUE;
+		for( int i = 0; i < count2; i++ )
+		{
+			float dot = n2x * normals2[i * 2] + n2y * normals2[i * 2 + 1];
+			if( dot < minDot )
+			{
+				minDot = dot;
+				incident = i;
+			}
+		}
+		final int incident2 = incident + 1 < count2 ? incident + 1 : 0;
+		clip0[0] = body2.getWorldPointX( vertices2[incident * 2], vertices2[incident * 2 + 1] );
+		clip0[1] = body2.getWorldPointY( vertices2[incident * 2], vertices2[incident * 2 + 1] );
+		clip0[2] = edge1 | (incident << 8) | (1 << 16);
+		clip0[3] = body2.getWorldPointX( vertices2[incident2 * 2], vertices2[incident2 * 2 + 1] );
+		clip0[4] = body2.getWorldPointY( vertices2[incident2 * 2], vertices2[incident2 * 2 + 1] );
+		clip0[5] = edge1 | (incident2 << 8) | (1 << 16);
+		
+		// the reference edge
+		final float[] vertices1 = poly1.geometry;
+		final int next1 = edge1 + 1 < poly1.vertexCount ? edge1 + 1 : 0;
+		final float lv1x = vertices1[edge1 * 2], lv1y = vertices1[edge1 * 2 + 1];
+		final float lv2x = vertices1[next1 * 2], lv2y = vertices1[next1 * 2 + 1];
+		float ltx = lv2x - lv1x, lty = lv2y - lv1y;
+		final float length = (float)Math.sqrt( ltx * ltx + lty * lty );
+		if( length > EPSILON )
+		{
+			ltx /= length;
+			lty /= length;
+		}
+		final float tx = body1.cos * ltx - body1.sin * lty, ty = body1.sin * ltx + body1.cos * lty;
+		nx = ty;
+		ny = -tx;
+		final float v11x = body1.getWorldPointX( lv1x, lv1y ), v11y = body1.getWorldPointY( lv1x, lv1y );
+		final float v12x = body1.getWorldPointX( lv2x, lv2y ), v12y = body1.getWorldPointY( lv2x, lv2y );
+		final float frontOffset = nx * v11x + ny * v11y;
+		final float sideOffset1 = -(tx * v11x + ty * v11y) + totalRadius;
+		final float sideOffset2 = tx * v12x + ty * v12y + totalRadius;
+		
+		if( clipSegmentToLine( clip1, clip0, -tx, -ty, sideOffset1 ) < 2 )
+			return;
+		if( clipSegmentToLine( clip2, clip1, tx, ty, sideOffset2 ) < 2 )
+			return;
+		
+		localNormalX = lty;
+		localNormalY = -ltx;
+		localPointX = 0.5f * (lv1x + lv2x);
+		localPointY = 0.5f * (lv1y + lv2y);
+		for( int i = 0; i < 2; i++ )
+		{
+			final float px = clip2[i * 3], py = clip2[i * 3 + 1];
+			if( nx * px + ny * py - frontOffset > totalRadius )
+				continue;
+			final float dx = px - body2.x, dy = py - body2.y;
+			localPoints[pointCount * 2] = body2.cos * dx + body2.sin * dy;
+			localPoints[pointCount * 2 + 1] = -body2.sin * dx + body2.cos * dy;
+			int id = (int)clip2[i * 3 + 2];
+			if( flip )
+				id = ((id >> 8) & 0xFF) | ((id & 0xFF) << 8) | ((id >> 1) & 0x10000) | ((id << 1) & 0x20000);
+			ids[pointCount] = id;
+			pointCount++;
+		}
+	}
+	
+	/**
+	 * Finds the edge of poly1 with the largest separation from poly2, by testing every edge
+	 * @return the separation, the edge is left in maxEdge
+	 */
+	private float findMaxSeparation( Fixture poly1, JavaBody body1, Fixture poly2, JavaBody body2 )
+	{
+		final float[] vertices1 = poly1.geometry, normals1 = poly1.normals, vertices2 = poly2.geometry;
+		final int count1 = poly1.vertexCount, count2 = poly2.vertexCount;
+		float maxSeparation = -Float.MAX_VALUE;
+		maxEdge = 0;
+		for( int i = 0; i < count1; i++ )
+		{
+			// the normal and vertex of poly1 in the frame of poly2
+			final float wnx = body1.cos * normals1[i * 2] - body1.sin * normals1[i * 2 + 1];
+			final float wny = body1.sin * normals1[i * 2] + body1.cos * normals1[i * 2 + 1];
+			final float nx = body2.cos * wnx + body2.sin * wny, ny = -body2.sin * wnx + body2.cos * wny;
+			final float wvx = body1.getWorldPointX( vertices1[i * 2], vertices1[i * 2 + 1] ) - body2.x;
+			final float wvy = body1.getWorldPointY( vertices1[i * 2], vertices1[i * 2 + 1] ) - body2.y;
+			final float vx = body2.cos * wvx + body2.sin * wvy, vy = -body2.sin * wvx + body2.cos * wvy;
+			float separation = Float.MAX_VALUE;
+			for( int j = 0; j < count2; j++ )
+			{
+				float s = nx * (vertices2[j * 2] - vx) + ny * (vertices2[j * 2 + 1] - vy);
+				if( s < separation )
+					separation = s;
+			}
+			if( separation > maxSeparation )
+			{
+				maxSeparation = separation;
+				maxEdge = i;
+			}
+		}
+		return maxSeparation;
+	}
+	
+	private static int clipSegmentToLine( float[] out, float[] in, float nx, float ny, float offset )
+	{
+		int count = 0;
+		final float distance0 = nx * in[0] + ny * in[1] - offset;
+		final float distance1 = nx * in[3] + ny * in[4] - offset;
+		if( distance0 <= 0 )
+		{
+			System.arraycopy( in, 0, out, count * 3, 3 );
+			count++;
+		}
+		if( distance1 <= 0 )
+		{
+			System.arraycopy( in, 3, out, count * 3, 3 );
+			count++;
+		}
+		if( distance0 * distance1 < 0 )
+		{
+			final float interp = distance0 / (distance0 - distance1);
+			out[count * 3] = in[0] + interp * (in[3] - in[0]);
+			out[count * 3 + 1] = in[1] + interp * (in[4] - in[1]);
+			out[count * 3 + 2] = distance0 > 0 ? in[2] : in[5];
+			count++;
+		}
+		return count;
+	}
+	
+	/**
+	 * Computes the world manifold, as b2WorldManifold::Initialize
+	 * @param manifold receives the normal and the points, x and y for each
+	 * @return the number of points
+	 */
+	protected int getWorldManifold( float[] manifold )
+	{
+		if( pointCount == 0 )
+			return 0;
+		final float radiusA = fixtureA.radius, radiusB = fixtureB.radius;
+		if( type == CIRCLES )
+		{
+			final float ax = bodyA.getWorldPointX( localPointX, localPointY ), ay = bodyA.getWorldPointY( localPointX, localPointY );
+			final float bx = bodyB.getWorldPointX( localPoints[0], localPoints[1] ), by = bodyB.getWorldPointY( localPoints[0], localPoints[1] );
+			float nx = 1, ny = 0;
+			final float distanceSquared = (bx - ax) * (bx - ax) + (by - ay) * (by - ay);
+			if( distanceSquared > EPSILON * EPSILON )
+			{
+				final float length = (float)Math.sqrt( distanceSquared );
+				nx = (bx - ax) / length;
+				ny = (by - ay) / length;
+			}
+			manifold[0] = nx;
+			manifold[1] = ny;
+			manifold[2] = 0.5f * (ax + radiusA * nx + bx - radiusB * nx);
+			manifold[3] = 0.5f * (ay + radiusA * ny + by - radiusB * ny);
+			return 1;
+		}
+		final JavaBody reference = type == FACE_A ? bodyA : bodyB, incident = type == FACE_A ? bodyB : bodyA;
+		final float referenceRadius = type == FACE_A ? radiusA : radiusB, incidentRadius = type == FACE_A ? radiusB : radiusA;
+		final float nx = reference.cos * localNormalX - reference.sin * localNormalY;
+		final float ny = reference.sin * localNormalX + reference.cos * localNormalY;
+		final float planeX = reference.getWorldPointX( localPointX, localPointY ), planeY = reference.getWorldPointY( localPointX, localPointY );
+		for( int i = 0; i < pointCount; i++ )
+		{
+			final float clipX = incident.getWorldPointX( localPoints[i * 2], localPoints[i * 2 + 1] );
+			final float clipY = incident.getWorldPointY( localPoints[i * 2], localPoints[i * 2 + 1] );
+			final float depth = referenceRadius - ((clipX - planeX) * nx + (clipY - planeY) * ny);
+			manifold[2 + i * 2] = 0.5f * (clipX + depth * nx + clipX - incidentRadius * nx);
+			manifold[3 + i * 2] = 0.5f * (clipY + depth * ny + clipY - incidentRadius * ny);
+		}
+		manifold[0] = type == FACE_A ? nx : -nx;
+		manifold[1] = type == FACE_A ? ny : -ny;
+		return pointCount;
+	}
+	
+	protected static final float EPSILON = 1.192092896e-7f;
+}
@@ -0,0 +1,838 @@
+package com.badlogic.gdx.physics.box2d;
+
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.JointDef.JointType;
+import com.badlogic.gdx.physics.box2d.joints.DistanceJointDef;
+import com.badlogic.gdx.physics.box2d.joints.PrismaticJointDef;
+import com.badlogic.gdx.physics.box2d.joints.RevoluteJointDef;
+import com.badlogic.gdx.physics.box2d.joints.WeldJointDef;
+
+/**
+ * A joint simulated by the Java backend, see JavaWorld. The distance, revolute, prismatic and weld
+ * joints follow their Box2D 2.1 solvers, the other types are not supported. The joint classes read and
+ * write their values through Joint.getJavaValue and setJavaValue.
+ */
+abstract class JavaJoint 
+{
+	protected static final float ANGULAR_SLOP = 2.0f / 180.0f * (float)Math.PI;
+	protected static final float MAX_ANGULAR_CORRECTION = 8.0f / 180.0f * (float)Math.PI;
+	
+	/** the states of a limit **/
+	protected static final int INACTIVE_LIMIT = 0;
+	protected static final int AT_LOWER_LIMIT = 1;
+	protected static final int AT_UPPER_LIMIT = 2;
+	protected static final int EQUAL_LIMITS = 3;
+	
+	protected final JointType type;
+	protected final JavaBody bodyA, bodyB;
+	protected final boolean collideConnected;
+	protected final float localAnchorAX, localAnchorAY, localAnchorBX, localAnchorBY;
+	protected boolean islandFlag;
+	
+	/** the index of this joint in JavaWorld **/
+	protected int index;
+	
+	/** the anchors relative to the centres of mass, in world coordinates, as of the last computeAnchors **/
+	protected float rAx, rAy, rBx, rBy;
+	
+	/** the result of solve22 and solve33 **/
+	protected final float[] solution = new float[3];
+	
+	protected JavaJoint( JointDef def, Vector2 localAnchorA, Vector2 localAnchorB )
+	{
+		type = def.type;
+		bodyA = def.bodyA.java;
+		bodyB = def.bodyB.java;
+		collideConnected = def.collideConnected;
+		localAnchorAX = localAnchorA.x;
+		localAnchorAY = localAnchorA.y;
+		localAnchorBX = localAnchorB.x;
+		localAnchorBY = localAnchorB.y;
+	}
+	
+	/**
+	 * @return the joint for a definition, or null if the type is not supported
+	 */
+	protected static JavaJoint create( JointDef def )
+	{
+		if( def.type == JointType.DistanceJoint )
+			return new Distance( (DistanceJointDef)def );
+		if( def.type == JointType.RevoluteJoint )
+			return new Revolute( (RevoluteJointDef)def );
+		if( def.type == JointType.PrismaticJoint )
+			return new Prismatic( (PrismaticJointDef)def );
+		if( def.type == JointType.WeldJoint )
+			return new Weld( (WeldJointDef)def );
+		return null;
+	}
+	
+	protected void computeAnchors( )
+	{
+		float x = localAnchorAX - bodyA.localCenterX, y = localAnchorAY - bodyA.localCenterY;
+		rAx = bodyA.cos * x - bodyA.sin * y;
+		rAy = bodyA.sin * x + bodyA.cos * y;
+		x = localAnchorBX - bodyB.localCenterX;
+		y = localAnchorBY - bodyB.localCenterY;
+		rBx = bodyB.cos * x - bodyB.sin * y;
+		rBy = bodyB.sin * x + bodyB.cos * y;
+	}
+	
+	/**
+	 * Applies an impulse at the anchors, and an angular impulse
+	 */
+	protected void applyImpulse( float px, float py, float angular )
+	{
+		bodyA.vx -= bodyA.invMass * px;
+		bodyA.vy -= bodyA.invMass * py;
+		bodyA.w -= bodyA.invI * (rAx * py - rAy * px + angular);
+		bodyB.vx += bodyB.invMass * px;
+		bodyB.vy += bodyB.invMass * py;
+		bodyB.w += bodyB.invI * (rBx * py - rBy * px + angular);
+	}
+	
+	/**
+	 * Moves the bodies by a position impulse at the anchors, and an angular impulse
+	 */
+	protected void applyPositionImpulse( float px, float py, float angular )
+	{
+		bodyA.cx -= bodyA.invMass * px;
+		bodyA.cy -= bodyA.invMass * py;
+		bodyA.angle -= bodyA.invI * (rAx * py - rAy * px + angular);
+		bodyA.synchronizeTransform( );
+		bodyB.cx += bodyB.invMass * px;
+		bodyB.cy += bodyB.invMass * py;
+		bodyB.angle += bodyB.invI * (rBx * py - rBy * px + angular);
+		bodyB.synchronizeTransform( );
+	}
+	
+	/**
+	 * Solves the symmetric matrix with columns (k11, k12, k13), (k12, k22, k23) and (k13, k23, k33) into solution
+	 */
+	protected void solve33( float k11, float k12, float k13, float k22, float k23, float k33, float bx, float by, float bz )
+	{
+		final float c23x = k22 * k33 - k23 * k23, c23y = k23 * k13 - k12 * k33, c23z = k12 * k23 - k22 * k13;
+		float determinant = k11 * c23x + k12 * c23y + k13 * c23z;
+		if( determinant != 0 )
+			determinant = 1 / determinant;
+		solution[0] = determinant * (bx * c23x + by * c23y + bz * c23z);
+		solution[1] = determinant * (k11 * (by * k33 - bz * k23) + k12 * (bz * k13 - bx * k33) + k13 * (bx * k23 - by * k13));
+		solution[2] = determinant * (k11 * (k22 * bz - k23 * by) + k12 * (k23 * bx - k12 * bz) + k13 * (k12 * by - k22 * bx));
+	}
+	
+	/**
+	 * Solves the symmetric matrix with columns (k11, k12) and (k12, k22) into solution
+	 */
+	protected void solve22( float k11, float k12, float k22, float bx, float by )
+	{
+		float determinant = k11 * k22 - k12 * k12;
+		if( determinant != 0 )
+			determinant = 1 / determinant;
+		solution[0] = determinant * (k22 * bx - k12 * by);
+		solution[1] = determinant * (k11 * by - k12 * bx);
+	}
+	
+	protected static float clamp( float value, float low, float high )
+	{
+		return value < low ? low : (value > high ? high : value);
+	}
+	
+	protected abstract void initVelocityConstraints( float timeStep, float timeStepRatio );
+	
+	protected abstract void solveVelocityConstraints( float timeStep );
+	
+	/**
+	 * @return true if the joint error is small enough
+	 */
+	protected abstract boolean solvePositionConstraints( );
+	
+	/**
+	 * @param out receives the reaction force on body B at the anchor
+	 */
+	protected abstract void getReactionForce( float invTimeStep, float[] out );
+	
+	protected float getReactionTorque( float invTimeStep )
+	{
+		return 0;
+	}
+	
+	/**
+	 * @param value one of the values in Joint, booleans are 0 or 1
+	 */
+	protected float get( int value )
+	{
+		return 0;
+	}
+	
+	protected void set( int value, float v )
+	{
+	}
+	
+	/**
+	 * A massless rod, or a spring when the frequency is set, as b2DistanceJoint
+	 */
+	static class Distance extends JavaJoint
+	{
+		private float length, frequencyHz, dampingRatio;
+		private float ux, uy, mass, gamma, bias, impulse;
+		
+		protected Distance( DistanceJointDef def )
+		{
+			super( def, def.localAnchorA, def.localAnchorB );
+			length = def.length;
+			frequencyHz = def.frequencyHz;
+			dampingRatio = def.dampingRatio;
+		}
+		
+		protected void initVelocityConstraints( float timeStep, float timeStepRatio )
+		{
+			computeAnchors( );
+			ux = bodyB.cx + rBx - bodyA.cx - rAx;
+			uy = bodyB.cy + rBy - bodyA.cy - rAy;
+			final float currentLength = (float)Math.sqrt( ux * ux + uy * uy );
+			if( currentLength > JavaWorld.LINEAR_SLOP )
+			{
+				ux /= currentLength;
+				uy /= currentLength;
+			}
+			else
+				ux = uy = 0;
+			
+			final float crAu = rAx * uy - rAy * ux, crBu = rBx * uy - rBy * ux;
+			final float invMass = bodyA.invMass + bodyA.invI * crAu * crAu + bodyB.invMass + bodyB.invI * crBu * crBu;
+			mass = invMass != 0 ? 1 / invMass : 0;
+			gamma = 0;
+			bias = 0;
+			if( frequencyHz > 0 )
+			{
+				final float C = currentLength - length;
+				final float omega = 2 * (float)Math.PI * frequencyHz;
+				final float d = 2 * mass * dampingRatio * omega;
+				final float k = mass * omega * omega;
+				gamma = timeStep * (d + timeStep * k);
+				gamma = gamma != 0 ? 1 / gamma : 0;
+				bias = C * timeStep * k * gamma;
+				mass = invMass + gamma;
+				mass = mass != 0 ? 1 / mass : 0;
+			}
+			
+			impulse *= timeStepRatio;
+			applyImpulse( impulse * ux, impulse * uy, 0 );
+		}
+		
+		protected void solveVelocityConstraints( float timeStep )
+		{
+			final float dvx = bodyB.vx - bodyB.w * rBy - bodyA.vx + bodyA.w * rAy;
+			final float dvy = bodyB.vy + bodyB.w * rBx - bodyA.vy - bodyA.w * rAx;
+			final float lambda = -mass * (ux * dvx + uy * dvy + bias + gamma * impulse);
+			impulse += lambda;
+			applyImpulse( lambda * ux, lambda * uy, 0 );
+		}
+		
+		protected boolean solvePositionConstraints( )
+		{
+			if( frequencyHz > 0 )
+				return true;
+			computeAnchors( );
+			float dx = bodyB.cx + rBx - bodyA.cx - rAx, dy = bodyB.cy + rBy - bodyA.cy - rAy;
+			final float currentLength = (float)Math.sqrt( dx * dx + dy * dy );
+			if( currentLength > JavaContact.EPSILON )
+			{
+				dx /= currentLength;
+				dy /= currentLength;
+			}
+			final float C = clamp( currentLength - length, -JavaWorld.MAX_LINEAR_CORRECTION, JavaWorld.MAX_LINEAR_CORRECTION );
+			final float lambda = -mass * C;
+			ux = dx;
+			uy = dy;
+			applyPositionImpulse( lambda * ux, lambda * uy, 0 );
+			return Math.abs( C ) < JavaWorld.LINEAR_SLOP;
+		}
+		
+		protected void getReactionForce( float invTimeStep, float[] out )
+		{
+			out[0] = invTimeStep * impulse * ux;
+			out[1] = invTimeStep * impulse * uy;
+		}
+		
+		protected float get( int value )
+		{
+			if( value == Joint.LENGTH )
+				return length;
+			if( value == Joint.FREQUENCY )
+				return frequencyHz;
+			if( value == Joint.DAMPING_RATIO )
+				return dampingRatio;
+			return 0;
+		}
+		
+		protected void set( int value, float v )
+		{
+			if( value == Joint.LENGTH )
+				length = v;
+			else if( value == Joint.FREQUENCY )
+				frequencyHz = v;
+			else if( value == Joint.DAMPING_RATIO )
+				dampingRatio = v;
+		}
+	}
+	
+	/**
+	 * A shared point with an optional angle limit and motor, as b2RevoluteJoint
+	 */
+	static class Revolute extends JavaJoint
+	{
+		private final float referenceAngle;
+		private boolean enableLimit, enableMotor;
+		private float lowerAngle, upperAngle, motorSpeed, maxMotorTorque;
+		private float m11, m12, m13, m22, m23, m33, motorMass;
+		private float impulseX, impulseY, impulseZ, motorImpulse;
+		private int limitState;
+		
+		protected Revolute( RevoluteJointDef def )
+		{
+			super( def, def.localAnchorA, def.localAnchorB );
+			referenceAngle = def.referenceAngle;
+			enableLimit = def.enableLimit;
+			lowerAngle = def.lowerAngle;
+			upperAngle = def.upperAngle;
+			enableMotor = def.enableMotor;
+			motorSpeed = def.motorSpeed;
+			maxMotorTorque = def.maxMotorTorque;
+		}
+		
+		protected void initVelocityConstraints( float timeStep, float timeStepRatio )
+		{
+			computeAnchors( );
+			final float mA = bodyA.invMass, mB = bodyB.invMass, iA = bodyA.invI, iB = bodyB.invI;
+			m11 = mA + mB + rAy * rAy * iA + rBy * rBy * iB;
+			m12 = -rAy * rAx * iA - rBy * rBx * iB;
+			m13 = -rAy * iA - rBy * iB;
+			m22 = mA + mB + rAx * rAx * iA + rBx * rBx * iB;
+			m23 = rAx * iA + rBx * iB;
+			m33 = iA + iB;
+			motorMass = m33 > 0 ? 1 / m33 : 0;
+			
+			if( !enableMotor )
+				motorImpulse = 0;
+			if( enableLimit )
+			{
+				final float jointAngle = bodyB.angle - bodyA.angle - referenceAngle;
+				if( Math.abs( upperAngle - lowerAngle ) < 2 * ANGULAR_SLOP )
+					limitState = EQUAL_LIMITS;
+				else if( jointAngle <= lowerAngle )
+				{
+					if( limitState != AT_LOWER_LIMIT )
+						impulseZ = 0;
+					limitState = AT_LOWER_LIMIT;
+				}
+				else if( jointAngle >= upperAngle )
+				{
+					if( limitState != AT_UPPER_LIMIT )
+						impulseZ = 0;
+					limitState = AT_UPPER_LIMIT;
+				}
+				else
+				{
+					limitState = INACTIVE_LIMIT;
+					impulseZ = 0;
+				}
+			}
+			else
+				limitState = INACTIVE_LIMIT;
+			
+			impulseX *= timeStepRatio;
+			impulseY *= timeStepRatio;
+			impulseZ *= timeStepRatio;
+			motorImpulse *= timeStepRatio;
+			applyImpulse( impulseX, impulseY, motorImpulse + impulseZ );
+		}
+		
+		protected void solveVelocityConstraints( float timeStep )
+		{
+			if( enableMotor && limitState != EQUAL_LIMITS )
+			{
+				final float Cdot = bodyB.w - bodyA.w - motorSpeed;
+				final float oldImpulse = motorImpulse, maxImpulse = timeStep * maxMotorTorque;
+				motorImpulse = clamp( oldImpulse - motorMass * Cdot, -maxImpulse, maxImpulse );
+				final float lambda = motorImpulse - oldImpulse;
+				bodyA.w -= bodyA.invI * lambda;
+				bodyB.w += bodyB.invI * lambda;
+			}
+			
+			final float Cdot1x = bodyB.vx - bodyB.w * rBy - bodyA.vx + bodyA.w * rAy;
+			final float Cdot1y = bodyB.vy + bodyB.w * rBx - bodyA.vy - bodyA.w * rAx;
+			if( enableLimit && limitState != INACTIVE_LIMIT )
+			{
+				final float Cdot2 = bodyB.w - bodyA.w;
+				solve33( m11, m12, m13, m22, m23, m33, -Cdot1x, -Cdot1y, -Cdot2 );
+				float lambdaX = solution[0], lambdaY = solution[1], lambdaZ = solution[2];
+				if( limitState == AT_LOWER_LIMIT && impulseZ + lambdaZ < 0 || limitState == AT_UPPER_LIMIT && impulseZ + lambdaZ > 0 )
+				{
+					solve22( m11, m12, m22, -Cdot1x, -Cdot1y );
+					lambdaX = solution[0];
+					lambdaY = solution[1];
+					lambdaZ = -impulseZ;
+					impulseX += lambdaX;
+					impulseY += lambdaY;
+					impulseZ = 0;
+				}
+				else
+				{
+					impulseX += lambdaX;
+					impulseY += lambdaY;
+					impulseZ += lambdaZ;
+				}
+				applyImpulse( lambdaX, lambdaY, lambdaZ );
+			}
+			else
+			{
+				solve22( m11, m12, m22, -Cdot1x, -Cdot1y );
+				impulseX += solution[0];
+				impulseY += solution[1];
+				applyImpulse( solution[0], solution[1], 0 );
+			}
+		}
+		
+		protected boolean solvePositionConstraints( )
+		{
+			float angularError = 0;
+			if( enableLimit && limitState != INACTIVE_LIMIT )
+			{
+				final float angle = bodyB.angle - bodyA.angle - referenceAngle;
+				float C;
+				if( limitState == EQUAL_LIMITS )
+				{
+					C = clamp( angle - lowerAngle, -MAX_ANGULAR_CORRECTION, MAX_ANGULAR_CORRECTION );
+					angularError = Math.abs( C );
+				}
+				else if( limitState == AT_LOWER_LIMIT )
+				{
+					C = angle - lowerAngle;
+					angularError = -C;
+					C = clamp( C + ANGULAR_SLOP, -MAX_ANGULAR_CORRECTION, 0 );
+				}
+				else
+				{
+					C = angle - upperAngle;
+					angularError = C;
+					C = clamp( C - ANGULAR_SLOP, 0, MAX_ANGULAR_CORRECTION );
+				}
+				final float limitImpulse = -motorMass * C;
+				bodyA.angle -= bodyA.invI * limitImpulse;
+				bodyA.synchronizeTransform( );
+				bodyB.angle += bodyB.invI * limitImpulse;
+				bodyB.synchronizeTransform( );
+			}
+			
+			computeAnchors( );
+			float Cx = bodyB.cx + rBx - bodyA.cx - rAx, Cy = bodyB.cy + rBy - bodyA.cy - rAy;
+			final float positionError = (float)Math.sqrt( Cx * Cx + Cy * Cy );
+			final float mA = bodyA.invMass, mB = bodyB.invMass, iA = bodyA.invI, iB = bodyB.invI;
+			final float allowedStretch = 10 * JavaWorld.LINEAR_SLOP;
+			if( positionError * positionError > allowedStretch * allowedStretch )
+			{
+				// a large error is first reduced without rotation
+				final float k = mA + mB;
+				final float m = k > 0 ? 1 / k : 0;
+				bodyA.cx += 0.5f * mA * m * Cx;
+				bodyA.cy += 0.5f * mA * m * Cy;
+				bodyB.cx -= 0.5f * mB * m * Cx;
+				bodyB.cy -= 0.5f * mB * m * Cy;
+				Cx = bodyB.cx + rBx - bodyA.cx - rAx;
+				Cy = bodyB.cy + rBy - bodyA.cy - rAy;
+			}
+			final float k11 = mA + mB + iA * rAy * rAy + iB * rBy * rBy;
+			final float k12 = -iA * rAx * rAy - iB * rBx * rBy;
+			final float k22 = mA + mB + iA * rAx * rAx + iB * rBx * rBx;
+			solve22( k11, k12, k22, -Cx, -Cy );
+			applyPositionImpulse( solution[0], solution[1], 0 );
+			return positionError <= JavaWorld.LINEAR_SLOP && angularError <= ANGULAR_SLOP;
+		}
+		
+		protected void getReactionForce( float invTimeStep, float[] out )
+		{
+			out[0] = invTimeStep * impulseX;
+			out[1] = invTimeStep * impulseY;
+		}
+		
+		protected float getReactionTorque( float invTimeStep )
+		{
+			return invTimeStep * impulseZ;
+		}
+		
+		protected float get( int value )
+		{
+			switch( value )
+			{
+				case Joint.JOINT_POSITION: return bodyB.angle - bodyA.angle - referenceAngle;
+				case Joint.JOINT_SPEED: return bodyB.w - bodyA.w;
+				case Joint.LIMIT_ENABLED: return enableLimit ? 1 : 0;
+				case Joint.LOWER_LIMIT: return lowerAngle;
+				case Joint.UPPER_LIMIT: return upperAngle;
+				case Joint.MOTOR_ENABLED: return enableMotor ? 1 : 0;
+				case Joint.MOTOR_SPEED: return motorSpeed;
+				case Joint.MAX_MOTOR: return maxMotorTorque;
+				case Joint.MOTOR_IMPULSE: return motorImpulse;
+			}
+			return 0;
+		}
+		
+		protected void set( int value, float v )
+		{
+			switch( value )
+			{
+				case Joint.LIMIT_ENABLED: enableLimit = v != 0; break;
+				case Joint.LOWER_LIMIT: lowerAngle = v; break;
+				case Joint.UPPER_LIMIT: upperAngle = v; break;
+				case Joint.MOTOR_ENABLED: enableMotor = v != 0; break;
+				case Joint.MOTOR_SPEED: motorSpeed = v; break;
+				case Joint.MAX_MOTOR: maxMotorTorque = v; break;
+			}
+		}
+	}
+	
+	/**
+	 * Translation along an axis fixed in body A, with an optional limit and motor, as b2PrismaticJoint
+	 */
+	static class Prismatic extends JavaJoint
+	{
+		private final float referenceAngle, localAxisX, localAxisY;
+		private boolean enableLimit, enableMotor;
+		private float lowerTranslation, upperTranslation, motorSpeed, maxMotorForce;
+		private float axisX, axisY, perpX, perpY, s1, s2, a1, a2;
+		private float k11, k12, k13, k22, k23, k33, motorMass;
+		private float impulseX, impulseY, impulseZ, motorImpulse;
+		private int limitState;
+		
+		protected Prismatic( PrismaticJointDef def )
+		{
+			super( def, def.localAnchorA, def.localAnchorB );
+			referenceAngle = def.referenceAngle;
+			localAxisX = def.localAxis1.x;
+			localAxisY = def.localAxis1.y;
+			enableLimit = def.enableLimit;
+			lowerTranslation = def.lowerTranslation;
+			upperTranslation = def.upperTranslation;
+			enableMotor = def.enableMotor;
+			maxMotorForce = def.maxMotorForce;
+			motorSpeed = def.motorSpeed;
+		}
+		
+		/**
+		 * Computes the anchors, the axis and perpendicular in world coordinates and their arms
+		 * @return the translation along the axis
+		 */
+		private float computeAxes( )
+		{
+			computeAnchors( );
+			final float dx = bodyB.cx + rBx - bodyA.cx - rAx, dy = bodyB.cy + rBy - bodyA.cy - rAy;
+			axisX = bodyA.cos * localAxisX - bodyA.sin * localAxisY;
+			axisY = bodyA.sin * localAxisX + bodyA.cos * localAxisY;
+			perpX = -axisY;
+			perpY = axisX;
+			a1 = (dx + rAx) * axisY - (dy + rAy) * axisX;
+			a2 = rBx * axisY - rBy * axisX;
+			s1 = (dx + rAx) * perpY - (dy + rAy) * perpX;
+			s2 = rBx * perpY - rBy * perpX;
+			return axisX * dx + axisY * dy;
+		}
+		
+		private void computeK( )
+		{
+			final float m1 = bodyA.invMass, m2 = bodyB.invMass, i1 = bodyA.invI, i2 = bodyB.invI;
+			k11 = m1 + m2 + i1 * s1 * s1 + i2 * s2 * s2;
+			k12 = i1 * s1 + i2 * s2;
+			k13 = i1 * s1 * a1 + i2 * s2 * a2;
+			k22 = i1 + i2;
+			k23 = i1 * a1 + i2 * a2;
+			k33 = m1 + m2 + i1 * a1 * a1 + i2 * a2 * a2;
+		}
+		
+		/**
+		 * Applies an impulse along the perpendicular, an angular impulse, and an impulse along the axis
+		 */
+		private void apply( float perpImpulse, float angularImpulse, float axisImpulse, boolean position )
+		{
+			final float px = perpImpulse * perpX + axisImpulse * axisX, py = perpImpulse * perpY + axisImpulse * axisY;
+			final float l1 = perpImpulse * s1 + angularImpulse + axisImpulse * a1;
+			final float l2 = perpImpulse * s2 + angularImpulse + axisImpulse * a2;
+			if( position )
+			{
+				bodyA.cx -= bodyA.invMass * px;
+				bodyA.cy -= bodyA.invMass * py;
+				bodyA.angle -= bodyA.invI * l1;
+				bodyA.synchronizeTransform( );
+				bodyB.cx += bodyB.invMass * px;
+				bodyB.cy += bodyB.invMass * py;
+				bodyB.angle += bodyB.invI * l2;
+				bodyB.synchronizeTransform( );
+				return;
+			}
+			bodyA.vx -= bodyA.invMass * px;
+			bodyA.vy -= bodyA.invMass * py;
+			bodyA.w -= bodyA.invI * l1;
+			bodyB.vx += bodyB.invMass * px;
+			bodyB.vy += bodyB.invMass * py;
+			bodyB.w += bodyB.invI * l2;
+		}
+		
+		protected void initVelocityConstraints( float timeStep, float timeStepRatio )
+		{
+			final float translation = computeAxes( );
+			final float mass = bodyA.invMass + bodyB.invMass + bodyA.invI * a1 * a1 + bodyB.invI * a2 * a2;
+			motorMass = mass > JavaContact.EPSILON ? 1 / mass : mass;
+			computeK( );
+			
+			if( enableLimit )
+			{
+				if( Math.abs( upperTranslation - lowerTranslation ) < 2 * JavaWorld.LINEAR_SLOP )
+					limitState = EQUAL_LIMITS;
+				else if( translation <= lowerTranslation )
+				{
+					if( limitState != AT_LOWER_LIMIT )
+						impulseZ = 0;
+					limitState = AT_LOWER_LIMIT;
+				}
+				else if( translation >= upperTranslation )
+				{
+					if( limitState != AT_UPPER_LIMIT )
+						impulseZ = 0;
+					limitState = AT_UPPER_LIMIT;
+				}
+				else
+				{
+					limitState = INACTIVE_LIMIT;
+					impulseZ = 0;
+				}
+			}
+			else
+			{
+				limitState = INACTIVE_LIMIT;
+				impulseZ = 0;
+			}
+			if( !enableMotor )
+				motorImpulse = 0;
+			
+			impulseX *= timeStepRatio;
+			impulseY *= timeStepRatio;
+			impulseZ *= timeStepRatio;
+			motorImpulse *= timeStepRatio;
+			apply( impulseX, impulseY, motorImpulse + impulseZ, false );
+		}
+		
+		private float axisSpeed( )
+		{
+			return axisX * (bodyB.vx - bodyA.vx) + axisY * (bodyB.vy - bodyA.vy) + a2 * bodyB.w - a1 * bodyA.w;
+		}
+		
+		protected void solveVelocityConstraints( float timeStep )
+		{
+			if( enableMotor && limitState != EQUAL_LIMITS )
+			{
+				final float oldImpulse = motorImpulse, maxImpulse = timeStep * maxMotorForce;
+				motorImpulse = clamp( oldImpulse + motorMass * (motorSpeed - axisSpeed( )), -maxImpulse, maxImpulse );
+				apply( 0, 0, motorImpulse - oldImpulse, false );
+			}
+			
+			final float Cdot1x = perpX * (bodyB.vx - bodyA.vx) + perpY * (bodyB.vy - bodyA.vy) + s2 * bodyB.w - s1 * bodyA.w;
+			final float Cdot1y = bodyB.w - bodyA.w;
+			if( enableLimit && limitState != INACTIVE_LIMIT )
+			{
+				final float f1x = impulseX, f1y = impulseY, f1z = impulseZ;
+				solve33( k11, k12, k13, k22, k23, k33, -Cdot1x, -Cdot1y, -axisSpeed( ) );
+				impulseX += solution[0];
+				impulseY += solution[1];
+				impulseZ += solution[2];
+				if( limitState == AT_LOWER_LIMIT )
+					impulseZ = Math.max( impulseZ, 0 );
+				else if( limitState == AT_UPPER_LIMIT )
+					impulseZ = Math.min( impulseZ, 0 );
+				
+				// the first two impulses are solved again, given the clamped limit impulse
+				solve22( k11, k12, k22, -Cdot1x - (impulseZ - f1z) * k13, -Cdot1y - (impulseZ - f1z) * k23 );
+				impulseX = solution[0] + f1x;
+				impulseY = solution[1] + f1y;
+				apply( impulseX - f1x, impulseY - f1y, impulseZ - f1z, false );
+			}
+			else
+			{
+				solve22( k11, k12, k22, -Cdot1x, -Cdot1y );
+				impulseX += solution[0];
+				impulseY += solution[1];
+				apply( solution[0], solution[1], 0, false );
+			}
+		}
+		
+		protected boolean solvePositionConstraints( )
+		{
+			final float translation = computeAxes( );
+			float linearError = 0, C2 = 0;
+			boolean active = false;
+			if( enableLimit )
+			{
+				if( Math.abs( upperTranslation - lowerTranslation ) < 2 * JavaWorld.LINEAR_SLOP )
+				{
+					C2 = clamp( translation, -JavaWorld.MAX_LINEAR_CORRECTION, JavaWorld.MAX_LINEAR_CORRECTION );
+					linearError = Math.abs( translation );
+					active = true;
+				}
+				else if( translation <= lowerTranslation )
+				{
+					C2 = clamp( translation - lowerTranslation + JavaWorld.LINEAR_SLOP, -JavaWorld.MAX_LINEAR_CORRECTION, 0 );
+					linearError = lowerTranslation - translation;
+					active = true;
+				}
+				else if( translation >= upperTranslation )
+				{
+					C2 = clamp( translation - upperTranslation - JavaWorld.LINEAR_SLOP, 0, JavaWorld.MAX_LINEAR_CORRECTION );
+					linearError = translation - upperTranslation;
+					active = true;
+				}
+			}
+			
+			final float dx = bodyB.cx + rBx - bodyA.cx - rAx, dy = bodyB.cy + rBy - bodyA.cy - rAy;
+			final float C1x = perpX * dx + perpY * dy, C1y = bodyB.angle - bodyA.angle - referenceAngle;
+			linearError = Math.max( linearError, Math.abs( C1x ) );
+			final float angularError = Math.abs( C1y );
+			
+			computeK( );
+			if( active )
+			{
+				solve33( k11, k12, k13, k22, k23, k33, -C1x, -C1y, -C2 );
+				apply( solution[0], solution[1], solution[2], true );
+			}
+			else
+			{
+				solve22( k11, k12, k22, -C1x, -C1y );
+				apply( solution[0], solution[1], 0, true );
+			}
+			return linearError <= JavaWorld.LINEAR_SLOP && angularError <= ANGULAR_SLOP;
+		}
+		
+		protected void getReactionForce( float invTimeStep, float[] out )
+		{
+			out[0] = invTimeStep * (impulseX * perpX + (motorImpulse + impulseZ) * axisX);
+			out[1] = invTimeStep * (impulseX * perpY + (motorImpulse + impulseZ) * axisY);
+		}
+		
+		protected float getReactionTorque( float invTimeStep )
+		{
+			return invTimeStep * impulseY;
+		}
+		
+		protected float get( int value )
+		{
+			switch( value )
+			{
+				case Joint.JOINT_POSITION:
+				{
+					final float ax = bodyA.cos * localAxisX - bodyA.sin * localAxisY, ay = bodyA.sin * localAxisX + bodyA.cos * localAxisY;
+					final float dx = bodyB.getWorldPointX( localAnchorBX, localAnchorBY ) - bodyA.getWorldPointX( localAnchorAX, localAnchorAY );
+					final float dy = bodyB.getWorldPointY( localAnchorBX, localAnchorBY ) - bodyA.getWorldPointY( localAnchorAX, localAnchorAY );
+					return ax * dx + ay * dy;
+				}
+				case Joint.JOINT_SPEED:
+				{
+					computeAnchors( );
+					final float ax = bodyA.cos * localAxisX - bodyA.sin * localAxisY, ay = bodyA.sin * localAxisX + bodyA.cos * localAxisY;
+					final float dx = bodyB.cx + rBx - bodyA.cx - rAx, dy = bodyB.cy + rBy - bodyA.cy - rAy;
+					final float dvx = bodyB.vx - bodyB.w * rBy - bodyA.vx + bodyA.w * rAy;
+					final float dvy = bodyB.vy + bodyB.w * rBx - bodyA.vy - bodyA.w * rAx;
+					return dx * -bodyA.w * ay + dy * bodyA.w * ax + ax * dvx + ay * dvy;
+				}
+				case Joint.LIMIT_ENABLED: return enableLimit ? 1 : 0;
+				case Joint.LOWER_LIMIT: return lowerTranslation;
+				case Joint.UPPER_LIMIT: return upperTranslation;
+				case Joint.MOTOR_ENABLED: return enableMotor ? 1 : 0;
+				case Joint.MOTOR_SPEED: return motorSpeed;
+				case Joint.MAX_MOTOR: return maxMotorForce;
+				case Joint.MOTOR_IMPULSE: return motorImpulse;
+			}
+			return 0;
+		}
+		
+		protected void set( int value, float v )
+		{
+			switch( value )
+			{
+				case Joint.LIMIT_ENABLED: enableLimit = v != 0; break;
+				case Joint.LOWER_LIMIT: lowerTranslation = v; break;
+				case Joint.UPPER_LIMIT: upperTranslation = v; break;
+				case Joint.MOTOR_ENABLED: enableMotor = v != 0; break;
+				case Joint.MOTOR_SPEED: motorSpeed = v; break;
+				case Joint.MAX_MOTOR: maxMotorForce = v; break;
+			}
+		}
+	}
+	
+	/**
+	 * Holds two bodies together at a point and relative angle, as b2WeldJoint
+	 */
+	static class Weld extends JavaJoint
+	{
+		private final float referenceAngle;
+		private float m11, m12, m13, m22, m23, m33;
+		private float impulseX, impulseY, impulseZ;
+		
+		protected Weld( WeldJointDef def )
+		{
+			super( def, def.localAnchorA, def.localAnchorB );
+			referenceAngle = def.referenceAngle;
+		}
+		
+		private void computeMass( )
+		{
+			final float mA = bodyA.invMass, mB = bodyB.invMass, iA = bodyA.invI, iB = bodyB.invI;
+			m11 = mA + mB + rAy * rAy * iA + rBy * rBy * iB;
+			m12 = -rAy * rAx * iA - rBy * rBx * iB;
+			m13 = -rAy * iA - rBy * iB;
+			m22 = mA + mB + rAx * rAx * iA + rBx * rBx * iB;
+			m23 = rAx * iA + rBx * iB;
+			m33 = iA + iB;
+		}
+		
+		protected void initVelocityConstraints( float timeStep, float timeStepRatio )
+		{
+			computeAnchors( );
+			computeMass( );
+			impulseX *= timeStepRatio;
+			impulseY *= timeStepRatio;
+			impulseZ *= timeStepRatio;
+			applyImpulse( impulseX, impulseY, impulseZ );
+		}
+		
+		protected void solveVelocityConstraints( float timeStep )
+		{
+			final float Cdot1x = bodyB.vx - bodyB.w * rBy - bodyA.vx + bodyA.w * rAy;
+			final float Cdot1y = bodyB.vy + bodyB.w * rBx - bodyA.vy - bodyA.w * rAx;
+			solve33( m11, m12, m13, m22, m23, m33, -Cdot1x, -Cdot1y, -(bodyB.w - bodyA.w) );
+			impulseX += solution[0];
+			impulseY += solution[1];
+			impulseZ += solution[2];
+			applyImpulse( solution[0], solution[1], solution[2] );
+		}
+		
+		protected boolean solvePositionConstraints( )
+		{
+			computeAnchors( );
+			final float C1x = bodyB.cx + rBx - bodyA.cx - rAx, C1y = bodyB.cy + rBy - bodyA.cy - rAy;
+			final float C2 = bodyB.angle - bodyA.angle - referenceAngle;
+			final float positionError = (float)Math.sqrt( C1x * C1x + C1y * C1y ), angularError = Math.abs( C2 );
+			computeMass( );
+			solve33( m11, m12, m13, m22, m23, m33, -C1x, -C1y, -C2 );
+			applyPositionImpulse( solution[0], solution[1], solution[2] );
+			return positionError <= JavaWorld.LINEAR_SLOP && angularError <= ANGULAR_SLOP;
+		}
+		
+		protected void getReactionForce( float invTimeStep, float[] out )
+		{
+			out[0] = invTimeStep * impulseX;
+			out[1] = invTimeStep * impulseY;
+		}
+		
+		protected float getReactionTorque( float invTimeStep )
+		{
+			return invTimeStep * impulseZ;
+		}
+	}
+}
@@ -0,0 +1,875 @@
+package com.badlogic.gdx.physics.box2d;
+
+import java.util.ArrayList;
+
+import com.badlogic.gdx.physics.box2d.BodyDef.BodyType;
+
+/**
+ * A pure Java implementation of the parts of b2World used through World, for when the native library is
+ * not available or not wanted. It follows Box2D 2.1: a sort and sweep broad-phase on the x axis, circle
+ * and polygon manifolds, a sequential impulse solver with warm starting and a block solver for two point
+ * manifolds, position correction, and islands which are put to sleep together. Distance, revolute, prismatic
+ * and weld joints are supported, see JavaJoint. The other joints, continuous collision and bullets are not.
+ */
+class JavaWorld 
+{
+	/** tuning constants, as b2Settings **/
+	protected static final float AABB_EXTENSION = 0.1f;
+	protected static final float LINEAR_SLOP = 0.005f;
+	protected static final float POLYGON_RADIUS = 2 * LINEAR_SLOP;
+	protected static final float VELOCITY_THRESHOLD = 1;
+	protected static final float MAX_LINEAR_CORRECTION = 0.2f;
+	protected static final float MAX_TRANSLATION = 2;
+	protected static final float MAX_ROTATION = 0.5f * (float)Math.PI;
+	protected static final float BAUMGARTE = 0.2f;
+	protected static final float TIME_TO_SLEEP = 0.5f;
+	protected static final float LINEAR_SLEEP_TOLERANCE = 0.01f;
+	protected static final float ANGULAR_SLEEP_TOLERANCE = 2.0f / 180.0f * (float)Math.PI;
+	protected static final float MAX_CONDITION_NUMBER = 100;
+	
+	protected final World world;
+	
+	protected float gravityX, gravityY;
+	protected boolean doSleep, autoClearForces = true, warmStarting = true, locked;
+	
+	/** the addresses given out to bodies and fixtures, so they can be kept in the World's maps **/
+	private long nextAddress = 1;
+	
+	protected JavaBody[] bodies = new JavaBody[32];
+	protected int bodyCount;
+	
+	/** the fixtures of the broad-phase, kept roughly sorted by the lower x of their AABB **/
+	protected Fixture[] proxies = new Fixture[32];
+	protected int proxyCount;
+	
+	protected JavaContact[] contacts = new JavaContact[32];
+	protected int contactCount;
+	
+	protected JavaJoint[] joints = new JavaJoint[8];
+	protected int jointCount;
+	
+	/** the contacts by the addresses of their fixtures **/
+	private final LongMap<JavaContact> pairs = new LongMap<JavaContact>( );
+	
+	private int stepCount;
+	private float inverseTimeStep0;
+	
+	/** the bodies, contacts and joints of the island being solved **/
+	private JavaBody[] islandBodies = new JavaBody[32];
+	private int islandBodyCount;
+	private JavaContact[] islandContacts = new JavaContact[32];
+	private int islandContactCount;
+	private JavaJoint[] islandJoints = new JavaJoint[8];
+	private int islandJointCount;
+	private JavaBody[] stack = new JavaBody[32];
+	
+	private final float[] manifold = new float[6];
+	
+	protected JavaWorld( World world, float gravityX, float gravityY, boolean doSleep )
+	{
+		this.world = world;
+		this.gravityX = gravityX;
+		this.gravityY = gravityY;
+		this.doSleep = doSleep;
+	}
+	
+	protected long nextAddress( )
+	{
+		return nextAddress++;
+	}
+	
+	protected void addBody( JavaBody body )
+	{
+		if( bodyCount == bodies.length )
+		{
+			JavaBody[] newBodies = new JavaBody[bodies.length * 2];
+			System.arraycopy( bodies, 0, newBodies, 0, bodyCount );
+			bodies = newBodies;
+		}
+		body.index = bodyCount;
+		bodies[bodyCount++] = body;
+	}
+	
+	protected void removeBody( JavaBody body )
+	{
+		for( int i = 0; i < body.body.getFixtureList( ).size( ); i++ )
+			removeFixture( body.body.getFixtureList( ).get( i ) );
+		bodyCount--;
+		JavaBody last = bodies[bodyCount];
+		bodies[body.index] = last;
+		last.index = body.index;
+		bodies[bodyCount] = null;
+	}
+	
+	/**
+	 * Adds a joint, and destroys the contacts between its bodies if they should no longer collide
+	 */
+	protected void addJoint( JavaJoint joint )
+	{
+		if( jointCount == joints.length )
+		{
+			JavaJoint[] newJoints = new JavaJoint[joints.length * 2];
+			System.arraycopy( joints, 0, newJoints, 0, jointCount );
+			joints = newJoints;
+		}
+		joint.index = jointCount;
+		joints[jointCount++] = joint;
+		if( !joint.collideConnected )
+		{
+			final JavaBody body = joint.bodyA;
+			for( int i = body.contactCount - 1; i >= 0; i-- )
+			{
+				final JavaContact contact = body.contacts[i];
+				if( contact.bodyA == joint.bodyB || contact.bodyB == joint.bodyB )
+					destroyContact( contact );
+			}
+		}
+	}
+	
+	/**
+	 * Removes a joint, its bodies are woken up as they may begin colliding
+	 */
+	protected void removeJoint( JavaJoint joint )
+	{
+		jointCount--;
+		JavaJoint last = joints[jointCount];
+		joints[joint.index] = last;
+		last.index = joint.index;
+		joints[jointCount] = null;
+		joint.bodyA.setAwake( true );
+		joint.bodyB.setAwake( true );
+	}
+	
+	protected void addFixture( Fixture fixture )
+	{
+		if( proxyCount == proxies.length )
+		{
+			Fixture[] newProxies = new Fixture[proxies.length * 2];
+			System.arraycopy( proxies, 0, newProxies, 0, proxyCount );
+			proxies = newProxies;
+		}
+		proxies[proxyCount++] = fixture;
+		synchronizeFixture( fixture, fixture.getBody( ).java );
+	}
+	
+	protected void removeFixture( Fixture fixture )
+	{
+		destroyContacts( fixture );
+		for( int i = 0; i < proxyCount; i++ )
+		{
+			if( proxies[i] == fixture )
+			{
+				proxyCount--;
+				System.arraycopy( proxies, i + 1, proxies, i, proxyCount - i );
+				proxies[proxyCount] = null;
+				return;
+			}
+		}
+	}
+	
+	/**
+	 * Destroys the contacts of a fixture, they are created again on the next step if the fixtures
+	 * still overlap and should collide
+	 */
+	protected void destroyContacts( Fixture fixture )
+	{
+		JavaBody body = fixture.getBody( ).java;
+		for( int i = body.contactCount - 1; i >= 0; i-- )
+		{
+			JavaContact contact = body.contacts[i];
+			if( contact.fixtureA == fixture || contact.fixtureB == fixture )
+				destroyContact( contact );
+		}
+	}
+	
+	/**
+	 * Updates the AABBs of the fixtures of a body, after it has been moved
+	 */
+	protected void synchronizeFixtures( JavaBody body )
+	{
+		for( int i = 0; i < body.body.getFixtureList( ).size( ); i++ )
+			synchronizeFixture( body.body.getFixtureList( ).get( i ), body );
+	}
+	
+	private void synchronizeFixture( Fixture fixture, JavaBody body )
+	{
+		final float[] geometry = fixture.geometry;
+		if( fixture.vertexCount == 0 )
+		{
+			final float x = body.getWorldPointX( geometry[0], geometry[1] ), y = body.getWorldPointY( geometry[0], geometry[1] );
+			final float radius = geometry[2] + AABB_EXTENSION;
+			fixture.lowerX = x - radius;
+			fixture.lowerY = y - radius;
+			fixture.upperX = x + radius;
+			fixture.upperY = y + radius;
+			return;
+		}
+		float lowerX = Float.MAX_VALUE, lowerY = Float.MAX_VALUE, upperX = -Float.MAX_VALUE, upperY = -Float.MAX_VALUE;
+		for( int i = 0; i < fixture.vertexCount; i++ )
+		{
+			final float x = body.getWorldPointX( geometry[i * 2], geometry[i * 2 + 1] );
+			final float y = body.getWorldPointY( geometry[i * 2], geometry[i * 2 + 1] );
+			if( x < lowerX ) lowerX = x;
+			if( x > upperX ) upperX = x;
+			if( y < lowerY ) lowerY = y;
+			if( y > upperY ) upperY = y;
+		}
+		final float radius = fixture.radius + AABB_EXTENSION;
+		fixture.lowerX = lowerX - radius;
+		fixture.lowerY = lowerY - radius;
+		fixture.upperX = upperX + radius;
+		fixture.upperY = upperY + radius;
+	}
+	
+	/**
+	 * Reports the fixtures of active bodies whose AABB overlaps a box, until the callback returns false
+	 */
+	protected void queryAABB( QueryCallback callback, float lowerX, float lowerY, float upperX, float upperY )
+	{
+		for( int i = 0; i < proxyCount; i++ )
+		{
+			final Fixture fixture = proxies[i];
+			if( fixture.lowerX > upperX || fixture.upperX < lowerX || fixture.lowerY > upperY || fixture.upperY < lowerY )
+				continue;
+			if( !fixture.getBody( ).active )
+				continue;
+			if( !callback.reportFixture( fixture ) )
+				return;
+		}
+	}
+	
+	protected void step( float timeStep, int velocityIterations, int positionIterations )
+	{
+		locked = true;
+		stepCount++;
+		updatePairs( );
+		collide( );
+		if( timeStep > 0 )
+		{
+			solve( timeStep, warmStarting ? inverseTimeStep0 * timeStep : 0, velocityIterations, positionIterations );
+			inverseTimeStep0 = 1 / timeStep;
+		}
+		if( autoClearForces )
+			clearForces( );
+		locked = false;
+	}
+	
+	protected void clearForces( )
+	{
+		for( int i = 0; i < bodyCount; i++ )
+		{
+			JavaBody body = bodies[i];
+			body.forceX = body.forceY = body.torque = 0;
+		}
+	}
+	
+	/**
+	 * Finds the pairs of fixtures whose AABBs overlap, creates contacts for the new ones and destroys
+	 * the contacts whose AABBs no longer overlap
+	 */
+	private void updatePairs( )
+	{
+		// insertion sort, the order changes little from step to step
+		for( int i = 1; i < proxyCount; i++ )
+		{
+			final Fixture fixture = proxies[i];
+			int j = i - 1;
+			while( j >= 0 && proxies[j].lowerX > fixture.lowerX )
+			{
+				proxies[j + 1] = proxies[j];
+				j--;
+			}
+			proxies[j + 1] = fixture;
+		}
+		
+		for( int i = 0; i < proxyCount; i++ )
+		{
+			final Fixture fixtureA = proxies[i];
+			final Body bodyA = fixtureA.getBody( );
+			if( !bodyA.active )
+				continue;
+			for( int j = i + 1; j < proxyCount && proxies[j].lowerX <= fixtureA.upperX; j++ )
+			{
+				final Fixture fixtureB = proxies[j];
+				final Body bodyB = fixtureB.getBody( );
+				if( bodyB == bodyA || !bodyB.active )
+					continue;
+				if( fixtureB.lowerY > fixtureA.upperY || fixtureB.upperY < fixtureA.lowerY )
+					continue;
+				final JavaBody javaA = bodyA.java, javaB = bodyB.java;
+				if( javaA.type != BodyType.DynamicBody && javaB.type != BodyType.DynamicBody )
+					continue;
+				final long key = fixtureA.addr < fixtureB.addr ? (fixtureA.addr << 32) | fixtureB.addr : (fixtureB.addr << 32) | fixtureA.addr;
+				JavaContact contact = pairs.get( key );
+				if( contact != null )
+				{
+					contact.stamp = stepCount;
+					continue;
+				}
+				// like Box2D, pairs are only found for bodies which can have moved
+				if( !isSimulated( javaA ) && !isSimulated( javaB ) )
+					continue;
+				if( !world.shouldCollide( fixtureA, fixtureB ) || !jointsCollide( bodyA, bodyB ) )
+					continue;
+				if( fixtureA.vertexCount == 0 && fixtureB.vertexCount != 0 )
+					contact = new JavaContact( fixtureB, fixtureA, key );
+				else
+					contact = new JavaContact( fixtureA, fixtureB, key );
+				contact.stamp = stepCount;
+				addContact( contact );
+			}
+		}
+		
+		for( int i = contactCount - 1; i >= 0; i-- )
+		{
+			if( contacts[i].stamp != stepCount )
+				destroyContact( contacts[i] );
+		}
+	}
+	
+	/**
+	 * @return false if the bodies are connected by a joint which does not let them collide
+	 */
+	private static boolean jointsCollide( Body bodyA, Body bodyB )
+	{
+		final ArrayList<JointEdge> edges = bodyA.joints;
+		for( int i = 0; i < edges.size( ); i++ )
+		{
+			final JointEdge edge = edges.get( i );
+			if( edge.other == bodyB && !edge.joint.java.collideConnected )
+				return false;
+		}
+		return true;
+	}
+	
+	private static boolean isSimulated( JavaBody body )
+	{
+		return body.awake && body.type != BodyType.StaticBody;
+	}
+	
+	private void addContact( JavaContact contact )
+	{
+		if( contactCount == contacts.length )
+		{
+			JavaContact[] newContacts = new JavaContact[contacts.length * 2];
+			System.arraycopy( contacts, 0, newContacts, 0, contactCount );
+			contacts = newContacts;
+		}
+		contact.index = contactCount;
+		contacts[contactCount++] = contact;
+		pairs.put( contact.key, contact );
+		contact.bodyA.addContact( contact );
+		contact.bodyB.addContact( contact );
+	}
+	
+	private void destroyContact( JavaContact contact )
+	{
+		if( contact.touching )
+		{
+			contact.touching = false;
+			world.endContact( contact );
+		}
+		pairs.remove( contact.key );
+		contact.bodyA.removeContact( contact );
+		contact.bodyB.removeContact( contact );
+		contactCount--;
+		JavaContact last = contacts[contactCount];
+		contacts[contact.index] = last;
+		last.index = contact.index;
+		contacts[contactCount] = null;
+	}
+	
+	/**
+	 * Updates the manifolds of contacts with a body which can have moved, and reports those which begin
+	 * or stop touching
+	 */
+	private void collide( )
+	{
+		for( int i = 0; i < contactCount; i++ )
+		{
+			final JavaContact contact = contacts[i];
+			if( !isSimulated( contact.bodyA ) && !isSimulated( contact.bodyB ) )
+				continue;
+			final boolean wasTouching = contact.update( );
+			if( contact.touching != wasTouching )
+			{
+				contact.bodyA.setAwake( true );
+				contact.bodyB.setAwake( true );
+				if( contact.touching )
+					world.beginContact( contact );
+				else
+					world.endContact( contact );
+			}
+		}
+	}
+	
+	private void solve( float timeStep, float timeStepRatio, int velocityIterations, int positionIterations )
+	{
+		for( int i = 0; i < bodyCount; i++ )
+			bodies[i].islandFlag = false;
+		for( int i = 0; i < contactCount; i++ )
+			contacts[i].islandFlag = false;
+		for( int i = 0; i < jointCount; i++ )
+			joints[i].islandFlag = false;
+		
+		for( int i = 0; i < bodyCount; i++ )
+		{
+			final JavaBody seed = bodies[i];
+			if( seed.islandFlag || !isSimulated( seed ) || !seed.body.active )
+				continue;
+			
+			// the bodies connected to the seed through touching contacts and joints, across all but static bodies
+			islandBodyCount = 0;
+			islandContactCount = 0;
+			islandJointCount = 0;
+			int stackCount = 0;
+			stack[stackCount++] = seed;
+			seed.islandFlag = true;
+			while( stackCount > 0 )
+			{
+				final JavaBody body = stack[--stackCount];
+				stack[stackCount] = null;
+				addIslandBody( body );
+				body.setAwake( true );
+				if( body.type == BodyType.StaticBody )
+					continue;
+				for( int j = 0; j < body.contactCount; j++ )
+				{
+					final JavaContact contact = body.contacts[j];
+					if( contact.islandFlag || !contact.enabled || !contact.touching || contact.sensor )
+						continue;
+					contact.islandFlag = true;
+					addIslandContact( contact );
+					final JavaBody other = contact.bodyA == body ? contact.bodyB : contact.bodyA;
+					if( other.islandFlag )
+						continue;
+					stackCount = push( other, stackCount );
+				}
+				final ArrayList<JointEdge> edges = body.body.joints;
+				for( int j = 0; j < edges.size( ); j++ )
+				{
+					final JointEdge edge = edges.get( j );
+					final JavaJoint joint = edge.joint.java;
+					if( joint.islandFlag || !edge.other.active )
+						continue;
+					joint.islandFlag = true;
+					addIslandJoint( joint );
+					final JavaBody other = edge.other.java;
+					if( other.islandFlag )
+						continue;
+					stackCount = push( other, stackCount );
+				}
+			}
+			
+			solveIsland( timeStep, timeStepRatio, velocityIterations, positionIterations );
+			
+			for( int j = 0; j < islandBodyCount; j++ )
+			{
+				final JavaBody body = islandBodies[j];
+				islandBodies[j] = null;
+				if( body.type == BodyType.StaticBody )
+					body.islandFlag = false;
+				else
+					synchronizeFixtures( body );
+			}
+			for( int j = 0; j < islandContactCount; j++ )
+				islandContacts[j] = null;
+			for( int j = 0; j < islandJointCount; j++ )
+				islandJoints[j] = null;
+		}
+	}
+	
+	/**
+	 * Pushes a body to be added to the island
+	 * @return the new stack count
+	 */
+	private int push( JavaBody body, int stackCount )
+	{
+		if( stackCount == stack.length )
+		{
+			JavaBody[] newStack = new JavaBody[stack.length * 2];
+			System.arraycopy( stack, 0, newStack, 0, stackCount );
+			stack = newStack;
+		}
+		stack[stackCount++] = body;
+		body.islandFlag = true;
+		return stackCount;
+	}
+	
+	private void addIslandBody( JavaBody body )
+	{
+		if( islandBodyCount == islandBodies.length )
+		{
+			JavaBody[] newBodies = new JavaBody[islandBodies.length * 2];
+			System.arraycopy( islandBodies, 0, newBodies, 0, islandBodyCount );
+			islandBodies = newBodies;
+		}
+		islandBodies[islandBodyCount++] = body;
+	}
+	
+	private void addIslandContact( JavaContact contact )
+	{
+		if( islandContactCount == islandContacts.length )
+		{
+			JavaContact[] newContacts = new JavaContact[islandContacts.length * 2];
+			System.arraycopy( islandContacts, 0, newContacts, 0, islandContactCount );
+			islandContacts = newContacts;
+		}
+		islandContacts[islandContactCount++] = contact;
+	}
+	
+	private void addIslandJoint( JavaJoint joint )
+	{
+		if( islandJointCount == islandJoints.length )
+		{
+			JavaJoint[] newJoints = new JavaJoint[islandJoints.length * 2];
+			System.arraycopy( islandJoints, 0, newJoints, 0, islandJointCount );
+			islandJoints = newJoints;
+		}
+		islandJoints[islandJointCount++] = joint;
+	}
+	
+	private void solveIsland( float timeStep, float timeStepRatio, int velocityIterations, int positionIterations )
+	{
+		for( int i = 0; i < islandBodyCount; i++ )
+		{
+			final JavaBody body = islandBodies[i];
+			if( body.type != BodyType.DynamicBody )
+				continue;
+			body.vx += timeStep * (gravityX + body.invMass * body.forceX);
+			body.vy += timeStep * (gravityY + body.invMass * body.forceY);
+			body.w += timeStep * body.invI * body.torque;
+			final float linearDamping = clamp( 1 - timeStep * body.linearDamping );
+			final float angularDamping = clamp( 1 - timeStep * body.angularDamping );
+			body.vx *= linearDamping;
+			body.vy *= linearDamping;
+			body.w *= angularDamping;
+		}
+		
+		for( int i = 0; i < islandContactCount; i++ )
+			initConstraint( islandContacts[i], timeStepRatio );
+		for( int i = 0; i < islandContactCount; i++ )
+			warmStart( islandContacts[i] );
+		for( int i = 0; i < islandJointCount; i++ )
+			islandJoints[i].initVelocityConstraints( timeStep, timeStepRatio );
+		for( int iteration = 0; iteration < velocityIterations; iteration++ )
+		{
+			for( int i = 0; i < islandJointCount; i++ )
+				islandJoints[i].solveVelocityConstraints( timeStep );
+			for( int i = 0; i < islandContactCount; i++ )
+				solveVelocity( islandContacts[i] );
+		}
+		
+		for( int i = 0; i < islandBodyCount; i++ )
+		{
+			final JavaBody body = islandBodies[i];
+			if( body.type == BodyType.StaticBody )
+				continue;
+			float translationX = timeStep * body.vx, translationY = timeStep * body.vy;
+			final float translationSquared = translationX * translationX + translationY * translationY;
+			if( translationSquared > MAX_TRANSLATION * MAX_TRANSLATION )
+			{
+				final float ratio = MAX_TRANSLATION / (float)Math.sqrt( translationSquared );
+				body.vx *= ratio;
+				body.vy *= ratio;
+			}
+			final float rotation = timeStep * body.w;
+			if( rotation * rotation > MAX_ROTATION * MAX_ROTATION )
+				body.w *= MAX_ROTATION / Math.abs( rotation );
+			body.cx += timeStep * body.vx;
+			body.cy += timeStep * body.vy;
+			body.angle += timeStep * body.w;
+			body.synchronizeTransform( );
+		}
+		
+		for( int iteration = 0; iteration < positionIterations; iteration++ )
+		{
+			boolean jointsOkay = true;
+			final boolean contactsOkay = solvePositions( );
+			for( int i = 0; i < islandJointCount; i++ )
+				jointsOkay &= islandJoints[i].solvePositionConstraints( );
+			if( contactsOkay && jointsOkay )
+				break;
+		}
+		
+		if( !doSleep )
+			return;
+		float minSleepTime = Float.MAX_VALUE;
+		for( int i = 0; i < islandBodyCount; i++ )
+		{
+			final JavaBody body = islandBodies[i];
+			if( body.type == BodyType.StaticBody )
+				continue;
+			if( !body.sleepAllowed || body.w * body.w > ANGULAR_SLEEP_TOLERANCE * ANGULAR_SLEEP_TOLERANCE || body.vx * body.vx + body.vy * body.vy > LINEAR_SLEEP_TOLERANCE * LINEAR_SLEEP_TOLERANCE )
+			{
+				body.sleepTime = 0;
+				minSleepTime = 0;
+			}
+			else
+			{
+				body.sleepTime += timeStep;
+				minSleepTime = Math.min( minSleepTime, body.sleepTime );
+			}
+		}
+		if( minSleepTime >= TIME_TO_SLEEP )
+		{
+			for( int i = 0; i < islandBodyCount; i++ )
+				islandBodies[i].setAwake( false );
+		}
+	}
+	
+	private static float clamp( float value )
+	{
+		return value < 0 ? 0 : (value > 1 ? 1 : value);
+	}
+	
+	private void initConstraint( JavaContact contact, float timeStepRatio )
+	{
+		final JavaBody bodyA = contact.bodyA, bodyB = contact.bodyB;
+		final int count = contact.getWorldManifold( manifold );
+		final float nx = manifold[0], ny = manifold[1];
+		contact.normalX = nx;
+		contact.normalY = ny;
+		contact.constraintCount = count;
+		contact.friction = (float)Math.sqrt( contact.fixtureA.friction * contact.fixtureB.friction );
+		contact.restitution = Math.max( contact.fixtureA.restitution, contact.fixtureB.restitution );
+		for( int j = 0; j < count; j++ )
+		{
+			final float rAx = manifold[2 + j * 2] - bodyA.cx, rAy = manifold[3 + j * 2] - bodyA.cy;
+			final float rBx = manifold[2 + j * 2] - bodyB.cx, rBy = manifold[3 + j * 2] - bodyB.cy;
+			contact.rA[j * 2] = rAx;
+			contact.rA[j * 2 + 1] = rAy;
+			contact.rB[j * 2] = rBx;
+			contact.rB[j * 2 + 1] = rBy;
+			
+			final float rnA = rAx * ny - rAy * nx, rnB = rBx * ny - rBy * nx;
+			final float kNormal = bodyA.invMass + bodyB.invMass + bodyA.invI * rnA * rnA + bodyB.invI * rnB * rnB;
+			contact.normalMass[j] = kNormal > 0 ? 1 / kNormal : 0;
+			
+			final float rtA = rAx * -nx - rAy * ny, rtB = rBx * -nx - rBy * ny;
+			final float kTangent = bodyA.invMass + bodyB.invMass + bodyA.invI * rtA * rtA + bodyB.invI * rtB * rtB;
+			contact.tangentMass[j] = kTangent > 0 ? 1 / kTangent : 0;
+			
+			contact.velocityBias[j] = 0;
+			final float dvx = bodyB.vx - bodyB.w * rBy - bodyA.vx + bodyA.w * rAy;
+			final float dvy = bodyB.vy + bodyB.w * rBx - bodyA.vy - bodyA.w * rAx;
+			final float relativeVelocity = nx * dvx + ny * dvy;
+			if( relativeVelocity < -VELOCITY_THRESHOLD )
+				contact.velocityBias[j] = -contact.restitution * relativeVelocity;
+			
+			contact.normalImpulses[j] *= timeStepRatio;
+			contact.tangentImpulses[j] *= timeStepRatio;
+		}
+		
+		if( count == 2 )
+		{
+			final float[] rA = contact.rA, rB = contact.rB;
+			final float rn1A = rA[0] * ny - rA[1] * nx, rn1B = rB[0] * ny - rB[1] * nx;
+			final float rn2A = rA[2] * ny - rA[3] * nx, rn2B = rB[2] * ny - rB[3] * nx;
+			final float mass = bodyA.invMass + bodyB.invMass;
+			final float k11 = mass + bodyA.invI * rn1A * rn1A + bodyB.invI * rn1B * rn1B;
+			final float k22 = mass + bodyA.invI * rn2A * rn2A + bodyB.invI * rn2B * rn2B;
+			final float k12 = mass + bodyA.invI * rn1A * rn2A + bodyB.invI * rn1B * rn2B;
+			final float determinant = k11 * k22 - k12 * k12;
+			if( k11 * k11 < MAX_CONDITION_NUMBER * determinant )
+			{
+				contact.k11 = k11;
+				contact.k12 = k12;
+				contact.k22 = k22;
+				contact.invK11 = k22 / determinant;
+				contact.invK12 = -k12 / determinant;
+				contact.invK22 = k11 / determinant;
+			}
+			else
+			{
+				// the points are redundant, solve one
+				contact.constraintCount = 1;
+				contact.normalImpulses[1] = 0;
+				contact.tangentImpulses[1] = 0;
+			}
+		}
+	}
+	
+	private static void warmStart( JavaContact contact )
+	{
+		final float nx = contact.normalX, ny = contact.normalY;
+		for( int j = 0; j < contact.constraintCount; j++ )
+		{
+			final float px = contact.normalImpulses[j] * nx + contact.tangentImpulses[j] * ny;
+			final float py = contact.normalImpulses[j] * ny - contact.tangentImpulses[j] * nx;
+			applyImpulse( contact, j, px, py );
+		}
+	}
+	
+	private static void applyImpulse( JavaContact contact, int j, float px, float py )
+	{
+		final JavaBody bodyA = contact.bodyA, bodyB = contact.bodyB;
+		bodyA.vx -= bodyA.invMass * px;
+		bodyA.vy -= bodyA.invMass * py;
+		bodyA.w -= bodyA.invI * (contact.rA[j * 2] * py - contact.rA[j * 2 + 1] * px);
+		bodyB.vx += bodyB.invMass * px;
+		bodyB.vy += bodyB.invMass * py;
+		bodyB.w += bodyB.invI * (contact.rB[j * 2] * py - contact.rB[j * 2 + 1] * px);
+	}
+	
+	private static void solveVelocity( JavaContact contact )
+	{
+		final JavaBody bodyA = contact.bodyA, bodyB = contact.bodyB;
+		final float nx = contact.normalX, ny = contact.normalY;
+		final float tx = ny, ty = -nx;
+		final float[] rA = contact.rA, rB = contact.rB;
+		final int count = contact.constraintCount;
+		
+		// friction first, as it is less important than non-penetration
+		for( int j = 0; j < count; j++ )
+		{
+			final float dvx = bodyB.vx - bodyB.w * rB[j * 2 + 1] - bodyA.vx + bodyA.w * rA[j * 2 + 1];
+			final float dvy = bodyB.vy + bodyB.w * rB[j * 2] - bodyA.vy - bodyA.w * rA[j * 2];
+			float lambda = -contact.tangentMass[j] * (dvx * tx + dvy * ty);
+			final float maxFriction = contact.friction * contact.normalImpulses[j];
+			float impulse = contact.tangentImpulses[j] + lambda;
+			impulse = impulse < -maxFriction ? -maxFriction : (impulse > maxFriction ? maxFriction : impulse);
+			lambda = impulse - contact.tangentImpulses[j];
+			contact.tangentImpulses[j] = impulse;
+			applyImpulse( contact, j, lambda * tx, lambda * ty );
+		}
+		
+		if( count == 1 )
+		{
+			final float dvx = bodyB.vx - bodyB.w * rB[1] - bodyA.vx + bodyA.w * rA[1];
+			final float dvy = bodyB.vy + bodyB.w * rB[0] - bodyA.vy - bodyA.w * rA[0];
+			float lambda = -contact.normalMass[0] * (dvx * nx + dvy * ny - contact.velocityBias[0]);
+			final float impulse = Math.max( contact.normalImpulses[0] + lambda, 0 );
+			lambda = impulse - contact.normalImpulses[0];
+			contact.normalImpulses[0] = impulse;
+			applyImpulse( contact, 0, lambda * nx, lambda * ny );
+			return;
+		}
+		if( count != 2 )
+			return;
+		
+		// the block solver, from b2ContactSolver, finds the impulses of both points together by trying each
+		// of the four cases of the linear complementarity problem in turn
+		final float ax = contact.normalImpulses[0], ay = contact.normalImpulses[1];
+		float dvx = bodyB.vx - bodyB.w * rB[1] - bodyA.vx + bodyA.w * rA[1];
+		float dvy = bodyB.vy + bodyB.w * rB[0] - bodyA.vy - bodyA.w * rA[0];
+		final float vn1 = dvx * nx + dvy * ny;
+		dvx = bodyB.vx - bodyB.w * rB[3] - bodyA.vx + bodyA.w * rA[3];
+		dvy = bodyB.vy + bodyB.w * rB[2] - bodyA.vy - bodyA.w * rA[2];
+		final float vn2 = dvx * nx + dvy * ny;
+		final float bx = vn1 - contact.velocityBias[0] - (contact.k11 * ax + contact.k12 * ay);
+		final float by = vn2 - contact.velocityBias[1] - (contact.k12 * ax + contact.k22 * ay);
+		
+		// both points in contact
+		float x1 = -(contact.invK11 * bx + contact.invK12 * by);
+		float x2 = -(contact.invK12 * bx + contact.invK22 * by);
+		if( x1 >= 0 && x2 >= 0 )
+		{
+			applyNormalImpulses( contact, x1, x2 );
+			return;
+		}
+		// only the first point
+		x1 = -contact.normalMass[0] * bx;
+		if( x1 >= 0 && contact.k12 * x1 + by >= 0 )
+		{
+			applyNormalImpulses( contact, x1, 0 );
+			return;
+		}
+		// only the second point
+		x2 = -contact.normalMass[1] * by;
+		if( x2 >= 0 && contact.k12 * x2 + bx >= 0 )
+		{
+			applyNormalImpulses( contact, 0, x2 );
+			return;
+		}
+		// neither point
+		if( bx >= 0 && by >= 0 )
+			applyNormalImpulses( contact, 0, 0 );
+	}
+	
+	private static void applyNormalImpulses( JavaContact contact, float x1, float x2 )
+	{
+		final float d1 = x1 - contact.normalImpulses[0], d2 = x2 - contact.normalImpulses[1];
+		applyImpulse( contact, 0, d1 * contact.normalX, d1 * contact.normalY );
+		applyImpulse( contact, 1, d2 * contact.normalX, d2 * contact.normalY );
+		contact.normalImpulses[0] = x1;
+		contact.normalImpulses[1] = x2;
+	}
+	
+	/**
+	 * Pushes apart the bodies of each contact, as b2ContactSolver::SolvePositionConstraints
+	 * @return true if the separation of every contact is small enough
+	 */
+	private boolean solvePositions( )
+	{
+		float minSeparation = 0;
+		for( int i = 0; i < islandContactCount; i++ )
+		{
+			final JavaContact contact = islandContacts[i];
+			final JavaBody bodyA = contact.bodyA, bodyB = contact.bodyB;
+			final float invMassA = bodyA.mass * bodyA.invMass, invIA = bodyA.mass * bodyA.invI;
+			final float invMassB = bodyB.mass * bodyB.invMass, invIB = bodyB.mass * bodyB.invI;
+			final float radius = contact.fixtureA.radius + contact.fixtureB.radius;
+			for( int j = 0; j < contact.constraintCount; j++ )
+			{
+				float nx, ny, px, py, separation;
+				if( contact.type == JavaContact.CIRCLES )
+				{
+					final float ax = bodyA.getWorldPointX( contact.localPointX, contact.localPointY );
+					final float ay = bodyA.getWorldPointY( contact.localPointX, contact.localPointY );
+					final float bx = bodyB.getWorldPointX( contact.localPoints[0], contact.localPoints[1] );
+					final float by = bodyB.getWorldPointY( contact.localPoints[0], contact.localPoints[1] );
+					final float distanceSquared = (bx - ax) * (bx - ax) + (by - ay) * (by - ay);
+					nx = 1;
+					ny = 0;
+					if( distanceSquared > JavaContact.EPSILON * JavaContact.EPSILON )
+					{
+						final float length = (float)Math.sqrt( distanceSquared );
+						nx = (bx - ax) / length;
+						ny = (by - ay) / length;
+					}
+					px = 0.5f * (ax + bx);
+					py = 0.5f * (ay + by);
+					separation = (bx - ax) * nx + (by - ay) * ny - radius;
+				}
+				else
+				{
+					final JavaBody reference = contact.type == JavaContact.FACE_A ? bodyA : bodyB;
+					final JavaBody incident = contact.type == JavaContact.FACE_A ? bodyB : bodyA;
+					nx = reference.cos * contact.localNormalX - reference.sin * contact.localNormalY;
+					ny = reference.sin * contact.localNormalX + reference.cos * contact.localNormalY;
+					final float planeX = reference.getWorldPointX( contact.localPointX, contact.localPointY );
+					final float planeY = reference.getWorldPointY( contact.localPointX, contact.localPointY );
+					px = incident.getWorldPointX( contact.localPoints[j * 2], contact.localPoints[j * 2 + 1] );
+					py = incident.getWorldPointY( contact.localPoints[j * 2], contact.localPoints[j * 2 + 1] );
+					separation = (px - planeX) * nx + (py - planeY) * ny - radius;
+					if( contact.type == JavaContact.FACE_B )
+					{
+						nx = -nx;
+						ny = -ny;
+					}
+				}
+				
+				final float rAx = px - bodyA.cx, rAy = py - bodyA.cy;
+				final float rBx = px - bodyB.cx, rBy = py - bodyB.cy;
+				minSeparation = Math.min( minSeparation, separation );
+				float correction = BAUMGARTE * (separation + LINEAR_SLOP);
+				correction = correction < -MAX_LINEAR_CORRECTION ? -MAX_LINEAR_CORRECTION : (correction > 0 ? 0 : correction);
+				final float rnA = rAx * ny - rAy * nx, rnB = rBx * ny - rBy * nx;
+				final float k = invMassA + invMassB + invIA * rnA * rnA + invIB * rnB * rnB;
+				final float impulse = k > 0 ? -correction / k : 0;
+				final float impulseX = impulse * nx, impulseY = impulse * ny;
+				
+				bodyA.cx -= invMassA * impulseX;
+				bodyA.cy -= invMassA * impulseY;
+				bodyA.angle -= invIA * (rAx * impulseY - rAy * impulseX);
+				bodyA.synchronizeTransform( );
+				bodyB.cx += invMassB * impulseX;
+				bodyB.cy += invMassB * impulseY;
+				bodyB.angle += invIB * (rBx * impulseY - rBy * impulseX);
+				bodyB.synchronizeTransform( );
+			}
+		}
+		return minSeparation >= -1.5f * LINEAR_SLOP;
+	}
+}
@@ -20,6 +20,23 @@ public abstract class Joint
 	/** joint edge b **/
 	protected JointEdge jointEdgeB;
 	
+	/** the joint simulated by the Java backend, null with the native backend **/
+	protected JavaJoint java;
+	
+	/** the values of a Java backend joint, for getJavaValue and setJavaValue **/
+	protected static final int LENGTH = 0;
+	protected static final int FREQUENCY = 1;
+	protected static final int DAMPING_RATIO = 2;
+	protected static final int JOINT_POSITION = 3;
+	protected static final int JOINT_SPEED = 4;
+	protected static final int LIMIT_ENABLED = 5;
+	protected static final int LOWER_LIMIT = 6;
+	protected static final int UPPER_LIMIT = 7;
+	protected static final int MOTOR_ENABLED = 8;
+	protected static final int MOTOR_SPEED = 9;
+	protected static final int MAX_MOTOR = 10;
+	protected static final int MOTOR_IMPULSE = 11;
+	
 	/**
 	 * Constructs a new joint
 	 * @param addr the address of the joint
@@ -35,6 +52,8 @@ public abstract class Joint
 	 */
 	public JointType getType()
 	{
+		if( java != null )
+			return java.type;
 		int type = jniGetType( addr );
 		for( int i = 0; i < JointType.values().length; i++ )
 			if( JointType.values()[i].getValue() == type )
@@ -49,6 +68,8 @@ public abstract class Joint
 	 */
 	public Body getBodyA()
 	{
+		if( java != null )
+			return java.bodyA.body;
 		return world.bodies.get( jniGetBodyA( addr ) );
 	}	
 	
@@ -59,6 +80,8 @@ public abstract class Joint
 	 */
 	public Body getBodyB()
 	{
+		if( java != null )
+			return java.bodyB.body;
 		return world.bodies.get( jniGetBodyB( addr ) );
 	}	
 	
@@ -70,7 +93,13 @@ public abstract class Joint
 	private final Vector2 anchorA = new Vector2();
 	public Vector2 getAnchorA()
 	{
-		jniGetAnchorA( addr, tmp );
+		if( java != null )
+		{
+			tmp[0] = java.bodyA.getWorldPointX( java.localAnchorAX, java.localAnchorAY );
+			tmp[1] = java.bodyA.getWorldPointY( java.localAnchorAX, java.localAnchorAY );
+		}
+		else
+			jniGetAnchorA( addr, tmp );
 		anchorA.x = tmp[0]; anchorA.y = tmp[1];
 		return anchorA;
 	}
@@ -83,7 +112,13 @@ public abstract class Joint
 	private final Vector2 anchorB = new Vector2();
 	public Vector2 getAnchorB()
 	{
-		jniGetAnchorB( addr, tmp );
+		if( java != null )
+		{
+			tmp[0] = java.bodyB.getWorldPointX( java.localAnchorBX, java.localAnchorBY );
+			tmp[1] = java.bodyB.getWorldPointY( java.localAnchorBX, java.localAnchorBY );
+		}
+		else
+			jniGetAnchorB( addr, tmp );
 		anchorB.x = tmp[0]; anchorB.y = tmp[1];
 		return anchorB;
 	}
@@ -96,7 +131,10 @@ public abstract class Joint
 	private final Vector2 reactionForce = new Vector2( );
 	public Vector2 getReactionForce(float inv_dt)
 	{
-		jniGetReactionForce( addr, inv_dt, tmp );
+		if( java != null )
+			java.getReactionForce( inv_dt, tmp );
+		else
+			jniGetReactionForce( addr, inv_dt, tmp );
 		reactionForce.x = tmp[0]; reactionForce.y = tmp[1];
 		return reactionForce;
 	}
@@ -108,6 +146,8 @@ public abstract class Joint
 	 */
 	public float getReactionTorque(float inv_dt)
 	{
+		if( java != null )
+			return java.getReactionTorque( inv_dt );
 		return jniGetReactionTorque( addr, inv_dt );
 	}
 	
@@ -127,8 +167,37 @@ public abstract class Joint
 	 */
 	public boolean isActive()
 	{
+		if( java != null )
+			return java.bodyA.body.isActive( ) && java.bodyB.body.isActive( );
 		return jniIsActive( addr );
 	}
 	
 	private native boolean jniIsActive( long addr );
+	
+	/**
+	 * @return true if this joint is simulated by the Java backend
+	 */
+	protected boolean isJava( )
+	{
+		return java != null;
+	}
+	
+	/**
+	 * @param value one of the values above, booleans are 0 or 1
+	 * @return the value of a Java backend joint
+	 */
+	protected float getJavaValue( int value )
+	{
+		return java.get( value );
+	}
+	
+	/**
+	 * Sets a value of a Java backend joint, and wakes up its bodies
+	 */
+	protected void setJavaValue( int value, float v )
+	{
+		java.bodyA.setAwake( true );
+		java.bodyB.setAwake( true );
+		java.set( value, v );
+	}
 }
@@ -0,0 +1,199 @@
+package com.badlogic.gdx.physics.box2d;
+
+/**
+ * A map from long keys to objects, used to look up bodies, fixtures and joints
+ * by their native address. Keys are stored unboxed in an open addressing table
+ * with linear probing, so lookups from JNI callbacks allocate nothing.
+ */
+public class LongMap<V> 
+{
+	private static final float LOAD_FACTOR = 0.5f;
+	
+	/** keys and values, a slot is empty when its value is null **/
+	private long[] keys;
+	private Object[] values;
+	private int mask;
+	private int size;
+	private int threshold;
+	
+	/** the key 0 is kept outside the table **/
+	private Object zeroValue;
+	private boolean hasZeroValue;
+	
+	public LongMap( )
+	{
+		this( 32 );
+	}
+	
+	/**
+	 * @param initialCapacity the number of entries which can be stored before the table grows
+	 */
+	public LongMap( int initialCapacity )
+	{
+		int capacity = 1;
+		while( capacity * LOAD_FACTOR < initialCapacity )
+			capacity <<= 1;
+		allocate( capacity );
+	}
+	
+	private void allocate( int capacity )
+	{
+		keys = new long[capacity];
+		values = new Object[capacity];
+		mask = capacity - 1;
+		threshold = (int)(capacity * LOAD_FACTOR);
+	}
+	
+	/** native addresses are aligned, so the low bits are mixed in from the rest **/
+	private int index( long key )
+	{
+		long h = key * 0x9E3779B97F4A7C15L;
+		return (int)(h ^ (h >>> 32)) & mask;
+	}
+	
+	@SuppressWarnings("unchecked")
+	public V get( long key )
+	{
+		if( key == 0 )
+			return (V)zeroValue;
+		int i = index( key );
+		while( values[i] != null )
+		{
+			if( keys[i] == key )
+				return (V)values[i];
+			i = (i + 1) & mask;
+		}
+		return null;
+	}
+	
+	public boolean containsKey( long key )
+	{
+		if( key == 0 )
+			return hasZeroValue;
+		return get( key ) != null;
+	}
+	
+	/**
+	 * @return the previous value for the key, null if there was none
+	 */
+	@SuppressWarnings("unchecked")
+	public V put( long key, V value )
+	{
+		if( value == null )
+			return remove( key );
+		if( key == 0 )
+		{
+			V old = (V)zeroValue;
+			zeroValue = value;
+			if( !hasZeroValue )
+			{
+				hasZeroValue = true;
+				size++;
+			}
+			return old;
+		}
+		int i = index( key );
+		while( values[i] != null )
+		{
+			if( keys[i] == key )
+			{
+				V old = (V)values[i];
+				values[i] = value;
+				return old;
+			}
+			i = (i + 1) & mask;
+		}
+		keys[i] = key;
+		values[i] = value;
+		size++;
+		if( size > threshold )
+			resize( values.length << 1 );
+		return null;
+	}
+	
+	/**
+	 * @return the removed value, null if there was none
+	 */
+	@SuppressWarnings("unchecked")
+	public V remove( long key )
+	{
+		if( key == 0 )
+		{
+			V old = (V)zeroValue;
+			if( hasZeroValue )
+			{
+				zeroValue = null;
+				hasZeroValue = false;
+				size--;
+			}
+			return old;
+		}
+		int i = index( key );
+		while( values[i] != null )
+		{
+			if( keys[i] == key )
+			{
+				V old = (V)values[i];
+				shiftBack( i );
+				size--;
+				return old;
+			}
+			i = (i + 1) & mask;
+		}
+		return null;
+	}
+	
+	/** closes the gap left by a removed entry, so no tombstones are needed **/
+	private void shiftBack( int gap )
+	{
+		int i = (gap + 1) & mask;
+		while( values[i] != null )
+		{
+			int home = index( keys[i] );
+			if( ((i - home) & mask) >= ((i - gap) & mask) )
+			{
+				keys[gap] = keys[i];
+				values[gap] = values[i];
+				gap = i;
+			}
+			i = (i + 1) & mask;
+		}
+		values[gap] = null;
+		keys[gap] = 0;
+	}
+	
+	private void resize( int capacity )
+	{
+		long[] oldKeys = keys;
+		Object[] oldValues = values;
+		allocate( capacity );
+		for( int i = 0; i < oldValues.length; i++ )
+		{
+			if( oldValues[i] != null )
+			{
+				int j = index( oldKeys[i] );
+				while( values[j] != null )
+					j = (j + 1) & mask;
+				keys[j] = oldKeys[i];
+				values[j] = oldValues[i];
+			}
+		}
+	}
+	
+	public int size( )
+	{
+		return size;
+	}
+	
+	public void clear( )
+	{
+		for( int i = 0; i < values.length; i++ )
+		{
+			values[i] = null;
+			keys[i] = 0;
+		}
+		zeroValue = null;
+		hasZeroValue = false;
+		size = 0;
+	}
+}
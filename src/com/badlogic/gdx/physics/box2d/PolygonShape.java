@@ -4,12 +4,18 @@ import com.badlogic.gdx.math.Vector2;
 
 public class PolygonShape extends Shape
 {	
+	/** a copy of the local vertices, x and y for each, kept for fixtures to ray cast against in Java. A new array is made each time they are set **/
+	protected float[] vertices = null;
+	
 	/**
 	 * Constructs a new polygon
 	 */
 	public PolygonShape( )
 	{
-		addr = newPolygonShape( );
+		if( World.isNativeAvailable( ) )
+			addr = newPolygonShape( );
+		else
+			radius = JavaWorld.POLYGON_RADIUS;
 	}
 	
 	private native long newPolygonShape( );
@@ -35,7 +41,9 @@ public class PolygonShape extends Shape
 			verts[i] = vertices[j].x;
 			verts[i+1] = vertices[j].y;
 		}
-		jniSet( addr, verts );
+		if( addr != 0 )
+			jniSet( addr, verts );
+		this.vertices = verts;
 	}
 	
 	private native void jniSet( long addr, float[] verts );
@@ -47,7 +55,9 @@ public class PolygonShape extends Shape
 	 */
 	public void setAsBox(float hx, float hy)
 	{
-		jniSetAsBox( addr, hx, hy );
+		if( addr != 0 )
+			jniSetAsBox( addr, hx, hy );
+		this.vertices = new float[] { -hx, -hy, hx, -hy, hx, hy, -hx, hy };
 	}
 	
 	private native void jniSetAsBox( long addr, float hx, float hy );
@@ -61,7 +71,17 @@ public class PolygonShape extends Shape
 	 */
 	public void setAsBox(float hx, float hy, Vector2 center, float angle)
 	{
-		jniSetAsBox( addr, hx, hy, center.x, center.y, angle );
+		if( addr != 0 )
+			jniSetAsBox( addr, hx, hy, center.x, center.y, angle );
+		float[] verts = new float[] { -hx, -hy, hx, -hy, hx, hy, -hx, hy };
+		float cos = (float)Math.cos( angle ), sin = (float)Math.sin( angle );
+		for( int i = 0; i < verts.length; i += 2 )
+		{
+			float x = verts[i], y = verts[i+1];
+			verts[i] = center.x + cos * x - sin * y;
+			verts[i+1] = center.y + sin * x + cos * y;
+		}
+		this.vertices = verts;
 	}
 	
 	private native void jniSetAsBox( long addr, float hx, float hy, float centerX, float centerY, float angle );
@@ -71,7 +91,9 @@ public class PolygonShape extends Shape
 	 */
 	public void setAsEdge(Vector2 v1, Vector2 v2)
 	{
-		jniSetAsEdge( addr, v1.x, v1.y, v2.x, v2.y );
+		if( addr != 0 )
+			jniSetAsEdge( addr, v1.x, v1.y, v2.x, v2.y );
+		this.vertices = new float[] { v1.x, v1.y, v2.x, v2.y };
 	}
 	
 	private native void jniSetAsEdge( long addr, float v1x, float v1y, float v2x, float v2y );	
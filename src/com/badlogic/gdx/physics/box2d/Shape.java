@@ -20,9 +20,12 @@ public abstract class Shape
 		Polygon,		
 	};
 	
-	/** the address of the shape **/
+	/** the address of the shape, 0 if the native library is not available **/
 	protected long addr;
 	
+	/** the radius, kept in Java when the native library is not available **/
+	protected float radius;
+	
 	/**
 	 *  Get the type of this shape. You can use this to down cast to the concrete shape.
 	 * @return the shape type.
@@ -34,6 +37,8 @@ public abstract class Shape
 	 */
 	public float getRadius( )
 	{
+		if( addr == 0 )
+			return radius;
 		return jniGetRadius( addr );
 	}
 	
@@ -44,7 +49,9 @@ public abstract class Shape
 	 */
 	public void setRadius( float radius )
 	{
-		jniSetRadius( addr, radius );
+		this.radius = radius;
+		if( addr != 0 )
+			jniSetRadius( addr, radius );
 	}
 	
 	private native void jniSetRadius( long addr, float radius );
@@ -55,7 +62,8 @@ public abstract class Shape
 	 */
 	public void dispose( )
 	{
-		jniDispose( addr );
+		if( addr != 0 )
+			jniDispose( addr );
 	}
 	
 	private native void jniDispose( long addr );
@@ -1,10 +1,10 @@
 package com.badlogic.gdx.physics.box2d;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 
 import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.BodyDef.BodyType;
 import com.badlogic.gdx.physics.box2d.JointDef.JointType;
 import com.badlogic.gdx.physics.box2d.joints.DistanceJoint;
 import com.badlogic.gdx.physics.box2d.joints.DistanceJointDef;
@@ -24,6 +24,7 @@ import com.badlogic.gdx.physics.box2d.joints.RevoluteJoint;
 import com.badlogic.gdx.physics.box2d.joints.RevoluteJointDef;
 import com.badlogic.gdx.physics.box2d.joints.WeldJoint;
 import com.badlogic.gdx.physics.box2d.joints.WeldJointDef;
+import com.stickycoding.rokon.Debug;
 
 /**
  * The world class manages all physics entities, dynamic simulation,
@@ -33,42 +34,158 @@ import com.badlogic.gdx.physics.box2d.joints.WeldJointDef;
  */
 public class World 
 {
+	/** true if the native library could be loaded **/
+	private static boolean nativeAvailable = false;
+	
 	static
 	{
-		System.loadLibrary( "gdx" );
+		try
+		{
+			System.loadLibrary( "gdx" );
+			nativeAvailable = true;
+		}
+		catch( UnsatisfiedLinkError e )
+		{
+			nativeAvailable = false;
+		}
 	}
 	
-	/** the address of the world instance **/
+	/** the world is simulated by the native Box2D library **/
+	public static final int BACKEND_NATIVE = 0;
+	
+	/** the world is simulated in Java, see JavaWorld. Only distance, revolute, prismatic and weld joints are supported **/
+	public static final int BACKEND_JAVA = 1;
+	
+	/** the backend used by the two argument constructor **/
+	private static int defaultBackend = BACKEND_NATIVE;
+	
+	/** the address of the world instance, 0 for the Java backend **/
 	private final long addr;
 	
+	/** the Java backend, null for the native backend **/
+	protected final JavaWorld java;
+	
 	/** all known bodies **/
-	protected final HashMap<Long, Body> bodies = new HashMap<Long, Body>();
+	protected final LongMap<Body> bodies = new LongMap<Body>();
 	
 	/** all known fixtures **/
-	protected final HashMap<Long, Fixture> fixtures = new HashMap<Long, Fixture>( );
+	protected final LongMap<Fixture> fixtures = new LongMap<Fixture>( );
 	
 	/** all known joints **/
-	protected final HashMap<Long, Joint> joints = new HashMap<Long, Joint>( );
+	protected final LongMap<Joint> joints = new LongMap<Joint>( );
 	
 	/** Contact filter **/
 	protected ContactFilter contactFilter = null;
 	
+	/** declarative filtering, checked before the contact filter **/
+	protected CollisionRules collisionRules = null;
+	
 	/** Contact listener **/
 	protected ContactListener contactListener = null;		
 	
+	/** the number of floats per body in the transform array, x, y and angle in degrees **/
+	public static final int TRANSFORM_STRIDE = 3;
+	
+	/** bodies whose transform is copied after each step, indexed by their transform slot **/
+	protected Body[] transformBodies = new Body[32];
+	protected int transformCount = 0;
+	
+	/** the copied transforms, TRANSFORM_STRIDE floats for each transform slot **/
+	protected float[] transforms = new float[32 * TRANSFORM_STRIDE];
+	
+	/** when double buffered, the transforms as of the last publishTransforms, null otherwise **/
+	protected float[] publishedTransforms = null;
+	
+	/** when set, contacts are recorded during step and passed to the contact listener by dispatchContacts **/
+	protected boolean bufferContacts = false;
+	
+	/** when set, the world manifold of each recorded contact is copied as well, on by default **/
+	protected boolean bufferManifolds = true;
+	
+	/** the number of floats per recorded manifold, the point count, the normal and two points **/
+	protected static final int MANIFOLD_STRIDE = 7;
+	
+	/** the recorded contacts, two fixture addresses, a begin flag and a touching flag for each **/
+	protected long[] bufferedContactFixtures = new long[32 * 2];
+	protected boolean[] bufferedContactBegins = new boolean[32];
+	protected boolean[] bufferedContactTouching = new boolean[32];
+	protected float[] bufferedContactManifolds = new float[32 * MANIFOLD_STRIDE];
+	protected int bufferedContactCount = 0;
+	
+	/** the contact passed to the contact listener by dispatchContacts **/
+	private final Contact bufferedContact = new Contact( this, 0 );
+	
 	/**
-	 * Construct a world object.
+	 * Construct a world object, simulated by the default backend, which is the native library unless
+	 * changed with setDefaultBackend.
 	 * @param gravity the world gravity vector.
 	 * @param doSleep improve performance by not simulating inactive bodies.
 	 */
 	public World( Vector2 gravity, boolean doSleep )
 	{
-		addr = newWorld( gravity.x, gravity.y, doSleep );	
+		this( gravity, doSleep, defaultBackend );
+	}
+	
+	/**
+	 * Construct a world object with the given backend. There is no fallback, BACKEND_NATIVE throws an
+	 * UnsatisfiedLinkError if the native library could not be loaded.
+	 * @param gravity the world gravity vector.
+	 * @param doSleep improve performance by not simulating inactive bodies.
+	 * @param backend BACKEND_NATIVE or BACKEND_JAVA
+	 */
+	public World( Vector2 gravity, boolean doSleep, int backend )
+	{
+		if( backend == BACKEND_NATIVE )
+		{
+			if( !nativeAvailable )
+				throw new UnsatisfiedLinkError( "The gdx native library could not be loaded, use BACKEND_JAVA to simulate in Java" );
+			addr = newWorld( gravity.x, gravity.y, doSleep );
+			java = null;
+		}
+		else
+		{
+			addr = 0;
+			java = new JavaWorld( this, gravity.x, gravity.y, doSleep );
+		}
 		
 		for( int i = 0; i < 200; i++ )
 			freeContacts.add( new Contact( this, 0 ) );
 	}
 	
+	/**
+	 * Sets the backend used by worlds created without one, such as BACKEND_JAVA for a JVM or headless run
+	 * where the native library is not available. The default is BACKEND_NATIVE
+	 * @param backend BACKEND_NATIVE or BACKEND_JAVA
+	 */
+	public static void setDefaultBackend( int backend )
+	{
+		defaultBackend = backend;
+	}
+	
+	/**
+	 * @return the backend used by worlds created without one
+	 */
+	public static int getDefaultBackend( )
+	{
+		return defaultBackend;
+	}
+	
+	/**
+	 * @return true if the native library could be loaded
+	 */
+	public static boolean isNativeAvailable()
+	{
+		return nativeAvailable;
+	}
+	
+	/**
+	 * @return BACKEND_NATIVE or BACKEND_JAVA
+	 */
+	public int getBackend()
+	{
+		return java != null ? BACKEND_JAVA : BACKEND_NATIVE;
+	}
+	
 	private native long newWorld( float gravityX, float gravityY, boolean doSleep );
 	
 	/**
@@ -89,6 +206,21 @@ public class World
 	{
 		this.contactFilter = filter;
 	}
+	
+	/**
+	 * Sets the rules which filter pairs of fixtures without calling the contact filter, which is then only
+	 * used for the pairs a rule marks as CollisionRules.CUSTOM
+	 * @param rules the rules, or null to use only the contact filter
+	 */
+	public void setCollisionRules(CollisionRules rules)
+	{
+		this.collisionRules = rules;
+	}
+	
+	public CollisionRules getCollisionRules()
+	{
+		return collisionRules;
+	}
 
 	/**
 	 *  Register a contact event listener. The listener is owned by you and must
@@ -106,6 +238,17 @@ public class World
 	 */
 	public Body createBody(BodyDef def)
 	{
+		if( java != null )
+		{
+			Body body = new Body( this, java.nextAddress( ) );
+			body.java = new JavaBody( body, def );
+			java.addBody( body.java );
+			body.isStatic = def.type == BodyType.StaticBody;
+			body.active = def.active;
+			body.type = def.type;
+			this.bodies.put( body.addr, body );
+			return body;
+		}
 		Body body = new Body( this, jniCreateBody( addr, 
 										def.type.getValue(),
 										def.position.x, def.position.y,
@@ -120,6 +263,9 @@ public class World
 										def.bullet,
 										def.active,
 										def.inertiaScale) );
+		body.isStatic = def.type == BodyType.StaticBody;
+		body.active = def.active;
+		body.type = def.type;
 		this.bodies.put( body.addr, body );
 		return body;
 	}
@@ -147,12 +293,30 @@ public class World
 	 */
 	public void destroyBody(Body body)
 	{		
+		removeTransformSync( body );
 		this.bodies.remove( body.addr );
 		for( int i = 0; i < body.getFixtureList().size(); i++ )
 			this.fixtures.remove(body.getFixtureList().get(i).addr);
 		for( int i = 0; i < body.getJointList().size(); i++ )
-			this.joints.remove(body.getJointList().get(i).joint.addr);
-		jniDestroyBody( addr, body.addr );
+		{
+			Joint joint = body.getJointList().get(i).joint;
+			this.joints.remove(joint.addr);
+			if( joint.jointEdgeA.other == body )
+				joint.jointEdgeB.other.joints.remove(joint.jointEdgeA);
+			else
+				joint.jointEdgeA.other.joints.remove(joint.jointEdgeB);
+			if( java != null )
+				java.removeJoint( joint.java );
+		}
+		if( java != null )
+			java.removeBody( body.java );
+		else
+			jniDestroyBody( addr, body.addr );
+		if( bufferedContactCount > 0 )
+		{
+			for( int i = 0; i < body.getFixtureList().size(); i++ )
+				forgetBufferedFixture( body.getFixtureList().get(i).addr );
+		}
 	}
 
 	private native void jniDestroyBody( long addr, long bodyAddr );
@@ -160,11 +324,22 @@ public class World
 	/** 
 	 * Create a joint to constrain bodies together. No reference to the definition
 	 * is retained. This may cause the connected bodies to cease colliding.
+	 * The Java backend only supports distance, revolute, prismatic and weld joints, and returns null for the others.
 	 * @warning This function is locked during callbacks.
 	 */
 	public Joint createJoint(JointDef def)
 	{
-		long jointAddr = createProperJoint( def );
+		JavaJoint javaJoint = null;
+		if( java != null )
+		{
+			javaJoint = JavaJoint.create( def );
+			if( javaJoint == null )
+			{
+				Debug.error( "World.createJoint - " + def.type + " is not supported by the Java backend" );
+				return null;
+			}
+		}
+		long jointAddr = java != null ? java.nextAddress( ) : createProperJoint( def );
 		Joint joint = null;
 		if( def.type == JointType.DistanceJoint )
 			joint = new DistanceJoint( this, jointAddr );
@@ -192,6 +367,11 @@ public class World
 		joint.jointEdgeB = jointEdgeB;
 		def.bodyA.joints.add( jointEdgeA );
 		def.bodyB.joints.add( jointEdgeB );
+		if( javaJoint != null )
+		{
+			joint.java = javaJoint;
+			java.addJoint( javaJoint );
+		}
 		return joint;
 	}
 	
@@ -381,7 +561,10 @@ public class World
 		joints.remove(joint.addr);
 		joint.jointEdgeA.other.joints.remove(joint.jointEdgeB);
 		joint.jointEdgeB.other.joints.remove(joint.jointEdgeA);
-		jniDestroyJoint( addr, joint.addr );
+		if( java != null )
+			java.removeJoint( joint.java );
+		else
+			jniDestroyJoint( addr, joint.addr );
 	}
 	
 	private native void jniDestroyJoint( long addr, long jointAddr );
@@ -397,7 +580,267 @@ public class World
 						int velocityIterations,
 						int positionIterations)
 	{
-		jniStep( addr, timeStep, velocityIterations, positionIterations );
+		if( java != null )
+			java.step( timeStep, velocityIterations, positionIterations );
+		else
+			jniStep( addr, timeStep, velocityIterations, positionIterations );
+		if( transformCount > 0 )
+			syncTransforms( );
+	}
+	
+	/**
+	 * Registers a body to have its position and angle copied into the transform array after
+	 * every step, so they can be read without going through JNI. Static and inactive bodies are
+	 * only copied again after setTransform or setType.
+	 * @return the transform slot of the body, this can change when other bodies are removed
+	 */
+	public int addTransformSync(Body body)
+	{
+		if( body.transformSlot != -1 )
+			return body.transformSlot;
+		if( transformCount == transformBodies.length )
+		{
+			Body[] newBodies = new Body[transformBodies.length * 2];
+			System.arraycopy( transformBodies, 0, newBodies, 0, transformCount );
+			transformBodies = newBodies;
+			float[] newTransforms = new float[newBodies.length * TRANSFORM_STRIDE];
+			System.arraycopy( transforms, 0, newTransforms, 0, transformCount * TRANSFORM_STRIDE );
+			transforms = newTransforms;
+			if( publishedTransforms != null )
+			{
+				newTransforms = new float[newBodies.length * TRANSFORM_STRIDE];
+				System.arraycopy( publishedTransforms, 0, newTransforms, 0, transformCount * TRANSFORM_STRIDE );
+				publishedTransforms = newTransforms;
+			}
+		}
+		body.transformSlot = transformCount;
+		body.transformDirty = true;
+		transformBodies[transformCount] = body;
+		transformCount++;
+		syncTransform( body.transformSlot );
+		if( publishedTransforms != null )
+			System.arraycopy( transforms, body.transformSlot * TRANSFORM_STRIDE, publishedTransforms, body.transformSlot * TRANSFORM_STRIDE, TRANSFORM_STRIDE );
+		return body.transformSlot;
+	}
+	
+	/**
+	 * Stops a body having its transform copied after every step. The last registered body
+	 * takes over its transform slot.
+	 */
+	public void removeTransformSync(Body body)
+	{
+		int slot = body.transformSlot;
+		if( slot == -1 )
+			return;
+		transformCount--;
+		if( slot != transformCount )
+		{
+			Body last = transformBodies[transformCount];
+			transformBodies[slot] = last;
+			last.transformSlot = slot;
+			System.arraycopy( transforms, transformCount * TRANSFORM_STRIDE, transforms, slot * TRANSFORM_STRIDE, TRANSFORM_STRIDE );
+			if( publishedTransforms != null )
+				System.arraycopy( publishedTransforms, transformCount * TRANSFORM_STRIDE, publishedTransforms, slot * TRANSFORM_STRIDE, TRANSFORM_STRIDE );
+		}
+		transformBodies[transformCount] = null;
+		body.transformSlot = -1;
+	}
+	
+	/**
+	 * Copies the transforms of all registered bodies into the transform array. This is done
+	 * automatically after each step.
+	 */
+	public void syncTransforms()
+	{
+		for( int i = 0; i < transformCount; i++ )
+			syncTransform( i );
+	}
+	
+	private void syncTransform( int slot )
+	{
+		Body body = transformBodies[slot];
+		if( (body.isStatic || !body.active) && !body.transformDirty )
+			return;
+		body.transformDirty = false;
+		Vector2 position = body.getPosition();
+		int offset = slot * TRANSFORM_STRIDE;
+		transforms[offset] = position.x;
+		transforms[offset + 1] = position.y;
+		transforms[offset + 2] = (body.getAngle() * RAD_TO_DEG) % 360;
+	}
+	
+	private static final float RAD_TO_DEG = 57.2957795f;
+	
+	/**
+	 * @return the transform array, TRANSFORM_STRIDE floats for each transform slot. This is
+	 * reused, and only valid until the next step, or the next publishTransforms if double buffered.
+	 */
+	public float[] getTransforms()
+	{
+		if( publishedTransforms != null )
+			return publishedTransforms;
+		return transforms;
+	}
+	
+	/**
+	 * Sets whether getTransforms returns a second copy of the transforms, which is only updated
+	 * by publishTransforms. This allows the transforms to be read while another thread steps.
+	 */
+	public void setDoubleBuffered(boolean flag)
+	{
+		if( flag && publishedTransforms == null )
+		{
+			publishedTransforms = new float[transforms.length];
+			publishTransforms( );
+		}
+		else if( !flag )
+			publishedTransforms = null;
+	}
+	
+	/**
+	 * Copies the transforms from the last step to the array returned by getTransforms, when double
+	 * buffered. This must not be called while stepping.
+	 */
+	public void publishTransforms()
+	{
+		if( publishedTransforms != null )
+			System.arraycopy( transforms, 0, publishedTransforms, 0, transformCount * TRANSFORM_STRIDE );
+	}
+	
+	/**
+	 * Sets whether contacts are recorded during step, rather than passed to the contact listener
+	 * straight away. Recorded contacts keep their fixtures and touching state, and are passed on by
+	 * dispatchContacts, when bodies can be created and destroyed freely. Turning this off dispatches
+	 * any which are waiting.
+	 */
+	public void setBufferContacts(boolean flag)
+	{
+		if( !flag && bufferContacts )
+			dispatchContacts( );
+		bufferContacts = flag;
+	}
+	
+	/**
+	 * @return true if contacts are recorded during step
+	 */
+	public boolean isBufferContacts()
+	{
+		return bufferContacts;
+	}
+	
+	/**
+	 * Sets whether the world manifold of each recorded contact is copied, which it is by default. This
+	 * costs a call through JNI for every contact, so it can be turned off when the listener does not use
+	 * the manifold, in which case Contact.GetWorldManifold returns an empty manifold for recorded contacts.
+	 * The native contact no longer exists once the step has finished, so the manifold can not be fetched later.
+	 */
+	public void setBufferManifolds(boolean flag)
+	{
+		bufferManifolds = flag;
+		if( flag && bufferedContactManifolds == null )
+			bufferedContactManifolds = new float[bufferedContactBegins.length * MANIFOLD_STRIDE];
+	}
+	
+	/**
+	 * Passes the contacts recorded during the last steps to the contact listener, in the order they
+	 * happened. Contacts whose fixtures have since been destroyed are skipped. This must not be called
+	 * while stepping.
+	 */
+	public void dispatchContacts()
+	{
+		for( int i = 0; i < bufferedContactCount; i++ )
+		{
+			if( contactListener == null )
+				break;
+			Fixture fixtureA = fixtures.get( bufferedContactFixtures[i * 2] );
+			Fixture fixtureB = fixtures.get( bufferedContactFixtures[i * 2 + 1] );
+			if( fixtureA == null || fixtureB == null )
+				continue;
+			if( bufferManifolds )
+				bufferedContact.buffer( fixtureA, fixtureB, bufferedContactTouching[i], bufferedContactManifolds, i * MANIFOLD_STRIDE );
+			else
+				bufferedContact.buffer( fixtureA, fixtureB, bufferedContactTouching[i], null, 0 );
+			if( bufferedContactBegins[i] )
+				contactListener.beginContact( bufferedContact );
+			else
+				contactListener.endContact( bufferedContact );
+		}
+		bufferedContact.release( );
+		bufferedContactCount = 0;
+	}
+	
+	private void bufferContact( Contact contact, boolean begin )
+	{
+		if( bufferedContactCount == bufferedContactBegins.length )
+		{
+			int length = bufferedContactBegins.length * 2;
+			long[] newFixtures = new long[length * 2];
+			System.arraycopy( bufferedContactFixtures, 0, newFixtures, 0, bufferedContactCount * 2 );
+			bufferedContactFixtures = newFixtures;
+			boolean[] newBegins = new boolean[length];
+			System.arraycopy( bufferedContactBegins, 0, newBegins, 0, bufferedContactCount );
+			bufferedContactBegins = newBegins;
+			boolean[] newTouching = new boolean[length];
+			System.arraycopy( bufferedContactTouching, 0, newTouching, 0, bufferedContactCount );
+			bufferedContactTouching = newTouching;
+			if( bufferedContactManifolds != null )
+			{
+				float[] newManifolds = new float[length * MANIFOLD_STRIDE];
+				System.arraycopy( bufferedContactManifolds, 0, newManifolds, 0, bufferedContactCount * MANIFOLD_STRIDE );
+				bufferedContactManifolds = newManifolds;
+			}
+		}
+		int index = bufferedContactCount;
+		if( contact.java != null )
+		{
+			bufferedContactFixtures[index * 2] = contact.java.fixtureA.addr;
+			bufferedContactFixtures[index * 2 + 1] = contact.java.fixtureB.addr;
+			bufferedContactTouching[index] = contact.java.touching;
+		}
+		else
+		{
+			bufferedContactFixtures[index * 2] = contact.jniGetFixtureA( contact.addr );
+			bufferedContactFixtures[index * 2 + 1] = contact.jniGetFixtureB( contact.addr );
+			bufferedContactTouching[index] = contact.jniIsTouching( contact.addr );
+		}
+		bufferedContactBegins[index] = begin;
+		if( bufferManifolds )
+		{
+			int offset = index * MANIFOLD_STRIDE;
+			bufferedContactManifolds[offset] = contact.computeWorldManifold( manifoldTmp );
+			System.arraycopy( manifoldTmp, 0, bufferedContactManifolds, offset + 1, MANIFOLD_STRIDE - 1 );
+		}
+		bufferedContactCount++;
+	}
+	
+	private final float[] manifoldTmp = new float[MANIFOLD_STRIDE - 1];
+	
+	/**
+	 * Stops recorded contacts from resolving to a destroyed fixture, whose address may be reused
+	 */
+	protected void forgetBufferedFixture( long fixtureAddr )
+	{
+		for( int i = 0; i < bufferedContactCount * 2; i++ )
+		{
+			if( bufferedContactFixtures[i] == fixtureAddr )
+				bufferedContactFixtures[i] = 0;
+		}
+	}
+	
+	/**
+	 * @return the body in a transform slot
+	 */
+	public Body getTransformBody( int slot )
+	{
+		return transformBodies[slot];
+	}
+	
+	/**
+	 * @return the number of bodies registered with addTransformSync
+	 */
+	public int getTransformCount()
+	{
+		return transformCount;
 	}
 	
 	private native void jniStep( long addr, float timeStep, int velocityIterations, int positionIterations );
@@ -410,7 +853,10 @@ public class World
 	 */
 	public void clearForces()
 	{
-		jniClearForces(addr);
+		if( java != null )
+			java.clearForces( );
+		else
+			jniClearForces(addr);
 	}
 
 	private native void jniClearForces(long addr);
@@ -420,17 +866,21 @@ public class World
 	 */
 	public void setWarmStarting(boolean flag)
 	{
-		jniSetWarmStarting(addr, flag);
+		if( java != null )
+			java.warmStarting = flag;
+		else
+			jniSetWarmStarting(addr, flag);
 	}
 
 	private native void jniSetWarmStarting( long addr, boolean flag );
 	
 	/**
-	 * Enable/disable continuous physics. For testing.
+	 * Enable/disable continuous physics. For testing. The Java backend has no continuous physics.
 	 */
 	public void setContinuousPhysics(boolean flag)
 	{
-		jniSetContiousPhysics(addr, flag);
+		if( java == null )
+			jniSetContiousPhysics(addr, flag);
 	}
 	
 	private native void jniSetContiousPhysics( long addr, boolean flag );
@@ -440,6 +890,8 @@ public class World
 	 */
 	public int getProxyCount()
 	{
+		if( java != null )
+			return java.proxyCount;
 		return jniGetProxyCount(addr);
 	}
 	
@@ -450,6 +902,8 @@ public class World
 	 */
 	public int getBodyCount()
 	{
+		if( java != null )
+			return java.bodyCount;
 		return jniGetBodyCount(addr);
 	}
 	
@@ -460,6 +914,8 @@ public class World
 	 */
 	public int getJointCount()
 	{
+		if( java != null )
+			return java.jointCount;
 		return jniGetJointcount(addr);
 	}
 	
@@ -470,6 +926,8 @@ public class World
 	 */
 	public int getContactCount()
 	{
+		if( java != null )
+			return java.contactCount;
 		return jniGetContactCount( addr );
 	}
 
@@ -480,6 +938,12 @@ public class World
 	 */
 	public void setGravity(Vector2 gravity)
 	{
+		if( java != null )
+		{
+			java.gravityX = gravity.x;
+			java.gravityY = gravity.y;
+			return;
+		}
 		jniSetGravity( addr, gravity.x, gravity.y );
 	}
 	
@@ -492,6 +956,8 @@ public class World
 	final Vector2 gravity = new Vector2( );	
 	public Vector2 getGravity()
 	{
+		if( java != null )
+			return gravity.set( java.gravityX, java.gravityY );
 		jniGetGravity( addr, tmpGravity );
 		gravity.x = tmpGravity[0]; gravity.y = tmpGravity[1];
 		return gravity;
@@ -504,6 +970,8 @@ public class World
 	 */	
 	public boolean isLocked()
 	{
+		if( java != null )
+			return java.locked;
 		return jniIsLocked( addr );
 	}
 
@@ -514,7 +982,10 @@ public class World
 	 */
 	public void setAutoClearForces(boolean flag)
 	{
-		jniSetAutoClearForces(addr, flag);
+		if( java != null )
+			java.autoClearForces = flag;
+		else
+			jniSetAutoClearForces(addr, flag);
 	}
 
 	private native void jniSetAutoClearForces( long addr, boolean flag );
@@ -524,6 +995,8 @@ public class World
 	 */
 	public boolean getAutoClearForces()
 	{
+		if( java != null )
+			return java.autoClearForces;
 		return jniGetAutoClearForces( addr );
 	}
 	
@@ -538,21 +1011,219 @@ public class World
 	public void QueryAABB(QueryCallback callback, float lowerX, float lowerY, float upperX, float upperY )
 	{
 		queryCallback = callback;
-		jniQueryAABB( addr, lowerX, lowerY, upperX, upperY );
+		if( java != null )
+			java.queryAABB( callback, lowerX, lowerY, upperX, upperY );
+		else
+			jniQueryAABB( addr, lowerX, lowerY, upperX, upperY );
 	}
 	
 	private QueryCallback queryCallback = null;;
 	
 	private native void jniQueryAABB( long addr, float lowX, float lowY, float upX, float upY );
 	
-//
-//	/// Ray-cast the world for all fixtures in the path of the ray. Your callback
-//	/// controls whether you get the closest point, any point, or n-points.
-//	/// The ray-cast ignores shapes that contain the starting point.
-//	/// @param callback a user implemented callback class.
-//	/// @param point1 the ray starting point
-//	/// @param point2 the ray ending point
-//	void RayCast(b2RayCastCallback* callback, const b2Vec2& point1, const b2Vec2& point2) const;
+	/** the number of floats per box passed to queryAABB, lower x, lower y, upper x and upper y **/
+	public static final int AABB_STRIDE = 4;
+	
+	/**
+	 * Queries the world with many AABBs at once, and writes the fixtures found into arrays rather than
+	 * calling back for each one. Results stop being written once the arrays are full.
+	 * @param boxes AABB_STRIDE floats for each box
+	 * @param boxCount the number of boxes
+	 * @param resultBoxes receives the index of the box for each result
+	 * @param resultFixtures receives the fixture for each result
+	 * @return the number of results written
+	 */
+	public int queryAABB( float[] boxes, int boxCount, int[] resultBoxes, Fixture[] resultFixtures )
+	{
+		int resultCount = 0;
+		int maxResults = Math.min( resultBoxes.length, resultFixtures.length );
+		for( int i = 0; i < boxCount && resultCount < maxResults; i++ )
+		{
+			collectFixtures( boxes[i * AABB_STRIDE], boxes[i * AABB_STRIDE + 1], boxes[i * AABB_STRIDE + 2], boxes[i * AABB_STRIDE + 3] );
+			for( int j = 0; j < candidateCount && resultCount < maxResults; j++ )
+			{
+				resultBoxes[resultCount] = i;
+				resultFixtures[resultCount] = candidates[j];
+				resultCount++;
+			}
+		}
+		clearCandidates( );
+		return resultCount;
+	}
+	
+	/** rayCast reports only the closest fixture hit by each ray **/
+	public static final int RAYCAST_CLOSEST = 0;
+	
+	/** rayCast reports the first fixture found to be hit by each ray, which is not necessarily the closest **/
+	public static final int RAYCAST_ANY = 1;
+	
+	/** rayCast reports every fixture hit by each ray, in no particular order **/
+	public static final int RAYCAST_ALL = 2;
+	
+	/** the number of floats per ray passed to rayCast, start x, start y, end x and end y **/
+	public static final int RAY_STRIDE = 4;
+	
+	/** the number of floats per hit written by rayCast, point x, point y, normal x, normal y and fraction **/
+	public static final int HIT_STRIDE = 5;
+	
+	/**
+	 * Ray-cast the world for all fixtures in the path of the ray. Your callback
+	 * controls whether you get the closest point, any point, or n-points.
+	 * The ray-cast ignores shapes that contain the starting point.
+	 * @param callback a user implemented callback class.
+	 * @param x1 the ray starting point
+	 * @param x2 the ray ending point
+	 */
+	public void rayCast( RayCastCallback callback, float x1, float y1, float x2, float y2 )
+	{
+		collectFixtures( Math.min( x1, x2 ), Math.min( y1, y2 ), Math.max( x1, x2 ), Math.max( y1, y2 ) );
+		float maxFraction = 1;
+		for( int i = 0; i < candidateCount; i++ )
+		{
+			Fixture fixture = candidates[i];
+			if( !rayCastFixture( fixture, x1, y1, x2, y2, maxFraction ) )
+				continue;
+			float fraction = rayCastTmp[0];
+			rayCastPoint.set( x1 + fraction * (x2 - x1), y1 + fraction * (y2 - y1) );
+			rayCastNormal.set( rayCastTmp[1], rayCastTmp[2] );
+			float value = callback.reportRayFixture( fixture, rayCastPoint, rayCastNormal, fraction );
+			if( value == 0 )
+				break;
+			if( value > 0 && value < maxFraction )
+				maxFraction = value;
+		}
+		clearCandidates( );
+	}
+	
+	/**
+	 * Casts many rays at once, and writes the hits into arrays rather than calling back for each one.
+	 * The fixtures in each ray's AABB are found by the native broad-phase, and the rays are tested against
+	 * their shapes in Java. Hits stop being written once the arrays are full. Registered bodies are tested
+	 * where getTransforms has them. While another thread steps the world, wait for the step to finish first,
+	 * as the broad-phase is changed by stepping.
+	 * @param rays RAY_STRIDE floats for each ray
+	 * @param rayCount the number of rays
+	 * @param mode RAYCAST_CLOSEST, RAYCAST_ANY or RAYCAST_ALL
+	 * @param hitRays receives the index of the ray for each hit
+	 * @param hitFixtures receives the fixture for each hit
+	 * @param hits receives HIT_STRIDE floats for each hit
+	 * @return the number of hits written
+	 */
+	public int rayCast( float[] rays, int rayCount, int mode, int[] hitRays, Fixture[] hitFixtures, float[] hits )
+	{
+		int hitCount = 0;
+		int maxHits = Math.min( Math.min( hitRays.length, hitFixtures.length ), hits.length / HIT_STRIDE );
+		for( int i = 0; i < rayCount && hitCount < maxHits; i++ )
+		{
+			final float x1 = rays[i * RAY_STRIDE], y1 = rays[i * RAY_STRIDE + 1];
+			final float x2 = rays[i * RAY_STRIDE + 2], y2 = rays[i * RAY_STRIDE + 3];
+			collectFixtures( Math.min( x1, x2 ), Math.min( y1, y2 ), Math.max( x1, x2 ), Math.max( y1, y2 ) );
+			float maxFraction = 1;
+			Fixture closest = null;
+			for( int j = 0; j < candidateCount && hitCount < maxHits; j++ )
+			{
+				Fixture fixture = candidates[j];
+				if( !rayCastFixture( fixture, x1, y1, x2, y2, maxFraction ) )
+					continue;
+				if( mode == RAYCAST_CLOSEST )
+				{
+					closest = fixture;
+					maxFraction = rayCastTmp[0];
+					System.arraycopy( rayCastTmp, 0, rayCastClosest, 0, 3 );
+					continue;
+				}
+				writeHit( hitCount, i, fixture, hitRays, hitFixtures, hits, rayCastTmp, x1, y1, x2, y2 );
+				hitCount++;
+				if( mode == RAYCAST_ANY )
+					break;
+			}
+			if( closest != null )
+			{
+				writeHit( hitCount, i, closest, hitRays, hitFixtures, hits, rayCastClosest, x1, y1, x2, y2 );
+				hitCount++;
+			}
+		}
+		clearCandidates( );
+		return hitCount;
+	}
+	
+	private void writeHit( int hitIndex, int ray, Fixture fixture, int[] hitRays, Fixture[] hitFixtures, float[] hits, float[] hit, float x1, float y1, float x2, float y2 )
+	{
+		final float fraction = hit[0];
+		final int offset = hitIndex * HIT_STRIDE;
+		hitRays[hitIndex] = ray;
+		hitFixtures[hitIndex] = fixture;
+		hits[offset] = x1 + fraction * (x2 - x1);
+		hits[offset + 1] = y1 + fraction * (y2 - y1);
+		hits[offset + 2] = hit[1];
+		hits[offset + 3] = hit[2];
+		hits[offset + 4] = fraction;
+	}
+	
+	private boolean rayCastFixture( Fixture fixture, float x1, float y1, float x2, float y2, float maxFraction )
+	{
+		final Body body = fixture.getBody( );
+		final int slot = body.transformSlot;
+		float bodyX, bodyY, angle;
+		if( slot != -1 && !body.transformDirty )
+		{
+			// the published copy when double buffered, as the other one is written while stepping
+			final float[] source = getTransforms( );
+			bodyX = source[slot * TRANSFORM_STRIDE];
+			bodyY = source[slot * TRANSFORM_STRIDE + 1];
+			angle = source[slot * TRANSFORM_STRIDE + 2] / RAD_TO_DEG;
+		}
+		else
+		{
+			final Vector2 position = body.getPosition( );
+			bodyX = position.x;
+			bodyY = position.y;
+			angle = body.getAngle( );
+		}
+		return fixture.rayCast( x1, y1, x2, y2, maxFraction, bodyX, bodyY, (float)Math.cos( angle ), (float)Math.sin( angle ), rayCastTmp );
+	}
+	
+	private final float[] rayCastTmp = new float[3];
+	private final float[] rayCastClosest = new float[3];
+	private final Vector2 rayCastPoint = new Vector2( );
+	private final Vector2 rayCastNormal = new Vector2( );
+	
+	/** the fixtures found by the last collectFixtures **/
+	private Fixture[] candidates = new Fixture[32];
+	private int candidateCount = 0;
+	
+	private final QueryCallback candidateCollector = new QueryCallback( )
+	{
+		public boolean reportFixture( Fixture fixture )
+		{
+			if( fixture == null )
+				return true;
+			if( candidateCount == candidates.length )
+			{
+				Fixture[] newCandidates = new Fixture[candidates.length * 2];
+				System.arraycopy( candidates, 0, newCandidates, 0, candidateCount );
+				candidates = newCandidates;
+			}
+			candidates[candidateCount++] = fixture;
+			return true;
+		}
+	};
+	
+	private void collectFixtures( float lowerX, float lowerY, float upperX, float upperY )
+	{
+		candidateCount = 0;
+		QueryCallback callback = queryCallback;
+		QueryAABB( candidateCollector, lowerX, lowerY, upperX, upperY );
+		queryCallback = callback;
+	}
+	
+	private void clearCandidates( )
+	{
+		for( int i = 0; i < candidateCount; i++ )
+			candidates[i] = null;
+		candidateCount = 0;
+	}
+	
 //
 //	/// Get the world contact list. With the returned contact, use b2Contact::GetNext to get
 //	/// the next contact in the world list. A NULL contact indicates the end of the list.
@@ -576,13 +1247,17 @@ public class World
 			for( int i = 0; i < numContacts - freeConts; i++ )
 				freeContacts.add( new Contact( this, 0 ) );
 		}
-		jniGetContactList( addr, contactAddrs );
+		if( java == null )
+			jniGetContactList( addr, contactAddrs );
 		
 		contacts.clear();			
 		for( int i = 0; i < numContacts; i++ )
 		{
 			Contact contact = freeContacts.get(i);
-			contact.addr = contactAddrs[i];
+			if( java != null )
+				contact.java = java.contacts[i];
+			else
+				contact.addr = contactAddrs[i];
 			contacts.add( contact );
 		}
 		
@@ -593,7 +1268,8 @@ public class World
 	
 	public void dispose( )
 	{
-		jniDispose( addr );
+		if( java == null )
+			jniDispose( addr );
 	}
 	
 	private native void jniDispose( long addr );	
@@ -606,26 +1282,78 @@ public class World
 	 */
 	private boolean contactFilter( long fixtureA, long fixtureB )
 	{
-		if( contactFilter != null )
-			return contactFilter.shouldCollide( fixtures.get(fixtureA), fixtures.get(fixtureB));
+		if( contactFilter != null || collisionRules != null )
+			return shouldCollide( fixtures.get(fixtureA), fixtures.get(fixtureB) );
 		else
 			return true;
 	}
+	
+	/**
+	 * Called for each new pair of fixtures. The collision rules are checked first, then the contact
+	 * filter, and without either the filter data is used as b2ContactFilter does
+	 */
+	protected boolean shouldCollide( Fixture fixtureA, Fixture fixtureB )
+	{
+		if( collisionRules != null )
+		{
+			final int rule = collisionRules.getRule( fixtureA, fixtureB );
+			if( rule == CollisionRules.COLLIDE )
+				return true;
+			if( rule == CollisionRules.IGNORE )
+				return false;
+			if( rule == CollisionRules.CUSTOM && contactFilter != null )
+				return contactFilter.shouldCollide( fixtureA, fixtureB );
+		}
+		else if( contactFilter != null )
+			return contactFilter.shouldCollide( fixtureA, fixtureB );
+		if( fixtureA.groupIndex == fixtureB.groupIndex && fixtureA.groupIndex != 0 )
+			return fixtureA.groupIndex > 0;
+		return (fixtureA.maskBits & fixtureB.categoryBits) != 0 && (fixtureA.categoryBits & fixtureB.maskBits) != 0;
+	}
 		
 	private final Contact contact = new Contact(this, 0 );
 	
 	private void beginContact( long contactAddr )
 	{
-		contact.addr = contactAddr;		
-		if( contactListener != null )
-			contactListener.beginContact( contact );
+		contact.addr = contactAddr;
+		reportContact( true );
 	}
 	
 	private void endContact( long contactAddr )
 	{
 		contact.addr = contactAddr;
-		contact.GetWorldManifold();	
-		if( contactListener != null )
+		reportContact( false );
+	}
+	
+	/**
+	 * Called by the Java backend when a contact begins touching
+	 */
+	protected void beginContact( JavaContact javaContact )
+	{
+		contact.java = javaContact;
+		reportContact( true );
+		contact.java = null;
+	}
+	
+	/**
+	 * Called by the Java backend when a contact stops touching
+	 */
+	protected void endContact( JavaContact javaContact )
+	{
+		contact.java = javaContact;
+		reportContact( false );
+		contact.java = null;
+	}
+	
+	private void reportContact( boolean begin )
+	{
+		if( contactListener == null )
+			return;
+		if( bufferContacts )
+			bufferContact( contact, begin );
+		else if( begin )
+			contactListener.beginContact( contact );
+		else
 			contactListener.endContact( contact );
 	}
 	
@@ -21,7 +21,10 @@ public class DistanceJoint extends Joint
 	 */
 	public void setLength(float length)
 	{
-		jniSetLength( addr, length );
+		if( isJava( ) )
+			setJavaValue( LENGTH, length );
+		else
+			jniSetLength( addr, length );
 	}
 	
 	private native void jniSetLength( long addr, float length );	
@@ -32,6 +35,8 @@ public class DistanceJoint extends Joint
 	 */
 	public float getLength()
 	{
+		if( isJava( ) )
+			return getJavaValue( LENGTH );
 		return jniGetLength( addr );
 	}
 	
@@ -42,7 +47,10 @@ public class DistanceJoint extends Joint
 	 */
 	public void setFrequency(float hz)
 	{
-		jniSetFrequency( addr, hz );
+		if( isJava( ) )
+			setJavaValue( FREQUENCY, hz );
+		else
+			jniSetFrequency( addr, hz );
 	}
 	
 	private native void jniSetFrequency( long addr, float hz );
@@ -52,6 +60,8 @@ public class DistanceJoint extends Joint
 	 */
 	public float getFrequency()
 	{
+		if( isJava( ) )
+			return getJavaValue( FREQUENCY );
 		return jniGetFrequency( addr );
 	}
 	
@@ -62,7 +72,10 @@ public class DistanceJoint extends Joint
 	 */
 	public void setDampingRatio(float ratio)
 	{
-		jniSetDampingRatio( addr, ratio );
+		if( isJava( ) )
+			setJavaValue( DAMPING_RATIO, ratio );
+		else
+			jniSetDampingRatio( addr, ratio );
 	}
 	
 	private native void jniSetDampingRatio( long addr, float ratio );
@@ -72,6 +85,8 @@ public class DistanceJoint extends Joint
 	 */
 	public float getDampingRatio()
 	{
+		if( isJava( ) )
+			return getJavaValue( DAMPING_RATIO );
 		return jniGetDampingRatio( addr );
 	}
 	
@@ -21,6 +21,8 @@ public class PrismaticJoint extends Joint
 	 */
 	public float getJointTranslation() 
 	{
+		if( isJava( ) )
+			return getJavaValue( JOINT_POSITION );
 		return jniGetJointTranslation( addr );
 	}
 	
@@ -31,6 +33,8 @@ public class PrismaticJoint extends Joint
 	 */
 	public float getJointSpeed()
 	{
+		if( isJava( ) )
+			return getJavaValue( JOINT_SPEED );
 		return jniGetJointSpeed( addr );
 	}
 	
@@ -41,6 +45,8 @@ public class PrismaticJoint extends Joint
 	 */
 	public boolean isLimitEnabled()
 	{
+		if( isJava( ) )
+			return getJavaValue( LIMIT_ENABLED ) != 0;
 		return jniIsLimitEnabled( addr );
 	}
 	
@@ -51,7 +57,10 @@ public class PrismaticJoint extends Joint
 	 */
 	public void enableLimit(boolean flag)
 	{
-		jniEnableLimit( addr, flag );
+		if( isJava( ) )
+			setJavaValue( LIMIT_ENABLED, flag ? 1 : 0 );
+		else
+			jniEnableLimit( addr, flag );
 	}
 	
 	private native void jniEnableLimit( long addr, boolean flag );
@@ -61,6 +70,8 @@ public class PrismaticJoint extends Joint
 	 */
 	public float getLowerLimit()
 	{
+		if( isJava( ) )
+			return getJavaValue( LOWER_LIMIT );
 		return jniGetLowerLimit( addr );
 	}
 
@@ -71,6 +82,8 @@ public class PrismaticJoint extends Joint
 	 */
 	public float getUpperLimit()
 	{
+		if( isJava( ) )
+			return getJavaValue( UPPER_LIMIT );
 		return jniGetUpperLimit( addr );
 	}
 	
@@ -81,7 +94,13 @@ public class PrismaticJoint extends Joint
 	 */
 	public void setLimits(float lower, float upper)
 	{
-		jniSetLimits( addr, lower, upper );
+		if( isJava( ) )
+		{
+			setJavaValue( LOWER_LIMIT, lower );
+			setJavaValue( UPPER_LIMIT, upper );
+		}
+		else
+			jniSetLimits( addr, lower, upper );
 	}
 	
 	private native void jniSetLimits( long addr, float lower, float upper );
@@ -91,6 +110,8 @@ public class PrismaticJoint extends Joint
 	 */
 	public boolean isMotorEnabled()
 	{
+		if( isJava( ) )
+			return getJavaValue( MOTOR_ENABLED ) != 0;
 		return jniIsMotorEnabled( addr );
 	}
 
@@ -101,7 +122,10 @@ public class PrismaticJoint extends Joint
 	 */
 	public void enableMotor(boolean flag)
 	{
-		jniEnableMotor( addr, flag );
+		if( isJava( ) )
+			setJavaValue( MOTOR_ENABLED, flag ? 1 : 0 );
+		else
+			jniEnableMotor( addr, flag );
 	}
 
 	private native void jniEnableMotor( long addr, boolean flag );
@@ -111,7 +135,10 @@ public class PrismaticJoint extends Joint
 	 */
 	public void setMotorSpeed(float speed)
 	{
-		jniSetMotorSpeed( addr, speed );
+		if( isJava( ) )
+			setJavaValue( MOTOR_SPEED, speed );
+		else
+			jniSetMotorSpeed( addr, speed );
 	}
 
 	private native void jniSetMotorSpeed( long addr, float speed );
@@ -121,6 +148,8 @@ public class PrismaticJoint extends Joint
 	 */
 	public float getMotorSpeed()
 	{
+		if( isJava( ) )
+			return getJavaValue( MOTOR_SPEED );
 		return jniGetMotorSpeed( addr );
 	}
 	
@@ -131,7 +160,10 @@ public class PrismaticJoint extends Joint
 	 */
 	public void setMaxMotorForce(float force)
 	{
-		jniSetMaxMotorForce( addr, force );
+		if( isJava( ) )
+			setJavaValue( MAX_MOTOR, force );
+		else
+			jniSetMaxMotorForce( addr, force );
 	}
 	
 	private native void jniSetMaxMotorForce( long addr, float force );
@@ -141,6 +173,8 @@ public class PrismaticJoint extends Joint
 	 */
 	public float getMotorForce()
 	{
+		if( isJava( ) )
+			return getJavaValue( MOTOR_IMPULSE );
 		return jniGetMotorForce( addr );
 	}
 	
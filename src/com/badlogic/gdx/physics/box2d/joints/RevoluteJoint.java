@@ -23,6 +23,8 @@ public class RevoluteJoint extends Joint
 	 */
 	public float getJointAngle()
 	{
+		if( isJava( ) )
+			return getJavaValue( JOINT_POSITION );
 		return jniGetJointAngle( addr );
 	}
 
@@ -33,6 +35,8 @@ public class RevoluteJoint extends Joint
 	 */
 	public float getJointSpeed()
 	{
+		if( isJava( ) )
+			return getJavaValue( JOINT_SPEED );
 		return jniGetJointSpeed( addr );
 	}
 	
@@ -43,6 +47,8 @@ public class RevoluteJoint extends Joint
 	 */
 	public boolean isLimitEnabled()
 	{
+		if( isJava( ) )
+			return getJavaValue( LIMIT_ENABLED ) != 0;
 		return jniIsLimitEnabled( addr );
 	}
 	
@@ -53,7 +59,10 @@ public class RevoluteJoint extends Joint
 	 */
 	public void enableLimit(boolean flag)
 	{
-		jniEnableLimit( addr, flag );
+		if( isJava( ) )
+			setJavaValue( LIMIT_ENABLED, flag ? 1 : 0 );
+		else
+			jniEnableLimit( addr, flag );
 	}
 	
 	private native void jniEnableLimit( long addr, boolean flag );
@@ -63,6 +72,8 @@ public class RevoluteJoint extends Joint
 	 */
 	public float getLowerLimit()
 	{
+		if( isJava( ) )
+			return getJavaValue( LOWER_LIMIT );
 		return jniGetLowerLimit( addr );
 	}
 
@@ -73,6 +84,8 @@ public class RevoluteJoint extends Joint
 	 */
 	public float getUpperLimit()
 	{
+		if( isJava( ) )
+			return getJavaValue( UPPER_LIMIT );
 		return jniGetUpperLimit( addr );
 	}
 
@@ -84,7 +97,13 @@ public class RevoluteJoint extends Joint
 	 */
 	public void setLimits(float lower, float upper)
 	{
-		jniSetLimits( addr, lower, upper );
+		if( isJava( ) )
+		{
+			setJavaValue( LOWER_LIMIT, lower );
+			setJavaValue( UPPER_LIMIT, upper );
+		}
+		else
+			jniSetLimits( addr, lower, upper );
 	}
 
 	private native void jniSetLimits( long addr, float lower, float upper );
@@ -94,6 +113,8 @@ public class RevoluteJoint extends Joint
 	 */
 	public boolean isMotorEnabled()
 	{
+		if( isJava( ) )
+			return getJavaValue( MOTOR_ENABLED ) != 0;
 		return jniIsMotorEnabled( addr );
 	}
 	
@@ -104,7 +125,10 @@ public class RevoluteJoint extends Joint
 	 */
 	public void enableMotor(boolean flag)
 	{
-		jniEnableMotor( addr, flag );
+		if( isJava( ) )
+			setJavaValue( MOTOR_ENABLED, flag ? 1 : 0 );
+		else
+			jniEnableMotor( addr, flag );
 	}
 	
 	private native void jniEnableMotor( long addr, boolean flag );
@@ -114,7 +138,10 @@ public class RevoluteJoint extends Joint
 	 */
 	public void setMotorSpeed(float speed)
 	{
-		jniSetMotorSpeed( addr, speed );
+		if( isJava( ) )
+			setJavaValue( MOTOR_SPEED, speed );
+		else
+			jniSetMotorSpeed( addr, speed );
 	}
 	
 	private native void jniSetMotorSpeed( long addr, float speed );
@@ -124,6 +151,8 @@ public class RevoluteJoint extends Joint
 	 */
 	public float getMotorSpeed()
 	{
+		if( isJava( ) )
+			return getJavaValue( MOTOR_SPEED );
 		return jniGetMotorSpeed( addr );
 	}
 	
@@ -134,7 +163,10 @@ public class RevoluteJoint extends Joint
 	 */
 	public void setMaxMotorTorque(float torque)
 	{
-		jniSetMaxMotorTorque( addr, torque );
+		if( isJava( ) )
+			setJavaValue( MAX_MOTOR, torque );
+		else
+			jniSetMaxMotorTorque( addr, torque );
 	}
 	
 	private native void jniSetMaxMotorTorque( long addr, float torque );
@@ -144,6 +176,8 @@ public class RevoluteJoint extends Joint
 	 */
 	public float getMotorTorque()
 	{
+		if( isJava( ) )
+			return getJavaValue( MOTOR_IMPULSE );
 		return jniGetMotorTorque( addr );
 	}
 	
@@ -0,0 +1,509 @@
+package com.stickycoding.rokon;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * AnimationClip.java
+ * A sequence of Texture tiles, each shown for its own length of time. Clips never change once created, so one clip can be
+ * shared by any number of DrawableObjects, each playing it from its own start time through DrawableObject.animate.
+ * 
+ * The frame to show is found directly from the time since the animation started, by a search of the frame end times,
+ * so a late or dropped loop skips frames rather than slowing the animation down.
+ * 
+ * Clips can be loaded in bulk with loadFile, from .json, or the binary format written by writeBinary, and fetched by name with get.
+ * A .json file looks like { "clips": [ { "name": "walk", "tiles": [0, 1, 2, 3], "frameTime": 100, "loop": "loop" },
+ * { "name": "hit", "tiles": [4, 5], "durations": [50, 200], "loop": "once" } ] }
+ * 
+ * @author Richard
+ */
+public class AnimationClip {
+	
+	/**
+	 * Loop modes. ONCE plays through and stops on the last frame, LOOP starts again from the first frame,
+	 * PING_PONG plays forwards then backwards
+	 */
+	public static final int ONCE = 0, LOOP = 1, PING_PONG = 2;
+	
+	/**
+	 * The first four bytes of a binary animation file, 'RAC1'
+	 */
+	public static final int BINARY_MAGIC = 0x52414331;
+	
+	protected static final String[] LOOP_NAME = { "once", "loop", "pingpong" };
+	
+	protected final String name;
+	protected final int loopMode;
+	protected final int frameCount;
+	
+	/**
+	 * The tile and duration of each frame as created, before PING_PONG is unrolled
+	 */
+	protected final int[] frameTile, frameDuration;
+	
+	/**
+	 * The tile of each frame in one cycle, and the time at which each frame ends, as a running total from the start of the cycle
+	 */
+	protected final int[] tile, frameEnd;
+	
+	/**
+	 * The length of one cycle, and the time of each frame if they are all the same, otherwise 0
+	 */
+	protected final int duration, frameTime;
+	
+	protected static final HashMap<String, AnimationClip> clips = new HashMap<String, AnimationClip>();
+	protected static final HashMap<String, AnimationClip[]> clipFiles = new HashMap<String, AnimationClip[]>();
+	
+	/**
+	 * The number of unnamed clips kept by share and shareRange, the oldest is replaced once it is full
+	 */
+	public static final int SHARED_CLIPS = 32;
+	
+	protected static final AnimationClip[] sharedClips = new AnimationClip[SHARED_CLIPS];
+	protected static int sharedClipCount, sharedClipNext;
+	
+	/**
+	 * Creates an AnimationClip with its own time for each frame
+	 * 
+	 * @param name a name for the clip, or null
+	 * @param tiles the Texture tile index of each frame
+	 * @param durations the time to show each frame, in milliseconds
+	 * @param loopMode valid loop mode, see constants
+	 */
+	public AnimationClip(String name, int[] tiles, int[] durations, int loopMode) {
+		if(tiles == null || tiles.length == 0) {
+			Debug.warning("AnimationClip", "Tried creating with no frames, using tile 0");
+			tiles = new int[] { 0 };
+			durations = new int[] { durations != null && durations.length > 0 ? durations[0] : 1 };
+		}
+		if(durations == null || durations.length != tiles.length) {
+			Debug.warning("AnimationClip", "Durations do not match the " + tiles.length + " tiles, using the first duration for every frame");
+			durations = filled(tiles.length, durations != null && durations.length > 0 ? durations[0] : 1);
+		}
+		if(loopMode < ONCE || loopMode > PING_PONG) {
+			Debug.warning("AnimationClip", "Tried using loop mode " + loopMode + ", defaulting to LOOP");
+			loopMode = LOOP;
+		}
+		this.name = name;
+		this.loopMode = loopMode;
+		frameCount = tiles.length;
+		frameTile = new int[frameCount];
+		frameDuration = new int[frameCount];
+		System.arraycopy(tiles, 0, frameTile, 0, frameCount);
+		System.arraycopy(durations, 0, frameDuration, 0, frameCount);
+		
+		final int cycleCount = loopMode == PING_PONG && frameCount > 2 ? frameCount * 2 - 2 : frameCount;
+		tile = new int[cycleCount];
+		frameEnd = new int[cycleCount];
+		int time = 0;
+		boolean uniform = true;
+		for(int i = 0; i < cycleCount; i++) {
+			final int frame = i < frameCount ? i : cycleCount - i;
+			if(frameDuration[frame] < 1) {
+				Debug.warning("AnimationClip", "Frame " + frame + " has a duration of " + frameDuration[frame] + ", using 1");
+				frameDuration[frame] = 1;
+			}
+			tile[i] = frameTile[frame];
+			time += frameDuration[frame];
+			frameEnd[i] = time;
+			uniform &= frameDuration[frame] == frameDuration[0];
+		}
+		duration = time;
+		frameTime = uniform ? frameDuration[0] : 0;
+	}
+	
+	/**
+	 * Creates an AnimationClip where every frame is shown for the same time
+	 * 
+	 * @param name a name for the clip, or null
+	 * @param tiles the Texture tile index of each frame
+	 * @param frameTime the time to show each frame, in milliseconds
+	 * @param loopMode valid loop mode, see constants
+	 */
+	public AnimationClip(String name, int[] tiles, int frameTime, int loopMode) {
+		this(name, tiles, filled(tiles == null ? 0 : tiles.length, frameTime), loopMode);
+	}
+	
+	/**
+	 * Creates an AnimationClip through a range of tiles, where every frame is shown for the same time
+	 * 
+	 * @param startTile the first Texture tile index
+	 * @param endTile the last Texture tile index
+	 * @param frameTime the time to show each frame, in milliseconds
+	 * @param loopMode valid loop mode, see constants
+	 * 
+	 * @return a new AnimationClip
+	 */
+	public static AnimationClip range(int startTile, int endTile, int frameTime, int loopMode) {
+		final int[] tiles = new int[Math.abs(endTile - startTile) + 1];
+		final int step = endTile >= startTile ? 1 : -1;
+		for(int i = 0; i < tiles.length; i++) {
+			tiles[i] = startTile + i * step;
+		}
+		return new AnimationClip(null, tiles, frameTime, loopMode);
+	}
+	
+	/**
+	 * Fetches an unnamed clip through a range of tiles, creating it if a matching one isn't held.
+	 * The returned clip is shared, so repeated calls with the same values don't allocate
+	 * 
+	 * @param startTile the first Texture tile index
+	 * @param endTile the last Texture tile index
+	 * @param frameTime the time to show each frame, in milliseconds
+	 * @param loopMode valid loop mode, see constants
+	 * 
+	 * @return a shared AnimationClip
+	 */
+	public static AnimationClip shareRange(int startTile, int endTile, int frameTime, int loopMode) {
+		final int step = endTile >= startTile ? 1 : -1;
+		final int count = Math.abs(endTile - startTile) + 1;
+		synchronized(sharedClips) {
+			for(int i = 0; i < sharedClipCount; i++) {
+				final AnimationClip clip = sharedClips[i];
+				if(clip.loopMode != loopMode || clip.frameTime != frameTime || clip.frameCount != count) continue;
+				int j = 0;
+				while(j < count && clip.frameTile[j] == startTile + j * step) {
+					j++;
+				}
+				if(j == count) {
+					return clip;
+				}
+			}
+			return addShared(range(startTile, endTile, frameTime, loopMode));
+		}
+	}
+	
+	/**
+	 * Fetches an unnamed clip through the given tiles, creating it if a matching one isn't held.
+	 * The tiles are compared rather than the array, so the array may be reused or changed afterwards
+	 * 
+	 * @param tiles the Texture tile index of each frame
+	 * @param frameTime the time to show each frame, in milliseconds
+	 * @param loopMode valid loop mode, see constants
+	 * 
+	 * @return a shared AnimationClip
+	 */
+	public static AnimationClip share(int[] tiles, int frameTime, int loopMode) {
+		if(tiles == null) {
+			return new AnimationClip(null, tiles, frameTime, loopMode);
+		}
+		synchronized(sharedClips) {
+			for(int i = 0; i < sharedClipCount; i++) {
+				final AnimationClip clip = sharedClips[i];
+				if(clip.loopMode != loopMode || clip.frameTime != frameTime || clip.frameCount != tiles.length) continue;
+				int j = 0;
+				while(j < tiles.length && clip.frameTile[j] == tiles[j]) {
+					j++;
+				}
+				if(j == tiles.length) {
+					return clip;
+				}
+			}
+			return addShared(new AnimationClip(null, tiles, frameTime, loopMode));
+		}
+	}
+	
+	private static AnimationClip addShared(AnimationClip clip) {
+		sharedClips[sharedClipNext] = clip;
+		sharedClipNext = (sharedClipNext + 1) % SHARED_CLIPS;
+		if(sharedClipCount < SHARED_CLIPS) {
+			sharedClipCount++;
+		}
+		return clip;
+	}
+	
+	private static int[] filled(int length, int value) {
+		final int[] array = new int[length];
+		for(int i = 0; i < length; i++) {
+			array[i] = value;
+		}
+		return array;
+	}
+	
+	/**
+	 * Finds the frame of the cycle showing at a given time. For PING_PONG the frames of the backwards half follow on from the forwards half
+	 * 
+	 * @param time time since the animation started, in milliseconds
+	 * 
+	 * @return the index of the frame within the cycle
+	 */
+	public int getFrame(long time) {
+		if(time <= 0) {
+			return 0;
+		}
+		if(time >= duration) {
+			if(loopMode == ONCE) {
+				return tile.length - 1;
+			}
+			time %= duration;
+		}
+		if(frameTime > 0) {
+			return (int)time / frameTime;
+		}
+		int low = 0, high = frameEnd.length - 1;
+		while(low < high) {
+			final int middle = (low + high) >>> 1;
+			if(frameEnd[middle] <= time) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+	
+	/**
+	 * Finds the Texture tile showing at a given time
+	 * 
+	 * @param time time since the animation started, in milliseconds
+	 * 
+	 * @return Texture tile index
+	 */
+	public int getTile(long time) {
+		return tile[getFrame(time)];
+	}
+	
+	/**
+	 * @return the name of this clip, NULL if it has none
+	 */
+	public String getName() {
+		return name;
+	}
+	
+	/**
+	 * @return the loop mode, see constants
+	 */
+	public int getLoopMode() {
+		return loopMode;
+	}
+	
+	/**
+	 * @return the number of frames, as created
+	 */
+	public int getFrameCount() {
+		return frameCount;
+	}
+	
+	/**
+	 * @param index frame index, as created
+	 * @return the Texture tile index of the frame
+	 */
+	public int getFrameTile(int index) {
+		return frameTile[index];
+	}
+	
+	/**
+	 * @param index frame index, as created
+	 * @return the time the frame is shown for, in milliseconds
+	 */
+	public int getFrameDuration(int index) {
+		return frameDuration[index];
+	}
+	
+	/**
+	 * @return the Texture tile index of the first frame
+	 */
+	public int getFirstTile() {
+		return frameTile[0];
+	}
+	
+	/**
+	 * @return the Texture tile index of the last frame of a cycle
+	 */
+	public int getLastTile() {
+		return tile[tile.length - 1];
+	}
+	
+	/**
+	 * @return the length of one cycle in milliseconds, for PING_PONG this covers both directions
+	 */
+	public int getDuration() {
+		return duration;
+	}
+	
+	/**
+	 * Reads the clips in a .json animation file
+	 * 
+	 * @param content the text of the file
+	 * @return an array of AnimationClips
+	 * @throws JSONException if the file is not valid
+	 */
+	public static AnimationClip[] fromJSON(String content) throws JSONException {
+		JSONArray jsonClips = new JSONObject(content).getJSONArray("clips");
+		AnimationClip[] result = new AnimationClip[jsonClips.length()];
+		for(int i = 0; i < result.length; i++) {
+			JSONObject jsonClip = jsonClips.getJSONObject(i);
+			JSONArray jsonTiles = jsonClip.getJSONArray("tiles");
+			int[] tiles = new int[jsonTiles.length()];
+			int[] durations = new int[tiles.length];
+			JSONArray jsonDurations = jsonClip.optJSONArray("durations");
+			if(jsonDurations == null && !jsonClip.has("frameTime")) {
+				throw new JSONException("Clip " + i + " needs durations or frameTime");
+			}
+			for(int j = 0; j < tiles.length; j++) {
+				tiles[j] = jsonTiles.getInt(j);
+				durations[j] = jsonDurations != null ? jsonDurations.getInt(j) : jsonClip.getInt("frameTime");
+			}
+			int loopMode = LOOP;
+			if(jsonClip.has("loop")) {
+				loopMode = -1;
+				String loop = jsonClip.getString("loop");
+				for(int j = 0; j < LOOP_NAME.length; j++) {
+					if(LOOP_NAME[j].equals(loop)) loopMode = j;
+				}
+				if(loopMode == -1) throw new JSONException("Unknown loop=" + loop);
+			}
+			result[i] = new AnimationClip(jsonClip.optString("name", null), tiles, durations, loopMode);
+		}
+		return result;
+	}
+	
+	/**
+	 * Reads a binary animation file, as written by writeBinary
+	 * 
+	 * @param data the whole file
+	 * @return an array of AnimationClips, NULL if the data is not a binary animation file
+	 */
+	public static AnimationClip[] fromBinary(byte[] data) {
+		ByteBuffer buffer = ByteBuffer.wrap(data);
+		if(data.length < 6 || buffer.getInt() != BINARY_MAGIC) {
+			Debug.warning("AnimationClip.fromBinary", "Not a binary animation file");
+			return null;
+		}
+		AnimationClip[] result = new AnimationClip[buffer.getShort()];
+		for(int i = 0; i < result.length; i++) {
+			String name = readName(buffer);
+			int loopMode = buffer.get();
+			int[] tiles = new int[buffer.getShort()];
+			int[] durations = new int[tiles.length];
+			for(int j = 0; j < tiles.length; j++) {
+				tiles[j] = buffer.getShort();
+				durations[j] = buffer.getInt();
+			}
+			result[i] = new AnimationClip(name, tiles, durations, loopMode);
+		}
+		return result;
+	}
+	
+	/**
+	 * Reads a name as written by writeBinary, its length followed by UTF-8
+	 * 
+	 * @param buffer a ByteBuffer at the start of the name
+	 * @return the name, NULL if it is empty
+	 */
+	protected static String readName(ByteBuffer buffer) {
+		byte[] nameBytes = new byte[buffer.getShort()];
+		buffer.get(nameBytes);
+		if(nameBytes.length == 0) {
+			return null;
+		}
+		try {
+			return new String(nameBytes, "UTF-8");
+		} catch (UnsupportedEncodingException e) {
+			return new String(nameBytes);
+		}
+	}
+	
+	/**
+	 * Writes clips in the binary format, which loads without parsing. Produce these ahead of time and
+	 * ship them in place of the .json files
+	 * 
+	 * @param outputStream a valid OutputStream, which is not closed
+	 * @param clips the clips to write
+	 * @throws IOException
+	 */
+	public static void writeBinary(OutputStream outputStream, AnimationClip[] clips) throws IOException {
+		DataOutputStream out = new DataOutputStream(outputStream);
+		out.writeInt(BINARY_MAGIC);
+		out.writeShort(clips.length);
+		for(int i = 0; i < clips.length; i++) {
+			byte[] nameBytes = clips[i].name != null ? clips[i].name.getBytes("UTF-8") : new byte[0];
+			out.writeShort(nameBytes.length);
+			out.write(nameBytes);
+			out.writeByte(clips[i].loopMode);
+			out.writeShort(clips[i].frameCount);
+			for(int j = 0; j < clips[i].frameCount; j++) {
+				out.writeShort(clips[i].frameTile[j]);
+				out.writeInt(clips[i].frameDuration[j]);
+			}
+		}
+		out.flush();
+	}
+	
+	/**
+	 * Loads an animation file, or fetches it if it has already been loaded. Named clips can then be fetched with get.
+	 * Files ending in .json are parsed, anything else is read as the binary format
+	 * 
+	 * @param filename the name of the file, in assets
+	 * @return the clips in the file, NULL if it could not be loaded
+	 */
+	public static AnimationClip[] loadFile(String filename) {
+		synchronized(clips) {
+			AnimationClip[] fileClips = clipFiles.get(filename);
+			if(fileClips != null) {
+				return fileClips;
+			}
+			try {
+				InputStream stream = Rokon.currentActivity.getAssets().open(filename);
+				ByteArrayOutputStream content = new ByteArrayOutputStream(stream.available() > 0 ? stream.available() : 1024);
+				byte[] buffer = new byte[4096];
+				int length = stream.read(buffer);
+				while(length != -1) {
+					content.write(buffer, 0, length);
+					length = stream.read(buffer);
+				}
+				stream.close();
+				if(filename.endsWith(".json")) {
+					fileClips = fromJSON(content.toString());
+				} else {
+					fileClips = fromBinary(content.toByteArray());
+				}
+			} catch (Exception e) {
+				Debug.error("Error in AnimationClip.loadFile " + filename);
+				e.printStackTrace();
+			}
+			if(fileClips != null) {
+				clipFiles.put(filename, fileClips);
+				for(int i = 0; i < fileClips.length; i++) {
+					if(fileClips[i].name != null) {
+						clips.put(fileClips[i].name, fileClips[i]);
+					}
+				}
+			}
+			return fileClips;
+		}
+	}
+	
+	/**
+	 * Fetches a named clip from the files loaded with loadFile
+	 * 
+	 * @param name the name of the clip
+	 * @return the AnimationClip, NULL if there is none with that name
+	 */
+	public static AnimationClip get(String name) {
+		synchronized(clips) {
+			return clips.get(name);
+		}
+	}
+	
+	/**
+	 * Forgets all loaded animation files
+	 */
+	public static void clearClips() {
+		synchronized(clips) {
+			clips.clear();
+			clipFiles.clear();
+		}
+	}
+
+}
@@ -18,6 +18,34 @@ public class BasicGameObject extends RotationalObject {
 	protected String name = null;
 	protected Scene parentScene;
 	protected Layer parentLayer;
+	protected OnGameEvent onGameEvent;
+	
+	/**
+	 * Sets a listener for the events posted about this object, they are passed on at the end of each game loop
+	 * 
+	 * @param onGameEvent a valid OnGameEvent, or null to stop listening
+	 */
+	public void setOnGameEvent(OnGameEvent onGameEvent) {
+		this.onGameEvent = onGameEvent;
+	}
+	
+	/**
+	 * @return the listener for events about this object, null if there is none
+	 */
+	public OnGameEvent getOnGameEvent() {
+		return onGameEvent;
+	}
+	
+	/**
+	 * Posts an event about this object to the EventBus of its parentScene
+	 * 
+	 * @param type the event type, from GameEvent
+	 */
+	public void postEvent(int type) {
+		if(parentScene != null) {
+			parentScene.eventBus.post(type, this);
+		}
+	}
 
 	/**
 	 * Attempts to invoke a method in this objects parentScene
@@ -42,7 +70,7 @@ public class BasicGameObject extends RotationalObject {
 	 */
 	public boolean attemptInvoke(String methodSuffix) {
 		if(name != null && parentScene != null) {
-			return parentScene.invoke(name + "_" + methodSuffix);
+			return parentScene.invoke(name, methodSuffix);
 		}
 		return false;
 	}
@@ -0,0 +1,228 @@
+package com.stickycoding.rokon;
+
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.Body;
+import com.badlogic.gdx.physics.box2d.BodyDef;
+import com.badlogic.gdx.physics.box2d.CircleShape;
+import com.badlogic.gdx.physics.box2d.FixtureDef;
+import com.badlogic.gdx.physics.box2d.PolygonShape;
+import com.badlogic.gdx.physics.box2d.Shape;
+import com.badlogic.gdx.physics.box2d.World;
+import com.badlogic.gdx.physics.box2d.BodyDef.BodyType;
+
+/**
+ * BodyPool.java
+ * Keeps Bodies of one type and shape for reuse, for objects which are spawned and removed often, such as bullets and debris.
+ * A released Body is made inactive rather than destroyed, and taken back out with a new position. A Body inactive in Box2D
+ * is left out of the broad-phase and costs nothing to simulate. Each pool owns its Shape, which dispose frees
+ * 
+ * Use with PhysicalSprite.createBody(BodyPool), which returns the Body to the pool when the sprite is removed
+ * 
+ * @author Richard
+ */
+public class BodyPool {
+	
+	public static final int SHAPE_BOX = 0, SHAPE_CIRCLE = 1;
+	
+	/**
+	 * The number of released Bodies kept, if no capacity is passed
+	 */
+	public static final int DEFAULT_CAPACITY = 32;
+	
+	protected BodyDef bodyDef;
+	protected FixtureDef fixtureDef;
+	protected Shape shape;
+	
+	/**
+	 * The World Bodies are created in, NULL for Physics.world
+	 */
+	protected World world;
+	
+	protected Body[] available;
+	protected int availableCount;
+	
+	protected int hitCount, missCount, discardCount;
+	
+	protected final Vector2 tmpVector = new Vector2();
+
+	/**
+	 * Creates a BodyPool for Bodies with a single box or circle Fixture
+	 * 
+	 * @param bodyType the type of Body
+	 * @param shape SHAPE_BOX or SHAPE_CIRCLE
+	 * @param width the width of the Body, in game units
+	 * @param height the height of the Body, in game units, a circle uses half of the width as its radius
+	 * @param fixtureDef the density, friction, restitution and filter of the Fixture, may be NULL. This is copied, and its shape is ignored
+	 * @param capacity the number of released Bodies to keep, any more than this are destroyed
+	 */
+	public BodyPool(BodyType bodyType, int shape, float width, float height, FixtureDef fixtureDef, int capacity) {
+		bodyDef = new BodyDef();
+		bodyDef.type = bodyType;
+		if(shape == SHAPE_CIRCLE) {
+			CircleShape circle = new CircleShape();
+			circle.setRadius(Physics.toMeters(width / 2f));
+			this.shape = circle;
+		} else {
+			PolygonShape box = new PolygonShape();
+			box.setAsBox(Physics.toMeters(width / 2f), Physics.toMeters(height / 2f));
+			this.shape = box;
+		}
+		this.fixtureDef = Physics.copyFixtureDef(fixtureDef, this.shape);
+		available = new Body[capacity];
+	}
+	
+	/**
+	 * Creates a BodyPool for Bodies with a single box or circle Fixture, with a density of 1
+	 * 
+	 * @param bodyType the type of Body
+	 * @param shape SHAPE_BOX or SHAPE_CIRCLE
+	 * @param width the width of the Body, in game units
+	 * @param height the height of the Body, in game units, a circle uses half of the width as its radius
+	 */
+	public BodyPool(BodyType bodyType, int shape, float width, float height) {
+		this(bodyType, shape, width, height, null, DEFAULT_CAPACITY);
+	}
+	
+	/**
+	 * Takes a Body from the pool, or creates one if the pool is empty. The Body is active, awake and not moving.
+	 * If the World is stepped on a PhysicsThread, this waits for the step to finish
+	 * 
+	 * @param x the x position of the centre, in game units
+	 * @param y the y position of the centre, in game units
+	 * @param angle the angle, in degrees
+	 * @return a Body in the World of this pool, NULL if the pool has been disposed
+	 */
+	public Body obtain(float x, float y, float angle) {
+		Physics.waitForStep(getWorld());
+		if(availableCount > 0) {
+			availableCount--;
+			final Body body = available[availableCount];
+			available[availableCount] = null;
+			tmpVector.set(Physics.toMeters(x), Physics.toMeters(y));
+			body.setTransform(tmpVector, angle * MathHelper.DEG_TO_RAD);
+			tmpVector.set(0, 0);
+			body.setLinearVelocity(tmpVector);
+			body.setAngularVelocity(0);
+			body.setActive(true);
+			body.setAwake(true);
+			hitCount++;
+			return body;
+		}
+		if(shape == null) {
+			Debug.warning("BodyPool.obtain", "Tried obtaining a Body from a disposed BodyPool");
+			return null;
+		}
+		bodyDef.position.x = Physics.toMeters(x);
+		bodyDef.position.y = Physics.toMeters(y);
+		bodyDef.angle = angle * MathHelper.DEG_TO_RAD;
+		final Body body = getWorld().createBody(bodyDef);
+		body.createFixture(fixtureDef);
+		missCount++;
+		return body;
+	}
+	
+	/**
+	 * Sets the World that new Bodies are created in, such as the World of a Layer. Bodies already in the pool are not moved,
+	 * so this should be set before the first obtain
+	 * 
+	 * @param world a valid World, or NULL for Physics.world
+	 */
+	public void setWorld(World world) {
+		this.world = world;
+	}
+	
+	/**
+	 * @return the World that new Bodies are created in
+	 */
+	public World getWorld() {
+		return world != null ? world : Physics.world;
+	}
+	
+	/**
+	 * Returns a Body to the pool, making it inactive. If the pool is full, the Body is destroyed.
+	 * If the World is stepped on a PhysicsThread, this waits for the step to finish
+	 * 
+	 * @param body a Body taken from this pool
+	 */
+	public void release(Body body) {
+		Physics.waitForStep(body.getWorld());
+		body.getWorld().removeTransformSync(body);
+		body.setUserData(null);
+		if(availableCount == available.length) {
+			body.getWorld().destroyBody(body);
+			discardCount++;
+			return;
+		}
+		body.setActive(false);
+		available[availableCount] = body;
+		availableCount++;
+	}
+	
+	/**
+	 * Destroys every Body waiting in the pool
+	 */
+	public void clear() {
+		for(int i = 0; i < availableCount; i++) {
+			available[i].getWorld().destroyBody(available[i]);
+			available[i] = null;
+		}
+		availableCount = 0;
+	}
+	
+	/**
+	 * Destroys every Body waiting in the pool and frees the Shape, the pool can't create Bodies afterwards
+	 */
+	public void dispose() {
+		clear();
+		if(shape != null) {
+			shape.dispose();
+			shape = null;
+			fixtureDef.shape = null;
+		}
+	}
+	
+	/**
+	 * @return the number of Bodies waiting in the pool
+	 */
+	public int getAvailableCount() {
+		return availableCount;
+	}
+	
+	/**
+	 * @return the number of times obtain reused a Body
+	 */
+	public int getHitCount() {
+		return hitCount;
+	}
+	
+	/**
+	 * @return the number of times obtain had to create a Body
+	 */
+	public int getMissCount() {
+		return missCount;
+	}
+	
+	/**
+	 * @return the number of Bodies destroyed by release because the pool was full
+	 */
+	public int getDiscardCount() {
+		return discardCount;
+	}
+	
+	/**
+	 * Resets the hit, miss and discard counts
+	 */
+	public void resetStats() {
+		hitCount = 0;
+		missCount = 0;
+		discardCount = 0;
+	}
+	
+	/**
+	 * Prints the hit, miss and discard counts to the log
+	 */
+	public void printStats() {
+		Debug.print("BodyPool hits=" + hitCount + " misses=" + missCount + " discards=" + discardCount + " available=" + availableCount + "/" + available.length);
+	}
+
+}
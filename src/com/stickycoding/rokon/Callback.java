@@ -1,5 +1,7 @@
 package com.stickycoding.rokon;
 
+import java.lang.reflect.Method;
+
 /**
  * Callback.java
  * Provies a reference for a Callback for invoking Methods
@@ -12,6 +14,9 @@ public class Callback {
 	protected Class<?>[] parameterTypes;
 	protected Object[] parameters;
 	
+	protected Class<?> sceneClass;
+	protected Method method;
+	
 	/**
 	 * Creates a Callback, defining a method by it's name only.
 	 * When used, this will assume there is only 1 method with
@@ -0,0 +1,29 @@
+package com.stickycoding.rokon;
+
+import com.badlogic.gdx.physics.box2d.Contact;
+import com.badlogic.gdx.physics.box2d.ContactListener;
+
+/**
+ * ContactAdapter.java
+ * Passes contacts from the World on to an OnContact, resolving each Fixture to its PhysicalSprite
+ * This is registered automatically by Scene.setOnContact
+ * 
+ * @author Richard
+ */
+public class ContactAdapter implements ContactListener {
+	
+	protected OnContact onContact;
+	
+	public ContactAdapter(OnContact onContact) {
+		this.onContact = onContact;
+	}
+
+	public void beginContact(Contact contact) {
+		onContact.onBeginContact(Physics.getSprite(contact.getFixtureA()), Physics.getSprite(contact.getFixtureB()), contact);
+	}
+
+	public void endContact(Contact contact) {
+		onContact.onEndContact(Physics.getSprite(contact.getFixtureA()), Physics.getSprite(contact.getFixtureB()), contact);
+	}
+
+}
@@ -12,12 +12,16 @@ public class DimensionalObject extends Point {
 	
 	protected float width, height;
 
-	protected boolean moving;
-	protected float startX, startY, startWidth, startHeight;
-	protected float finishX, finishY, finishWidth, finishHeight;
-	protected boolean scaleFromCentre;
-	protected long startTime;
-	protected int moveTime, moveType;
+	/**
+	 * The number of tweens held for this object, and the types of those running, see Tween
+	 */
+	protected int tweenCount, tweenFlags;
+	
+	/**
+	 * The first slot in Tween's list of the tweens held for this object, and whether they are paused
+	 */
+	protected int tweenHead = Tween.INVALID;
+	protected boolean tweensPaused;
 
 	protected float accelerationX, accelerationY, speedX, speedY, terminalSpeedX, terminalSpeedY;
 	protected boolean useTerminalSpeedX, useTerminalSpeedY;
@@ -198,45 +202,15 @@ public class DimensionalObject extends Point {
 		setY(y - height / 2);
 	}
 	
-	protected void onUpdate() {
-		super.onUpdate();
-		updateMove();
-	}
-	
-	protected void updateMove() {
-		if(moving) {
-			float position = (float)(Time.loopTicks - startTime) / (float)moveTime;
-			float factor = Movement.getPosition(position, moveType);
-			if(!scaleFromCentre) {
-				if(position >= 1) {
-					setXY(finishX, finishY);
-					width = finishWidth;
-					height = finishHeight;
-					moving = false;
-					RokonActivity.currentScene.onMoveEnd(this);
-					return;
-				} else {
-					setX(startX + ((finishX - startX) * factor));
-					setY(startY + ((finishY - startY) * factor));
-					width = startWidth + ((finishWidth - startWidth) * factor);
-					height = startHeight + ((finishHeight - startHeight) * factor);
-				}
-			} else {
-				startX += speedX * Time.loopTicksFraction;
-				startY += speedY * Time.loopTicksFraction;
-				if(position >= 1) {
-					width = finishWidth;
-					height = finishHeight;
-					centre(startX, startY);
-					moving = false;
-					RokonActivity.currentScene.onMoveEnd(this);
-					return;
-				} else {
-					width = startWidth + ((finishWidth - startWidth) * factor);
-					height = startHeight + ((finishHeight - startHeight) * factor);
-					centre(startX, startY);
-				}
-			}
+	/**
+	 * Called by Tween when a tween on this object has reached its end
+	 * 
+	 * @param type the type of tween, see Tween constants
+	 */
+	protected void onTweenEnd(int type) {
+		if((type == Tween.MOVE || type == Tween.SCALE) && RokonActivity.currentScene != null) {
+			RokonActivity.currentScene.onMoveEnd(this);
+			RokonActivity.currentScene.eventBus.post(GameEvent.MOVE_END, this);
 		}
 	}
 
@@ -310,33 +284,21 @@ public class DimensionalObject extends Point {
 	 * @param movementType valid movement type, see Movement constants
 	 */
 	public void move(float x, float y, float width, float height, int time, int movementType) {
-		startX = getX();
-		startY = getY();
-		startWidth = this.width;
-		startHeight = this.height;
-		startTime = Time.loopTicks;
-		moveTime = time;
-		moveType = movementType;
-		finishX = x;
-		finishY = y;
-		finishWidth = width;
-		finishHeight = height;
-		scaleFromCentre = false;
-		moving = true;
+		Tween.stop(this, Tween.MOVE | Tween.SCALE);
+		Tween.start(Tween.move(this, x, y, width, height, time, movementType));
 	}
 	
+	/**
+	 * Resizes this object over time, keeping it centred on the same point
+	 * 
+	 * @param width target width
+	 * @param height target height
+	 * @param time time, in milliseconds
+	 * @param movementType valid movement type, see Movement constants
+	 */
 	public void scaleFromCentre(float width, float height, int time, int movementType) {
-		startWidth = this.width;
-		startHeight = this.height;
-		startX = getX() + this.width / 2;
-		startY = getY() + this.height / 2;
-		startTime = Time.loopTicks;
-		moveTime = time;
-		moveType = movementType;
-		finishWidth = width;
-		finishHeight = height;
-		scaleFromCentre = true;
-		moving = true;
+		Tween.stop(this, Tween.MOVE | Tween.SCALE);
+		Tween.start(Tween.scale(this, width, height, time, movementType));
 	}
 	
 	/**
@@ -345,15 +307,20 @@ public class DimensionalObject extends Point {
 	 * @return TRUE if moving/scale, FALSE otherwise
 	 */
 	public boolean isMoving() {
-		return moving;
+		return (tweenFlags & (Tween.MOVE | Tween.SCALE)) != 0;
 	}
 
-	
+	/**
+	 * Stops any movement or resizing started by move, resize or scaleFromCentre
+	 */
 	public void stopMove() {
-		moving = false;
+		Tween.stop(this, Tween.MOVE | Tween.SCALE);
 	}
 	
+	/**
+	 * Stops any movement or resizing started by move, resize or scaleFromCentre
+	 */
 	public void stopScale() {
-		moving = false;
+		Tween.stop(this, Tween.MOVE | Tween.SCALE);
 	}
 }
@@ -22,16 +22,10 @@ public class DrawableObject extends BasicGameObject implements Drawable, Updatea
 	
 	protected boolean invisible;
 	
-	protected boolean isFading;
-	protected int fadeTime, fadeType;
-	protected long fadeStartTime;
-	protected float fadeTo, fadeStart;
-	protected boolean fadeUp;
-	
-	protected boolean animated, hasCustomAnimation, animationReturnToStart;
-	protected int animationStartTile, animationEndTile, animationLoops, animationCustomPosition;
-	protected int[] customAnimationSequence;
-	private long animationFrameTicks, animationLastTicks;
+	protected AnimationClip animationClip;
+	protected boolean animated, animationReturnToStart;
+	protected int animationLoops;
+	private long animationStartTicks, animationFreezeTicks;
 	
 	protected float lineWidth = -1;
 	protected boolean fill = true;
@@ -41,6 +35,10 @@ public class DrawableObject extends BasicGameObject implements Drawable, Updatea
 	
 	protected boolean freezeAnimation;
 	
+	protected int updateMode = UpdateMode.DEFAULT, updateRate = UpdateMode.DEFAULT_REDUCED_RATE;
+	protected boolean updatesFrozen;
+	protected int skippedUpdates;
+	protected long skippedTicks, updatesFrozenTicks;
 	
 	protected ColourBuffer colourBuffer;
 	
@@ -57,7 +55,7 @@ public class DrawableObject extends BasicGameObject implements Drawable, Updatea
 	 * @return TRUE if fading, FALSE otherwise
 	 */
 	public boolean isFading() {
-		return isFading;
+		return (tweenFlags & Tween.FADE) != 0;
 	}
 	
 	/**
@@ -175,30 +173,20 @@ public class DrawableObject extends BasicGameObject implements Drawable, Updatea
 	public void fade(float startAlpha, float alpha, int time, int movementType) {
 		if(alpha == startAlpha) return;
 		this.alpha = startAlpha;
-		fadeType = movementType; 
-		isFading = true;
-		fadeTime = time;
-		fadeStartTime = Time.loopTicks;
-		fadeTo = alpha;
-		fadeStart = this.alpha;
-		fadeUp = alpha > startAlpha;
-		
-	}
-	
-	protected void updateFadeTo() {
-		if(!isFading) return;
-		float position = (float)(Time.loopTicks - fadeStartTime) / (float)fadeTime;
-		float factor = Movement.getPosition(position, fadeType);
-		if(position >= 1) {
-			this.alpha = fadeTo;
-			isFading = false;
-			parentScene.onFadeEnd(this);
-			return;
-		}
-		if(fadeUp) {
-			setAlpha(fadeStart + ((fadeTo - fadeStart) * factor));
-		} else {
-			setAlpha(fadeStart - ((fadeStart - fadeTo) * factor));
+		Tween.stop(this, Tween.FADE);
+		Tween.start(Tween.fade(this, alpha, time, movementType));
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.stickycoding.rokon.DimensionalObject#onTweenEnd(int)
+	 */
+	protected void onTweenEnd(int type) {
+		super.onTweenEnd(type);
+		if(type == Tween.FADE) {
+			if(parentScene != null) {
+				parentScene.onFadeEnd(this);
+			}
+			postEvent(GameEvent.FADE_END);
 		}
 	}
 	
@@ -427,9 +415,7 @@ public class DrawableObject extends BasicGameObject implements Drawable, Updatea
 			return false;
 		}
 		if(parentLayer.ignoreWindow || parentScene.window == null) {
-			if (getX() - (maxSize / 2) < RokonActivity.gameWidth && getX() + maxSize + (maxSize / 2) > 0 && getY() - (maxSize / 2) < RokonActivity.gameHeight && getY() + maxSize + (maxSize / 2) > 0) {
-				isOnScreen = true;
-			}
+			isOnScreen = getX() - (maxSize / 2) < RokonActivity.gameWidth && getX() + maxSize + (maxSize / 2) > 0 && getY() - (maxSize / 2) < RokonActivity.gameHeight && getY() + maxSize + (maxSize / 2) > 0;
 		} else {
 			boolean validY = false;
 			boolean validX = false;
@@ -518,9 +504,116 @@ public class DrawableObject extends BasicGameObject implements Drawable, Updatea
 	 */
 	public void onUpdate() {
 		super.onUpdate();
-		updateFadeTo();
 		updateAnimation();
 	}
+	
+	/**
+	 * Called by the Layer on each loop, applies the off screen update mode before calling onUpdate
+	 * 
+	 * @param layerUpdateMode the update mode of the parent Layer, used if this object is UpdateMode.DEFAULT
+	 * @param layerUpdateRate the update rate of the parent Layer, used if this object is UpdateMode.DEFAULT
+	 */
+	protected void onUpdate(int layerUpdateMode, int layerUpdateRate) {
+		final int mode = updateMode == UpdateMode.DEFAULT ? layerUpdateMode : updateMode;
+		if(mode == UpdateMode.ALWAYS || isOnScreen()) {
+			if(updatesFrozen) {
+				onResumeUpdates(Time.loopTicks - updatesFrozenTicks);
+				updatesFrozen = false;
+			}
+			if(skippedUpdates > 0) {
+				skippedTicks += Time.ticksSinceLastLoop;
+				onUpdateSkipped();
+			} else {
+				onUpdate();
+			}
+			onPreDraw();
+			return;
+		}
+		if(mode == UpdateMode.FROZEN) {
+			if(!updatesFrozen) {
+				updatesFrozen = true;
+				updatesFrozenTicks = Time.loopTicks;
+				Tween.pause(this);
+			}
+			return;
+		}
+		skippedTicks += Time.ticksSinceLastLoop;
+		skippedUpdates++;
+		if(skippedUpdates >= (updateMode == UpdateMode.DEFAULT ? layerUpdateRate : updateRate)) {
+			onUpdateSkipped();
+		}
+	}
+	
+	/**
+	 * Called after onUpdate, once all updating is done, for objects which are about to be drawn
+	 */
+	protected void onPreDraw() { }
+	
+	/**
+	 * Runs a single update covering all the loops which were skipped, so that speeds and accelerations catch up
+	 */
+	private void onUpdateSkipped() {
+		final float loopTicksFraction = Time.loopTicksFraction;
+		Time.loopTicksFraction = skippedTicks / 1000f;
+		skippedUpdates = 0;
+		skippedTicks = 0;
+		onUpdate();
+		Time.loopTicksFraction = loopTicksFraction;
+	}
+	
+	/**
+	 * Called when this object becomes visible after being frozen by UpdateMode.FROZEN
+	 * Timed effects are shifted forward, so they continue from where they were left
+	 * 
+	 * @param frozenTicks the time, in milliseconds, which the object spent frozen
+	 */
+	protected void onResumeUpdates(long frozenTicks) {
+		Tween.resume(this);
+		animationStartTicks += frozenTicks;
+	}
+	
+	/**
+	 * Sets how this DrawableObject is updated while it is off screen
+	 * By default, the mode of the parent Layer is used
+	 * 
+	 * @param updateMode valid mode, see constants in UpdateMode
+	 */
+	public void setUpdateMode(int updateMode) {
+		setUpdateMode(updateMode, updateRate);
+	}
+	
+	/**
+	 * Sets how this DrawableObject is updated while it is off screen
+	 * 
+	 * @param updateMode valid mode, see constants in UpdateMode
+	 * @param updateRate the number of loops between updates, used for UpdateMode.REDUCED
+	 */
+	public void setUpdateMode(int updateMode, int updateRate) {
+		if(updateMode < UpdateMode.DEFAULT || updateMode > UpdateMode.FROZEN) {
+			Debug.warning("DrawableObject.setUpdateMode", "Tried setting UpdateMode to " + updateMode + ", defaulting to DEFAULT");
+			updateMode = UpdateMode.DEFAULT;
+		}
+		if(updateRate < 1) {
+			Debug.warning("DrawableObject.setUpdateMode", "Tried setting update rate to " + updateRate + ", defaulting to 1");
+			updateRate = 1;
+		}
+		this.updateMode = updateMode;
+		this.updateRate = updateRate;
+	}
+	
+	/**
+	 * @return the off screen update mode for this object, UpdateMode.DEFAULT if following the Layer
+	 */
+	public int getUpdateMode() {
+		return updateMode;
+	}
+	
+	/**
+	 * @return the number of loops between off screen updates, when using UpdateMode.REDUCED
+	 */
+	public int getUpdateRate() {
+		return updateRate;
+	}
 
 	/* (non-Javadoc)
 	 * @see com.stickycoding.rokon.Drawable#onAdd(com.stickycoding.rokon.Layer)
@@ -533,7 +626,9 @@ public class DrawableObject extends BasicGameObject implements Drawable, Updatea
 	/* (non-Javadoc)
 	 * @see com.stickycoding.rokon.Drawable#onRemove()
 	 */
-	public void onRemove() { }
+	public void onRemove() {
+		Tween.stop(this);
+	}
 
 	/**
 	 * Removes this DrawableObject from the Scene
@@ -565,16 +660,7 @@ public class DrawableObject extends BasicGameObject implements Drawable, Updatea
 	 * @param returnToStart TRUE if the animation should return to the start after finished
 	 */
 	public void animate(int startTile, int endTile, long frameTime, int loops, boolean returnToStart) {
-		animationStartTile = startTile;
-		animationEndTile = endTile;
-		animationFrameTicks = frameTime;
-		animationLoops = loops;
-		animationLastTicks = Time.loopTicks;
-		textureTile = startTile;
-		hasCustomAnimation = false;
-		animationReturnToStart = returnToStart;
-		animated = true;
-		freezeAnimation = false;
+		animate(AnimationClip.shareRange(startTile, endTile, (int)frameTime, AnimationClip.LOOP), loops, returnToStart);
 	}
 	
 	/**
@@ -597,14 +683,35 @@ public class DrawableObject extends BasicGameObject implements Drawable, Updatea
 	 * @param returnToStart TRUE if the animation should return to the start after finished
 	 */
 	public void animate(int[] animationTiles, long frameTime, int loops, boolean returnToStart) {
-		hasCustomAnimation = true;
-		textureTile = animationTiles[0];
-		animationReturnToStart = returnToStart;
+		animate(AnimationClip.share(animationTiles, (int)frameTime, AnimationClip.LOOP), loops, returnToStart);
+	}
+	
+	/**
+	 * Plays an AnimationClip, following its loop mode
+	 * 
+	 * @param clip a valid AnimationClip, which may be shared with other objects
+	 */
+	public void animate(AnimationClip clip) {
+		animate(clip, -1, false);
+	}
+	
+	/**
+	 * Plays an AnimationClip a given number of times
+	 * 
+	 * @param clip a valid AnimationClip, which may be shared with other objects
+	 * @param loops number of times to play the clip before stopping, or -1 to follow its loop mode
+	 * @param returnToStart TRUE if the animation should return to the first frame after finished
+	 */
+	public void animate(AnimationClip clip, int loops, boolean returnToStart) {
+		if(clip == null) {
+			Debug.warning("DrawableObject.animate", "Tried animating with a NULL AnimationClip");
+			return;
+		}
+		animationClip = clip;
 		animationLoops = loops;
-		animationLastTicks = Time.loopTicks;
-		animationFrameTicks = frameTime;
-		customAnimationSequence = animationTiles;
-		animationCustomPosition = -1;
+		animationReturnToStart = returnToStart;
+		animationStartTicks = Time.loopTicks;
+		textureTile = clip.getFirstTile();
 		animated = true;
 		freezeAnimation = false;
 	}
@@ -617,6 +724,13 @@ public class DrawableObject extends BasicGameObject implements Drawable, Updatea
 		return freezeAnimation;
 	}
 	
+	/**
+	 * @return the AnimationClip being played, or last played, NULL if there has been none
+	 */
+	public AnimationClip getAnimationClip() {
+		return animationClip;
+	}
+	
 	/**
 	 * Animates the Texture tile index, through a custom array
 	 * 
@@ -629,63 +743,18 @@ public class DrawableObject extends BasicGameObject implements Drawable, Updatea
 	
 	protected void updateAnimation() {
 		if(!animated || freezeAnimation) return;
-		long tickDifference = Time.loopTicks - animationLastTicks - animationFrameTicks;
-		if(tickDifference > 0) {
-			int frameSkip = 0;
-			while(tickDifference > 0) {
-				tickDifference -= animationFrameTicks;
-				frameSkip++;
+		final AnimationClip clip = animationClip;
+		final long time = Time.loopTicks - animationStartTicks;
+		if(animationLoops > 0 ? time >= (long)clip.duration * animationLoops : clip.loopMode == AnimationClip.ONCE && time >= clip.duration) {
+			textureTile = animationReturnToStart ? clip.getFirstTile() : clip.getLastTile();
+			animated = false;
+			if(parentScene != null) {
+				parentScene.onAnimationEnd(this);
 			}
-			if(hasCustomAnimation) {
-				while(frameSkip > 0) {
-					animationCustomPosition++;
-					if(animationCustomPosition >= customAnimationSequence.length) {
-						animationCustomPosition = 0;
-						if(animationLoops > 0) {
-							animationLoops--;
-							if(animationLoops == 0) {
-								if(animationReturnToStart) {
-									textureTile = animationStartTile;
-									animated = false;
-									parentScene.onAnimationEnd(this);
-								} else {
-									animationCustomPosition--;
-									animated = false;
-									parentScene.onAnimationEnd(this);
-									break;
-								}
-							}
-						}
-					}
-					textureTile = customAnimationSequence[animationCustomPosition];
-					frameSkip--;
-				}
-			} else {
-				while(frameSkip > 0) {
-					textureTile++;
-					if(textureTile > animationEndTile) {
-						if(animationLoops > 0) {
-							animationLoops--;
-							if(animationLoops == 0) {
-								if(animationReturnToStart) {
-									textureTile = animationStartTile;
-									animated = false;
-									parentScene.onAnimationEnd(this);
-								} else {
-									textureTile--;
-									animated = false;
-									parentScene.onAnimationEnd(this);
-									break;
-								}
-							}
-						}
-						textureTile = animationStartTile;
-					}
-					frameSkip--;
-				}
-			}
-			animationLastTicks -= tickDifference;
+			postEvent(GameEvent.ANIMATION_END);
+			return;
 		}
+		textureTile = clip.getTile(time);
 	}
 
 	/* (non-Javadoc)
@@ -732,7 +801,7 @@ public class DrawableObject extends BasicGameObject implements Drawable, Updatea
 	 * Stops any fading animation
 	 */
 	public void stopFade() {
-		isFading = false;
+		Tween.stop(this, Tween.FADE);
 	}
 	
 	/**
@@ -786,12 +855,24 @@ public class DrawableObject extends BasicGameObject implements Drawable, Updatea
 		colourBuffer = null;
 	}
 	
+	/**
+	 * Holds the animation on its current frame
+	 */
 	public void freezeAnimation() {
-		freezeAnimation = true;
+		if(!freezeAnimation) {
+			freezeAnimation = true;
+			animationFreezeTicks = Time.loopTicks;
+		}
 	}
 	
+	/**
+	 * Continues a frozen animation from the frame it was held on
+	 */
 	public void unfreezeAnimation() {
-		freezeAnimation = false;
+		if(freezeAnimation) {
+			freezeAnimation = false;
+			animationStartTicks += Time.loopTicks - animationFreezeTicks;
+		}
 	}
 	
 }
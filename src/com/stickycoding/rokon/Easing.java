@@ -0,0 +1,250 @@
+package com.stickycoding.rokon;
+
+/**
+ * Easing.java
+ * An easing curve, sampled once into a table and read back by interpolating between samples, so that no trigonometry or powers
+ * are calculated while it is in use. The standard in, out and in-out families are provided, along with cubic bezier curves.
+ * 
+ * Each Easing has a type, which can be passed anywhere a movement type from Movement is accepted, such as move, fade and rotateTo.
+ * The table is only built the first time the curve is used.
+ * 
+ * @author Richard
+ */
+public class Easing {
+	
+	/**
+	 * The number of intervals each curve is sampled into
+	 */
+	public static final int SAMPLES = 256;
+	
+	/**
+	 * The first type given to an Easing, the types below this are the Movement constants
+	 */
+	public static final int FIRST_TYPE = 16;
+	
+	protected static final int QUAD = 0, CUBIC = 1, QUART = 2, QUINT = 3, SINE = 4, EXPO = 5, CIRC = 6, BACK = 7, ELASTIC = 8, BOUNCE = 9, BEZIER = 10;
+	protected static final int IN = 0, OUT = 1, IN_OUT = 2;
+	
+	protected static Easing[] easing = new Easing[64];
+	protected static int easingCount;
+	
+	public static final Easing QUAD_IN = new Easing(QUAD, IN), QUAD_OUT = new Easing(QUAD, OUT), QUAD_IN_OUT = new Easing(QUAD, IN_OUT);
+	public static final Easing CUBIC_IN = new Easing(CUBIC, IN), CUBIC_OUT = new Easing(CUBIC, OUT), CUBIC_IN_OUT = new Easing(CUBIC, IN_OUT);
+	public static final Easing QUART_IN = new Easing(QUART, IN), QUART_OUT = new Easing(QUART, OUT), QUART_IN_OUT = new Easing(QUART, IN_OUT);
+	public static final Easing QUINT_IN = new Easing(QUINT, IN), QUINT_OUT = new Easing(QUINT, OUT), QUINT_IN_OUT = new Easing(QUINT, IN_OUT);
+	public static final Easing SINE_IN = new Easing(SINE, IN), SINE_OUT = new Easing(SINE, OUT), SINE_IN_OUT = new Easing(SINE, IN_OUT);
+	public static final Easing EXPO_IN = new Easing(EXPO, IN), EXPO_OUT = new Easing(EXPO, OUT), EXPO_IN_OUT = new Easing(EXPO, IN_OUT);
+	public static final Easing CIRC_IN = new Easing(CIRC, IN), CIRC_OUT = new Easing(CIRC, OUT), CIRC_IN_OUT = new Easing(CIRC, IN_OUT);
+	
+	/**
+	 * Pulls back slightly before moving, or overshoots before settling, going outside 0f to 1f
+	 */
+	public static final Easing BACK_IN = new Easing(BACK, IN), BACK_OUT = new Easing(BACK, OUT), BACK_IN_OUT = new Easing(BACK, IN_OUT);
+	
+	/**
+	 * Oscillates like a spring, going outside 0f to 1f
+	 */
+	public static final Easing ELASTIC_IN = new Easing(ELASTIC, IN), ELASTIC_OUT = new Easing(ELASTIC, OUT), ELASTIC_IN_OUT = new Easing(ELASTIC, IN_OUT);
+	
+	/**
+	 * Bounces against the start or end, like a dropped ball
+	 */
+	public static final Easing BOUNCE_IN = new Easing(BOUNCE, IN), BOUNCE_OUT = new Easing(BOUNCE, OUT), BOUNCE_IN_OUT = new Easing(BOUNCE, IN_OUT);
+	
+	protected final int curve, mode, type;
+	protected float x1, y1, x2, y2;
+	protected float[] table;
+	
+	protected Easing(int curve, int mode) {
+		this.curve = curve;
+		this.mode = mode;
+		if(easingCount == easing.length) {
+			final Easing[] newEasing = new Easing[easingCount * 2];
+			System.arraycopy(easing, 0, newEasing, 0, easingCount);
+			easing = newEasing;
+		}
+		easing[easingCount] = this;
+		type = FIRST_TYPE + easingCount;
+		easingCount++;
+	}
+	
+	/**
+	 * Fetches a cubic bezier curve from (0, 0) to (1, 1), as used by CSS transitions.
+	 * The y values may be outside 0f to 1f, to overshoot. Every Easing is kept for as long as the application runs, so curves
+	 * are cached by their control points, and asking for the same curve again returns the same Easing rather than a new one
+	 * 
+	 * @param x1 x of the first control point, between 0f and 1f
+	 * @param y1 y of the first control point
+	 * @param x2 x of the second control point, between 0f and 1f
+	 * @param y2 y of the second control point
+	 * 
+	 * @return the Easing for these control points
+	 */
+	public static Easing bezier(float x1, float y1, float x2, float y2) {
+		if(x1 < 0 || x1 > 1 || x2 < 0 || x2 > 1) {
+			Debug.warning("Easing.bezier", "Control point x values must be between 0 and 1, clamping");
+			x1 = Math.max(0, Math.min(1, x1));
+			x2 = Math.max(0, Math.min(1, x2));
+		}
+		for(int i = 0; i < easingCount; i++) {
+			final Easing existing = easing[i];
+			if(existing.curve == BEZIER && existing.x1 == x1 && existing.y1 == y1 && existing.x2 == x2 && existing.y2 == y2) {
+				return existing;
+			}
+		}
+		final Easing bezier = new Easing(BEZIER, IN);
+		bezier.x1 = x1;
+		bezier.y1 = y1;
+		bezier.x2 = x2;
+		bezier.y2 = y2;
+		return bezier;
+	}
+	
+	/**
+	 * Finds the Easing with a given type
+	 * 
+	 * @param type a type returned by getType
+	 * 
+	 * @return the Easing, NULL if there is none
+	 */
+	public static Easing get(int type) {
+		final int index = type - FIRST_TYPE;
+		if(index < 0 || index >= easingCount) {
+			return null;
+		}
+		return easing[index];
+	}
+	
+	/**
+	 * @return the type of this Easing, which can be passed as a movement type
+	 */
+	public int getType() {
+		return type;
+	}
+	
+	/**
+	 * Calculates a position along this curve from its table
+	 * 
+	 * @param position position in the path, between 0f and 1f
+	 * 
+	 * @return position on the curve, 0f at the start and 1f at the end
+	 */
+	public float get(float position) {
+		float[] table = this.table;
+		if(table == null) {
+			table = build();
+		}
+		if(position <= 0) {
+			return table[0];
+		}
+		if(position >= 1) {
+			return table[SAMPLES];
+		}
+		final float sample = position * SAMPLES;
+		final int index = (int)sample;
+		return table[index] + (table[index + 1] - table[index]) * (sample - index);
+	}
+	
+	/**
+	 * Samples the curve into its table
+	 */
+	protected float[] build() {
+		final float[] newTable = new float[SAMPLES + 1];
+		for(int i = 0; i <= SAMPLES; i++) {
+			newTable[i] = evaluate((float)i / SAMPLES);
+		}
+		newTable[0] = 0;
+		newTable[SAMPLES] = 1;
+		table = newTable;
+		return newTable;
+	}
+	
+	/**
+	 * Calculates a position along this curve directly, without the table
+	 * 
+	 * @param position position in the path, between 0f and 1f
+	 * 
+	 * @return position on the curve, 0f at the start and 1f at the end
+	 */
+	public float evaluate(float position) {
+		switch(mode) {
+			case OUT:
+				return 1 - evaluateIn(1 - position);
+			case IN_OUT:
+				if(position < 0.5f) {
+					return evaluateIn(position * 2) / 2;
+				}
+				return 1 - evaluateIn(2 - position * 2) / 2;
+			default:
+				return evaluateIn(position);
+		}
+	}
+	
+	protected float evaluateIn(float t) {
+		switch(curve) {
+			case QUAD:
+				return t * t;
+			case CUBIC:
+				return t * t * t;
+			case QUART:
+				return t * t * t * t;
+			case QUINT:
+				return t * t * t * t * t;
+			case SINE:
+				return 1 - (float)Math.cos(t * Movement.PI_OVER_TWO);
+			case EXPO:
+				return t <= 0 ? 0 : (float)Math.pow(2, 10 * t - 10);
+			case CIRC:
+				return 1 - (float)Math.sqrt(1 - t * t);
+			case BACK:
+				return 2.70158f * t * t * t - 1.70158f * t * t;
+			case ELASTIC:
+				if(t <= 0 || t >= 1) {
+					return t <= 0 ? 0 : 1;
+				}
+				return -(float)(Math.pow(2, 10 * t - 10) * Math.sin((t * 10 - 10.75f) * Movement.TWO_PI / 3));
+			case BOUNCE:
+				return 1 - bounceOut(1 - t);
+			case BEZIER:
+				return bezierAt(t);
+			default:
+				return t;
+		}
+	}
+	
+	private static float bounceOut(float t) {
+		if(t < 1 / 2.75f) {
+			return 7.5625f * t * t;
+		} else if(t < 2 / 2.75f) {
+			t -= 1.5f / 2.75f;
+			return 7.5625f * t * t + 0.75f;
+		} else if(t < 2.5f / 2.75f) {
+			t -= 2.25f / 2.75f;
+			return 7.5625f * t * t + 0.9375f;
+		}
+		t -= 2.625f / 2.75f;
+		return 7.5625f * t * t + 0.984375f;
+	}
+	
+	/**
+	 * Finds the curve parameter at which the bezier reaches x, then returns its y
+	 */
+	private float bezierAt(float x) {
+		float low = 0, high = 1, s = x;
+		for(int i = 0; i < 24; i++) {
+			if(bezier(s, x1, x2) < x) {
+				low = s;
+			} else {
+				high = s;
+			}
+			s = (low + high) / 2;
+		}
+		return bezier(s, y1, y2);
+	}
+	
+	private static float bezier(float s, float p1, float p2) {
+		final float inverse = 1 - s;
+		return 3 * inverse * inverse * s * p1 + 3 * inverse * s * s * p2 + s * s * s;
+	}
+
+}
@@ -0,0 +1,164 @@
+package com.stickycoding.rokon;
+
+/**
+ * EventBus.java
+ * Queues events as they are posted during the game loop, and passes them on to listeners in one batch at the end of it.
+ * Each Scene has one, and it is dispatched automatically after the Scene has been updated.
+ * Events are stored in a fixed size queue for each type, nothing is allocated while posting or dispatching.
+ * 
+ * @author Richard
+ */
+public class EventBus {
+	
+	/**
+	 * The default number of events which can be queued for each type, before they are dispatched early
+	 */
+	public static final int DEFAULT_QUEUE_SIZE = 64;
+	
+	/**
+	 * The maximum number of listeners for each type of event
+	 */
+	public static final int MAX_LISTENERS = 8;
+	
+	protected DimensionalObject[][] queue;
+	protected int[] queueCount;
+	protected OnGameEvent[][] listener;
+	protected int[] listenerCount;
+	protected boolean hasEvents;
+	protected int dispatchingType = -1;
+	
+	public EventBus() {
+		this(DEFAULT_QUEUE_SIZE);
+	}
+	
+	/**
+	 * @param queueSize the number of events which can be queued for each type
+	 */
+	public EventBus(int queueSize) {
+		queue = new DimensionalObject[GameEvent.EVENT_COUNT][queueSize];
+		queueCount = new int[GameEvent.EVENT_COUNT];
+		listener = new OnGameEvent[GameEvent.EVENT_COUNT][MAX_LISTENERS];
+		listenerCount = new int[GameEvent.EVENT_COUNT];
+	}
+	
+	/**
+	 * Adds a listener for a type of event
+	 * 
+	 * @param type the event type, from GameEvent
+	 * @param onGameEvent a valid OnGameEvent
+	 */
+	public void addListener(int type, OnGameEvent onGameEvent) {
+		if(type < 0 || type >= GameEvent.EVENT_COUNT) {
+			Debug.warning("EventBus.addListener", "Invalid event type (" + type + ")");
+			return;
+		}
+		for(int i = 0; i < listenerCount[type]; i++) {
+			if(listener[type][i] == onGameEvent) {
+				return;
+			}
+		}
+		if(listenerCount[type] == MAX_LISTENERS) {
+			Debug.warning("EventBus.addListener", "Too many listeners for type " + type + ", maximum is " + MAX_LISTENERS);
+			return;
+		}
+		listener[type][listenerCount[type]] = onGameEvent;
+		listenerCount[type]++;
+	}
+	
+	/**
+	 * Removes a listener for a type of event
+	 * 
+	 * @param type the event type, from GameEvent
+	 * @param onGameEvent the OnGameEvent previously added
+	 */
+	public void removeListener(int type, OnGameEvent onGameEvent) {
+		if(type < 0 || type >= GameEvent.EVENT_COUNT) {
+			Debug.warning("EventBus.removeListener", "Invalid event type (" + type + ")");
+			return;
+		}
+		for(int i = 0; i < listenerCount[type]; i++) {
+			if(listener[type][i] == onGameEvent) {
+				listenerCount[type]--;
+				for(int j = i; j < listenerCount[type]; j++) {
+					listener[type][j] = listener[type][j + 1];
+				}
+				listener[type][listenerCount[type]] = null;
+				return;
+			}
+		}
+	}
+	
+	/**
+	 * Queues an event, to be passed on at the end of the game loop
+	 * 
+	 * @param type the event type, from GameEvent
+	 * @param object the object the event is about, may be null
+	 */
+	public void post(int type, DimensionalObject object) {
+		if(type < 0 || type >= GameEvent.EVENT_COUNT) {
+			Debug.warning("EventBus.post", "Invalid event type (" + type + ")");
+			return;
+		}
+		if(queueCount[type] == queue[type].length) {
+			if(dispatchingType == type) {
+				Debug.warning("EventBus.post", "Queue for type " + type + " is full while dispatching, event dropped");
+				return;
+			}
+			dispatch(type);
+		}
+		queue[type][queueCount[type]] = object;
+		queueCount[type]++;
+		hasEvents = true;
+	}
+	
+	/**
+	 * Passes on all queued events, in order of type. This is called automatically at the end of each game loop
+	 */
+	public void dispatch() {
+		if(!hasEvents) {
+			return;
+		}
+		hasEvents = false;
+		for(int type = 0; type < GameEvent.EVENT_COUNT; type++) {
+			if(queueCount[type] > 0) {
+				dispatch(type);
+			}
+		}
+	}
+	
+	protected void dispatch(int type) {
+		final int previousType = dispatchingType;
+		dispatchingType = type;
+		final DimensionalObject[] events = queue[type];
+		final OnGameEvent[] listeners = listener[type];
+		for(int i = 0; i < queueCount[type]; i++) {
+			final DimensionalObject object = events[i];
+			events[i] = null;
+			if(object instanceof BasicGameObject) {
+				final OnGameEvent onGameEvent = ((BasicGameObject)object).onGameEvent;
+				if(onGameEvent != null) {
+					onGameEvent.onGameEvent(type, object);
+				}
+			}
+			for(int j = 0; j < listenerCount[type]; j++) {
+				listeners[j].onGameEvent(type, object);
+			}
+		}
+		queueCount[type] = 0;
+		dispatchingType = previousType;
+	}
+	
+	/**
+	 * Removes all queued events, without passing them on
+	 */
+	public void clear() {
+		for(int type = 0; type < GameEvent.EVENT_COUNT; type++) {
+			for(int i = 0; i < queueCount[type]; i++) {
+				queue[type][i] = null;
+			}
+			queueCount[type] = 0;
+		}
+		hasEvents = false;
+	}
+
+}
@@ -1,5 +1,11 @@
 package com.stickycoding.rokon;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+
 import javax.microedition.khronos.opengles.GL10;
 import javax.microedition.khronos.opengles.GL11;
 import javax.microedition.khronos.opengles.GL11Ext;
@@ -18,6 +24,11 @@ import com.stickycoding.rokon.vbo.ArrayVBO;
 
 public class GLHelper {
 	
+	/**
+	 * The most quads which can be passed to drawQuads at once, limited by the short indices
+	 */
+	public static final int MAX_QUADS = 16383;
+	
 	private static GL10 gl;
 	private static boolean glVertexArray, glTexCoordArray, glTexture2D, glColorArray;
 	private static int textureIndex = -1, arrayBuffer = -1, elementBuffer = -1, srcBlendMode = -1, dstBlendMode = -1;
@@ -26,6 +37,8 @@ public class GLHelper {
     private static BufferObject lastTexCoordPointerBuffer;
     private static ColourBuffer lastColourBufferObject;
     private static float lineWidth;
+    private static ShortBuffer quadIndexBuffer;
+    private static int quadIndexCount;
     
     public static void enableColourArray() {
     	if(!glColorArray) {
@@ -36,7 +49,7 @@ public class GLHelper {
     
     public static void disableColourArray() {
     	if(glColorArray) {
-    		gl.glEnableClientState(GL10.GL_COLOR_ARRAY);
+    		gl.glDisableClientState(GL10.GL_COLOR_ARRAY);
     		glColorArray = false;
     	}
     }
@@ -548,6 +561,90 @@ public class GLHelper {
 		gl.glPopMatrix();	
     }
 
+    /**
+     * Draws a batch of separate quads with a single call, each quad is 4 vertices in the same order as a triangle strip box
+     * The buffers are read from position 0, and must hold at least quadCount quads
+     * 
+     * @param blendFunction valid BlendFunction object, NULL for the default
+     * @param texture valid Texture object, NULL to draw untextured quads
+     * @param vertexBuffer x and y of each vertex, 8 floats per quad
+     * @param texCoordBuffer texture coordinates of each vertex, 8 floats per quad, if texture is not NULL
+     * @param colourBuffer colour of each vertex, packed as 4 unsigned bytes in RGBA order, NULL to draw white
+     * @param quadCount the number of quads to draw, up to MAX_QUADS
+     */
+    public static void drawQuads(BlendFunction blendFunction, Texture texture, FloatBuffer vertexBuffer, FloatBuffer texCoordBuffer, IntBuffer colourBuffer, int quadCount) {
+    	if(quadCount <= 0) return;
+    	if(quadCount > MAX_QUADS) {
+    		Debug.warning("GLHelper.drawQuads", "Tried drawing " + quadCount + " quads, only " + MAX_QUADS + " are drawn");
+    		quadCount = MAX_QUADS;
+    	}
+    	prepareQuadIndices(quadCount);
+		if(blendFunction != null) {
+			GLHelper.blendMode(blendFunction);
+		} else {
+			GLHelper.blendMode(Rokon.blendFunction);
+		}
+		enableVertexArray();
+		bindBuffer(0, false);
+		bindElementBuffer(0);
+		if(texture != null) {
+			enableTextures();
+			enableTexCoordArray();
+			bindTexture(texture);
+			gl.glTexCoordPointer(2, GL10.GL_FLOAT, 0, texCoordBuffer);
+			lastTexCoordPointerBuffer = null;
+		} else {
+			disableTexCoordArray();
+			disableTextures();
+		}
+		if(colourBuffer != null) {
+			enableColourArray();
+			gl.glColorPointer(4, GL10.GL_UNSIGNED_BYTE, 0, colourBuffer);
+			lastColourBufferObject = null;
+		} else {
+			disableColourArray();
+			color4f(1, 1, 1, 1);
+		}
+		gl.glVertexPointer(2, GL10.GL_FLOAT, 0, vertexBuffer);
+		lastVertexPointerBuffer = null;
+		gl.glDrawElements(GL10.GL_TRIANGLES, quadCount * 6, GL10.GL_UNSIGNED_SHORT, quadIndexBuffer);
+		if(colourBuffer != null) {
+			disableColourArray();
+			glColor4fRed = -1;
+			glColor4fGreen = -1;
+			glColor4fBlue = -1;
+			glColor4fAlpha = -1;
+		}
+    }
+    
+    /**
+     * Makes sure the shared index buffer covers enough quads, two triangles per quad
+     * 
+     * @param quadCount the number of quads needed
+     */
+    private static void prepareQuadIndices(int quadCount) {
+    	if(quadCount <= quadIndexCount) return;
+    	int count = quadIndexCount == 0 ? 256 : quadIndexCount;
+    	while(count < quadCount) {
+    		count *= 2;
+    	}
+    	if(count > MAX_QUADS) count = MAX_QUADS;
+    	short[] indices = new short[count * 6];
+    	for(int i = 0; i < count; i++) {
+    		final int vertex = i * 4;
+    		indices[i * 6] = (short)vertex;
+    		indices[i * 6 + 1] = (short)(vertex + 1);
+    		indices[i * 6 + 2] = (short)(vertex + 2);
+    		indices[i * 6 + 3] = (short)(vertex + 1);
+    		indices[i * 6 + 4] = (short)(vertex + 3);
+    		indices[i * 6 + 5] = (short)(vertex + 2);
+    	}
+    	quadIndexBuffer = ByteBuffer.allocateDirect(indices.length * 2).order(ByteOrder.nativeOrder()).asShortBuffer();
+    	quadIndexBuffer.put(indices);
+    	quadIndexBuffer.position(0);
+    	quadIndexCount = count;
+    }
+
     /**
      * Removes a set of Textures from the hardware
      * 
@@ -0,0 +1,33 @@
+package com.stickycoding.rokon;
+
+/**
+ * GameEvent.java
+ * Contains the types of event which are posted to a Scene's EventBus
+ * Your own event types can use USER and above, up to EVENT_COUNT
+ * 
+ * @author Richard
+ */
+public class GameEvent {
+	
+	/**
+	 * Events posted by Sprite, these are also bridged to the [name]_on... methods when Scene.useInvoke is set
+	 */
+	public static final int MOVE_TO_COMPLETE = 0, MOVE_TO_CANCEL = 1, ROTATE_TO_COMPLETE = 2, ROTATE_TO_CANCEL = 3, REACH_TERMINAL_SPEED_X = 4,
+		REACH_TERMINAL_SPEED_Y = 5, REACH_TERMINAL_VELOCITY = 6, REACH_TERMINAL_ANGULAR_VELOCITY = 7;
+	
+	/**
+	 * Events posted alongside Scene.onFadeEnd, onAnimationEnd and onMoveEnd
+	 */
+	public static final int FADE_END = 8, ANIMATION_END = 9, MOVE_END = 10;
+	
+	/**
+	 * The first event type which is free for your own use
+	 */
+	public static final int USER = 16;
+	
+	/**
+	 * The total number of event types
+	 */
+	public static final int EVENT_COUNT = 32;
+
+}
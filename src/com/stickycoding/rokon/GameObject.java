@@ -29,14 +29,22 @@ public class GameObject extends DrawableObject {
 	 * Sets the DrawableObject to a touchable, it will be checked when Scene handles input events 
 	 */
 	public void setTouchable() {
+		if(isTouchable) return;
 		isTouchable = true;
+		if(parentLayer != null) {
+			parentLayer.addTouchable(this);
+		}
 	}
 	
 	/**
 	 * Sets the DrawableObject as un-touchable
 	 */
 	public void removeTouchable() {
+		if(!isTouchable) return;
 		isTouchable = false;
+		if(parentLayer != null) {
+			parentLayer.removeTouchable(this);
+		}
 	}
 	
 	/**
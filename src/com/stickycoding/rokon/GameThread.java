@@ -155,12 +155,18 @@ public class GameThread implements Runnable {
 							for(int i = 0; i < motionTriggerCount; i++) {
 								if(motionTrigger[i].isTouch) {
 									scene.handleTouch(motionTrigger[i].x, motionTrigger[i].y, motionTrigger[i].action, motionTrigger[i].pointerCount, motionTrigger[i].pointerId);
+									if(scene.gestureDetector != null) {
+										scene.gestureDetector.onTouchEvent(scene.window, motionTrigger[i].x, motionTrigger[i].y, motionTrigger[i].action, motionTrigger[i].pointerCount, motionTrigger[i].pointerId);
+									}
 								} else {
 									scene.onTrackballEvent(motionTrigger[i].x[0], motionTrigger[i].y[0], motionTrigger[i].action);
 								}
 							}
 							motionTriggerCount = 0;
 						}
+						if(scene.gestureDetector != null) {
+							scene.gestureDetector.onUpdate();
+						}
 						if(hasKeyTrigger) {
 							for(int i = 0; i < MAX_TRIGGERS; i++) {
 								if(!keyTrigger[i].isNull) {
@@ -178,13 +184,9 @@ public class GameThread implements Runnable {
 					
 					// Update the physics, if needs be
 					if(scene.usePhysics) {
-						if(scene.pausePhysics) {
-							scene.world.step(0, 1, 1);
-						} else {
-							float timeStep = Time.getLoopTicksFraction();
-							if(timeStep > 0.018f) timeStep = 0.018f;
-							scene.world.step(timeStep, 10, 10);
-						}
+						float timeStep = Time.getLoopTicksFraction();
+						if(timeStep > 0.018f) timeStep = 0.018f;
+						scene.stepPhysics(timeStep);
 					}		
 					
 					synchronized(RokonActivity.killLock) {
@@ -192,8 +194,14 @@ public class GameThread implements Runnable {
 							// Run your game loop
 							scene.onGameLoop();	
 							
+							// Move, fade and rotate anything being tweened
+							Tween.update();
+							
 							// Stick everything onto the rendering buffer
 							scene.render();		
+							
+							// Pass on the events from this loop
+							scene.eventBus.dispatch();
 						}
 					}
 				}
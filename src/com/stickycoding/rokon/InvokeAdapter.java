@@ -0,0 +1,52 @@
+package com.stickycoding.rokon;
+
+/**
+ * InvokeAdapter.java
+ * Passes events from an EventBus on to the [name]_on... methods in a Scene, as listed in INVOKED_METHODS
+ * This is registered automatically by Scene.useInvoke
+ * 
+ * @author Richard
+ */
+public class InvokeAdapter implements OnGameEvent {
+	
+	protected static final String[] METHOD_SUFFIX = new String[] { "onMoveToComplete", "onMoveToCancel", "onRotateToComplete", "onRotateToCancel",
+		"onReachTerminalSpeedX", "onReachTerminalSpeedY", "onReachTerminalVelocity", "onReachTerminalAngularVelocity" };
+	
+	protected Scene scene;
+	
+	public InvokeAdapter(Scene scene) {
+		this.scene = scene;
+	}
+	
+	/**
+	 * Adds this as a listener for each event type which has an invoked method
+	 * 
+	 * @param eventBus a valid EventBus
+	 */
+	public void register(EventBus eventBus) {
+		for(int type = 0; type < METHOD_SUFFIX.length; type++) {
+			eventBus.addListener(type, this);
+		}
+	}
+	
+	/**
+	 * Removes this as a listener from an EventBus
+	 * 
+	 * @param eventBus a valid EventBus
+	 */
+	public void unregister(EventBus eventBus) {
+		for(int type = 0; type < METHOD_SUFFIX.length; type++) {
+			eventBus.removeListener(type, this);
+		}
+	}
+
+	public void onGameEvent(int type, DimensionalObject object) {
+		if(type < METHOD_SUFFIX.length && object instanceof BasicGameObject) {
+			final String name = ((BasicGameObject)object).name;
+			if(name != null) {
+				scene.invoke(name, METHOD_SUFFIX[type]);
+			}
+		}
+	}
+
+}
@@ -1,5 +1,6 @@
 package com.stickycoding.rokon;
 
+import com.badlogic.gdx.physics.box2d.World;
 
 /**
  * Layer.java
@@ -13,9 +14,16 @@ public class Layer {
 	protected Scene parentScene;
 	protected FixedSizeArray<Drawable> gameObjects;
 	protected FixedSizeArray<Drawable> gameObjectsSorted;
+	protected FixedSizeArray<Drawable> touchables;
 	protected int maximumDrawableObjects;
 	protected boolean ignoreWindow;
 	protected int drawQueueType = DrawOrder.FASTEST;
+	protected int updateMode = UpdateMode.ALWAYS;
+	protected int updateRate = UpdateMode.DEFAULT_REDUCED_RATE;
+	protected World world;
+	protected PhysicsThread physicsThread;
+	protected OnContact onContact;
+	protected PhysicsProfiler physicsProfiler;
 	
 	/**
 	 * Creates a Layer inside a Scene
@@ -28,6 +36,7 @@ public class Layer {
 		this.maximumDrawableObjects = maximumDrawableObjects;
 		gameObjects = new FixedSizeArray<Drawable>(maximumDrawableObjects);
 		gameObjectsSorted = new FixedSizeArray<Drawable>(maximumDrawableObjects);
+		touchables = new FixedSizeArray<Drawable>(maximumDrawableObjects);
 	}
 	
 	/**
@@ -84,6 +93,143 @@ public class Layer {
 		drawQueueType = type; 
 	}
 	
+	/**
+	 * Sets how DrawableObjects in this Layer are updated while off screen
+	 * Objects may override this with their own DrawableObject.setUpdateMode
+	 * 
+	 * @param updateMode valid mode, see constants in UpdateMode
+	 */
+	public void setUpdateMode(int updateMode) {
+		setUpdateMode(updateMode, updateRate);
+	}
+	
+	/**
+	 * Sets how DrawableObjects in this Layer are updated while off screen
+	 * 
+	 * @param updateMode valid mode, see constants in UpdateMode
+	 * @param updateRate the number of loops between updates, used for UpdateMode.REDUCED
+	 */
+	public void setUpdateMode(int updateMode, int updateRate) {
+		if(updateMode < UpdateMode.ALWAYS || updateMode > UpdateMode.FROZEN) {
+			Debug.warning("Layer.setUpdateMode", "Tried setting UpdateMode to " + updateMode + ", defaulting to ALWAYS");
+			updateMode = UpdateMode.ALWAYS;
+		}
+		if(updateRate < 1) {
+			Debug.warning("Layer.setUpdateMode", "Tried setting update rate to " + updateRate + ", defaulting to 1");
+			updateRate = 1;
+		}
+		this.updateMode = updateMode;
+		this.updateRate = updateRate;
+	}
+	
+	/**
+	 * @return the current off screen update mode for this Layer, UpdateMode.ALWAYS by default
+	 */
+	public int getUpdateMode() {
+		return updateMode;
+	}
+	
+	/**
+	 * @return the number of loops between off screen updates, when using UpdateMode.REDUCED
+	 */
+	public int getUpdateRate() {
+		return updateRate;
+	}
+	
+	/**
+	 * Gives this Layer a World of its own, independent of the Scene's World, for things like split screen arenas or previews.
+	 * It is stepped with the Scene's World, on its own PhysicsThread if Scene.usePhysicsThread is used, so the Worlds run
+	 * at the same time. PhysicalSprites which are already on this Layer create their Bodies here, unless PhysicalSprite.setWorld is used.
+	 * A Body created before the PhysicalSprite is added goes in Physics.world, so create it after Scene.add, or call setWorld first.
+	 * Use Physics.waitForStep(World) and Physics.queue(World, Runnable) to change this World while it is threaded
+	 * 
+	 * @param world valid World object
+	 */
+	public void setWorld(World world) {
+		stopPhysicsThread();
+		this.world = world;
+		if(world == null) {
+			return;
+		}
+		parentScene.usePhysics = true;
+		if(onContact != null) {
+			world.setContactListener(new ContactAdapter(onContact));
+			world.setBufferContacts(true);
+		}
+		if(parentScene.physicsThreaded) {
+			startPhysicsThread();
+		}
+	}
+	
+	/**
+	 * @return the World of this Layer, NULL if it has none
+	 */
+	public World getWorld() {
+		return world;
+	}
+	
+	/**
+	 * Removes the World from this Layer, it is no longer stepped
+	 */
+	public void removeWorld() {
+		stopPhysicsThread();
+		world = null;
+	}
+	
+	/**
+	 * Passes contacts from the World of this Layer to an OnContact, as Scene.setOnContact does for the Scene's World
+	 * 
+	 * @param onContact a valid OnContact, or NULL to stop receiving contacts
+	 */
+	public void setOnContact(OnContact onContact) {
+		this.onContact = onContact;
+		if(world == null) {
+			return;
+		}
+		Physics.waitForStep(world);
+		if(onContact == null) {
+			world.setContactListener(null);
+			world.setBufferContacts(physicsThread != null);
+		} else {
+			world.setContactListener(new ContactAdapter(onContact));
+			world.setBufferContacts(true);
+		}
+	}
+	
+	/**
+	 * Records the steps of the World of this Layer, as Scene.setPhysicsProfiler does for the Scene's World
+	 * 
+	 * @param physicsProfiler a valid PhysicsProfiler, or NULL to stop profiling
+	 */
+	public void setPhysicsProfiler(PhysicsProfiler physicsProfiler) {
+		this.physicsProfiler = physicsProfiler;
+	}
+	
+	/**
+	 * @return the PhysicsProfiler in use, NULL if there is none
+	 */
+	public PhysicsProfiler getPhysicsProfiler() {
+		return physicsProfiler;
+	}
+	
+	protected void startPhysicsThread() {
+		if(world == null || physicsThread != null) {
+			return;
+		}
+		physicsThread = new PhysicsThread(world);
+		Physics.addThread(physicsThread);
+		physicsThread.start();
+	}
+	
+	protected void stopPhysicsThread() {
+		if(physicsThread == null) {
+			return;
+		}
+		physicsThread.finish();
+		Physics.removeThread(physicsThread);
+		physicsThread = null;
+	}
+	
 	/**
 	 * Clears all the DrawableObjects off this Layer
 	 */
@@ -94,6 +240,7 @@ public class Layer {
 			}
 		}
 		gameObjects.clear();
+		touchables.clear();
 	}
 	
 	/**
@@ -112,11 +259,37 @@ public class Layer {
 		}
 		gameObjects.add(drawableObject);
 		drawableObject.onAdd(this);
+		if(drawableObject.isTouchable) {
+			touchables.add(drawableObject);
+		}
+	}
+	
+	/**
+	 * Registers a Drawable in this Layer to be checked for touches
+	 * 
+	 * @param drawable a Drawable which has been added to this Layer
+	 */
+	protected void addTouchable(Drawable drawable) {
+		if(touchables.find(drawable, true) == -1) {
+			touchables.add(drawable);
+		}
+	}
+	
+	/**
+	 * Stops a Drawable in this Layer being checked for touches
+	 * 
+	 * @param drawable a Drawable which has been added to this Layer
+	 */
+	protected void removeTouchable(Drawable drawable) {
+		touchables.remove(drawable, true);
 	}
 	
 	protected void removeDead() {
 		for(int i = 0; i < gameObjects.getCount(); i++) {
 			while(gameObjects.get(i) != null && !gameObjects.get(i).isAlive()) {
+				if(touchables.getCount() > 0) {
+					touchables.remove(gameObjects.get(i), true);
+				}
 				gameObjects.remove(i);
 			}
 		}
@@ -128,7 +301,11 @@ public class Layer {
 		for(int i = 0; i < gameObjects.getCount(); i++) {
 			final Drawable drawable = gameObjects.get(i);
 			if(drawable != null) {
-				drawable.onUpdate();
+				if(drawable instanceof DrawableObject) {
+					((DrawableObject)drawable).onUpdate(updateMode, updateRate);
+				} else {
+					drawable.onUpdate();
+				}
 				if(drawable.isOnScreen()) {
 					RokonActivity.renderQueueManager.add(drawable, !ignoreWindow);
 				}
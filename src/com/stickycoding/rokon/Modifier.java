@@ -4,27 +4,69 @@ package com.stickycoding.rokon;
  * Modifier.java
  * Modifies properties of drawable objects
  * 
+ * Each Modifier runs in a phase of the Sprite's update, PRE_MOVE before its velocities are applied, POST_MOVE after, and PRE_DRAW
+ * once all updating is done, such as a PhysicalSprite taking its position from its Body. Within a phase, Modifiers run in the order added.
+ * 
+ * A Modifier which keeps no state of its own can return TRUE from isShared, and one instance can be added to any number of Sprites.
+ * Others belong to one Sprite at a time, and can be taken from a ModifierPool so they are reused rather than allocated for each use.
+ * 
  * @author Richard
  */
 
 public abstract class Modifier {
 	
+	/**
+	 * The phases of the Sprite update, see getPhase
+	 */
+	public static final int PRE_MOVE = 0, POST_MOVE = 1, PRE_DRAW = 2;
+	
 	private Sprite sprite;
 	
+	/**
+	 * The ModifierPool this came from, NULL if it was not pooled
+	 */
+	protected ModifierPool<?> pool;
+	
 	protected void onCreate(Sprite sprite) {
-		this.sprite = sprite;
+		if(!isShared()) {
+			this.sprite = sprite;
+		}
 		onStart(sprite);
 	}
 	
 	/**
 	 * Returns the Sprite for which this Modifier was created for
 	 * 
-	 * @return Sprite object, NULL if invalid
+	 * @return Sprite object, NULL if invalid or shared
 	 */
 	public Sprite getSprite() {
 		return sprite;
 	}
 	
+	/**
+	 * Determines when this Modifier is updated, the phase is read when the Modifier is added
+	 * 
+	 * @return PRE_MOVE, POST_MOVE or PRE_DRAW, POST_MOVE by default
+	 */
+	public int getPhase() {
+		return POST_MOVE;
+	}
+	
+	/**
+	 * Determines whether this Modifier can be added to more than one Sprite at once.
+	 * A shared Modifier must keep no state about any Sprite, and is ended with end(Sprite)
+	 * 
+	 * @return TRUE if shared, FALSE by default
+	 */
+	public boolean isShared() {
+		return false;
+	}
+	
+	/**
+	 * Called when a pooled Modifier is returned to its ModifierPool, this should clear any state so it can be used again
+	 */
+	public void reset() { }
+	
 	/**
 	 * Called when the Modifier is added to a Sprite
 	 */
@@ -39,10 +81,43 @@ public abstract class Modifier {
 	
 	/**
 	 * Ends this Modifier, removing it from the Sprite to which it is attached
+	 * This is safe to call from onUpdate
 	 */
 	public void end() {
-		sprite.removeModifier(this);
-		onEnd(sprite);
+		if(sprite == null) {
+			Debug.warning("Modifier.end", "Tried ending a Modifier which is shared, or not attached to a Sprite");
+			return;
+		}
+		end(sprite);
+	}
+	
+	/**
+	 * Ends this Modifier on a given Sprite, for Modifiers which are shared
+	 * This is safe to call from onUpdate
+	 * 
+	 * @param sprite the Sprite to remove this Modifier from
+	 */
+	public void end(Sprite sprite) {
+		if(sprite.detachModifier(this)) {
+			onEnd(sprite);
+			onDetach();
+		}
+	}
+	
+	/**
+	 * Called once the Modifier is no longer attached, returns it to its ModifierPool. Shared Modifiers are never returned,
+	 * as other Sprites may still be running them
+	 */
+	protected void onDetach() {
+		if(isShared()) {
+			return;
+		}
+		sprite = null;
+		if(pool != null) {
+			final ModifierPool<?> modifierPool = pool;
+			pool = null;
+			modifierPool.release(this);
+		}
 	}
 	
 	/**
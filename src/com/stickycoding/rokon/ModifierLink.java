@@ -0,0 +1,43 @@
+package com.stickycoding.rokon;
+
+/**
+ * ModifierLink.java
+ * One entry in a Sprite's list of Modifiers. Links are pooled, so adding a shared Modifier to many Sprites does not allocate
+ * once the pool has grown. Only used from the game thread
+ * 
+ * @author Richard
+ */
+class ModifierLink {
+	
+	protected Modifier modifier;
+	protected ModifierLink next;
+	protected int phase;
+	
+	/**
+	 * Set when the Modifier is removed while the list is being updated, the link is taken out afterwards
+	 */
+	protected boolean removed;
+	
+	protected static ModifierLink available;
+	
+	protected static ModifierLink obtain(Modifier modifier) {
+		ModifierLink link = available;
+		if(link != null) {
+			available = link.next;
+		} else {
+			link = new ModifierLink();
+		}
+		link.modifier = modifier;
+		link.phase = modifier.getPhase();
+		link.next = null;
+		link.removed = false;
+		return link;
+	}
+	
+	protected static void release(ModifierLink link) {
+		link.modifier = null;
+		link.next = available;
+		available = link;
+	}
+
+}
@@ -0,0 +1,75 @@
+package com.stickycoding.rokon;
+
+/**
+ * ModifierPool.java
+ * Keeps Modifiers of one type for reuse, for effects which are started often, such as a Blink on each hit.
+ * A Modifier taken with obtain is returned when it ends or is removed from its Sprite, after its reset is called
+ * 
+ * @author Richard
+ */
+public abstract class ModifierPool<T extends Modifier> {
+	
+	/**
+	 * The number of released Modifiers kept, if no capacity is passed
+	 */
+	public static final int DEFAULT_CAPACITY = 16;
+	
+	protected Modifier[] available;
+	protected int availableCount;
+	
+	/**
+	 * @param capacity the number of released Modifiers to keep, any more than this are left for the garbage collector
+	 */
+	public ModifierPool(int capacity) {
+		available = new Modifier[capacity];
+	}
+	
+	public ModifierPool() {
+		this(DEFAULT_CAPACITY);
+	}
+	
+	/**
+	 * Creates a new Modifier when the pool is empty
+	 * 
+	 * @return a new Modifier
+	 */
+	protected abstract T create();
+	
+	/**
+	 * Takes a Modifier from the pool, or creates one if the pool is empty. It is returned when it is removed from its Sprite.
+	 * Shared Modifiers are never pooled, as one Sprite removing them says nothing of the others, so keep a single instance instead
+	 * 
+	 * @return a Modifier, ready to be added to a Sprite
+	 */
+	@SuppressWarnings("unchecked")
+	public T obtain() {
+		final T modifier;
+		if(availableCount > 0) {
+			modifier = (T)available[--availableCount];
+			available[availableCount] = null;
+		} else {
+			modifier = create();
+		}
+		if(modifier.isShared()) {
+			Debug.warning("ModifierPool.obtain", "Shared Modifiers are not pooled, keep one instance of " + modifier.getClass().getSimpleName() + " instead");
+			return modifier;
+		}
+		modifier.pool = this;
+		return modifier;
+	}
+	
+	protected void release(Modifier modifier) {
+		modifier.reset();
+		if(availableCount < available.length) {
+			available[availableCount++] = modifier;
+		}
+	}
+	
+	/**
+	 * @return the number of Modifiers waiting in the pool
+	 */
+	public int getAvailableCount() {
+		return availableCount;
+	}
+
+}
@@ -3,6 +3,7 @@ package com.stickycoding.rokon;
 /**
  * Movement.java
  * Defines several different types of movement, which can be applied to varying situations
+ * Any Easing type can also be used as a movement type, see Easing for more curves
  * 
  * @author Richard
  */
@@ -42,29 +43,46 @@ public class Movement {
 	/**
 	 * Begins quickly, ends slowly
 	 */
-	public static final int SLOWING = 3;
+	public static final int SLOWING = 5;
 	
 	/**
 	 * Calculates a relative position along a 'path'
 	 * 
 	 * @param position position in the path
-	 * @param method type of path used, see Movement constants for explanations
+	 * @param method type of path used, see Movement constants for explanations, or an Easing type
 	 * 
 	 * @return position on the path, between 0f and 1f
 	 */
 	public static float getPosition(float position, int method) {
 		switch(method) {
+			case LINEAR:
+				return position;
 			case SMOOTH:
-				return 1f - (1f + (float)Math.cos(position * PI)) / 2f;
+				return Easing.SINE_IN_OUT.get(position);
 			case SQUARED:
 				return position * position;
 			case CUBIC:
 				return position * position * position;
 			case QUADRATIC:
 				return position * position * position * position;
+			case SLOWING:
+				return 1f - (1f - position) * (1f - position);
 			default:
-				return position;
+				final Easing easing = Easing.get(method);
+				return easing == null ? position : easing.get(position);
 		}
 	}
+	
+	/**
+	 * Calculates a relative position along an Easing curve
+	 * 
+	 * @param position position in the path
+	 * @param easing a valid Easing
+	 * 
+	 * @return position on the curve, between 0f and 1f
+	 */
+	public static float getPosition(float position, Easing easing) {
+		return easing.get(position);
+	}
 
 }
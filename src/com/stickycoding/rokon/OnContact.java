@@ -0,0 +1,32 @@
+package com.stickycoding.rokon;
+
+import com.badlogic.gdx.physics.box2d.Contact;
+
+/**
+ * OnContact.java
+ * An interface for receiving contacts from the World, with the Bodies resolved to their PhysicalSprites
+ * Contacts are passed on after the step has finished, so Bodies can be created and destroyed freely
+ * 
+ * @author Richard
+ */
+public interface OnContact {
+
+	/**
+	 * Called when two PhysicalSprites begin to touch
+	 * 
+	 * @param spriteA the PhysicalSprite owning the first Fixture, NULL if the Body has no PhysicalSprite
+	 * @param spriteB the PhysicalSprite owning the second Fixture, NULL if the Body has no PhysicalSprite
+	 * @param contact the Contact, only valid during this call
+	 */
+	void onBeginContact(PhysicalSprite spriteA, PhysicalSprite spriteB, Contact contact);
+
+	/**
+	 * Called when two PhysicalSprites stop touching
+	 * 
+	 * @param spriteA the PhysicalSprite owning the first Fixture, NULL if the Body has no PhysicalSprite
+	 * @param spriteB the PhysicalSprite owning the second Fixture, NULL if the Body has no PhysicalSprite
+	 * @param contact the Contact, only valid during this call
+	 */
+	void onEndContact(PhysicalSprite spriteA, PhysicalSprite spriteB, Contact contact);
+
+}
@@ -0,0 +1,13 @@
+package com.stickycoding.rokon;
+
+/**
+ * OnGameEvent.java
+ * An interface for receiving events from an EventBus, either for a type of event or for a single object
+ * 
+ * @author Richard
+ */
+public interface OnGameEvent {
+
+	void onGameEvent(int type, DimensionalObject object);
+
+}
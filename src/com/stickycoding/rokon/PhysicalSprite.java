@@ -1,11 +1,13 @@
 package com.stickycoding.rokon;
 
+import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.physics.box2d.Body;
 import com.badlogic.gdx.physics.box2d.BodyDef;
 import com.badlogic.gdx.physics.box2d.CircleShape;
 import com.badlogic.gdx.physics.box2d.FixtureDef;
 import com.badlogic.gdx.physics.box2d.PolygonShape;
 import com.badlogic.gdx.physics.box2d.Shape;
+import com.badlogic.gdx.physics.box2d.World;
 import com.badlogic.gdx.physics.box2d.BodyDef.BodyType;
 
 /**
@@ -28,6 +30,21 @@ public class PhysicalSprite extends Sprite implements Updateable {
 	public BodyDef bodyDef;
 	
 	protected boolean usePhysics;
+	
+	/**
+	 * The BodyPool the Body was taken from, NULL if it was created for this PhysicalSprite
+	 */
+	protected BodyPool bodyPool;
+	
+	/**
+	 * Set while a PhysicsLOD has made the Body inactive, or put it to sleep
+	 */
+	protected boolean lodReduced;
+	
+	/**
+	 * The World new Bodies are created in, NULL to use the World of the parent Layer or Physics.world
+	 */
+	protected World world;
 
 	public PhysicalSprite(float x, float y, float width, float height) {
 		super(x, y, width, height);
@@ -35,37 +52,70 @@ public class PhysicalSprite extends Sprite implements Updateable {
 	
 	/**
 	 * Creates a Body for Box2D collisions
+	 * The BodyDef and FixtureDef are in meters, see Physics.setPixelsPerMeter
 	 * 
 	 * @param bodyDef valid BodyDef object
 	 * @param fixture valid FixtureDef object
 	 */
 	public void createBody(BodyDef bodyDef, FixtureDef fixture) {
-		body = Physics.world.createBody(bodyDef);
+		final World world = getWorld();
+		Physics.waitForStep(world);
+		body = world.createBody(bodyDef);
 		body.createFixture(fixture);
+		body.setUserData(this);
+		world.addTransformSync(body);
 		this.bodyDef = bodyDef;
 		usePhysics = true;
 	}
 	
 	/**
 	 * Creates a Body for Box2D collisions, given by a Shape
+	 * The BodyDef and Shape are in meters, see Physics.setPixelsPerMeter
 	 * 
 	 * @param bodyDef valid BodyDef object
 	 * @param shape valid Shape object
 	 */
 	public void createBody(BodyDef bodyDef, Shape shape) {
-		body = Physics.world.createBody(bodyDef);
+		final World world = getWorld();
+		Physics.waitForStep(world);
+		body = world.createBody(bodyDef);
 		body.createFixture(shape, 1f);
+		body.setUserData(this);
+		world.addTransformSync(body);
 		this.bodyDef = bodyDef;
 		usePhysics = true;
 	}
 	
+	/**
+	 * Takes a Body from a BodyPool, positioned and rotated to match this PhysicalSprite.
+	 * When this PhysicalSprite is removed, the Body is returned to the pool rather than destroyed
+	 * 
+	 * @param bodyPool a valid BodyPool
+	 */
+	public void createBody(BodyPool bodyPool) {
+		waitForStep();
+		if(body != null) {
+			removeBody();
+		}
+		Physics.waitForStep(bodyPool.getWorld());
+		body = bodyPool.obtain(getX() + width / 2f, getY() + height / 2f, rotation);
+		if(body == null) {
+			return;
+		}
+		body.setUserData(this);
+		body.getWorld().addTransformSync(body);
+		this.bodyPool = bodyPool;
+		bodyDef = null;
+		usePhysics = true;
+	}
+	
 	/**
 	 * Creates and applies a circular Body for this PhysicalSprite
 	 * @return
 	 */
 	public CircleShape createCircleShape() {
 		CircleShape circle = new CircleShape();
-		circle.setRadius(width / 2f);
+		circle.setRadius(Physics.toMeters(width / 2f));
 		return circle;
 	}
 	
@@ -75,7 +125,7 @@ public class PhysicalSprite extends Sprite implements Updateable {
 	 */
 	public PolygonShape createBoxShape() {
 		PolygonShape poly = new PolygonShape();
-		poly.setAsBox(width / 2f, height / 2f);
+		poly.setAsBox(Physics.toMeters(width / 2f), Physics.toMeters(height / 2f));
 		return poly;
 	}
 	
@@ -87,8 +137,8 @@ public class PhysicalSprite extends Sprite implements Updateable {
 	public void createDynamicBody(FixtureDef fixture) {
 		bodyDef = new BodyDef();
 		bodyDef.type = BodyType.DynamicBody;
-		bodyDef.position.x = getX() + width / 2f;
-		bodyDef.position.y = getY() + height / 2f;
+		bodyDef.position.x = Physics.toMeters(getX() + width / 2f);
+		bodyDef.position.y = Physics.toMeters(getY() + height / 2f);
 		bodyDef.angle = rotation * MathHelper.DEG_TO_RAD;
 		createBody(bodyDef, fixture);
 	}
@@ -101,8 +151,8 @@ public class PhysicalSprite extends Sprite implements Updateable {
 	public void createDynamicBody(Shape shape) {
 		bodyDef = new BodyDef();
 		bodyDef.type = BodyType.DynamicBody;
-		bodyDef.position.x = getX() + width / 2f;
-		bodyDef.position.y = getY() + height / 2f;
+		bodyDef.position.x = Physics.toMeters(getX() + width / 2f);
+		bodyDef.position.y = Physics.toMeters(getY() + height / 2f);
 		bodyDef.angle = rotation * MathHelper.DEG_TO_RAD;
 		createBody(bodyDef, shape);
 	}
@@ -115,8 +165,8 @@ public class PhysicalSprite extends Sprite implements Updateable {
 	public void createStaticBody(FixtureDef fixture) {
 		bodyDef = new BodyDef();
 		bodyDef.type = BodyType.StaticBody;
-		bodyDef.position.x = getX() + width / 2f;
-		bodyDef.position.y = getY() + height / 2f;
+		bodyDef.position.x = Physics.toMeters(getX() + width / 2f);
+		bodyDef.position.y = Physics.toMeters(getY() + height / 2f);
 		bodyDef.angle = rotation * MathHelper.DEG_TO_RAD;
 		createBody(bodyDef, fixture);
 	}
@@ -129,8 +179,8 @@ public class PhysicalSprite extends Sprite implements Updateable {
 	public void createStaticBody(Shape shape) {
 		bodyDef = new BodyDef();
 		bodyDef.type = BodyType.StaticBody;
-		bodyDef.position.x = getX() + width / 2f;
-		bodyDef.position.y = getY() + height / 2f;
+		bodyDef.position.x = Physics.toMeters(getX() + width / 2f);
+		bodyDef.position.y = Physics.toMeters(getY() + height / 2f);
 		bodyDef.angle = rotation * MathHelper.DEG_TO_RAD;
 		createBody(bodyDef, shape);
 	}
@@ -143,8 +193,8 @@ public class PhysicalSprite extends Sprite implements Updateable {
 	public void createKinematicBody(FixtureDef fixture) {
 		bodyDef = new BodyDef();
 		bodyDef.type = BodyType.KinematicBody;
-		bodyDef.position.x = getX() + width / 2f;
-		bodyDef.position.y = getY() + height / 2f;
+		bodyDef.position.x = Physics.toMeters(getX() + width / 2f);
+		bodyDef.position.y = Physics.toMeters(getY() + height / 2f);
 		bodyDef.angle = rotation * MathHelper.DEG_TO_RAD;
 		createBody(bodyDef, fixture);
 	}
@@ -157,8 +207,8 @@ public class PhysicalSprite extends Sprite implements Updateable {
 	public void createKinematicBody(Shape shape) {
 		bodyDef = new BodyDef();
 		bodyDef.type = BodyType.KinematicBody;
-		bodyDef.position.x = getX() + width / 2f;
-		bodyDef.position.y = getY() + height / 2f;
+		bodyDef.position.x = Physics.toMeters(getX() + width / 2f);
+		bodyDef.position.y = Physics.toMeters(getY() + height / 2f);
 		bodyDef.angle = rotation * MathHelper.DEG_TO_RAD;
 		createBody(bodyDef, shape);
 	}
@@ -166,139 +216,97 @@ public class PhysicalSprite extends Sprite implements Updateable {
 	/**
 	 * Creates and applies a circular dynamic Body from a FixtureDef
 	 * 
-	 * @param fixtureDef valid FixtureDef object
+	 * @param fixtureDef valid FixtureDef object, only its settings are used, its shape is left alone
 	 */
 	public void createDynamicCircle(FixtureDef fixtureDef) {
-		CircleShape circle = new CircleShape();
-		circle.setRadius(width / 2f);
-		fixtureDef.shape = circle;
-		createDynamicBody(fixtureDef);
-		circle.dispose();
+		createDynamicBody(Physics.copyFixtureDef(fixtureDef, Physics.getCircleShape(width / 2f)));
 	}
 	
 	/**
 	 * Creates and applies a dynamic circular Body
 	 */
 	public void createDynamicCircle() {
-		CircleShape circle = new CircleShape();
-		circle.setRadius(width / 2f);
-		createDynamicBody(circle);
-		circle.dispose();
+		createDynamicBody(Physics.getCircleShape(width / 2f));
 	}
 	
 	/**
 	 * Creates and applies a static circular Body from a FixtureDef
 	 * 
-	 * @param fixtureDef valid FixtureDef object
+	 * @param fixtureDef valid FixtureDef object, only its settings are used, its shape is left alone
 	 */
 	public void createStaticCircle(FixtureDef fixtureDef) {
-		CircleShape circle = new CircleShape();
-		circle.setRadius(width / 2f);
-		fixtureDef.shape = circle;
-		createStaticBody(fixtureDef);
-		circle.dispose();
+		createStaticBody(Physics.copyFixtureDef(fixtureDef, Physics.getCircleShape(width / 2f)));
 	}
 	
 	/**
 	 * Creates and applies a static circular Body
 	 */
 	public void createStaticCircle() {
-		CircleShape circle = new CircleShape();
-		circle.setRadius(width / 2f);
-		createStaticBody(circle);
-		circle.dispose();
+		createStaticBody(Physics.getCircleShape(width / 2f));
 	}
 	
 	/**
 	 * Creates and applies a kinematic circular Body from a FixtureDef
 	 * 
-	 * @param fixtureDef valid FixtureDef object
+	 * @param fixtureDef valid FixtureDef object, only its settings are used, its shape is left alone
 	 */
 	public void createKinematicCircle(FixtureDef fixtureDef) {
-		CircleShape circle = new CircleShape();
-		circle.setRadius(width / 2f);
-		fixtureDef.shape = circle;
-		createKinematicBody(fixtureDef);
-		circle.dispose();
+		createKinematicBody(Physics.copyFixtureDef(fixtureDef, Physics.getCircleShape(width / 2f)));
 	}
 	
 	/**
 	 * Creates and applies a kinematic circular Body
 	 */
 	public void createKinematicCircle() {
-		CircleShape circle = new CircleShape();
-		circle.setRadius(width / 2f);
-		createKinematicBody(circle);
-		circle.dispose();
+		createKinematicBody(Physics.getCircleShape(width / 2f));
 	}
 	
 	/**
 	 * Creates and applies a dynamic rectangular Body from a FixtureDef
 	 * 
-	 * @param fixtureDef valid FixtureDef object
+	 * @param fixtureDef valid FixtureDef object, only its settings are used, its shape is left alone
 	 */
 	public void createDynamicBox(FixtureDef fixtureDef) {
-		PolygonShape boxPoly = new PolygonShape();
-		boxPoly.setAsBox(width / 2f, height / 2f);
-		fixtureDef.shape = boxPoly;
-		createDynamicBody(fixtureDef);
-		boxPoly.dispose();
+		createDynamicBody(Physics.copyFixtureDef(fixtureDef, Physics.getBoxShape(width, height)));
 	}
 	
 	/**
 	 * Creates and applies a dynamic rectangular Body
 	 */
 	public void createDynamicBox() {
-		PolygonShape boxPoly = new PolygonShape();
-		boxPoly.setAsBox(width / 2f, height / 2f);
-		createDynamicBody(boxPoly);
-		boxPoly.dispose();
+		createDynamicBody(Physics.getBoxShape(width, height));
 	}
 	
 	/**
 	 * Creates and applies a static rectangular Body from a FixtureDef
 	 * 
-	 * @param fixtureDef valid FixtureDef object
+	 * @param fixtureDef valid FixtureDef object, only its settings are used, its shape is left alone
 	 */
 	public void createStaticBox(FixtureDef fixtureDef) {
-		PolygonShape boxPoly = new PolygonShape();
-		boxPoly.setAsBox(width / 2f, height / 2f);
-		fixtureDef.shape = boxPoly;
-		createStaticBody(fixtureDef);
-		boxPoly.dispose();
+		createStaticBody(Physics.copyFixtureDef(fixtureDef, Physics.getBoxShape(width, height)));
 	}
 	
 	/**
 	 * Creates and applies a static rectangular Body
 	 */
 	public void createStaticBox() {
-		PolygonShape boxPoly = new PolygonShape();
-		boxPoly.setAsBox(width / 2, height / 2f);
-		createStaticBody(boxPoly);	
-		boxPoly.dispose();	
+		createStaticBody(Physics.getBoxShape(width, height));
 	}
 	
 	/**
 	 * Creates and applies a kinematic rectangular Body from a FixtureDef
 	 * 
-	 * @param fixtureDef valid FixtureDef object
+	 * @param fixtureDef valid FixtureDef object, only its settings are used, its shape is left alone
 	 */
 	public void createKinematicBox(FixtureDef fixtureDef) {
-		PolygonShape boxPoly = new PolygonShape();
-		boxPoly.setAsBox(width / 2, height / 2f);
-		fixtureDef.shape = boxPoly;
-		createKinematicBody(fixtureDef);
-		boxPoly.dispose();
+		createKinematicBody(Physics.copyFixtureDef(fixtureDef, Physics.getBoxShape(width, height)));
 	}
 	
 	/**
 	 * Creates and applies a kinematic rectangular Body
 	 */
 	public void createKinematicBox() {
-		PolygonShape boxPoly = new PolygonShape();
-		boxPoly.setAsBox(width / 2, height / 2f);
-		createKinematicBody(boxPoly);
-		boxPoly.dispose();
+		createKinematicBody(Physics.getBoxShape(width, height));
 	}
 	
 	/**
@@ -311,18 +319,136 @@ public class PhysicalSprite extends Sprite implements Updateable {
 	}
 	
 	/**
-	 * Sets the Body for this PhysicalObject
+	 * Sets the World that Bodies are created in by this PhysicalSprite, such as the World of another Layer.
+	 * This does not move an existing Body
+	 * 
+	 * @param world a valid World, or NULL to use the World of the parent Layer or Physics.world
+	 */
+	public void setWorld(World world) {
+		this.world = world;
+	}
+	
+	/**
+	 * @return the World of the Body, or the World a Body would be created in: the one given to setWorld, the World of the
+	 * parent Layer, or Physics.world. The Layer is only known once this PhysicalSprite has been added
+	 */
+	public World getWorld() {
+		if(body != null) {
+			return body.getWorld();
+		}
+		if(world != null) {
+			return world;
+		}
+		if(parentLayer != null && parentLayer.world != null) {
+			return parentLayer.world;
+		}
+		return Physics.world;
+	}
+	
+	/**
+	 * Blocks until it is safe to change the World of this PhysicalSprite
+	 */
+	protected void waitForStep() {
+		Physics.waitForStep(getWorld());
+	}
+	
+	/**
+	 * Sets the Body for this PhysicalObject, and sets this as its user data
 	 * Automatically flags usePhysics as TRUE
 	 * Stops any kinematics from Sprite
 	 * 
 	 * @param body valid Body object
 	 */
 	public void setBody(Body body) {
+		waitForStep();
+		Physics.waitForStep(body.getWorld());
+		if(this.body != null && this.body != body) {
+			if(bodyPool != null) {
+				removeBody();
+			} else {
+				this.body.getWorld().removeTransformSync(this.body);
+			}
+		}
 		this.body = body;
+		lodReduced = false;
+		body.setUserData(this);
+		body.getWorld().addTransformSync(body);
 		usePhysics = true;
 		stop();
 	}
 	
+	/**
+	 * Applies a force to the centre of the Body, in game units, waking it up
+	 * 
+	 * @param forceX the force along the x axis, in game units
+	 * @param forceY the force along the y axis, in game units
+	 */
+	public void applyForce(float forceX, float forceY) {
+		waitForStep();
+		tmpVector.set(Physics.toMeters(forceX), Physics.toMeters(forceY));
+		body.applyForce(tmpVector, body.getWorldCenter());
+	}
+	
+	/**
+	 * Applies an impulse to the centre of the Body, in game units, immediately changing its velocity
+	 * 
+	 * @param impulseX the impulse along the x axis, in game units
+	 * @param impulseY the impulse along the y axis, in game units
+	 */
+	public void applyLinearImpulse(float impulseX, float impulseY) {
+		waitForStep();
+		tmpVector.set(Physics.toMeters(impulseX), Physics.toMeters(impulseY));
+		body.applyLinearImpulse(tmpVector, body.getWorldCenter());
+	}
+	
+	/**
+	 * Sets the linear velocity of the Body, in game units per second
+	 * 
+	 * @param velocityX the velocity along the x axis
+	 * @param velocityY the velocity along the y axis
+	 */
+	public void setLinearVelocity(float velocityX, float velocityY) {
+		waitForStep();
+		tmpVector.set(Physics.toMeters(velocityX), Physics.toMeters(velocityY));
+		body.setLinearVelocity(tmpVector);
+	}
+	
+	/**
+	 * @return the linear velocity of the Body along the x axis, in game units per second
+	 */
+	public float getLinearVelocityX() {
+		waitForStep();
+		return Physics.toPixels(body.getLinearVelocity().x);
+	}
+	
+	/**
+	 * @return the linear velocity of the Body along the y axis, in game units per second
+	 */
+	public float getLinearVelocityY() {
+		waitForStep();
+		return Physics.toPixels(body.getLinearVelocity().y);
+	}
+	
+	private final Vector2 tmpVector = new Vector2();
+	
+	/**
+	 * Sets whether the Body is simulated. Use this rather than Body.setActive while a PhysicsLOD is in use, a Body
+	 * made inactive here is left inactive by the PhysicsLOD even if it was reduced at the time
+	 * 
+	 * @param active TRUE to simulate the Body, FALSE to take it out of the World until made active again
+	 */
+	public void setActive(boolean active) {
+		waitForStep();
+		if(lodReduced) {
+			if(active) {
+				// The PhysicsLOD restores it once it is near the Window
+				return;
+			}
+			lodReduced = false;
+		}
+		body.setActive(active);
+	}
+	
 	/**
 	 * Flags the PhysicalObject to use the Box2D physics engine
 	 * If the Body object is not set, this will raise an exception on next redraw
@@ -347,22 +473,57 @@ public class PhysicalSprite extends Sprite implements Updateable {
 	public void onUpdate() {
 		super.onUpdate();
 		if(usePhysics) {
-			setX(body.getPosition().x - width / 2);
-			setY(body.getPosition().y - height / 2);
-			rotation = (body.getAngle() * MathHelper.RAD_TO_DEG) % 360;
+			final float scale = Physics.pixelsPerMeter;
+			final int slot = body.getTransformSlot();
+			if(slot != -1) {
+				final float[] transforms = body.getWorld().getTransforms();
+				final int offset = slot * World.TRANSFORM_STRIDE;
+				setXY(transforms[offset] * scale - width / 2, transforms[offset + 1] * scale - height / 2);
+				rotation = transforms[offset + 2];
+			} else {
+				Physics.waitForStep(body.getWorld());
+				final Vector2 position = body.getPosition();
+				setXY(position.x * scale - width / 2, position.y * scale - height / 2);
+				rotation = (body.getAngle() * MathHelper.RAD_TO_DEG) % 360;
+			}
+		}
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.stickycoding.rokon.GameObject#onAdd(com.stickycoding.rokon.Layer)
+	 */
+	@Override
+	public void onAdd(Layer layer) {
+		super.onAdd(layer);
+		if(body != null && world == null && layer.world != null && body.getWorld() != layer.world) {
+			Debug.warning("PhysicalSprite.onAdd", "Body was created before being added, so it is not in the Layer's World. Create it after Scene.add, or use setWorld");
 		}
 	}
 	
 	/* (non-Javadoc)
-	 * @see com.stickycoding.rokon.Sprite#onRemove()
+	 * @see com.stickycoding.rokon.GameObject#onRemove()
 	 */
 	@Override
 	public void onRemove() {
 		super.onRemove();
 		if(body != null) {
-			Physics.world.destroyBody(body);
-			body = null;
+			waitForStep();
+			removeBody();
+		}
+	}
+	
+	/**
+	 * Destroys the Body, or returns it to its BodyPool
+	 */
+	protected void removeBody() {
+		lodReduced = false;
+		if(bodyPool != null) {
+			bodyPool.release(body);
+			bodyPool = null;
+		} else {
+			body.getWorld().destroyBody(body);
 		}
+		body = null;
 	}
 
 }
@@ -1,17 +1,14 @@
 package com.stickycoding.rokon;
 
-import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
-import java.io.InputStreamReader;
+import java.util.HashMap;
 
-import org.json.JSONArray;
-import org.json.JSONObject;
-
-import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.physics.box2d.Body;
 import com.badlogic.gdx.physics.box2d.BodyDef;
 import com.badlogic.gdx.physics.box2d.CircleShape;
 import com.badlogic.gdx.physics.box2d.Contact;
+import com.badlogic.gdx.physics.box2d.Fixture;
 import com.badlogic.gdx.physics.box2d.FixtureDef;
 import com.badlogic.gdx.physics.box2d.PolygonShape;
 import com.badlogic.gdx.physics.box2d.Shape;
@@ -28,111 +25,444 @@ import com.badlogic.gdx.physics.box2d.World;
 public class Physics {
 	
 	/**
-	 * The Box2D World which is in use
+	 * The Box2D World of the current Scene. Layers may have Worlds of their own, see Layer.setWorld
 	 */
 	public static World world;
 	
 	/**
-	 * Creates a Body from a .json file
+	 * The number of game units in one meter of the World, see setPixelsPerMeter
+	 */
+	public static float pixelsPerMeter = 1f;
+	
+	/**
+	 * The number of meters in one game unit, 1 / pixelsPerMeter
+	 */
+	public static float metersPerPixel = 1f;
+	
+	/**
+	 * The velocity and position iterations used for each step of the World
+	 */
+	public static int velocityIterations = 10, positionIterations = 10;
+	
+	/**
+	 * Sets the scale between game units and the meters used by Box2D. Box2D is tuned for moving objects between 0.1 and 10 meters,
+	 * so with game units in pixels a scale of around 30 to 100 gives a better behaved simulation, which can then use fewer iterations.
+	 * PhysicalSprite bodies, PhysicsDefs and the forces and velocities set through PhysicalSprite are scaled. Anything passed to
+	 * the World or a Body directly, including gravity, BodyDefs, Shapes and queries, is in meters.
+	 * This should be set before any Bodies are created. The default is 1, no scaling.
+	 * The scale can not be changed while shared Shapes or PhysicsDefs are held, as they were made for the old scale
+	 * and may still be in use. Call clearPhysicsDefs and clearShapes first, once nothing uses them
+	 * 
+	 * @param pixelsPerMeter the number of game units in one meter, greater than 0
+	 */
+	public static void setPixelsPerMeter(float pixelsPerMeter) {
+		if(pixelsPerMeter <= 0) {
+			Debug.warning("Physics.setPixelsPerMeter", "pixelsPerMeter must be greater than 0, " + pixelsPerMeter);
+			return;
+		}
+		if(pixelsPerMeter == Physics.pixelsPerMeter) {
+			return;
+		}
+		boolean hasPhysicsDefs;
+		synchronized(physicsDefFiles) {
+			hasPhysicsDefs = physicsDefFiles.size() > 0;
+		}
+		if(hasPhysicsDefs || boxShapeCount > 0 || circleShapeCount > 0) {
+			Debug.warning("Physics.setPixelsPerMeter", "Tried changing the scale while Shapes or PhysicsDefs made for the old one are held, call clearPhysicsDefs and clearShapes first");
+			return;
+		}
+		Physics.pixelsPerMeter = pixelsPerMeter;
+		Physics.metersPerPixel = 1f / pixelsPerMeter;
+	}
+	
+	/**
+	 * @return the number of game units in one meter of the World
+	 */
+	public static float getPixelsPerMeter() {
+		return pixelsPerMeter;
+	}
+	
+	/**
+	 * Sets the number of iterations used by the solver for each step. The default is 10 and 10
+	 * 
+	 * @param velocityIterations the number of velocity iterations
+	 * @param positionIterations the number of position iterations
+	 */
+	public static void setIterations(int velocityIterations, int positionIterations) {
+		Physics.velocityIterations = velocityIterations;
+		Physics.positionIterations = positionIterations;
+	}
+	
+	/**
+	 * @param pixels a length in game units
+	 * @return the length in meters
+	 */
+	public static float toMeters(float pixels) {
+		return pixels * metersPerPixel;
+	}
+	
+	/**
+	 * @param meters a length in meters
+	 * @return the length in game units
+	 */
+	public static float toPixels(float meters) {
+		return meters * pixelsPerMeter;
+	}
+	
+	/**
+	 * Converts an array of lengths from game units to meters in place, such as the rays or boxes passed to World.rayCast and World.queryAABB
+	 * 
+	 * @param values the array to convert
+	 * @param offset the first index to convert
+	 * @param count the number of values to convert
+	 */
+	public static void toMeters(float[] values, int offset, int count) {
+		for(int i = offset; i < offset + count; i++) {
+			values[i] *= metersPerPixel;
+		}
+	}
+	
+	/**
+	 * Converts an array of lengths from meters to game units in place, such as the hits written by World.rayCast
+	 * 
+	 * @param values the array to convert
+	 * @param offset the first index to convert
+	 * @param count the number of values to convert
+	 */
+	public static void toPixels(float[] values, int offset, int count) {
+		for(int i = offset; i < offset + count; i++) {
+			values[i] *= pixelsPerMeter;
+		}
+	}
+	
+	/**
+	 * The PhysicsThread stepping the World, null if it is stepped on the game thread
+	 */
+	public static PhysicsThread thread;
+	
+	/**
+	 * Every running PhysicsThread, including those stepping the Worlds of Layers
+	 */
+	protected static PhysicsThread[] threads = new PhysicsThread[4];
+	protected static int threadCount;
+	
+	protected static void addThread(PhysicsThread physicsThread) {
+		synchronized(threads) {
+			if(threadCount == threads.length) {
+				PhysicsThread[] newThreads = new PhysicsThread[threadCount * 2];
+				System.arraycopy(threads, 0, newThreads, 0, threadCount);
+				threads = newThreads;
+			}
+			threads[threadCount] = physicsThread;
+			threadCount++;
+		}
+	}
+	
+	protected static void removeThread(PhysicsThread physicsThread) {
+		synchronized(threads) {
+			for(int i = 0; i < threadCount; i++) {
+				if(threads[i] == physicsThread) {
+					threadCount--;
+					threads[i] = threads[threadCount];
+					threads[threadCount] = null;
+					return;
+				}
+			}
+		}
+	}
+	
+	/**
+	 * @param world a World
+	 * @return the PhysicsThread stepping the World, NULL if it is stepped on the game thread
+	 */
+	public static PhysicsThread getThread(World world) {
+		synchronized(threads) {
+			for(int i = 0; i < threadCount; i++) {
+				if(threads[i].world == world) {
+					return threads[i];
+				}
+			}
+		}
+		return null;
+	}
+	
+	/**
+	 * @return TRUE if the World is being stepped on a PhysicsThread
+	 */
+	public static boolean isThreaded() {
+		return thread != null;
+	}
+	
+	/**
+	 * Blocks until it is safe to change the World from the game thread. Returns straight away if there is no PhysicsThread
+	 */
+	public static void waitForStep() {
+		if(thread != null) {
+			thread.waitForStep();
+		}
+	}
+	
+	/**
+	 * Blocks until it is safe to change a World from the game thread, such as the World of a Layer.
+	 * Returns straight away if the World is not stepped on a PhysicsThread
+	 * 
+	 * @param world a World, may be NULL
+	 */
+	public static void waitForStep(World world) {
+		if(world == null) {
+			return;
+		}
+		if(thread != null && thread.world == world) {
+			thread.waitForStep();
+			return;
+		}
+		final PhysicsThread physicsThread = getThread(world);
+		if(physicsThread != null) {
+			physicsThread.waitForStep();
+		}
+	}
+	
+	/**
+	 * Runs a command which changes the World. With a PhysicsThread it is queued until the running step has finished,
+	 * otherwise it is run straight away
+	 * 
+	 * @param runnable a valid Runnable
+	 */
+	public static void queue(Runnable runnable) {
+		if(thread != null) {
+			thread.queue(runnable);
+		} else {
+			runnable.run();
+		}
+	}
+	
+	/**
+	 * Runs a command which changes a World, such as the World of a Layer. With a PhysicsThread it is queued until
+	 * the running step has finished, otherwise it is run straight away
+	 * 
+	 * @param world a valid World
+	 * @param runnable a valid Runnable
+	 */
+	public static void queue(World world, Runnable runnable) {
+		final PhysicsThread physicsThread = getThread(world);
+		if(physicsThread != null) {
+			physicsThread.queue(runnable);
+		} else {
+			runnable.run();
+		}
+	}
+	
+	protected static final HashMap<String, PhysicsDefFile> physicsDefFiles = new HashMap<String, PhysicsDefFile>();
+	
+	/**
+	 * Creates a PhysicsDef from a .json file, or a binary file written by PhysicsDefFile.writeBinary.
+	 * Each file is only read once, and the PhysicsDef for each width and height is kept, so this is cheap to call
+	 * for every object spawned. The returned PhysicsDef is shared, and should not be changed.
 	 * 
 	 * @param filename
 	 * @param obj DimensionalObject to map this to
-	 * @return
+	 * @return NULL if the file could not be loaded
 	 */
 	public static PhysicsDef fromFile(String filename, DimensionalObject obj) {
-		PhysicsDef physicsDef = null;
-		try {
-			InputStream stream = Rokon.currentActivity.getAssets().open(filename);
-			InputStreamReader reader = new InputStreamReader(stream);
-			BufferedReader in = new BufferedReader(reader);
-			String content = "";
-			String line;
-			line = in.readLine();
-			while(line != null) {
-				content += line + "\n";
-				line = in.readLine();
-			}
-			stream.close();
-			
-			JSONObject jsonObj = new JSONObject(content);			
-			String type = jsonObj.getString("type");
-			if(!jsonObj.has("type")) {
-				throw new Exception("Missing type");
-			}
-			JSONArray fixtures = jsonObj.getJSONArray("fixtures");
-			if(fixtures == null) {
-				throw new Exception("No fixtures definition, what's the point?");
+		PhysicsDefFile physicsDefFile = loadFile(filename);
+		if(physicsDefFile == null) {
+			return null;
+		}
+		return physicsDefFile.getPhysicsDef(obj.getWidth(), obj.getHeight());
+	}
+	
+	/**
+	 * Loads a physics definition file, or fetches it if it has already been loaded.
+	 * Files ending in .json are parsed, anything else is read as the binary format
+	 * 
+	 * @param filename the name of the file, in assets
+	 * @return NULL if the file could not be loaded
+	 */
+	public static PhysicsDefFile loadFile(String filename) {
+		synchronized(physicsDefFiles) {
+			PhysicsDefFile physicsDefFile = physicsDefFiles.get(filename);
+			if(physicsDefFile != null) {
+				return physicsDefFile;
 			}
-			
-			physicsDef = new PhysicsDef();
-			
-			BodyDef bodyDef = new BodyDef();
-			if(type.equals("dynamic")) bodyDef.type = BodyDef.BodyType.DynamicBody;
-			if(type.equals("kinematic")) bodyDef.type = BodyDef.BodyType.KinematicBody;
-			if(type.equals("static")) bodyDef.type = BodyDef.BodyType.StaticBody;
-			if(bodyDef.type == null) throw new Exception("Unknown type=" + type);
-		
-			physicsDef.bodyDef = bodyDef;
-			
-			
-			for(int i = 0; i < fixtures.length(); i++) {
-				FixtureDef fixtureDef = new FixtureDef();
-				Shape shape = null;
-				
-				JSONObject jsonFixture = fixtures.getJSONObject(i);
-				JSONObject jsonShape = jsonFixture.getJSONObject("shape");
-				
-				if(jsonShape.getString("type").equals("circle")) {
-					shape = new CircleShape();
-					CircleShape circleShape = (CircleShape)shape;
-					circleShape.setPosition(new Vector2((float)jsonShape.getDouble("x") * obj.getWidth(), (float)jsonShape.getDouble("y") * obj.getHeight()));
-					circleShape.setRadius((float)jsonShape.getDouble("radius") * obj.getHeight());
+			try {
+				InputStream stream = Rokon.currentActivity.getAssets().open(filename);
+				ByteArrayOutputStream content = new ByteArrayOutputStream(stream.available() > 0 ? stream.available() : 1024);
+				byte[] buffer = new byte[4096];
+				int length = stream.read(buffer);
+				while(length != -1) {
+					content.write(buffer, 0, length);
+					length = stream.read(buffer);
 				}
-				
-				if(jsonShape.getString("type").equals("polygon")) {
-					JSONArray jsonX = jsonShape.getJSONArray("x");
-					JSONArray jsonY = jsonShape.getJSONArray("y");
-					shape = new PolygonShape();
-					PolygonShape polyShape = (PolygonShape)shape;
-					Vector2[] vertices = new Vector2[jsonX.length()];
-					for(int j = 0; j < vertices.length; j++) {
-						vertices[j] = new Vector2((float)jsonX.getDouble(j) * obj.getWidth(), (float)jsonY.getDouble(j) * obj.getHeight());
-						Debug.print("added vertex x=" + vertices[j].x + " y=" +  vertices[j].y);
-					}
-					polyShape.set(vertices);
+				stream.close();
+				if(filename.endsWith(".json")) {
+					physicsDefFile = PhysicsDefFile.fromJSON(content.toString());
+				} else {
+					physicsDefFile = PhysicsDefFile.fromBinary(content.toByteArray());
 				}
-
-				if(jsonFixture.has("friction")) fixtureDef.friction = (float)jsonFixture.getDouble("friction");
-				if(jsonFixture.has("restitution")) fixtureDef.restitution = (float)jsonFixture.getDouble("restitution");
-				if(jsonFixture.has("density")) fixtureDef.density = (float)jsonFixture.getDouble("density");
-				
-				fixtureDef.shape = shape;
-				
-				physicsDef.add(shape, fixtureDef);
+			} catch (Exception e) {
+				Debug.error("Error in bodyFromFile " + filename);
+				e.printStackTrace();
+			}
+			if(physicsDefFile != null) {
+				physicsDefFiles.put(filename, physicsDefFile);
+			}
+			return physicsDefFile;
+		}
+	}
+	
+	/**
+	 * Forgets all loaded physics definition files, and disposes of their Shapes
+	 */
+	public static void clearPhysicsDefs() {
+		synchronized(physicsDefFiles) {
+			for(PhysicsDefFile physicsDefFile : physicsDefFiles.values()) {
+				physicsDefFile.dispose();
+			}
+			physicsDefFiles.clear();
+		}
+	}
+	
+	protected static PolygonShape[] boxShapes = new PolygonShape[8];
+	protected static float[] boxShapeWidth = new float[8], boxShapeHeight = new float[8];
+	protected static int boxShapeCount;
+	protected static CircleShape[] circleShapes = new CircleShape[8];
+	protected static float[] circleShapeRadius = new float[8];
+	protected static int circleShapeCount;
+	
+	/**
+	 * Fetches a box Shape of a given size, creating it the first time that size is asked for.
+	 * Box2D copies a Shape into each Fixture, so one Shape can be shared by every Body of the same size.
+	 * The returned Shape is shared, and should not be changed or disposed of
+	 * 
+	 * @param width the width of the box, in game units
+	 * @param height the height of the box, in game units
+	 * @return a PolygonShape centred on the origin
+	 */
+	public static PolygonShape getBoxShape(float width, float height) {
+		for(int i = 0; i < boxShapeCount; i++) {
+			if(boxShapeWidth[i] == width && boxShapeHeight[i] == height) {
+				return boxShapes[i];
+			}
+		}
+		if(boxShapeCount == boxShapes.length) {
+			PolygonShape[] newShapes = new PolygonShape[boxShapeCount * 2];
+			float[] newWidth = new float[boxShapeCount * 2];
+			float[] newHeight = new float[boxShapeCount * 2];
+			System.arraycopy(boxShapes, 0, newShapes, 0, boxShapeCount);
+			System.arraycopy(boxShapeWidth, 0, newWidth, 0, boxShapeCount);
+			System.arraycopy(boxShapeHeight, 0, newHeight, 0, boxShapeCount);
+			boxShapes = newShapes;
+			boxShapeWidth = newWidth;
+			boxShapeHeight = newHeight;
+		}
+		PolygonShape shape = new PolygonShape();
+		shape.setAsBox(toMeters(width / 2f), toMeters(height / 2f));
+		boxShapes[boxShapeCount] = shape;
+		boxShapeWidth[boxShapeCount] = width;
+		boxShapeHeight[boxShapeCount] = height;
+		boxShapeCount++;
+		return shape;
+	}
+	
+	/**
+	 * Fetches a circle Shape of a given radius, creating it the first time that radius is asked for.
+	 * The returned Shape is shared, and should not be changed or disposed of
+	 * 
+	 * @param radius the radius of the circle, in game units
+	 * @return a CircleShape centred on the origin
+	 */
+	public static CircleShape getCircleShape(float radius) {
+		for(int i = 0; i < circleShapeCount; i++) {
+			if(circleShapeRadius[i] == radius) {
+				return circleShapes[i];
 			}
-			
-			
-		} catch (Exception e) {
-			Debug.error("Error in bodyFromFile " + filename);
-			e.printStackTrace();
 		}
-		return physicsDef;
+		if(circleShapeCount == circleShapes.length) {
+			CircleShape[] newShapes = new CircleShape[circleShapeCount * 2];
+			float[] newRadius = new float[circleShapeCount * 2];
+			System.arraycopy(circleShapes, 0, newShapes, 0, circleShapeCount);
+			System.arraycopy(circleShapeRadius, 0, newRadius, 0, circleShapeCount);
+			circleShapes = newShapes;
+			circleShapeRadius = newRadius;
+		}
+		CircleShape shape = new CircleShape();
+		shape.setRadius(toMeters(radius));
+		circleShapes[circleShapeCount] = shape;
+		circleShapeRadius[circleShapeCount] = radius;
+		circleShapeCount++;
+		return shape;
 	}
 	
 	/**
-	 * Creates an active Body from a PhysicsDef
+	 * Copies the density, friction, restitution, sensor flag and filter of a FixtureDef, with a different Shape.
+	 * Used so that a shared Shape is never written into a FixtureDef belonging to someone else
+	 * 
+	 * @param fixtureDef the FixtureDef to copy, NULL for a density of 1
+	 * @param shape the Shape of the copy
+	 * @return a new FixtureDef
+	 */
+	public static FixtureDef copyFixtureDef(FixtureDef fixtureDef, Shape shape) {
+		FixtureDef copy = new FixtureDef();
+		if(fixtureDef != null) {
+			copy.density = fixtureDef.density;
+			copy.friction = fixtureDef.friction;
+			copy.restitution = fixtureDef.restitution;
+			copy.isSensor = fixtureDef.isSensor;
+			copy.filter.categoryBits = fixtureDef.filter.categoryBits;
+			copy.filter.maskBits = fixtureDef.filter.maskBits;
+			copy.filter.groupIndex = fixtureDef.filter.groupIndex;
+		} else {
+			copy.density = 1f;
+		}
+		copy.shape = shape;
+		return copy;
+	}
+	
+	/**
+	 * Disposes of the Shapes shared by getBoxShape and getCircleShape. Fixtures keep a copy of their Shape,
+	 * so Bodies already created are unaffected, but FixtureDefs holding one of these Shapes must not be used again
+	 */
+	public static void clearShapes() {
+		for(int i = 0; i < boxShapeCount; i++) {
+			boxShapes[i].dispose();
+			boxShapes[i] = null;
+		}
+		boxShapeCount = 0;
+		for(int i = 0; i < circleShapeCount; i++) {
+			circleShapes[i].dispose();
+			circleShapes[i] = null;
+		}
+		circleShapeCount = 0;
+	}
+	
+	/**
+	 * Creates an active Body from a PhysicsDef, in Physics.world
 	 * 
 	 * @param physicsDef a filled PhysicsDef object
 	 * @param obj the DimensionalObject to map this to
 	 * @return the created Body
 	 */
 	public static Body bodyFromPhysicsDef(PhysicsDef physicsDef, DimensionalObject obj) {
+		return bodyFromPhysicsDef(world, physicsDef, obj);
+	}
+	
+	/**
+	 * Creates an active Body from a PhysicsDef, waiting for the step if the World is on a PhysicsThread
+	 * 
+	 * @param world the World to create the Body in
+	 * @param physicsDef a filled PhysicsDef object
+	 * @param obj the DimensionalObject to map this to
+	 * @return the created Body
+	 */
+	public static Body bodyFromPhysicsDef(World world, PhysicsDef physicsDef, DimensionalObject obj) {
 		Body body = null;
 
-		physicsDef.bodyDef.position.x = obj.getX() + obj.getHeight() / 2;
-		physicsDef.bodyDef.position.y = obj.getY() + obj.getWidth() / 2;
+		final BodyDef bodyDef = copyBodyDef(physicsDef.bodyDef);
+		bodyDef.position.x = toMeters(obj.getX() + obj.getWidth() / 2);
+		bodyDef.position.y = toMeters(obj.getY() + obj.getHeight() / 2);
 		
-		body = world.createBody(physicsDef.bodyDef);
+		waitForStep(world);
+		body = world.createBody(bodyDef);
 		
 		for(int i = 0; i < physicsDef.fixtureCount; i++) {
 			body.createFixture(physicsDef.fixtureDefs[i]);
@@ -141,13 +471,62 @@ public class Physics {
 		return body;
 	}
 	
+	/**
+	 * Copies a BodyDef, so that a shared PhysicsDef is never written to while creating a Body
+	 * 
+	 * @param bodyDef a valid BodyDef
+	 * @return a new BodyDef with the same values
+	 */
+	private static BodyDef copyBodyDef(BodyDef bodyDef) {
+		final BodyDef copy = new BodyDef();
+		copy.type = bodyDef.type;
+		copy.position.set(bodyDef.position);
+		copy.angle = bodyDef.angle;
+		copy.linearVelocity.set(bodyDef.linearVelocity);
+		copy.angularVelocity = bodyDef.angularVelocity;
+		copy.linearDamping = bodyDef.linearDamping;
+		copy.angularDamping = bodyDef.angularDamping;
+		copy.allowSleep = bodyDef.allowSleep;
+		copy.awake = bodyDef.awake;
+		copy.fixedRotation = bodyDef.fixedRotation;
+		copy.bullet = bodyDef.bullet;
+		copy.active = bodyDef.active;
+		copy.inertiaScale = bodyDef.inertiaScale;
+		return copy;
+	}
+	
+	/**
+	 * Checks whether a Contact is between two Bodies, in either order
+	 * 
+	 * @param contact a valid Contact
+	 * @param body1 a valid Body
+	 * @param body2 a valid Body
+	 * @return TRUE if the Contact is between the two Bodies
+	 */
 	public static boolean bodyContact(Contact contact, Body body1, Body body2) {
-		if(body1.getFixtureList().contains(contact.getFixtureA()) && body2.getFixtureList().contains(contact.getFixtureB())) {
-			return true;
-		} else if(body1.getFixtureList().contains(contact.getFixtureB()) && body2.getFixtureList().contains(contact.getFixtureA())) {
-			return true;
+		final Fixture fixtureA = contact.getFixtureA(), fixtureB = contact.getFixtureB();
+		if(fixtureA == null || fixtureB == null) {
+			return false;
+		}
+		final Body bodyA = fixtureA.getBody(), bodyB = fixtureB.getBody();
+		return (bodyA == body1 && bodyB == body2) || (bodyA == body2 && bodyB == body1);
+	}
+	
+	/**
+	 * Finds the PhysicalSprite which owns a Fixture, through the user data of its Body
+	 * 
+	 * @param fixture a Fixture, may be NULL
+	 * @return NULL if the Body does not belong to a PhysicalSprite
+	 */
+	public static PhysicalSprite getSprite(Fixture fixture) {
+		if(fixture == null) {
+			return null;
+		}
+		final Object userData = fixture.getBody().getUserData();
+		if(userData instanceof PhysicalSprite) {
+			return (PhysicalSprite)userData;
 		}
-		return false;
+		return null;
 	}
 
 }
@@ -36,5 +36,19 @@ public class PhysicsDef {
 	public int getFixtureCount() {
 		return fixtureCount;
 	}
+	
+	/**
+	 * Disposes of the Shapes held by this PhysicsDef, it can't be used to create Bodies afterwards
+	 */
+	public void dispose() {
+		for(int i = 0; i < fixtureCount; i++) {
+			if(shapes[i] != null) {
+				shapes[i].dispose();
+				shapes[i] = null;
+			}
+			fixtureDefs[i] = null;
+		}
+		fixtureCount = 0;
+	}
 
 }
@@ -0,0 +1,255 @@
+package com.stickycoding.rokon;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.physics.box2d.BodyDef;
+import com.badlogic.gdx.physics.box2d.CircleShape;
+import com.badlogic.gdx.physics.box2d.FixtureDef;
+import com.badlogic.gdx.physics.box2d.PolygonShape;
+import com.badlogic.gdx.physics.box2d.Shape;
+
+/**
+ * PhysicsDefFile.java
+ * The contents of a physics definition file, as fractions of the object's size, held in primitive arrays.
+ * Loaded once per file by Physics.fromFile, which then keeps a scaled PhysicsDef for each width and height asked for.
+ * 
+ * Files can be .json, or the binary format written by writeBinary, which loads without any parsing.
+ * 
+ * @author Richard
+ */
+public class PhysicsDefFile {
+	
+	/**
+	 * The first four bytes of a binary physics definition, 'RPD1'
+	 */
+	public static final int BINARY_MAGIC = 0x52504431;
+	
+	public static final int SHAPE_CIRCLE = 0, SHAPE_POLYGON = 1;
+	
+	protected int bodyType;
+	protected int fixtureCount;
+	protected float[] friction, restitution, density;
+	protected boolean[] hasFriction, hasRestitution, hasDensity;
+	protected int[] shapeType;
+	
+	/**
+	 * For a circle x, y and radius. For a polygon all the x coordinates, followed by all the y coordinates
+	 */
+	protected float[][] shapeData;
+	
+	protected int defCount;
+	protected float[] defWidth = new float[4];
+	protected float[] defHeight = new float[4];
+	protected PhysicsDef[] def = new PhysicsDef[4];
+	
+	protected PhysicsDefFile(int fixtureCount) {
+		this.fixtureCount = fixtureCount;
+		friction = new float[fixtureCount];
+		restitution = new float[fixtureCount];
+		density = new float[fixtureCount];
+		hasFriction = new boolean[fixtureCount];
+		hasRestitution = new boolean[fixtureCount];
+		hasDensity = new boolean[fixtureCount];
+		shapeType = new int[fixtureCount];
+		shapeData = new float[fixtureCount][];
+	}
+	
+	/**
+	 * Reads the contents of a .json physics definition
+	 * 
+	 * @param content the text of the file
+	 * @return a PhysicsDefFile
+	 * @throws JSONException if the file is not valid
+	 */
+	public static PhysicsDefFile fromJSON(String content) throws JSONException {
+		JSONObject jsonObj = new JSONObject(content);
+		if(!jsonObj.has("type")) {
+			throw new JSONException("Missing type");
+		}
+		String type = jsonObj.getString("type");
+		JSONArray fixtures = jsonObj.getJSONArray("fixtures");
+		PhysicsDefFile file = new PhysicsDefFile(fixtures.length());
+		file.bodyType = -1;
+		if(type.equals("static")) file.bodyType = BodyDef.BodyType.StaticBody.getValue();
+		if(type.equals("kinematic")) file.bodyType = BodyDef.BodyType.KinematicBody.getValue();
+		if(type.equals("dynamic")) file.bodyType = BodyDef.BodyType.DynamicBody.getValue();
+		if(file.bodyType == -1) throw new JSONException("Unknown type=" + type);
+		
+		for(int i = 0; i < file.fixtureCount; i++) {
+			JSONObject jsonFixture = fixtures.getJSONObject(i);
+			JSONObject jsonShape = jsonFixture.getJSONObject("shape");
+			String shapeType = jsonShape.getString("type");
+			if(shapeType.equals("circle")) {
+				file.shapeType[i] = SHAPE_CIRCLE;
+				file.shapeData[i] = new float[] { (float)jsonShape.getDouble("x"), (float)jsonShape.getDouble("y"), (float)jsonShape.getDouble("radius") };
+			} else if(shapeType.equals("polygon")) {
+				JSONArray jsonX = jsonShape.getJSONArray("x");
+				JSONArray jsonY = jsonShape.getJSONArray("y");
+				int vertexCount = jsonX.length();
+				file.shapeType[i] = SHAPE_POLYGON;
+				file.shapeData[i] = new float[vertexCount * 2];
+				for(int j = 0; j < vertexCount; j++) {
+					file.shapeData[i][j] = (float)jsonX.getDouble(j);
+					file.shapeData[i][vertexCount + j] = (float)jsonY.getDouble(j);
+				}
+			} else {
+				throw new JSONException("Unknown shape type=" + shapeType);
+			}
+			file.hasFriction[i] = jsonFixture.has("friction");
+			if(file.hasFriction[i]) file.friction[i] = (float)jsonFixture.getDouble("friction");
+			file.hasRestitution[i] = jsonFixture.has("restitution");
+			if(file.hasRestitution[i]) file.restitution[i] = (float)jsonFixture.getDouble("restitution");
+			file.hasDensity[i] = jsonFixture.has("density");
+			if(file.hasDensity[i]) file.density[i] = (float)jsonFixture.getDouble("density");
+		}
+		return file;
+	}
+	
+	/**
+	 * Reads a binary physics definition, as written by writeBinary
+	 * 
+	 * @param data the whole file
+	 * @return a PhysicsDefFile, NULL if the data is not a binary physics definition
+	 */
+	public static PhysicsDefFile fromBinary(byte[] data) {
+		ByteBuffer buffer = ByteBuffer.wrap(data);
+		if(data.length < 7 || buffer.getInt() != BINARY_MAGIC) {
+			Debug.warning("PhysicsDefFile.fromBinary", "Not a binary physics definition");
+			return null;
+		}
+		int bodyType = buffer.get();
+		PhysicsDefFile file = new PhysicsDefFile(buffer.getShort());
+		file.bodyType = bodyType;
+		for(int i = 0; i < file.fixtureCount; i++) {
+			int flags = buffer.get();
+			file.shapeType[i] = flags & 1;
+			file.hasFriction[i] = (flags & 2) != 0;
+			file.hasRestitution[i] = (flags & 4) != 0;
+			file.hasDensity[i] = (flags & 8) != 0;
+			file.friction[i] = buffer.getFloat();
+			file.restitution[i] = buffer.getFloat();
+			file.density[i] = buffer.getFloat();
+			float[] shapeData = new float[buffer.getShort()];
+			final int start = buffer.position();
+			for(int j = 0; j < shapeData.length; j++) {
+				shapeData[j] = buffer.getFloat(start + j * 4);
+			}
+			buffer.position(start + shapeData.length * 4);
+			file.shapeData[i] = shapeData;
+		}
+		return file;
+	}
+	
+	/**
+	 * Writes this definition in the binary format, which loads without parsing. Produce these ahead of time and
+	 * ship them in place of the .json files
+	 * 
+	 * @param outputStream a valid OutputStream, which is not closed
+	 * @throws IOException
+	 */
+	public void writeBinary(OutputStream outputStream) throws IOException {
+		DataOutputStream out = new DataOutputStream(outputStream);
+		out.writeInt(BINARY_MAGIC);
+		out.writeByte(bodyType);
+		out.writeShort(fixtureCount);
+		for(int i = 0; i < fixtureCount; i++) {
+			out.writeByte(shapeType[i] | (hasFriction[i] ? 2 : 0) | (hasRestitution[i] ? 4 : 0) | (hasDensity[i] ? 8 : 0));
+			out.writeFloat(friction[i]);
+			out.writeFloat(restitution[i]);
+			out.writeFloat(density[i]);
+			out.writeShort(shapeData[i].length);
+			for(int j = 0; j < shapeData[i].length; j++) {
+				out.writeFloat(shapeData[i][j]);
+			}
+		}
+		out.flush();
+	}
+	
+	/**
+	 * Fetches the PhysicsDef for an object of a given size, creating it the first time that size is asked for
+	 * The Shapes are scaled to meters by Physics.pixelsPerMeter
+	 * 
+	 * @param width the width of the object, in game units
+	 * @param height the height of the object, in game units
+	 * @return a PhysicsDef, shared between all objects of this size
+	 */
+	public PhysicsDef getPhysicsDef(float width, float height) {
+		for(int i = 0; i < defCount; i++) {
+			if(defWidth[i] == width && defHeight[i] == height) {
+				return def[i];
+			}
+		}
+		if(defCount == def.length) {
+			PhysicsDef[] newDef = new PhysicsDef[defCount * 2];
+			float[] newWidth = new float[defCount * 2];
+			float[] newHeight = new float[defCount * 2];
+			System.arraycopy(def, 0, newDef, 0, defCount);
+			System.arraycopy(defWidth, 0, newWidth, 0, defCount);
+			System.arraycopy(defHeight, 0, newHeight, 0, defCount);
+			def = newDef;
+			defWidth = newWidth;
+			defHeight = newHeight;
+		}
+		def[defCount] = createPhysicsDef(width, height);
+		defWidth[defCount] = width;
+		defHeight[defCount] = height;
+		defCount++;
+		return def[defCount - 1];
+	}
+	
+	protected PhysicsDef createPhysicsDef(float width, float height) {
+		width = Physics.toMeters(width);
+		height = Physics.toMeters(height);
+		PhysicsDef physicsDef = new PhysicsDef();
+		BodyDef bodyDef = new BodyDef();
+		if(bodyType == BodyDef.BodyType.StaticBody.getValue()) bodyDef.type = BodyDef.BodyType.StaticBody;
+		if(bodyType == BodyDef.BodyType.KinematicBody.getValue()) bodyDef.type = BodyDef.BodyType.KinematicBody;
+		if(bodyType == BodyDef.BodyType.DynamicBody.getValue()) bodyDef.type = BodyDef.BodyType.DynamicBody;
+		physicsDef.bodyDef = bodyDef;
+		for(int i = 0; i < fixtureCount; i++) {
+			FixtureDef fixtureDef = new FixtureDef();
+			Shape shape;
+			if(shapeType[i] == SHAPE_CIRCLE) {
+				CircleShape circleShape = new CircleShape();
+				circleShape.setPosition(new Vector2(shapeData[i][0] * width, shapeData[i][1] * height));
+				circleShape.setRadius(shapeData[i][2] * height);
+				shape = circleShape;
+			} else {
+				int vertexCount = shapeData[i].length / 2;
+				Vector2[] vertices = new Vector2[vertexCount];
+				for(int j = 0; j < vertexCount; j++) {
+					vertices[j] = new Vector2(shapeData[i][j] * width, shapeData[i][vertexCount + j] * height);
+				}
+				PolygonShape polygonShape = new PolygonShape();
+				polygonShape.set(vertices);
+				shape = polygonShape;
+			}
+			if(hasFriction[i]) fixtureDef.friction = friction[i];
+			if(hasRestitution[i]) fixtureDef.restitution = restitution[i];
+			if(hasDensity[i]) fixtureDef.density = density[i];
+			fixtureDef.shape = shape;
+			physicsDef.add(shape, fixtureDef);
+		}
+		return physicsDef;
+	}
+	
+	/**
+	 * Disposes of the Shapes of every PhysicsDef created from this file
+	 */
+	public void dispose() {
+		for(int i = 0; i < defCount; i++) {
+			def[i].dispose();
+			def[i] = null;
+		}
+		defCount = 0;
+	}
+
+}
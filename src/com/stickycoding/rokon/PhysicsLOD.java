@@ -0,0 +1,209 @@
+package com.stickycoding.rokon;
+
+import com.badlogic.gdx.physics.box2d.Body;
+import com.badlogic.gdx.physics.box2d.World;
+import com.badlogic.gdx.physics.box2d.BodyDef.BodyType;
+
+/**
+ * PhysicsLOD.java
+ * Reduces the physics simulated away from the Window. PhysicalSprite Bodies further than a margin outside the Window are made
+ * inactive (or put to sleep), and restored once the Window comes back within the margin. When many Bodies are active, fewer
+ * solver iterations can be used. Set with Scene.setPhysicsLOD, and it is updated once per loop before the World is stepped,
+ * or between steps when the World is on a PhysicsThread
+ * 
+ * Static Bodies are left alone, they cost little and dynamic Bodies near the Window may rest on them.
+ * Only the Scene's World is covered, Bodies in the World of a Layer (see Layer.setWorld) are always simulated fully.
+ * To make a Body inactive while a PhysicsLOD is in use, call PhysicalSprite.setActive rather than Body.setActive, so that
+ * it is not made active again when it comes near the Window.
+ * 
+ * @author Richard
+ */
+public class PhysicsLOD {
+	
+	/**
+	 * Bodies outside the margin are made inactive, leaving the broad-phase. Their velocities are kept and they carry on as they were
+	 * when restored. Nothing can collide with them in the meantime
+	 */
+	public static final int DEACTIVATE = 0;
+	
+	/**
+	 * Bodies outside the margin are put to sleep. They stay solid, but lose their velocities. If something wakes them,
+	 * they are put back to sleep on the next update while they are still outside the margin
+	 */
+	public static final int SLEEP = 1;
+	
+	protected int mode = DEACTIVATE;
+	protected float margin, hysteresis;
+	protected int activeCount, reducedCount;
+	
+	protected int busyBodyCount = Integer.MAX_VALUE;
+	protected int busyVelocityIterations, busyPositionIterations;
+
+	/**
+	 * Creates a PhysicsLOD
+	 * 
+	 * @param mode DEACTIVATE or SLEEP
+	 * @param margin the distance outside the Window, in game units, within which Bodies are simulated fully
+	 */
+	public PhysicsLOD(int mode, float margin) {
+		this.mode = mode;
+		setMargin(margin);
+	}
+	
+	/**
+	 * Sets the distance outside the Window within which Bodies are simulated fully. A Body is only reduced once it is a further
+	 * quarter of the margin away, so those on the edge don't switch back and forth
+	 * 
+	 * @param margin the distance in game units
+	 */
+	public void setMargin(float margin) {
+		this.margin = margin;
+		this.hysteresis = margin / 4f;
+	}
+	
+	/**
+	 * @return the distance outside the Window within which Bodies are simulated fully
+	 */
+	public float getMargin() {
+		return margin;
+	}
+	
+	/**
+	 * Uses fewer solver iterations while many Bodies are active
+	 * 
+	 * @param busyBodyCount the number of active Bodies at which to switch
+	 * @param velocityIterations the velocity iterations to use when busy
+	 * @param positionIterations the position iterations to use when busy
+	 */
+	public void setBusyIterations(int busyBodyCount, int velocityIterations, int positionIterations) {
+		this.busyBodyCount = busyBodyCount;
+		this.busyVelocityIterations = velocityIterations;
+		this.busyPositionIterations = positionIterations;
+	}
+	
+	/**
+	 * @return the velocity iterations to use for the next step
+	 */
+	public int getVelocityIterations() {
+		return activeCount >= busyBodyCount ? busyVelocityIterations : Physics.velocityIterations;
+	}
+	
+	/**
+	 * @return the position iterations to use for the next step
+	 */
+	public int getPositionIterations() {
+		return activeCount >= busyBodyCount ? busyPositionIterations : Physics.positionIterations;
+	}
+	
+	/**
+	 * @return the number of PhysicalSprite Bodies simulated fully after the last update
+	 */
+	public int getActiveCount() {
+		return activeCount;
+	}
+	
+	/**
+	 * @return the number of PhysicalSprite Bodies reduced after the last update
+	 */
+	public int getReducedCount() {
+		return reducedCount;
+	}
+	
+	/**
+	 * Checks each PhysicalSprite Body registered for transform sync against the Window, or the whole game area if there is no Window.
+	 * This must not be called while the World is stepping
+	 * 
+	 * @param world a valid World
+	 * @param window the Window, may be NULL
+	 */
+	public void update(World world, Window window) {
+		float left, top, right, bottom;
+		if(window == null) {
+			left = 0;
+			top = 0;
+			right = RokonActivity.gameWidth;
+			bottom = RokonActivity.gameHeight;
+		} else {
+			left = Math.min(window.getX(), window.getX() + window.width);
+			right = Math.max(window.getX(), window.getX() + window.width);
+			top = Math.min(window.getY(), window.getY() + window.height);
+			bottom = Math.max(window.getY(), window.getY() + window.height);
+		}
+		final float scale = Physics.pixelsPerMeter;
+		final float[] transforms = world.getTransforms();
+		final int transformCount = world.getTransformCount();
+		activeCount = 0;
+		reducedCount = 0;
+		for(int i = 0; i < transformCount; i++) {
+			final Body body = world.getTransformBody(i);
+			final Object userData = body.getUserData();
+			if(!(userData instanceof PhysicalSprite)) {
+				continue;
+			}
+			final PhysicalSprite sprite = (PhysicalSprite)userData;
+			if(!sprite.lodReduced && (body.getType() == BodyType.StaticBody || !body.isActive())) {
+				continue;
+			}
+			final float x = transforms[i * World.TRANSFORM_STRIDE] * scale;
+			final float y = transforms[i * World.TRANSFORM_STRIDE + 1] * scale;
+			final float distance = Math.max(Math.max(left - x, x - right), Math.max(top - y, y - bottom));
+			if(sprite.lodReduced) {
+				if(mode == SLEEP && !body.isActive()) {
+					// Made inactive since it was put to sleep, that is left as it is
+					sprite.lodReduced = false;
+					continue;
+				}
+				if(distance < margin) {
+					sprite.lodReduced = false;
+					if(mode == DEACTIVATE) {
+						body.setActive(true);
+					} else {
+						body.setAwake(true);
+					}
+					activeCount++;
+				} else {
+					if(mode == SLEEP && body.isAwake()) {
+						body.setAwake(false);
+					}
+					reducedCount++;
+				}
+			} else {
+				if(distance > margin + hysteresis) {
+					sprite.lodReduced = true;
+					if(mode == DEACTIVATE) {
+						body.setActive(false);
+					} else {
+						body.setAwake(false);
+					}
+					reducedCount++;
+				} else {
+					activeCount++;
+				}
+			}
+		}
+	}
+	
+	/**
+	 * Restores every Body which has been reduced, for when the PhysicsLOD is no longer used
+	 * 
+	 * @param world a valid World
+	 */
+	public void restore(World world) {
+		final int transformCount = world.getTransformCount();
+		for(int i = 0; i < transformCount; i++) {
+			final Body body = world.getTransformBody(i);
+			final Object userData = body.getUserData();
+			if(userData instanceof PhysicalSprite && ((PhysicalSprite)userData).lodReduced) {
+				((PhysicalSprite)userData).lodReduced = false;
+				if(mode == DEACTIVATE) {
+					body.setActive(true);
+				} else {
+					body.setAwake(true);
+				}
+			}
+		}
+		activeCount = 0;
+		reducedCount = 0;
+	}
+
+}
@@ -0,0 +1,253 @@
+package com.stickycoding.rokon;
+
+import com.badlogic.gdx.physics.box2d.World;
+
+/**
+ * PhysicsProfiler.java
+ * Records the cost of each physics step into a ring buffer, to find spikes such as an explosion creating hundreds of contacts.
+ * Set with Scene.setPhysicsProfiler or Layer.setPhysicsProfiler. One sample is recorded per loop, on the game thread, holding
+ * the times taken to step the World, to sync with its PhysicsThread and to dispatch contacts, the time of the whole loop, and
+ * the number of bodies, contacts and broad-phase proxies afterwards.
+ * 
+ * Times are in milliseconds. With a PhysicsThread the step time is that of the step which finished during the sync, and runs
+ * alongside the loop rather than being part of it.
+ * 
+ * @author Richard
+ */
+public class PhysicsProfiler {
+	
+	/**
+	 * The number of samples kept, if no capacity is passed
+	 */
+	public static final int DEFAULT_CAPACITY = 300;
+	
+	/**
+	 * The values recorded for each sample, for get, getAverage, getMaximum and export
+	 */
+	public static final int STEP_TIME = 0, SYNC_TIME = 1, DISPATCH_TIME = 2, LOOP_TIME = 3, BODIES = 4, CONTACTS = 5, PROXIES = 6;
+	
+	/**
+	 * The number of values recorded for each sample
+	 */
+	public static final int VALUE_COUNT = 7;
+	
+	protected static final String[] VALUE_NAME = { "step", "sync", "dispatch", "loop", "bodies", "contacts", "proxies" };
+	
+	protected final int capacity;
+	protected final float[] stepTime, syncTime, dispatchTime, loopTime;
+	protected final int[] bodyCount, contactCount, proxyCount;
+	
+	/**
+	 * The index the next sample is written to, and the number of samples held
+	 */
+	protected int head, count;
+	
+	protected long lastRecord;
+	protected boolean paused;
+	
+	/**
+	 * @param capacity the number of samples to keep, older ones are overwritten
+	 */
+	public PhysicsProfiler(int capacity) {
+		if(capacity < 1) {
+			Debug.warning("PhysicsProfiler", "Tried creating with a capacity of " + capacity + ", defaulting to " + DEFAULT_CAPACITY);
+			capacity = DEFAULT_CAPACITY;
+		}
+		this.capacity = capacity;
+		stepTime = new float[capacity];
+		syncTime = new float[capacity];
+		dispatchTime = new float[capacity];
+		loopTime = new float[capacity];
+		bodyCount = new int[capacity];
+		contactCount = new int[capacity];
+		proxyCount = new int[capacity];
+	}
+	
+	public PhysicsProfiler() {
+		this(DEFAULT_CAPACITY);
+	}
+	
+	/**
+	 * Called once per loop, while the World is safe to read
+	 */
+	protected void record(World world, long stepNanos, long syncNanos, long dispatchNanos) {
+		if(paused) {
+			return;
+		}
+		final long now = System.nanoTime();
+		stepTime[head] = stepNanos / 1000000f;
+		syncTime[head] = syncNanos / 1000000f;
+		dispatchTime[head] = dispatchNanos / 1000000f;
+		loopTime[head] = lastRecord == 0 ? 0 : (now - lastRecord) / 1000000f;
+		bodyCount[head] = world.getBodyCount();
+		contactCount[head] = world.getContactCount();
+		proxyCount[head] = world.getProxyCount();
+		lastRecord = now;
+		head = (head + 1) % capacity;
+		if(count < capacity) {
+			count++;
+		}
+	}
+	
+	/**
+	 * Stops recording, the samples are kept
+	 */
+	public void pause() {
+		paused = true;
+	}
+	
+	/**
+	 * Starts recording again, the loop time of the first new sample is left out
+	 */
+	public void resume() {
+		paused = false;
+		lastRecord = 0;
+	}
+	
+	/**
+	 * @return TRUE if recording is paused
+	 */
+	public boolean isPaused() {
+		return paused;
+	}
+	
+	/**
+	 * Removes all samples
+	 */
+	public void clear() {
+		head = 0;
+		count = 0;
+		lastRecord = 0;
+	}
+	
+	/**
+	 * @return the number of samples held, at most the capacity
+	 */
+	public int getSampleCount() {
+		return count;
+	}
+	
+	/**
+	 * @return the number of samples kept
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+	
+	/**
+	 * Returns a value of a sample
+	 * 
+	 * @param value one of the value constants
+	 * @param age 0 for the newest sample, up to getSampleCount() - 1 for the oldest
+	 * @return the value, 0 if there is no such sample
+	 */
+	public float get(int value, int age) {
+		if(age < 0 || age >= count) {
+			return 0;
+		}
+		return getAt(value, (head - 1 - age + capacity) % capacity);
+	}
+	
+	private float getAt(int value, int index) {
+		switch(value) {
+			case STEP_TIME: return stepTime[index];
+			case SYNC_TIME: return syncTime[index];
+			case DISPATCH_TIME: return dispatchTime[index];
+			case LOOP_TIME: return loopTime[index];
+			case BODIES: return bodyCount[index];
+			case CONTACTS: return contactCount[index];
+			case PROXIES: return proxyCount[index];
+		}
+		Debug.warning("PhysicsProfiler.get", "Invalid value " + value);
+		return 0;
+	}
+	
+	/**
+	 * @param value one of the value constants
+	 * @return the mean of the value over the samples held
+	 */
+	public float getAverage(int value) {
+		if(count == 0) {
+			return 0;
+		}
+		float total = 0;
+		for(int i = 0; i < count; i++) {
+			total += getAt(value, i);
+		}
+		return total / count;
+	}
+	
+	/**
+	 * @param value one of the value constants
+	 * @return the highest value over the samples held
+	 */
+	public float getMaximum(int value) {
+		float maximum = 0;
+		for(int i = 0; i < count; i++) {
+			final float v = getAt(value, i);
+			if(v > maximum) {
+				maximum = v;
+			}
+		}
+		return maximum;
+	}
+	
+	/**
+	 * Copies a value of every sample held into an array, oldest first, such as for drawing a graph
+	 * 
+	 * @param value one of the value constants
+	 * @param out the array to fill
+	 * @param offset the first index to fill
+	 * @return the number of samples copied, limited by the space in out
+	 */
+	public int export(int value, float[] out, int offset) {
+		final int exported = Math.min(count, out.length - offset);
+		final int first = (head - count + capacity) % capacity;
+		for(int i = 0; i < exported; i++) {
+			out[offset + i] = getAt(value, (first + i) % capacity);
+		}
+		return exported;
+	}
+	
+	/**
+	 * @return every sample held as comma separated values, oldest first, with a header line
+	 */
+	public String toCSV() {
+		final StringBuilder builder = new StringBuilder(count * 48 + 64);
+		for(int j = 0; j < VALUE_COUNT; j++) {
+			if(j > 0) {
+				builder.append(',');
+			}
+			builder.append(VALUE_NAME[j]);
+		}
+		builder.append('\n');
+		final int first = (head - count + capacity) % capacity;
+		for(int i = 0; i < count; i++) {
+			final int index = (first + i) % capacity;
+			for(int j = 0; j < VALUE_COUNT; j++) {
+				if(j > 0) {
+					builder.append(',');
+				}
+				if(j < BODIES) {
+					builder.append(getAt(j, index));
+				} else {
+					builder.append((int)getAt(j, index));
+				}
+			}
+			builder.append('\n');
+		}
+		return builder.toString();
+	}
+	
+	/**
+	 * Prints the average and maximum of each value through Debug
+	 */
+	public void printStats() {
+		final StringBuilder builder = new StringBuilder("PhysicsProfiler samples=" + count);
+		for(int j = 0; j < VALUE_COUNT; j++) {
+			builder.append(' ').append(VALUE_NAME[j]).append('=').append(getAverage(j)).append('/').append(getMaximum(j));
+		}
+		Debug.print(builder.toString());
+	}
+
+}
@@ -0,0 +1,177 @@
+package com.stickycoding.rokon;
+
+import com.badlogic.gdx.physics.box2d.World;
+
+/**
+ * PhysicsThread.java
+ * Steps a Box2D World on its own thread, one step ahead of the game loop, so physics and game logic overlap.
+ * Started with Scene.usePhysicsThread. The GameThread calls sync once per loop, which waits for the running step to end,
+ * publishes the body transforms, passes on the contacts and queued commands, and starts the next step.
+ * 
+ * While a step is running the World must not be touched from the game thread. Use Physics.queue to apply forces or joints
+ * between steps, or Physics.waitForStep before changing the World directly. PhysicalSprite does this for you.
+ * 
+ * @author Richard
+ */
+public class PhysicsThread extends Thread {
+	
+	/**
+	 * The maximum number of commands which can be queued between steps
+	 */
+	public static final int MAX_COMMANDS = 64;
+	
+	protected World world;
+	protected final Object stepLock = new Object();
+	protected boolean stepping, finished;
+	protected boolean bufferContacts;
+	protected float timeStep;
+	protected int velocityIterations, positionIterations;
+	
+	protected final Object commandLock = new Object();
+	protected Runnable[] command = new Runnable[MAX_COMMANDS];
+	protected int commandCount;
+	
+	/**
+	 * Records each sync, may be NULL
+	 */
+	protected PhysicsProfiler profiler;
+	
+	/**
+	 * The time taken by the last step, written by this thread and read after waitForStep
+	 */
+	protected long stepNanos;
+	
+	public PhysicsThread(World world) {
+		this.world = world;
+		setName("PhysicsThread");
+		setDaemon(true);
+		bufferContacts = world.isBufferContacts();
+		world.setDoubleBuffered(true);
+		world.setBufferContacts(true);
+	}
+	
+	@Override
+	public void run() {
+		while(true) {
+			synchronized(stepLock) {
+				while(!stepping && !finished) {
+					try {
+						stepLock.wait();
+					} catch (InterruptedException e) { }
+				}
+				if(finished) {
+					return;
+				}
+			}
+			final long stepStart = System.nanoTime();
+			world.step(timeStep, velocityIterations, positionIterations);
+			final long stepEnd = System.nanoTime();
+			synchronized(stepLock) {
+				stepNanos = stepEnd - stepStart;
+				stepping = false;
+				stepLock.notifyAll();
+			}
+		}
+	}
+	
+	/**
+	 * Blocks until the running step (if any) has finished. Until the next call to sync, the World can then be used freely
+	 */
+	public void waitForStep() {
+		synchronized(stepLock) {
+			while(stepping) {
+				try {
+					stepLock.wait();
+				} catch (InterruptedException e) { }
+			}
+		}
+	}
+	
+	/**
+	 * @return TRUE if a step is currently running
+	 */
+	public boolean isStepping() {
+		synchronized(stepLock) {
+			return stepping;
+		}
+	}
+	
+	/**
+	 * Queues a command to be run on the game thread between steps, while the World is safe to change
+	 * 
+	 * @param runnable a valid Runnable
+	 * @return TRUE if queued, FALSE if the queue is full
+	 */
+	public boolean queue(Runnable runnable) {
+		synchronized(commandLock) {
+			if(commandCount == MAX_COMMANDS) {
+				Debug.warning("PhysicsThread.queue", "Command queue is full, maximum is " + MAX_COMMANDS);
+				return false;
+			}
+			command[commandCount] = runnable;
+			commandCount++;
+			return true;
+		}
+	}
+	
+	/**
+	 * Called once per loop by the GameThread, finishes the last step and starts the next
+	 */
+	protected void sync(float timeStep, int velocityIterations, int positionIterations) {
+		final long syncStart = System.nanoTime();
+		waitForStep();
+		world.publishTransforms();
+		final long dispatchStart = System.nanoTime();
+		world.dispatchContacts();
+		final long dispatchEnd = System.nanoTime();
+		synchronized(commandLock) {
+			for(int i = 0; i < commandCount; i++) {
+				command[i].run();
+				command[i] = null;
+			}
+			commandCount = 0;
+		}
+		if(profiler != null) {
+			profiler.record(world, stepNanos, dispatchStart - syncStart, dispatchEnd - dispatchStart);
+		}
+		synchronized(stepLock) {
+			if(finished) {
+				return;
+			}
+			this.timeStep = timeStep;
+			this.velocityIterations = velocityIterations;
+			this.positionIterations = positionIterations;
+			stepping = true;
+			stepLock.notifyAll();
+		}
+	}
+	
+	/**
+	 * Waits for the running step, stops the thread and returns the World to stepping on the game thread.
+	 * Queued commands are run before returning
+	 */
+	public void finish() {
+		waitForStep();
+		synchronized(stepLock) {
+			finished = true;
+			stepLock.notifyAll();
+		}
+		synchronized(commandLock) {
+			for(int i = 0; i < commandCount; i++) {
+				command[i].run();
+				command[i] = null;
+			}
+			commandCount = 0;
+		}
+		world.setBufferContacts(bufferContacts);
+		world.setDoubleBuffered(false);
+	}
+	
+	/**
+	 * @return the World being stepped
+	 */
+	public World getWorld() {
+		return world;
+	}
+
+}
@@ -12,6 +12,10 @@ import com.badlogic.gdx.math.Vector2;
 public class Point extends Vector2 {
 
 	private Point parent;
+	private Point[] children;
+	private int childCount;
+	private boolean worldDirty = true;
+	private float worldX, worldY;
 	
 	/**
 	 * Creates a 2D point
@@ -29,14 +33,68 @@ public class Point extends Vector2 {
 	 * @param point a valid Point to follow
 	 */
 	public void setParent(Point point) {
+		if(parent != null) {
+			parent.removeChild(this);
+		}
 		parent = point;
+		if(parent != null) {
+			parent.addChild(this);
+		}
+		// A root never clears its own flag, so clear it here to make sure the children are told
+		worldDirty = false;
+		invalidate();
 	}
 	
 	/**
 	 * Removes the parent Point, lies back to origin
 	 */
 	public void removeParent() {
-		parent = null;
+		setParent(null);
+	}
+	
+	private void addChild(Point child) {
+		if(children == null) {
+			children = new Point[2];
+		} else if(childCount == children.length) {
+			Point[] newChildren = new Point[childCount * 2];
+			System.arraycopy(children, 0, newChildren, 0, childCount);
+			children = newChildren;
+		}
+		children[childCount] = child;
+		childCount++;
+	}
+	
+	private void removeChild(Point child) {
+		for(int i = 0; i < childCount; i++) {
+			if(children[i] == child) {
+				childCount--;
+				children[i] = children[childCount];
+				children[childCount] = null;
+				return;
+			}
+		}
+	}
+	
+	/**
+	 * Flags the cached position of this Point, and all Points which follow it, as out of date.
+	 * This is done automatically by the setters, it only needs calling after writing to x or y directly.
+	 */
+	public void invalidate() {
+		if(parent != null) {
+			// If this is already dirty, so are all the children
+			if(worldDirty) return;
+			worldDirty = true;
+		}
+		for(int i = 0; i < childCount; i++) {
+			children[i].invalidate();
+		}
+	}
+	
+	private void updateWorldPosition() {
+		// Cleared before calculating, so a change from the other thread part way through isn't lost
+		worldDirty = false;
+		worldX = parent.getX() + x;
+		worldY = parent.getY() + y;
 	}
 	
 	/**
@@ -54,7 +112,9 @@ public class Point extends Vector2 {
 	 * @return x-coordinate
 	 */
 	public float getX() {
-		return parent == null ? x : parent.getX() + x;
+		if(parent == null) return x;
+		if(worldDirty) updateWorldPosition();
+		return worldX;
 	}
 	
 	/**
@@ -63,7 +123,9 @@ public class Point extends Vector2 {
 	 * @return y-coordinate
 	 */
 	public float getY() {
-		return parent == null ? y : parent.getY() + y;
+		if(parent == null) return y;
+		if(worldDirty) updateWorldPosition();
+		return worldY;
 	}
 	
 	/**
@@ -73,6 +135,7 @@ public class Point extends Vector2 {
 	 */
 	public void setX(float x) {
 		this.x = x;
+		invalidate();
 	}
 	
 	/**
@@ -82,6 +145,7 @@ public class Point extends Vector2 {
 	 */
 	public void setY(float y) {
 		this.y = y;
+		invalidate();
 	}
 	
 	/**
@@ -93,6 +157,7 @@ public class Point extends Vector2 {
 	public void setXY(float x, float y) {
 		this.x = x;
 		this.y = y;
+		invalidate();
 	}
 	
 	/**
@@ -102,6 +167,7 @@ public class Point extends Vector2 {
 	 */
 	public void moveX(float x) {
 		this.x += x;
+		invalidate();
 	}
 	
 	/**
@@ -111,6 +177,7 @@ public class Point extends Vector2 {
 	 */
 	public void moveY(float y) {
 		this.y += y;
+		invalidate();
 	}
 	
 	/**
@@ -122,6 +189,7 @@ public class Point extends Vector2 {
 	public void move(float x, float y) {
 		this.x += x;
 		this.y += y;
+		invalidate();
 	}
 	
 	/**
@@ -133,6 +201,7 @@ public class Point extends Vector2 {
 	public void moveVector(float distance, float angle) {
 		this.x += distance * (float)Math.sin(angle);
 		this.y += distance * (float)Math.cos(angle);
+		invalidate();
 	}
 	
 	/**
@@ -143,6 +212,79 @@ public class Point extends Vector2 {
 	public void moveVector(Vector2 vector) {
 		this.x += vector.x;
 		this.y += vector.y;
+		invalidate();
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.badlogic.gdx.math.Vector2#set(com.badlogic.gdx.math.Vector2)
+	 */
+	public Vector2 set(Vector2 v) {
+		super.set(v);
+		invalidate();
+		return this;
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.badlogic.gdx.math.Vector2#set(float, float)
+	 */
+	public Vector2 set(float x, float y) {
+		super.set(x, y);
+		invalidate();
+		return this;
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.badlogic.gdx.math.Vector2#add(com.badlogic.gdx.math.Vector2)
+	 */
+	public Vector2 add(Vector2 v) {
+		super.add(v);
+		invalidate();
+		return this;
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.badlogic.gdx.math.Vector2#add(float, float)
+	 */
+	public Vector2 add(float x, float y) {
+		super.add(x, y);
+		invalidate();
+		return this;
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.badlogic.gdx.math.Vector2#sub(com.badlogic.gdx.math.Vector2)
+	 */
+	public Vector2 sub(Vector2 v) {
+		super.sub(v);
+		invalidate();
+		return this;
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.badlogic.gdx.math.Vector2#sub(float, float)
+	 */
+	public Vector2 sub(float x, float y) {
+		super.sub(x, y);
+		invalidate();
+		return this;
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.badlogic.gdx.math.Vector2#mul(float)
+	 */
+	public Vector2 mul(float scalar) {
+		super.mul(scalar);
+		invalidate();
+		return this;
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.badlogic.gdx.math.Vector2#nor()
+	 */
+	public Vector2 nor() {
+		super.nor();
+		invalidate();
+		return this;
 	}
 	
 	protected void onUpdate() {
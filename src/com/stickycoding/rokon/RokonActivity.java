@@ -85,6 +85,7 @@ public class RokonActivity extends Activity {
 	public void dispose() {
 		Debug.print("dispose()");
 		if(currentScene != null) {
+			currentScene.stopPhysicsThread();
 			for(int i = 0; i < Scene.MAX_RUNNABLE; i++) {
 				Scene.uiRunnable[i] = null;
 				Scene.gameRunnable[i] = null;
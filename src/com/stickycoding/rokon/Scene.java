@@ -3,6 +3,7 @@ package com.stickycoding.rokon;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.Arrays;
+import java.util.HashMap;
 
 import javax.microedition.khronos.opengles.GL10;
 
@@ -16,6 +17,7 @@ import com.badlogic.gdx.physics.box2d.ContactListener;
 import com.badlogic.gdx.physics.box2d.World;
 import com.stickycoding.rokon.device.Graphics;
 import com.stickycoding.rokon.device.OS;
+import com.stickycoding.rokon.gesture.GestureDetector;
 
 /**
  * Scene.java
@@ -54,6 +56,9 @@ public abstract class Scene {
 	protected ContactListener contactListener;
 	protected boolean useContactListener;
 	protected Background background;
+	protected GestureDetector gestureDetector;
+	protected EventBus eventBus = new EventBus();
+	protected InvokeAdapter invokeAdapter = new InvokeAdapter(this);
 	
 	protected boolean useNewClearColor;
 	protected float[] newClearColor = new float[4];
@@ -297,9 +302,17 @@ public abstract class Scene {
 	 * @param world valid World object
 	 */
 	public void setWorld(World world) {
+		stopPhysicsThreads();
 		this.world = world;
 		Physics.world = world;
 		usePhysics = true;
+		if(useContactListener) {
+			world.setContactListener(contactListener);
+			world.setBufferContacts(true);
+		}
+		if(physicsThreaded) {
+			startPhysicsThreads();
+		}
 	}
 	
 	/**
@@ -329,17 +342,28 @@ public abstract class Scene {
 	 * Removes the World from this Scene
 	 */
 	public void removeWorld() {
+		stopPhysicsThreads();
 		this.world = null;
 		Physics.world = null;
 		usePhysics = false;
+		for(int i = 0; i < layerCount; i++) {
+			if(layer[i].world != null) {
+				usePhysics = true;
+			}
+		}
+		if(physicsThreaded) {
+			startPhysicsThreads();
+		}
 	}
 	
 	/**
 	 * Triggers the Scene to begin invoking methods on certain events, this is not set by default.
 	 * If the methods that are to be invoked don't exist, no exceptions will be raised.
+	 * Apart from touches, the methods are invoked at the end of the game loop, as they pass through the EventBus.
 	 */
 	public void useInvoke() {
 		useInvoke = true;
+		invokeAdapter.register(eventBus);
 	}
 	
 	/**
@@ -347,6 +371,123 @@ public abstract class Scene {
 	 */
 	public void stopInvoke() {
 		useInvoke = false;
+		invokeAdapter.unregister(eventBus);
+	}
+	
+	/**
+	 * Returns the EventBus for this Scene, events posted to it are passed on at the end of each game loop
+	 * 
+	 * @return the EventBus
+	 */
+	public EventBus getEventBus() {
+		return eventBus;
+	}
+	
+	private static final HashMap<Class<?>, HashMap<String, Method[]>> methodTables = new HashMap<Class<?>, HashMap<String, Method[]>>();
+	
+	private static final HashMap<Class<?>, HashMap<String, HashMap<String, Method>>> suffixMethodTables = new HashMap<Class<?>, HashMap<String, HashMap<String, Method>>>();
+	
+	private HashMap<String, Method[]> methods;
+	private HashMap<String, HashMap<String, Method>> suffixMethods;
+	
+	/**
+	 * Fetches the declared methods of this Scene, keyed by method name.
+	 * The table is built once for each Scene class, names which are missing from it have no method.
+	 */
+	private HashMap<String, Method[]> getMethods() {
+		if(methods != null) return methods;
+		synchronized(methodTables) {
+			methods = methodTables.get(getClass());
+			if(methods == null) {
+				methods = new HashMap<String, Method[]>();
+				for(Method m : getClass().getDeclaredMethods()) {
+					m.setAccessible(true);
+					final Method[] existing = methods.get(m.getName());
+					if(existing == null) {
+						methods.put(m.getName(), new Method[] { m });
+					} else {
+						final Method[] grown = new Method[existing.length + 1];
+						System.arraycopy(existing, 0, grown, 0, existing.length);
+						grown[existing.length] = m;
+						methods.put(m.getName(), grown);
+					}
+				}
+				methodTables.put(getClass(), methods);
+			}
+		}
+		return methods;
+	}
+	
+	/**
+	 * Fetches the declared [objectName]_[methodSuffix] methods of this Scene which take no parameters, keyed by suffix then object name.
+	 * The table is built once for each Scene class, so it only holds methods which exist, whatever names objects are given.
+	 * A name with several underscores is entered once for each, so object names and suffixes may both contain them
+	 */
+	private HashMap<String, HashMap<String, Method>> getSuffixMethods() {
+		if(suffixMethods != null) return suffixMethods;
+		synchronized(suffixMethodTables) {
+			suffixMethods = suffixMethodTables.get(getClass());
+			if(suffixMethods == null) {
+				suffixMethods = new HashMap<String, HashMap<String, Method>>();
+				for(Method m : getClass().getDeclaredMethods()) {
+					if(m.getParameterTypes().length != 0) continue;
+					final String methodName = m.getName();
+					int underscore = methodName.indexOf('_');
+					while(underscore != -1) {
+						final String suffix = methodName.substring(underscore + 1);
+						HashMap<String, Method> objects = suffixMethods.get(suffix);
+						if(objects == null) {
+							objects = new HashMap<String, Method>();
+							suffixMethods.put(suffix, objects);
+						}
+						m.setAccessible(true);
+						objects.put(methodName.substring(0, underscore), m);
+						underscore = methodName.indexOf('_', underscore + 1);
+					}
+				}
+				suffixMethodTables.put(getClass(), suffixMethods);
+			}
+		}
+		return suffixMethods;
+	}
+	
+	/**
+	 * Finds a declared method of this Scene by name and parameter types
+	 * 
+	 * @param methodName String
+	 * @param params Class[], NULL to match the first method with the given name
+	 * 
+	 * @return NULL if there is no such method
+	 */
+	protected Method findMethod(String methodName, Class<?>[] params) {
+		final Method[] candidates = getMethods().get(methodName);
+		if(candidates == null) return null;
+		if(params == null) return candidates[0];
+		for(int i = 0; i < candidates.length; i++) {
+			if(Arrays.equals(params, candidates[i].getParameterTypes())) {
+				return candidates[i];
+			}
+		}
+		return null;
+	}
+	
+	private boolean invokeMethod(Method m, Object[] paramValues) {
+		try {
+			m.invoke(this, paramValues);
+			return true;
+		} catch (IllegalArgumentException e) {
+			Debug.error("Invoking, IllegalArgument");
+			e.printStackTrace();
+			return false;
+		} catch (IllegalAccessException e) {
+			Debug.error("Invoking, IllegalAccess");
+			e.printStackTrace();
+			return false;
+		} catch (InvocationTargetException e) {
+			Debug.error("Invoking, IllegalTarget");
+			e.printStackTrace();
+			return false;
+		}
 	}
 	
 	/**
@@ -360,45 +501,29 @@ public abstract class Scene {
 	 * @return TRUE if successful, FALSE otherwise
 	 */
 	public boolean invoke(String methodName, Class<?>[] params, Object[] paramValues) {
-		for(Method m : this.getClass().getDeclaredMethods()) {
-			if(m.getName().equals(methodName)) {
-				if(Arrays.equals(params, m.getParameterTypes())) {
-					try {
-						m.invoke(this, paramValues);
-						return true;
-					} catch (IllegalArgumentException e) {
-						Debug.error("Invoking, IllegalArgument");
-						e.printStackTrace();
-						return false;
-					} catch (IllegalAccessException e) {
-						Debug.error("Invoking, IllegalAccess");
-						e.printStackTrace();
-						return false;
-					} catch (InvocationTargetException e) {
-						Debug.error("Invoking, IllegalTarget");
-						e.printStackTrace();
-						return false;
-					}
-				}
-			}
-		}
-		return false;
+		final Method m = findMethod(methodName, params);
+		if(m == null) return false;
+		return invokeMethod(m, paramValues);
 	}
 	
 	/**
-	 * Invokes a method by parameters inside a Callback object
+	 * Invokes a method by parameters inside a Callback object.
+	 * The method is found on the first call, and kept by the Callback for as long as it is used with the same Scene class
 	 * 
 	 * @param callback valid Callback object
 	 * @return TRUE if successful, FALSE otherwise
 	 */
 	public boolean invoke(Callback callback) {
-		if(callback.parameters == null) {
-			return invoke(callback.methodName);
-		} 
-		if(callback.parameterTypes == null) {
-			return invoke(callback.methodName, callback.parameters);
+		if(callback.sceneClass != getClass()) {
+			if(callback.parameters == null) {
+				callback.method = findMethod(callback.methodName, NO_PARAMETERS);
+			} else {
+				callback.method = findMethod(callback.methodName, callback.parameterTypes);
+			}
+			callback.sceneClass = getClass();
 		}
-		return invoke(callback.methodName, callback.parameterTypes, callback.parameters);
+		if(callback.method == null) return false;
+		return invokeMethod(callback.method, callback.parameters);
 	}
 	
 	/**
@@ -415,27 +540,9 @@ public abstract class Scene {
 	 * @return TRUE if successful, FALSE otherwise
 	 */
 	public boolean invoke(String methodName, Object[] paramValues) {
-		for(Method m : this.getClass().getDeclaredMethods()) {
-			if(m.getName().equals(methodName)) {
-				try {
-					m.invoke(this, paramValues);
-					return true;
-				} catch (IllegalArgumentException e) {
-					Debug.error("Invoking, IllegalArgument");
-					e.printStackTrace();
-					return false;
-				} catch (IllegalAccessException e) {
-					Debug.error("Invoking, IllegalAccess");
-					e.printStackTrace();
-					return false;
-				} catch (InvocationTargetException e) {
-					Debug.error("Invoking, IllegalTarget");
-					e.printStackTrace();
-					return false;
-				}
-			}
-		}
-		return false;
+		final Method m = findMethod(methodName, null);
+		if(m == null) return false;
+		return invokeMethod(m, paramValues);
 	}
 	
 	/**
@@ -446,34 +553,223 @@ public abstract class Scene {
 	 * @return TRUE if successful, FALSE otherwise
 	 */
 	public boolean invoke(String methodName) {
-		for(Method m : this.getClass().getDeclaredMethods()) {
-			if(m.getName().equals(methodName)) {
-				if(m.getParameterTypes().length == 0) {
-					try {
-						m.invoke(this);
-						return true;
-					} catch (IllegalArgumentException e) {
-						Debug.error("Invoking, IllegalArgument");
-						e.printStackTrace();
-						return false;
-					} catch (IllegalAccessException e) {
-						Debug.error("Invoking, IllegalAccess");
-						e.printStackTrace();
-						return false;
-					} catch (InvocationTargetException e) {
-						Debug.error("Invoking, IllegalTarget");
-						e.printStackTrace();
-						return false;
+		final Method m = findMethod(methodName, NO_PARAMETERS);
+		if(m == null) return false;
+		return invokeMethod(m, null);
+	}
+	
+	/**
+	 * Invokes [objectName]_[methodSuffix] inside the Scene class, assuming there are no parameters to pass.
+	 * The method is looked up in a table of the Scene's methods, so no name is built and objects without a method cost nothing
+	 * 
+	 * @param objectName the name of the object
+	 * @param methodSuffix the method name after the underscore
+	 * 
+	 * @return TRUE if successful, FALSE otherwise
+	 */
+	public boolean invoke(String objectName, String methodSuffix) {
+		final HashMap<String, Method> objects = getSuffixMethods().get(methodSuffix);
+		if(objects == null) return false;
+		final Method m = objects.get(objectName);
+		if(m == null) return false;
+		return invokeMethod(m, null);
+	}
+	
+	private static final int TOUCH = 0, TOUCH_DOWN = 1, TOUCH_UP = 2, TOUCH_MOVE = 3, TOUCH_EVENT_COUNT = 4;
+	private static final String[] TOUCH_SUFFIX = new String[] { "_onTouch", "_onTouchDown", "_onTouchUp", "_onTouchMove" };
+	private static final Class<?>[] NO_PARAMETERS = new Class<?>[0];
+	private static final Class<?>[] TOUCH_PARAMETER_TYPES = new Class<?>[] { float.class, float.class, int.class, int.class, int.class };
+	private static final HashMap<Class<?>, HashMap<String, Method[]>> touchMethodTables = new HashMap<Class<?>, HashMap<String, Method[]>>();
+	
+	private HashMap<String, Method[]> touchMethods;
+	private final Object[] touchParameters = new Object[5];
+	
+	/**
+	 * The values last boxed into touchParameters, so that they are only boxed again when they change
+	 */
+	private float touchParameterX = Float.NaN, touchParameterY = Float.NaN;
+	private int touchParameterAction = -1, touchParameterPointerCount = -1, touchParameterPointerId = -1;
+	
+	/**
+	 * A copy of the touchables of the Layer being dispatched to, as the handlers may add or remove touchables
+	 */
+	private Object[] touchSnapshot = new Object[0];
+	
+	/**
+	 * Fetches the [name]_onTouch methods of this Scene, keyed by object name and indexed by touch event.
+	 * The table is built once for each Scene class, rather than searching the methods on every touch.
+	 */
+	private HashMap<String, Method[]> getTouchMethods() {
+		if(touchMethods != null) return touchMethods;
+		synchronized(touchMethodTables) {
+			touchMethods = touchMethodTables.get(getClass());
+			if(touchMethods == null) {
+				touchMethods = new HashMap<String, Method[]>();
+				for(Method m : getClass().getDeclaredMethods()) {
+					if(!Arrays.equals(TOUCH_PARAMETER_TYPES, m.getParameterTypes())) continue;
+					final String methodName = m.getName();
+					for(int event = 0; event < TOUCH_EVENT_COUNT; event++) {
+						if(methodName.endsWith(TOUCH_SUFFIX[event])) {
+							final String objectName = methodName.substring(0, methodName.length() - TOUCH_SUFFIX[event].length());
+							Method[] methods = touchMethods.get(objectName);
+							if(methods == null) {
+								methods = new Method[TOUCH_EVENT_COUNT];
+								touchMethods.put(objectName, methods);
+							}
+							m.setAccessible(true);
+							methods[event] = m;
+							break;
+						}
+					}
+				}
+				touchMethodTables.put(getClass(), touchMethods);
+			}
+		}
+		return touchMethods;
+	}
+	
+	private void invokeTouch(Drawable object, int event, float x, float y, int action, int pointerCount, int pointerId) {
+		final String name = object.getName();
+		if(name == null) return;
+		final Method[] methods = getTouchMethods().get(name);
+		if(methods == null || methods[event] == null) return;
+		// Method.invoke only takes boxed values, so the boxes are kept while the values stay the same, such as between onTouch and onTouchDown
+		if(x != touchParameterX) {
+			touchParameterX = x;
+			touchParameters[0] = x;
+		}
+		if(y != touchParameterY) {
+			touchParameterY = y;
+			touchParameters[1] = y;
+		}
+		if(action != touchParameterAction) {
+			touchParameterAction = action;
+			touchParameters[2] = action;
+		}
+		if(pointerCount != touchParameterPointerCount) {
+			touchParameterPointerCount = pointerCount;
+			touchParameters[3] = pointerCount;
+		}
+		if(pointerId != touchParameterPointerId) {
+			touchParameterPointerId = pointerId;
+			touchParameters[4] = pointerId;
+		}
+		try {
+			methods[event].invoke(this, touchParameters);
+		} catch (IllegalArgumentException e) {
+			Debug.error("Invoking, IllegalArgument");
+			e.printStackTrace();
+		} catch (IllegalAccessException e) {
+			Debug.error("Invoking, IllegalAccess");
+			e.printStackTrace();
+		} catch (InvocationTargetException e) {
+			Debug.error("Invoking, IllegalTarget");
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Copies the touchables of a Layer into touchSnapshot
+	 * 
+	 * @return the number of touchables copied
+	 */
+	private int snapshotTouchables(Layer layer) {
+		final int count = layer.touchables.getCount();
+		if(touchSnapshot.length < count) {
+			touchSnapshot = new Object[count];
+		}
+		System.arraycopy(layer.touchables.getArray(), 0, touchSnapshot, 0, count);
+		return count;
+	}
+
+	/**
+	 * The maximum number of pointers which can capture a Drawable at once, on API 8 and above
+	 */
+	public static final int MAX_CAPTURED_POINTERS = GameThread.MotionTrigger.MAX_POINTERS;
+	
+	protected int capturedCount;
+	protected int[] capturedPointerId = new int[MAX_CAPTURED_POINTERS];
+	protected Drawable[] capturedDrawable = new Drawable[MAX_CAPTURED_POINTERS];
+	protected boolean[] capturedIgnoreWindow = new boolean[MAX_CAPTURED_POINTERS];
+	
+	/**
+	 * Releases any Drawables currently captured by pointers. They will not receive the up event for those pointers.
+	 * This is called automatically when the Scene or a Layer is cleared.
+	 */
+	public void releaseTouches() {
+		for(int i = 0; i < capturedCount; i++) {
+			capturedDrawable[i] = null;
+		}
+		capturedCount = 0;
+	}
+	
+	protected int findCapturedTouch(int pointerId) {
+		for(int i = 0; i < capturedCount; i++) {
+			if(capturedPointerId[i] == pointerId) {
+				return i;
+			}
+		}
+		return -1;
+	}
+	
+	protected void releaseCapturedTouch(int index) {
+		if(index < 0 || index >= capturedCount) return;
+		capturedCount--;
+		capturedPointerId[index] = capturedPointerId[capturedCount];
+		capturedDrawable[index] = capturedDrawable[capturedCount];
+		capturedIgnoreWindow[index] = capturedIgnoreWindow[capturedCount];
+		capturedDrawable[capturedCount] = null;
+	}
+	
+	/**
+	 * Hit tests the Layers once, from the top down, and captures the first touchable Drawable found for a pointer
+	 */
+	protected void captureTouch(int pointerId, float gameX, float gameY, float realX, float realY) {
+		int index = findCapturedTouch(pointerId);
+		if(index != -1) {
+			releaseCapturedTouch(index);
+		}
+		if(capturedCount == MAX_CAPTURED_POINTERS) {
+			return;
+		}
+		for(int i = layerCount - 1; i >= 0; i--) {
+			final boolean ignoreWindow = layer[i].ignoreWindow;
+			final float checkX = ignoreWindow ? realX : gameX;
+			final float checkY = ignoreWindow ? realY : gameY;
+			final Object[] touchables = layer[i].touchables.getArray();
+			for(int j = layer[i].touchables.getCount() - 1; j >= 0; j--) {
+				final Drawable object = (Drawable)touchables[j];
+				if(object != null && object.isTouchable() && object.isAlive()) {
+					boolean touched = false;
+					if(object instanceof Sprite) {
+						touched = MathHelper.pointInShape(checkX, checkY, (Sprite)object);
+					} else {	
+						touched = MathHelper.pointInRect(checkX, checkY, object.getX(), object.getY(), object.getWidth(), object.getHeight());
+					}
+					if(touched) {
+						capturedPointerId[capturedCount] = pointerId;
+						capturedDrawable[capturedCount] = object;
+						capturedIgnoreWindow[capturedCount] = ignoreWindow;
+						capturedCount++;
+						return;
 					}
 				}
 			}
 		}
-		return false;
 	}
 
+	/**
+	 * On API 8 and above, each pointer captures the top-most Drawable it lands on when it goes down. Its moves and up are then
+	 * sent straight to that Drawable, even if the pointer slides off it, without checking the Layers again.
+	 */
 	protected void handleSDK8MultiTouch(float[] x, float[] y, int action, int pointerCount, int[] pointerId) {
+		final int actionMasked = action & MotionEventWrapper8.ACTION_MASK;
+		final int actionIndex = (action & MotionEventWrapper8.ACTION_POINTER_INDEX_MASK) >> MotionEventWrapper8.ACTION_POINTER_INDEX_SHIFT;
+		if(actionMasked == MotionEvent.ACTION_CANCEL) {
+			releaseTouches();
+		}
 		for(int idx = 0; idx < pointerCount; idx++) {
-			int id = pointerId[idx];
+			final int id = pointerId[idx];
 			final float _realX = x[idx];
 			final float _realY = y[idx];
 			final float realX = x[idx] * (RokonActivity.gameWidth / Graphics.getWidthPixels());
@@ -486,103 +782,88 @@ public abstract class Scene {
 				gameX = window.getX() + (window.width * xFraction);
 				gameY = window.getY() + (window.height * yFraction);
 			}
-			for(int i = 0; i < layerCount; i++) {
-				for(int j = 0; j < layer[i].maximumDrawableObjects; j++) {
-					float checkX, checkY;
-					checkX = gameX;
-					checkY = gameY;
-					if(layer[i].ignoreWindow) {
-						checkX = realX;
-						checkY = realY;
+			int event = TOUCH;
+			switch(actionMasked) {
+				case MotionEvent.ACTION_DOWN:
+					event = TOUCH_DOWN;
+					break;
+				case MotionEvent.ACTION_UP:
+					event = TOUCH_UP;
+					break;
+				case MotionEvent.ACTION_MOVE:
+					event = TOUCH_MOVE;
+					break;
+				case MotionEventWrapper8.ACTION_POINTER_DOWN:
+					if(actionIndex == idx) {
+						event = TOUCH_DOWN;
 					}
-					Drawable object = layer[i].gameObjects.get(j);
-					if(object != null && object.isTouchable()) {
-						boolean touched = false;
-						if(object instanceof Sprite) {
-							touched = MathHelper.pointInShape(checkX, checkY, (Sprite)object);
-						} else {	
-							touched = MathHelper.pointInRect(checkX, checkY, object.getX(), object.getY(), object.getWidth(), object.getHeight());
-						}
-						if(touched) {
-							onTouch(object, checkX, checkY, action, pointerCount, id);
-							if(object.getName() != null) {
-								invoke(object.getName() + "_onTouch", new Class[] { float.class, float.class, int.class, int.class, int.class }, new Object[] { gameX, gameY, action, pointerCount, id });
-							}
-							switch(action & MotionEventWrapper8.ACTION_MASK) {
-								case MotionEvent.ACTION_DOWN:
-									onTouchDown(object, checkX, checkY, action, pointerCount, id);
-									object.onTouchDown(checkX, checkY, action, pointerCount, id);
-									if(object.getName() != null) {
-										invoke(object.getName() + "_onTouchDown", new Class[] { float.class, float.class, int.class, int.class, int.class }, new Object[] { gameX, gameY, action, pointerCount, id });
-									}
-									break;
-								case MotionEvent.ACTION_UP:
-									onTouchUp(object, checkX, checkY, action, pointerCount, id);
-									object.onTouchUp(checkX, checkY, action, pointerCount, id);
-									if(object.getName() != null) {
-										invoke(object.getName() + "_onTouchUp", new Class[] { float.class, float.class, int.class, int.class, int.class }, new Object[] { gameX, gameY, action, pointerCount, id });
-									}
-									break;
-								case MotionEvent.ACTION_MOVE:
-									onTouch(object, checkX, checkY, action, pointerCount, id);
-									object.onTouchMove(checkX, checkY, action, pointerCount, id);
-									if(object.getName() != null) {
-										invoke(object.getName() + "_onTouchMove", new Class[] { float.class, float.class, int.class, int.class, int.class }, new Object[] { gameX, gameY, action, pointerCount, id });
-									}
-									break;
-								case MotionEventWrapper8.ACTION_POINTER_DOWN:
-									if((action & MotionEventWrapper8.ACTION_POINTER_INDEX_MASK) >> MotionEventWrapper8.ACTION_POINTER_INDEX_SHIFT == idx) {
-										onTouchDown(object, checkX, checkY, action, pointerCount, id);
-										object.onTouchDown(checkX, checkY, action, pointerCount, id);
-										if(object.getName() != null) {
-											invoke(object.getName() + "_onTouchDown", new Class[] { float.class, float.class, int.class, int.class, int.class }, new Object[] { gameX, gameY, action, pointerCount, id });
-										}
-									}
-									break;
-								case MotionEventWrapper8.ACTION_POINTER_UP:
-									if((action & MotionEventWrapper8.ACTION_POINTER_INDEX_MASK) >> MotionEventWrapper8.ACTION_POINTER_INDEX_SHIFT == idx) {
-										onTouchUp(object, checkX, checkY, action, pointerCount, id);
-										object.onTouchUp(checkX, checkY, action, pointerCount, id);
-										if(object.getName() != null) {
-											invoke(object.getName() + "_onTouchUp", new Class[] { float.class, float.class, int.class, int.class, int.class }, new Object[] { gameX, gameY, action, pointerCount, id });
-										}
-									}
-									break;
-							}
+					break;
+				case MotionEventWrapper8.ACTION_POINTER_UP:
+					if(actionIndex == idx) {
+						event = TOUCH_UP;
+					}
+					break;
+			}
+			if(event != TOUCH) {
+				if(event == TOUCH_DOWN) {
+					captureTouch(id, gameX, gameY, realX, realY);
+				}
+				final int captured = findCapturedTouch(id);
+				if(captured != -1) {
+					final Drawable object = capturedDrawable[captured];
+					if(!object.isAlive() || !object.isTouchable()) {
+						releaseCapturedTouch(captured);
+					} else {
+						final float checkX = capturedIgnoreWindow[captured] ? realX : gameX;
+						final float checkY = capturedIgnoreWindow[captured] ? realY : gameY;
+						onTouch(object, checkX, checkY, action, pointerCount, id);
+						object.onTouch(checkX, checkY, action, pointerCount, id);
+						invokeTouch(object, TOUCH, gameX, gameY, action, pointerCount, id);
+						switch(event) {
+							case TOUCH_DOWN:
+								onTouchDown(object, checkX, checkY, action, pointerCount, id);
+								object.onTouchDown(checkX, checkY, action, pointerCount, id);
+								invokeTouch(object, TOUCH_DOWN, gameX, gameY, action, pointerCount, id);
+								break;
+							case TOUCH_MOVE:
+								onTouchMove(object, checkX, checkY, action, pointerCount, id);
+								object.onTouchMove(checkX, checkY, action, pointerCount, id);
+								invokeTouch(object, TOUCH_MOVE, gameX, gameY, action, pointerCount, id);
+								break;
+							case TOUCH_UP:
+								onTouchUp(object, checkX, checkY, action, pointerCount, id);
+								object.onTouchUp(checkX, checkY, action, pointerCount, id);
+								invokeTouch(object, TOUCH_UP, gameX, gameY, action, pointerCount, id);
+								final int released = findCapturedTouch(id);
+								if(released != -1) {
+									releaseCapturedTouch(released);
+								}
+								break;
 						}
 					}
 				}
 			}
 			onTouch(gameX, gameY, action, pointerCount, id);
 			onTouchReal(_realX, _realY, action, pointerCount, id);
-			switch(action & MotionEventWrapper8.ACTION_MASK) {
-				case MotionEvent.ACTION_DOWN:
+			switch(event) {
+				case TOUCH_DOWN:
 					onTouchDown(gameX, gameY, action, pointerCount, id);
 					onTouchDownReal(_realX, _realY, action, pointerCount, id);
 					break;
-				case MotionEvent.ACTION_UP:
+				case TOUCH_UP:
 					onTouchUp(gameX, gameY, action, pointerCount, id);
 					onTouchUpReal(_realX, _realY, action, pointerCount, id);
 					break;
-				case MotionEvent.ACTION_MOVE:
+				case TOUCH_MOVE:
 					onTouchMove(gameX, gameY, action, pointerCount, id);
 					onTouchMoveReal(_realX, _realY, action, pointerCount, id);
 					break;
-				case MotionEventWrapper8.ACTION_POINTER_DOWN:
-					if((action & MotionEventWrapper8.ACTION_POINTER_INDEX_MASK) >> MotionEventWrapper8.ACTION_POINTER_INDEX_SHIFT == idx) {
-						onTouchDown(gameX, gameY, action, pointerCount, id);
-						onTouchDownReal(_realX, _realY, action, pointerCount, id);
-					}
-					break;
-				case MotionEventWrapper8.ACTION_POINTER_UP:
-					if((action & MotionEventWrapper8.ACTION_POINTER_INDEX_MASK) >> MotionEventWrapper8.ACTION_POINTER_INDEX_SHIFT == idx) {
-						onTouchUp(gameX, gameY, action, pointerCount, id);
-						onTouchUpReal(_realX, _realY, action, pointerCount, id);
-					}
-					break;
 			}
 			
 		}
+		if(actionMasked == MotionEvent.ACTION_UP && capturedCount > 0) {
+			releaseTouches();
+		}
 	}
 	
 	protected void handleMultiTouch(float[] x, float[] y, int action, int pointerCount, int[] pointerId) {
@@ -601,7 +882,9 @@ public abstract class Scene {
 				gameY = window.getY() + (window.height * yFraction);
 			}
 			for(int i = 0; i < layerCount; i++) {
-				for(int j = 0; j < layer[i].maximumDrawableObjects; j++) {
+				final int touchableCount = snapshotTouchables(layer[i]);
+				final Object[] touchables = touchSnapshot;
+				for(int j = 0; j < touchableCount; j++) {
 					float checkX, checkY;
 					checkX = gameX;
 					checkY = gameY;
@@ -609,7 +892,8 @@ public abstract class Scene {
 						checkX = realX;
 						checkY = realY;
 					}
-					Drawable object = layer[i].gameObjects.get(j);
+					final Drawable object = (Drawable)touchables[j];
+					touchables[j] = null;
 					if(object != null && object.isTouchable()) {
 						boolean touched = false;
 						if(object instanceof Sprite) {
@@ -620,83 +904,63 @@ public abstract class Scene {
 						if(touched) {
 							onTouch(object, checkX, checkY, action, pointerCount, id);
 							object.onTouch(checkX, checkY, action, pointerCount, id);
-							if(object.getName() != null) {
-								invoke(object.getName() + "_onTouch", new Class[] { float.class, float.class, int.class, int.class, int.class }, new Object[] { gameX, gameY, action, pointerCount, id });
-							}
+							invokeTouch(object, TOUCH, gameX, gameY, action, pointerCount, id);
 							switch(action) {
 								case MotionEvent.ACTION_DOWN:
 									onTouchDown(object, checkX, checkY, action, pointerCount, id);
 									object.onTouchDown(checkX, checkY, action, pointerCount, id);
-									if(object.getName() != null) {
-										invoke(object.getName() + "_onTouchDown", new Class[] { float.class, float.class, int.class, int.class, int.class }, new Object[] { gameX, gameY, action, pointerCount, id });
-									}
+									invokeTouch(object, TOUCH_DOWN, gameX, gameY, action, pointerCount, id);
 									break;
 								case MotionEvent.ACTION_UP:
 									onTouchUp(object, checkX, checkY, action, pointerCount, id);
 									object.onTouchUp(checkX, checkY, action, pointerCount, id);
-									if(object.getName() != null) {
-										invoke(object.getName() + "_onTouchUp", new Class[] { float.class, float.class, int.class, int.class, int.class }, new Object[] { gameX, gameY, action, pointerCount, id });
-									}
+									invokeTouch(object, TOUCH_UP, gameX, gameY, action, pointerCount, id);
 									break;
 								case MotionEvent.ACTION_MOVE:
-									onTouch(object, checkX, checkY, action, pointerCount, id);
+									onTouchMove(object, checkX, checkY, action, pointerCount, id);
 									object.onTouchMove(checkX, checkY, action, pointerCount, id);
-									if(object.getName() != null) {
-										invoke(object.getName() + "_onTouchMove", new Class[] { float.class, float.class, int.class, int.class, int.class }, new Object[] { gameX, gameY, action, pointerCount, id });
-									}
+									invokeTouch(object, TOUCH_MOVE, gameX, gameY, action, pointerCount, id);
 									break;
 								case MotionEventWrapper5.ACTION_POINTER_1_DOWN:
 									if(idx == 0) {
 										onTouchDown(object, checkX, checkY, action, pointerCount, id);
 										object.onTouchDown(checkX, checkY, action, pointerCount, id);
-										if(object.getName() != null) {
-											invoke(object.getName() + "_onTouchDown", new Class[] { float.class, float.class, int.class, int.class, int.class }, new Object[] { gameX, gameY, action, pointerCount, id });
-										}
+										invokeTouch(object, TOUCH_DOWN, gameX, gameY, action, pointerCount, id);
 									}
 									break;
 								case MotionEventWrapper5.ACTION_POINTER_1_UP:
 									if(idx == 0) {
 										onTouchUp(object, checkX, checkY, action, pointerCount, id);
 										object.onTouchUp(checkX, checkY, action, pointerCount, id);
-										if(object.getName() != null) {
-											invoke(object.getName() + "_onTouchUp", new Class[] { float.class, float.class, int.class, int.class, int.class }, new Object[] { gameX, gameY, action, pointerCount, id });
-										}
+										invokeTouch(object, TOUCH_UP, gameX, gameY, action, pointerCount, id);
 									}
 									break;
 								case MotionEventWrapper5.ACTION_POINTER_2_DOWN:
 									if(idx == 1) {
 										onTouchDown(object, checkX, checkY, action, pointerCount, id);
 										object.onTouchDown(checkX, checkY, action, pointerCount, id);
-										if(object.getName() != null) {
-											invoke(object.getName() + "_onTouchDown", new Class[] { float.class, float.class, int.class, int.class, int.class }, new Object[] { gameX, gameY, action, pointerCount, id });
-										}
+										invokeTouch(object, TOUCH_DOWN, gameX, gameY, action, pointerCount, id);
 									}
 									break;
 								case MotionEventWrapper5.ACTION_POINTER_2_UP:
 									if(idx == 1) {
 										onTouchUp(object, checkX, checkY, action, pointerCount, id);
 										object.onTouchUp(checkX, checkY, action, pointerCount, id);
-										if(object.getName() != null) {
-											invoke(object.getName() + "_onTouchUp", new Class[] { float.class, float.class, int.class, int.class, int.class }, new Object[] { gameX, gameY, action, pointerCount, id });
-										}
+										invokeTouch(object, TOUCH_UP, gameX, gameY, action, pointerCount, id);
 									}
 									break;
 								case MotionEventWrapper5.ACTION_POINTER_3_DOWN:
 									if(idx == 2) {
 										onTouchDown(object, checkX, checkY, action, pointerCount, id);
 										object.onTouchDown(checkX, checkY, action, pointerCount, id);
-										if(object.getName() != null) {
-											invoke(object.getName() + "_onTouchDown", new Class[] { float.class, float.class, int.class, int.class, int.class }, new Object[] { gameX, gameY, action, pointerCount, id });
-										}
+										invokeTouch(object, TOUCH_DOWN, gameX, gameY, action, pointerCount, id);
 									}
 									break;
 								case MotionEventWrapper5.ACTION_POINTER_3_UP:
 									if(idx == 2) {
 										onTouchUp(object, checkX, checkY, action, pointerCount, id);
 										object.onTouchUp(checkX, checkY, action, pointerCount, id);
-										if(object.getName() != null) {
-											invoke(object.getName() + "_onTouchUp", new Class[] { float.class, float.class, int.class, int.class, int.class }, new Object[] { gameX, gameY, action, pointerCount, id });
-										}
+										invokeTouch(object, TOUCH_UP, gameX, gameY, action, pointerCount, id);
 									}
 									break;
 							}
@@ -784,7 +1048,9 @@ public abstract class Scene {
 		}
 
 		for(int i = 0; i < layerCount; i++) {
-			for(int j = 0; j < layer[i].maximumDrawableObjects; j++) {
+			final int touchableCount = snapshotTouchables(layer[i]);
+			final Object[] touchables = touchSnapshot;
+			for(int j = 0; j < touchableCount; j++) {
 				float checkX, checkY;
 				checkX = gameX;
 				checkY = gameY;
@@ -792,7 +1058,8 @@ public abstract class Scene {
 					checkX = realX;
 					checkY = realY;
 				}
-				Drawable object = layer[i].gameObjects.get(j);
+				final Drawable object = (Drawable)touchables[j];
+				touchables[j] = null;
 				if(object != null && object.isTouchable()) {
 					boolean touched = false;
 					if(object instanceof Sprite) {
@@ -802,31 +1069,23 @@ public abstract class Scene {
 					}
 					if(touched) {
 						onTouch(object, checkX, checkY, action, 1, 0);
-						if(object.getName() != null) {
-							invoke(object.getName() + "_onTouch", new Class[] { float.class, float.class, int.class, int.class, int.class }, new Object[] { gameX, gameY, action, 1, 0 });
-						}
+						invokeTouch(object, TOUCH, gameX, gameY, action, 1, 0);
 						object.onTouch(checkX, checkY, action, 1, 0);
 						switch(action) {
 							case MotionEvent.ACTION_DOWN:
 								onTouchDown(object, checkX, checkY, action, 1, 0);
 								object.onTouchDown(checkX, checkY, action, 1, 0);
-								if(object.getName() != null) {
-									invoke(object.getName() + "_onTouchDown", new Class[] { float.class, float.class, int.class, int.class, int.class }, new Object[] { gameX, gameY, action, 1, 0 });
-								}
+								invokeTouch(object, TOUCH_DOWN, gameX, gameY, action, 1, 0);
 								break;
 							case MotionEvent.ACTION_UP:
 								onTouchUp(object, checkX, checkY, action, 1, 0);
 								object.onTouchUp(checkX, checkY, action, 1, 0);
-								if(object.getName() != null) {
-									invoke(object.getName() + "_onTouchUp", new Class[] { float.class, float.class, int.class, int.class, int.class }, new Object[] { gameX, gameY, action, 1, 0 });
-								}
+								invokeTouch(object, TOUCH_UP, gameX, gameY, action, 1, 0);
 								break;
 							case MotionEvent.ACTION_MOVE:
-								onTouch(object, checkX, checkY, action, 1, 0);
+								onTouchMove(object, checkX, checkY, action, 1, 0);
 								object.onTouchMove(checkX, checkY, action, 1, 0);
-								if(object.getName() != null) {
-									invoke(object.getName() + "_onTouchMove", new Class[] { float.class, float.class, int.class, int.class, int.class }, new Object[] { gameX, gameY, action, 1, 0 });
-								}
+								invokeTouch(object, TOUCH_MOVE, gameX, gameY, action, 1, 0);
 								break;
 						}
 					}
@@ -935,6 +1194,22 @@ public abstract class Scene {
 		return window;
 	}
 	
+	/**
+	 * Sets a GestureDetector to be fed this Scene's touch events on the game thread
+	 * 
+	 * @param gestureDetector a valid GestureDetector, or null to stop detecting gestures
+	 */
+	public void setGestureDetector(GestureDetector gestureDetector) {
+		this.gestureDetector = gestureDetector;
+	}
+	
+	/**
+	 * @return the current GestureDetector, null if there is none
+	 */
+	public GestureDetector getGestureDetector() {
+		return gestureDetector;
+	}
+	
 	/**
 	 * Fetches the Layer object associated with the given index
 	 * 
@@ -956,6 +1231,7 @@ public abstract class Scene {
 		for(int i = 0; i < layerCount; i++) {
 			layer[i].clear();
 		}
+		releaseTouches();
 	}
 	
 	/**
@@ -969,6 +1245,7 @@ public abstract class Scene {
 			return;
 		}
 		layer[index].clear();
+		releaseTouches();
 	}
 	
 	/**
@@ -1089,7 +1366,9 @@ public abstract class Scene {
 	}
 	
 	protected void onEndScene() {
-
+		stopPhysicsThread();
+		Tween.stop(this);
+		eventBus.clear();
 	}
 	
 	protected void render() {
@@ -1104,6 +1383,220 @@ public abstract class Scene {
 	}
 	
 	protected boolean pausePhysics = false;
+	protected PhysicsThread physicsThread;
+	
+	/**
+	 * TRUE while usePhysicsThread is in effect, whether the threads belong to the Scene's World or only to Layers
+	 */
+	protected boolean physicsThreaded;
+	
+	/**
+	 * Steps the World on its own PhysicsThread, one step ahead of the game loop, rather than on the game thread.
+	 * Body transforms are double buffered and contacts are passed on at the start of each loop. The World must
+	 * not be changed directly while a step runs, use Physics.queue or Physics.waitForStep.
+	 * The World of each Layer gets a PhysicsThread too, so independent Worlds are stepped at the same time
+	 */
+	public void usePhysicsThread() {
+		if(physicsThreaded) {
+			return;
+		}
+		boolean hasWorld = world != null;
+		for(int i = 0; i < layerCount; i++) {
+			if(layer[i].world != null) {
+				hasWorld = true;
+			}
+		}
+		if(!hasWorld) {
+			Debug.warning("Scene.usePhysicsThread", "No World has been set");
+			return;
+		}
+		physicsThreaded = true;
+		startPhysicsThreads();
+	}
+	
+	/**
+	 * Starts a PhysicsThread for the Scene's World and for each Layer World which doesn't have one
+	 */
+	protected void startPhysicsThreads() {
+		if(world != null && physicsThread == null) {
+			physicsThread = new PhysicsThread(world);
+			Physics.thread = physicsThread;
+			Physics.addThread(physicsThread);
+			physicsThread.start();
+		}
+		for(int i = 0; i < layerCount; i++) {
+			layer[i].startPhysicsThread();
+		}
+	}
+	
+	/**
+	 * Stops the PhysicsThreads, if there are any, and returns to stepping the Worlds on the game thread
+	 */
+	public void stopPhysicsThread() {
+		physicsThreaded = false;
+		stopPhysicsThreads();
+	}
+	
+	/**
+	 * Stops every PhysicsThread of the Scene and its Layers, without changing whether the Scene is threaded
+	 */
+	protected void stopPhysicsThreads() {
+		for(int i = 0; i < layerCount; i++) {
+			layer[i].stopPhysicsThread();
+		}
+		if(physicsThread == null) {
+			return;
+		}
+		physicsThread.finish();
+		Physics.removeThread(physicsThread);
+		if(Physics.thread == physicsThread) {
+			Physics.thread = null;
+		}
+		physicsThread = null;
+	}
+	
+	/**
+	 * @return TRUE if the Worlds of this Scene are stepped on PhysicsThreads, see usePhysicsThread
+	 */
+	public boolean isPhysicsThreaded() {
+		return physicsThreaded;
+	}
+	
+	/**
+	 * @return the PhysicsThread stepping the World, null if it is stepped on the game thread
+	 */
+	public PhysicsThread getPhysicsThread() {
+		return physicsThread;
+	}
+	
+	protected PhysicsLOD physicsLOD;
+	protected final Runnable physicsLODUpdate = new Runnable() {
+		public void run() {
+			if(physicsLOD != null && world != null) {
+				physicsLOD.update(world, window);
+			}
+		}
+	};
+	
+	/**
+	 * Reduces the physics simulated away from the Window, see PhysicsLOD
+	 * 
+	 * @param physicsLOD a valid PhysicsLOD, or NULL to simulate every Body fully again
+	 */
+	public void setPhysicsLOD(PhysicsLOD physicsLOD) {
+		if(this.physicsLOD != null && world != null) {
+			Physics.waitForStep();
+			this.physicsLOD.restore(world);
+		}
+		this.physicsLOD = physicsLOD;
+	}
+	
+	/**
+	 * @return the PhysicsLOD in use, NULL if there is none
+	 */
+	public PhysicsLOD getPhysicsLOD() {
+		return physicsLOD;
+	}
+	
+	/**
+	 * Called once per loop by the GameThread, steps the World of this Scene and those of its Layers. With PhysicsThreads
+	 * each sync starts the next step and returns, so the Worlds are stepped at the same time
+	 * 
+	 * @param timeStep the time to step, in seconds
+	 */
+	protected void stepPhysics(float timeStep) {
+		int velocityIterations = Physics.velocityIterations, positionIterations = Physics.positionIterations;
+		if(pausePhysics) {
+			timeStep = 0;
+			velocityIterations = 1;
+			positionIterations = 1;
+		}
+		if(world != null) {
+			if(physicsLOD != null && !pausePhysics) {
+				updatePhysicsLOD();
+				stepWorld(world, physicsThread, physicsProfiler, timeStep, physicsLOD.getVelocityIterations(), physicsLOD.getPositionIterations());
+			} else {
+				stepWorld(world, physicsThread, physicsProfiler, timeStep, velocityIterations, positionIterations);
+			}
+		}
+		for(int i = 0; i < layerCount; i++) {
+			if(layer[i].world != null) {
+				stepWorld(layer[i].world, layer[i].physicsThread, layer[i].physicsProfiler, timeStep, velocityIterations, positionIterations);
+			}
+		}
+	}
+	
+	protected static void stepWorld(World world, PhysicsThread physicsThread, PhysicsProfiler profiler, float timeStep, int velocityIterations, int positionIterations) {
+		if(physicsThread != null) {
+			physicsThread.profiler = profiler;
+			physicsThread.sync(timeStep, velocityIterations, positionIterations);
+		} else if(profiler != null) {
+			final long stepStart = System.nanoTime();
+			world.step(timeStep, velocityIterations, positionIterations);
+			final long dispatchStart = System.nanoTime();
+			world.dispatchContacts();
+			profiler.record(world, dispatchStart - stepStart, 0, System.nanoTime() - dispatchStart);
+		} else {
+			world.step(timeStep, velocityIterations, positionIterations);
+			world.dispatchContacts();
+		}
+	}
+	
+	protected PhysicsProfiler physicsProfiler;
+	
+	/**
+	 * Records the time taken by each step of the World and its number of bodies, contacts and proxies, see PhysicsProfiler
+	 * 
+	 * @param physicsProfiler a valid PhysicsProfiler, or NULL to stop profiling
+	 */
+	public void setPhysicsProfiler(PhysicsProfiler physicsProfiler) {
+		this.physicsProfiler = physicsProfiler;
+	}
+	
+	/**
+	 * @return the PhysicsProfiler in use, NULL if there is none
+	 */
+	public PhysicsProfiler getPhysicsProfiler() {
+		return physicsProfiler;
+	}
+	
+	/**
+	 * Called by the GameThread before each step, updates the PhysicsLOD between steps
+	 */
+	protected void updatePhysicsLOD() {
+		if(physicsThread != null) {
+			physicsThread.queue(physicsLODUpdate);
+		} else {
+			physicsLODUpdate.run();
+		}
+	}
+	
+	/**
+	 * Passes contacts from the World to an OnContact, with each Fixture resolved to its PhysicalSprite.
+	 * Contacts are recorded during the step and passed on straight after it, so Bodies can be created and
+	 * destroyed from the handler. This replaces any ContactListener set on the World
+	 * 
+	 * @param onContact a valid OnContact, or NULL to stop receiving contacts
+	 */
+	public void setOnContact(OnContact onContact) {
+		if(onContact == null) {
+			useContactListener = false;
+			contactListener = null;
+			if(world != null) {
+				Physics.waitForStep();
+				world.setContactListener(null);
+				world.setBufferContacts(physicsThread != null);
+			}
+			return;
+		}
+		useContactListener = true;
+		contactListener = new ContactAdapter(onContact);
+		if(world != null) {
+			Physics.waitForStep();
+			world.setContactListener(contactListener);
+			world.setBufferContacts(true);
+		}
+	}
 	
 	/**
 	 * Pause the Box2D physics, but continue drawing
@@ -20,18 +20,21 @@ public class Sprite extends GameObject implements Updateable {
 	public static final int ROTATE_TO_AUTOMATIC = 0, ROTATE_TO_CLOCKWISE = 1, ROTATE_TO_ANTI_CLOCKWISE = 2;
 
 	/**
-	 * The maximum number of Modifiers which can be active on a Sprite
+	 * @deprecated there is no longer a limit on the number of Modifiers on a Sprite
 	 */
+	@Deprecated
 	public static final int MAX_MODIFIERS = 8;
 	
+	/**
+	 * The Modifiers on this Sprite, ordered by phase
+	 */
+	protected ModifierLink modifierHead;
 	protected int modifierCount = 0;
-	protected Modifier[] modifier = new Modifier[MAX_MODIFIERS];
 	
-	protected boolean isRotateTo = false;
-	protected float rotateToAngleStart, rotateToAngle;
-	protected long rotateToStartTime;
-	protected int rotateToTime, rotateToType, rotateToDirection;
-	protected Callback rotateToCallback;
+	/**
+	 * Set while the Modifiers are being updated, so any removed are only marked, and taken out afterwards
+	 */
+	protected boolean updatingModifiers, hasRemovedModifiers;
 	
 	protected Polygon polygon = Rokon.rectangle;
 	
@@ -85,32 +88,12 @@ public class Sprite extends GameObject implements Updateable {
 		super(x, y, width, height);
 	}
 	
-	/**
-	 * Called when the DynamicObject is removed from a Layer
-	 */
-	public void onRemove() {
-		super.onRemove();
-		rotateToCallback = null;
-		moveToCallback = null;
-	}
-	
 	/**
 	 * Stops all the dynamics for this object
 	 */
 	public void stop() {
-		isMoveTo = false;
-		accelerationX = 0;
-		accelerationY = 0;
-		acceleration = 0;
-		speedX = 0;
-		speedY = 0;
-		velocity = 0;
-		velocityXFactor = 0;
-		velocityYFactor = 0;
-		velocityAngle = 0;
-		terminalSpeedX = 0;
-		terminalSpeedY = 0;
-		terminalVelocity = 0;
+		Tween.stop(this, Tween.MOVE_TO);
+		stopVelocity();
 		angularVelocity = 0;
 		angularAcceleration = 0;
 		terminalAngularVelocity = 0;
@@ -123,7 +106,7 @@ public class Sprite extends GameObject implements Updateable {
 			if(useTerminalSpeedX && ((accelerationX > 0 && speedX > terminalSpeedX) || (accelerationX < 0 && speedY < terminalSpeedX))) {
 				accelerationX = 0;
 				speedX = terminalSpeedX;
-				if(parentScene.useInvoke) attemptInvoke("onReachTerminalSpeedX");
+				postEvent(GameEvent.REACH_TERMINAL_SPEED_X);
 			}
 		}
 		if(accelerationY != 0) {
@@ -131,7 +114,7 @@ public class Sprite extends GameObject implements Updateable {
 			if(useTerminalSpeedY && ((accelerationY > 0 && speedY > terminalSpeedY) || (accelerationY < 0 && speedY < terminalSpeedY))) {
 				accelerationY = 0;
 				speedY = terminalSpeedY;
-				if(parentScene.useInvoke) attemptInvoke("onReachTerminalSpeedY");
+				postEvent(GameEvent.REACH_TERMINAL_SPEED_Y);
 			}
 		}
 		if(speedX != 0) {
@@ -145,7 +128,7 @@ public class Sprite extends GameObject implements Updateable {
 			if(useTerminalVelocity && ((acceleration > 0 && velocity > terminalVelocity) || (acceleration < 0 && velocity < terminalVelocity))) {
 				acceleration = 0;
 				velocity = terminalVelocity;
-				if(parentScene.useInvoke) attemptInvoke("onReachTerminalVelocity");
+				postEvent(GameEvent.REACH_TERMINAL_VELOCITY);
 			}
 		}
 		if(velocity != 0) {
@@ -157,7 +140,7 @@ public class Sprite extends GameObject implements Updateable {
 			if(useTerminalAngularVelocity && ((angularAcceleration > 0 && angularVelocity > terminalAngularVelocity) || (angularAcceleration < 0 && angularVelocity < terminalAngularVelocity))) {
 				angularAcceleration = 0;
 				angularVelocity = terminalAngularVelocity;
-				attemptInvoke("onReachTerminalAngularVelocity");
+				postEvent(GameEvent.REACH_TERMINAL_ANGULAR_VELOCITY);
 			}
 		}
 		if(angularVelocity != 0) {
@@ -167,23 +150,60 @@ public class Sprite extends GameObject implements Updateable {
 	
 	public void onUpdate() {
 		super.onUpdate();
-		if(isMoveTo) {
-			onUpdateMoveTo();
+		updateModifiers(Modifier.PRE_MOVE);
+		updatePosition();
+		updateModifiers(Modifier.POST_MOVE);
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.stickycoding.rokon.DrawableObject#onPreDraw()
+	 */
+	protected void onPreDraw() {
+		super.onPreDraw();
+		updateModifiers(Modifier.PRE_DRAW);
+	}
+	
+	/**
+	 * Updates the Modifiers of one phase
+	 * 
+	 * @param phase Modifier.PRE_MOVE, POST_MOVE or PRE_DRAW
+	 */
+	protected void updateModifiers(int phase) {
+		if(modifierHead == null || updatingModifiers) return;
+		updatingModifiers = true;
+		ModifierLink link = modifierHead;
+		while(link != null && link.phase <= phase) {
+			if(link.phase == phase && !link.removed) {
+				link.modifier.onUpdate(this);
+			}
+			link = link.next;
 		}
-		if(isRotateTo) {
-			onUpdateRotateTo();
+		updatingModifiers = false;
+		if(hasRemovedModifiers) {
+			removeMarkedModifiers();
 		}
-		updatePosition();
-		updateModifiers();
 	}
 	
-	protected void updateModifiers() {
-		if(modifierCount > 0) {
-			for(int i = 0; i < MAX_MODIFIERS; i++) {
-				if(modifier[i] != null) {
-					modifier[i].onUpdate(this);
+	/**
+	 * Takes the links of removed Modifiers out of the list, and returns them to the pool
+	 */
+	private void removeMarkedModifiers() {
+		hasRemovedModifiers = false;
+		ModifierLink previous = null;
+		ModifierLink link = modifierHead;
+		while(link != null) {
+			final ModifierLink next = link.next;
+			if(link.removed) {
+				if(previous == null) {
+					modifierHead = next;
+				} else {
+					previous.next = next;
 				}
+				ModifierLink.release(link);
+			} else {
+				previous = link;
 			}
+			link = next;
 		}
 	}
 	
@@ -536,59 +556,7 @@ public class Sprite extends GameObject implements Updateable {
 	 * @param type movement type, as defined in Movement
 	 */
 	public void rotateTo(float angle, int direction, int time, int type) {
-		if(isRotateTo) {
-			if(parentScene.useInvoke) attemptInvoke("onRotateToCancel");
-		}
-
-		angularVelocity = 0;
-		angularAcceleration = 0;
-		terminalAngularVelocity = 0;
-		
-		rotateToAngleStart = this.rotation;
-		rotateToAngle = angle;
-		rotateToDirection = direction;
-		isRotateTo = true;
-		rotateToType = type;
-		rotateToStartTime = Time.loopTicks;
-		rotateToTime = time;
-		
-		rotateToCallback = null;
-		
-		rotation = rotation % Movement.TWO_PI;
-
-		if(rotateToDirection == ROTATE_TO_AUTOMATIC) {
-			if(rotation > 180f) {
-				if(angle > 180f) {
-					if(angle > rotation) {
-						rotateToDirection = ROTATE_TO_ANTI_CLOCKWISE;
-					} else {
-						rotateToDirection = ROTATE_TO_CLOCKWISE;
-					}
-				} else {
-					if(angle > rotation - 180) {
-						rotateToDirection = ROTATE_TO_ANTI_CLOCKWISE;
-					} else {
-						rotateToDirection = ROTATE_TO_CLOCKWISE;
-					}
-				}
-			} else {
-				if(angle > 180f) {
-					if(angle > rotation + 180) {
-						rotateToDirection = ROTATE_TO_ANTI_CLOCKWISE;
-						rotateToAngleStart += 360;
-					} else {
-						rotateToDirection = ROTATE_TO_CLOCKWISE;
-					}
-				} else {
-					if(angle > rotation) {
-						rotateToDirection = ROTATE_TO_CLOCKWISE;
-					} else {
-						rotateToDirection = ROTATE_TO_ANTI_CLOCKWISE;
-					}
-				}
-			}
-		}
-		Debug.print("Rotating from " + rotation + " to " + angle + " by "+ rotateToDirection);
+		rotateTo(angle, direction, time, type, null);
 	}
 
 	
@@ -602,44 +570,38 @@ public class Sprite extends GameObject implements Updateable {
 	 * @param callback Callback object for invoking
 	 */
 	public void rotateTo(float angle, int direction, int time, int type, Callback callback) {
-		rotateTo(angle, direction, time, type);
-		rotateToCallback = callback;
-	}
-	
-	protected void onUpdateRotateTo() {
-		float position = (float)(Time.loopTicks - rotateToStartTime) / (float)rotateToTime;
-		float movementFactor = Movement.getPosition(position, rotateToType);
-		if(position >= 1) {
-			rotation = rotateToAngle;
-			isRotateTo = false;
-			if(parentScene.useInvoke) {
-				attemptInvoke("onRotateToComplete");
-			}
-			if(rotateToCallback != null) {
-				attemptInvoke(rotateToCallback);
-			}
-			angularVelocity = 0;
-			angularAcceleration = 0;
-			terminalAngularVelocity = 0;
-			return;
+		if(isRotateTo()) {
+			postEvent(GameEvent.ROTATE_TO_CANCEL);
 		}
+
+		angularVelocity = 0;
+		angularAcceleration = 0;
+		terminalAngularVelocity = 0;
 		
-		if(rotateToDirection == ROTATE_TO_CLOCKWISE) {
-			rotation = rotateToAngleStart + (rotateToAngle - rotateToAngleStart) * movementFactor;
-		} else {
-			rotation = rotateToAngleStart - (rotateToAngleStart - rotateToAngle) * movementFactor;
-		}
+		Tween.stop(this, Tween.ROTATE_TO);
+		final int handle = Tween.rotateTo(this, angle, direction, time, type);
+		Tween.setCallback(handle, callback);
+		Tween.start(handle);
 	}
 	
-	protected boolean isMoveTo = false;
-	protected float moveToStartX, moveToStartY, moveToFinalX, moveToFinalY;
-	protected int moveToType;
-	protected long moveToStartTime, moveToTime;
-	protected Callback moveToCallback;
+	/**
+	 * Determines whether the Sprite is rotating through rotateTo
+	 * 
+	 * @return TRUE if rotating, FALSE otherwise
+	 */
+	public boolean isRotateTo() {
+		return (tweenFlags & Tween.ROTATE_TO) != 0;
+	}
 	
 	public void moveTo(float x, float y, long time, int type, Callback callback) {
-		moveTo(x, y, time, type);
-		moveToCallback = callback;
+		if(isMoveTo()) {
+			postEvent(GameEvent.MOVE_TO_CANCEL);
+		}
+		stopVelocity();
+		Tween.stop(this, Tween.MOVE_TO);
+		final int handle = Tween.moveTo(this, x, y, (int)time, type);
+		Tween.setCallback(handle, callback);
+		Tween.start(handle);
 	}
 
 	/**
@@ -653,35 +615,7 @@ public class Sprite extends GameObject implements Updateable {
 	 * @param type the movement type, from Movement constants
 	 */
 	public void moveTo(float x, float y, long time, int type) {
-		if(isMoveTo) {
-			if(parentScene.useInvoke) {
-				attemptInvoke("onMoveToCancel");
-			}
-		}
-
-		accelerationX = 0;
-		accelerationY = 0;
-		acceleration = 0;
-		speedX = 0;
-		speedY = 0;
-		velocity = 0;
-		velocityXFactor = 0;
-		velocityYFactor = 0;
-		velocityAngle = 0;
-		terminalSpeedX = 0;
-		terminalSpeedY = 0;
-		terminalVelocity = 0;		
-		
-		moveToStartX = this.getX();
-		moveToStartY = this.getY();
-		moveToFinalX = x;
-		moveToFinalY = y;
-		isMoveTo = true;
-		moveToType = type;
-		moveToStartTime = Time.loopTicks;
-		moveToTime = time;
-		
-		moveToCallback = null;
+		moveTo(x, y, time, type, null);
 	}
 
 	/**
@@ -698,35 +632,44 @@ public class Sprite extends GameObject implements Updateable {
 		moveTo(x, y, time, Movement.LINEAR);
 	}
 	
-	protected void onUpdateMoveTo() {
-		float position = (float)(Time.loopTicks - moveToStartTime) / (float)moveToTime;
-		float movementFactor = Movement.getPosition(position, moveToType);
-		if(position >= 1) {
-			setX(moveToFinalX);
-			setY(moveToFinalY);
-			isMoveTo = false;
-			if(moveToCallback != null) {
-				attemptInvoke(moveToCallback);
-			}
-			if(parentScene.useInvoke) {
-				attemptInvoke("onMoveToComplete");
-			}
-			accelerationX = 0;
-			accelerationY = 0;
-			acceleration = 0;
-			speedX = 0;
-			speedY = 0;
-			velocity = 0;
-			velocityXFactor = 0;
-			velocityYFactor = 0;
-			velocityAngle = 0;
-			terminalSpeedX = 0;
-			terminalSpeedY = 0;
-			terminalVelocity = 0;
-			return;
+	/**
+	 * Determines whether the Sprite is moving through moveTo
+	 * 
+	 * @return TRUE if moving, FALSE otherwise
+	 */
+	public boolean isMoveTo() {
+		return (tweenFlags & Tween.MOVE_TO) != 0;
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.stickycoding.rokon.DrawableObject#onTweenEnd(int)
+	 */
+	protected void onTweenEnd(int type) {
+		super.onTweenEnd(type);
+		if(type == Tween.MOVE_TO) {
+			postEvent(GameEvent.MOVE_TO_COMPLETE);
+			stopVelocity();
+		} else if(type == Tween.ROTATE_TO) {
+			postEvent(GameEvent.ROTATE_TO_COMPLETE);
+			angularVelocity = 0;
+			angularAcceleration = 0;
+			terminalAngularVelocity = 0;
 		}
-		setX(moveToStartX + ((moveToFinalX - moveToStartX) * movementFactor));
-		setY(moveToStartY + ((moveToFinalY - moveToStartY) * movementFactor));
+	}
+	
+	private void stopVelocity() {
+		accelerationX = 0;
+		accelerationY = 0;
+		acceleration = 0;
+		speedX = 0;
+		speedY = 0;
+		velocity = 0;
+		velocityXFactor = 0;
+		velocityYFactor = 0;
+		velocityAngle = 0;
+		terminalSpeedX = 0;
+		terminalSpeedY = 0;
+		terminalVelocity = 0;
 	}
 	
 	/**
@@ -734,43 +677,104 @@ public class Sprite extends GameObject implements Updateable {
 	 * 
 	 * @param modifier valid Modifier object
 	 * 
-	 * @return TRUE if there was room to add the Modifier, FALSE if it failed
+	 * @return TRUE if the Modifier was added, FALSE if it belongs to another Sprite
 	 */
 	public boolean addModifier(Modifier modifier) {
-		for(int i = 0; i < MAX_MODIFIERS; i++) {
-			if(this.modifier[i] == null) {
-				this.modifier[i] = modifier;
-				modifier.onCreate(this);
-				modifierCount++;
+		if(modifier == null) {
+			Debug.warning("Sprite.addModifier", "Tried adding a NULL Modifier");
+			return false;
+		}
+		if(!modifier.isShared() && modifier.getSprite() != null) {
+			Debug.warning("Sprite.addModifier", "Tried adding a Modifier which is already on a Sprite, and not shared");
+			return false;
+		}
+		final ModifierLink link = ModifierLink.obtain(modifier);
+		if(modifierHead == null || modifierHead.phase > link.phase) {
+			link.next = modifierHead;
+			modifierHead = link;
+		} else {
+			ModifierLink previous = modifierHead;
+			while(previous.next != null && previous.next.phase <= link.phase) {
+				previous = previous.next;
+			}
+			link.next = previous.next;
+			previous.next = link;
+		}
+		modifierCount++;
+		modifier.onCreate(this);
+		return true;
+	}
+	
+	/**
+	 * Takes a Modifier out of the list, without ending it. If the Modifiers are being updated it is only marked
+	 * 
+	 * @return TRUE if the Modifier was found
+	 */
+	protected boolean detachModifier(Modifier modifier) {
+		for(ModifierLink link = modifierHead; link != null; link = link.next) {
+			if(link.modifier == modifier && !link.removed) {
+				link.removed = true;
+				hasRemovedModifiers = true;
+				modifierCount--;
+				if(!updatingModifiers) {
+					removeMarkedModifiers();
+				}
 				return true;
 			}
 		}
-		Debug.warning("Tried addModifier, Sprite is full [" + MAX_MODIFIERS + "]");
 		return false;
 	}
 	
 	/**
-	 * Removes a Modifier from a Sprite (if it exists)
+	 * Removes a Modifier from a Sprite (if it exists), without calling its onEnd
+	 * This is safe to call while the Modifiers are being updated
 	 * 
 	 * @param modifier valid Modifier object
 	 */
 	public void removeModifier(Modifier modifier) {
-		for(int i = 0; i < MAX_MODIFIERS; i++) {
-			if(this.modifier[i] == modifier) {
-				this.modifier[i] = null;
+		if(detachModifier(modifier)) {
+			modifier.onDetach();
+		}
+	}
+	
+	/**
+	 * Clears all the Modifiers from the Sprite, without calling their onEnd
+	 */
+	public void clearModifiers() {
+		for(ModifierLink link = modifierHead; link != null; link = link.next) {
+			if(!link.removed) {
+				link.removed = true;
+				hasRemovedModifiers = true;
 				modifierCount--;
-				return;
+				link.modifier.onDetach();
 			}
 		}
+		if(!updatingModifiers && hasRemovedModifiers) {
+			removeMarkedModifiers();
+		}
 	}
 	
 	/**
-	 * Clears all the Modifiers from the Sprite
+	 * @return the number of Modifiers on this Sprite
 	 */
-	public void clearModifiers() {
-		for(int i = 0; i < MAX_MODIFIERS; i++) {
-			modifier[i] = null;
+	public int getModifierCount() {
+		return modifierCount;
+	}
+	
+	/**
+	 * Determines whether a Modifier is on this Sprite
+	 * 
+	 * @param modifier valid Modifier object
+	 * 
+	 * @return TRUE if found, FALSE otherwise
+	 */
+	public boolean hasModifier(Modifier modifier) {
+		for(ModifierLink link = modifierHead; link != null; link = link.next) {
+			if(link.modifier == modifier && !link.removed) {
+				return true;
+			}
 		}
+		return false;
 	}
 
 	/**
@@ -0,0 +1,695 @@
+package com.stickycoding.rokon;
+
+/**
+ * Tween.java
+ * Runs every timed move, resize, fade and rotation in the game from one pool, updated in a single loop before the Scene is rendered.
+ * DimensionalObject.move, resize and scaleFromCentre, DrawableObject.fade and Sprite.moveTo and rotateTo all create their tweens here,
+ * so an object which is not being tweened carries no state for it, and costs nothing each loop.
+ * 
+ * Tweens are stored as parallel arrays indexed by slot, which are reused once a tween ends and grow as needed. Each tween is
+ * referred to by an int handle, which goes stale when the tween ends, so an old handle never affects a newer tween in the same slot.
+ * The slots held for each object are also linked together, so stopping or pausing an object only looks at its own tweens.
+ * A tween starts on the next update after it is created, or straight away with start(), unless it is given a delay or follows
+ * another with then(). Its start values are taken when it starts, and it replaces any tween of the same type already running on
+ * its target. Stopping a tween also cancels the tweens which follow it.
+ * 
+ * @author Richard
+ */
+public class Tween {
+
+	/**
+	 * Tween types, these are bit flags so they can be combined for stop()
+	 */
+	public static final int MOVE = 1, SCALE = 2, FADE = 4, MOVE_TO = 8, ROTATE_TO = 16;
+	
+	/**
+	 * Every tween type, for stop()
+	 */
+	public static final int ALL = MOVE | SCALE | FADE | MOVE_TO | ROTATE_TO;
+	
+	/**
+	 * Used with setRepeat, to repeat until the tween is stopped
+	 */
+	public static final int REPEAT_FOREVER = -1;
+	
+	/**
+	 * The handle returned when a tween could not be created
+	 */
+	public static final int INVALID = -1;
+	
+	/**
+	 * The number of slots the pool starts with, it doubles each time it fills
+	 */
+	public static final int DEFAULT_CAPACITY = 64;
+	
+	protected static final int SLOT_BITS = 20, SLOT_MASK = (1 << SLOT_BITS) - 1, GENERATION_MASK = 0x7FF;
+	protected static final int MAX_CAPACITY = 1 << SLOT_BITS;
+	
+	protected static final int FREE = 0, WAITING = 1, DELAYED = 2, RUNNING = 3;
+	
+	protected static int capacity;
+	protected static DimensionalObject[] target;
+	protected static int[] type, movementType, state, duration, delay, repeat, next, generation;
+	
+	/**
+	 * The next and previous slots held for the same object, starting from DimensionalObject.tweenHead
+	 */
+	protected static int[] objectNext, objectPrevious;
+	protected static long[] startTime, pauseTime;
+	protected static boolean[] paused;
+	
+	/**
+	 * Four values per slot, the start and final x, y, width and height, or the alpha or angle in the first
+	 */
+	protected static float[] from, to;
+	protected static Callback[] callback;
+	
+	/**
+	 * The slots which are in use, or were freed since the last update
+	 */
+	protected static int[] list;
+	protected static int count;
+	
+	/**
+	 * Slots which can be reused, and the number of slots which have ever been used
+	 */
+	protected static int[] freeSlot;
+	protected static int freeCount, used;
+	
+	protected static boolean hasFreed;
+	
+	static {
+		allocate(DEFAULT_CAPACITY);
+	}
+	
+	protected static void allocate(int newCapacity) {
+		target = grow(target, new DimensionalObject[newCapacity]);
+		type = grow(type, newCapacity);
+		movementType = grow(movementType, newCapacity);
+		state = grow(state, newCapacity);
+		duration = grow(duration, newCapacity);
+		delay = grow(delay, newCapacity);
+		repeat = grow(repeat, newCapacity);
+		next = grow(next, newCapacity);
+		generation = grow(generation, newCapacity);
+		objectNext = grow(objectNext, newCapacity);
+		objectPrevious = grow(objectPrevious, newCapacity);
+		list = grow(list, newCapacity);
+		freeSlot = grow(freeSlot, newCapacity);
+		startTime = grow(startTime, newCapacity);
+		pauseTime = grow(pauseTime, newCapacity);
+		from = grow(from, newCapacity * 4);
+		to = grow(to, newCapacity * 4);
+		callback = grow(callback, new Callback[newCapacity]);
+		final boolean[] newPaused = new boolean[newCapacity];
+		if(paused != null) {
+			System.arraycopy(paused, 0, newPaused, 0, capacity);
+		}
+		paused = newPaused;
+		capacity = newCapacity;
+	}
+	
+	private static int[] grow(int[] array, int newCapacity) {
+		final int[] newArray = new int[newCapacity];
+		if(array != null) {
+			System.arraycopy(array, 0, newArray, 0, array.length);
+		}
+		return newArray;
+	}
+	
+	private static long[] grow(long[] array, int newCapacity) {
+		final long[] newArray = new long[newCapacity];
+		if(array != null) {
+			System.arraycopy(array, 0, newArray, 0, array.length);
+		}
+		return newArray;
+	}
+	
+	private static float[] grow(float[] array, int newCapacity) {
+		final float[] newArray = new float[newCapacity];
+		if(array != null) {
+			System.arraycopy(array, 0, newArray, 0, array.length);
+		}
+		return newArray;
+	}
+	
+	private static <T> T[] grow(T[] array, T[] newArray) {
+		if(array != null) {
+			System.arraycopy(array, 0, newArray, 0, array.length);
+		}
+		return newArray;
+	}
+	
+	/**
+	 * Moves and resizes an object over time
+	 * 
+	 * @param object the object to move
+	 * @param x target x-coordinate
+	 * @param y target y-coordinate
+	 * @param width target width
+	 * @param height target height
+	 * @param time time, in milliseconds
+	 * @param movementType valid movement type, see Movement constants
+	 * 
+	 * @return a handle to the tween, INVALID if it could not be created
+	 */
+	public static int move(DimensionalObject object, float x, float y, float width, float height, int time, int movementType) {
+		return create(object, MOVE, x, y, width, height, time, movementType);
+	}
+	
+	/**
+	 * Resizes an object over time, keeping it centred on the same point. The centre follows the speed of the object while scaling
+	 * 
+	 * @param object the object to scale
+	 * @param width target width
+	 * @param height target height
+	 * @param time time, in milliseconds
+	 * @param movementType valid movement type, see Movement constants
+	 * 
+	 * @return a handle to the tween, INVALID if it could not be created
+	 */
+	public static int scale(DimensionalObject object, float width, float height, int time, int movementType) {
+		return create(object, SCALE, 0, 0, width, height, time, movementType);
+	}
+	
+	/**
+	 * Fades a DrawableObject to a given alpha over time
+	 * 
+	 * @param object the object to fade
+	 * @param alpha target alpha value, between 0f and 1f
+	 * @param time time, in milliseconds
+	 * @param movementType valid movement type, see Movement constants
+	 * 
+	 * @return a handle to the tween, INVALID if it could not be created
+	 */
+	public static int fade(DrawableObject object, float alpha, int time, int movementType) {
+		return create(object, FADE, alpha, 0, 0, 0, time, movementType);
+	}
+	
+	/**
+	 * Moves an object to a given point over time, without changing its size
+	 * 
+	 * @param object the object to move
+	 * @param x target x-coordinate
+	 * @param y target y-coordinate
+	 * @param time time, in milliseconds
+	 * @param movementType valid movement type, see Movement constants
+	 * 
+	 * @return a handle to the tween, INVALID if it could not be created
+	 */
+	public static int moveTo(DimensionalObject object, float x, float y, int time, int movementType) {
+		return create(object, MOVE_TO, x, y, 0, 0, time, movementType);
+	}
+	
+	/**
+	 * Rotates an object to a given angle over time
+	 * 
+	 * @param object the object to rotate
+	 * @param angle the final angle
+	 * @param direction the direction, using the Sprite.ROTATE_TO_ constants
+	 * @param time time, in milliseconds
+	 * @param movementType valid movement type, see Movement constants
+	 * 
+	 * @return a handle to the tween, INVALID if it could not be created
+	 */
+	public static int rotateTo(RotationalObject object, float angle, int direction, int time, int movementType) {
+		return create(object, ROTATE_TO, angle, direction, 0, 0, time, movementType);
+	}
+	
+	protected static int create(DimensionalObject object, int tweenType, float a, float b, float c, float d, int time, int tweenMovementType) {
+		if(object == null) {
+			Debug.warning("Tween.create", "Tried tweening a NULL object");
+			return INVALID;
+		}
+		int slot;
+		if(freeCount > 0) {
+			slot = freeSlot[--freeCount];
+		} else {
+			if(used == capacity) {
+				if(capacity == MAX_CAPACITY) {
+					Debug.warning("Tween.create", "Tried creating more than " + MAX_CAPACITY + " tweens");
+					return INVALID;
+				}
+				allocate(capacity * 2);
+			}
+			slot = used++;
+		}
+		target[slot] = object;
+		type[slot] = tweenType;
+		movementType[slot] = tweenMovementType;
+		duration[slot] = time;
+		delay[slot] = 0;
+		repeat[slot] = 0;
+		next[slot] = INVALID;
+		paused[slot] = object.tweensPaused;
+		pauseTime[slot] = Time.loopTicks;
+		callback[slot] = null;
+		final int o = slot * 4;
+		to[o] = a;
+		to[o + 1] = b;
+		to[o + 2] = c;
+		to[o + 3] = d;
+		state[slot] = DELAYED;
+		startTime[slot] = Time.loopTicks;
+		list[count++] = slot;
+		objectPrevious[slot] = INVALID;
+		objectNext[slot] = object.tweenHead;
+		if(object.tweenHead != INVALID) {
+			objectPrevious[object.tweenHead] = slot;
+		}
+		object.tweenHead = slot;
+		object.tweenCount++;
+		return (generation[slot] << SLOT_BITS) | slot;
+	}
+	
+	/**
+	 * Captures the start values of a tween, and sets it running
+	 */
+	protected static void begin(int slot, long time) {
+		final DimensionalObject object = target[slot];
+		final int tweenType = type[slot];
+		if((object.tweenFlags & tweenType) != 0) {
+			for(int other = object.tweenHead; other != INVALID; other = objectNext[other]) {
+				if(other != slot && state[other] == RUNNING && type[other] == tweenType) {
+					cancelChain(other);
+					break;
+				}
+			}
+		}
+		final int o = slot * 4;
+		switch(tweenType) {
+			case MOVE:
+				from[o] = object.getX();
+				from[o + 1] = object.getY();
+				from[o + 2] = object.width;
+				from[o + 3] = object.height;
+				break;
+			case SCALE:
+				from[o] = object.getX() + object.width / 2;
+				from[o + 1] = object.getY() + object.height / 2;
+				from[o + 2] = object.width;
+				from[o + 3] = object.height;
+				break;
+			case FADE:
+				from[o] = ((DrawableObject)object).alpha;
+				break;
+			case MOVE_TO:
+				from[o] = object.getX();
+				from[o + 1] = object.getY();
+				break;
+			case ROTATE_TO:
+				from[o] = rotateToStart((RotationalObject)object, to[o], (int)to[o + 1]);
+				break;
+		}
+		startTime[slot] = time;
+		pauseTime[slot] = time;
+		state[slot] = RUNNING;
+		object.tweenFlags |= tweenType;
+	}
+	
+	/**
+	 * Finds the angle to rotate from, so the rotation heads in the given direction
+	 */
+	private static float rotateToStart(RotationalObject object, float angle, int direction) {
+		final float start = object.rotation;
+		final float rotation = object.rotation % Movement.TWO_PI;
+		object.rotation = rotation;
+		if(direction == Sprite.ROTATE_TO_AUTOMATIC && rotation <= 180f && angle > 180f && angle > rotation + 180) {
+			return start + 360;
+		}
+		return start;
+	}
+	
+	/**
+	 * Starts a tween straight away, rather than on the next update, skipping any delay
+	 * 
+	 * @param handle a valid tween handle
+	 * 
+	 * @return handle
+	 */
+	public static int start(int handle) {
+		final int slot = getSlot(handle, null);
+		if(slot != INVALID && state[slot] == DELAYED) {
+			begin(slot, Time.loopTicks);
+		}
+		return handle;
+	}
+	
+	/**
+	 * Sets the curve a tween follows, in place of the movement type it was created with
+	 * 
+	 * @param handle a valid tween handle
+	 * @param easing a valid Easing
+	 */
+	public static void setEasing(int handle, Easing easing) {
+		final int slot = getSlot(handle, "Tween.setEasing");
+		if(slot == INVALID) return;
+		movementType[slot] = easing.type;
+	}
+	
+	/**
+	 * Delays the start of a tween. For a tween which follows another, the delay is counted from when the previous one ends
+	 * 
+	 * @param handle a valid tween handle
+	 * @param time the delay, in milliseconds
+	 */
+	public static void setDelay(int handle, int time) {
+		final int slot = getSlot(handle, "Tween.setDelay");
+		if(slot == INVALID) return;
+		delay[slot] = time;
+		if(state[slot] == RUNNING) {
+			target[slot].tweenFlags &= ~type[slot];
+			state[slot] = DELAYED;
+			startTime[slot] = Time.loopTicks + time;
+		} else if(state[slot] == DELAYED) {
+			startTime[slot] = Time.loopTicks + time;
+		}
+		pauseTime[slot] = Time.loopTicks;
+	}
+	
+	/**
+	 * Repeats a tween a number of times after it first ends, each time from its original start values
+	 * 
+	 * @param handle a valid tween handle
+	 * @param times the number of repeats, or REPEAT_FOREVER
+	 */
+	public static void setRepeat(int handle, int times) {
+		final int slot = getSlot(handle, "Tween.setRepeat");
+		if(slot == INVALID) return;
+		repeat[slot] = times;
+	}
+	
+	/**
+	 * Sets a Callback to be invoked in the Scene once a tween, including its repeats, has ended
+	 * 
+	 * @param handle a valid tween handle
+	 * @param callback Callback object for invoking, or null
+	 */
+	public static void setCallback(int handle, Callback callback) {
+		final int slot = getSlot(handle, "Tween.setCallback");
+		if(slot == INVALID) return;
+		Tween.callback[slot] = callback;
+	}
+	
+	/**
+	 * Holds a tween back until another has ended, then starts it from wherever its object is at that point.
+	 * The handles can be chained, then(then(a, b), c) runs a, b and c in order
+	 * 
+	 * @param handle a valid tween handle
+	 * @param nextHandle the tween to follow it, which must not have been started or already follow another
+	 * 
+	 * @return nextHandle
+	 */
+	public static int then(int handle, int nextHandle) {
+		final int slot = getSlot(handle, "Tween.then");
+		final int nextSlot = getSlot(nextHandle, "Tween.then");
+		if(slot == INVALID || nextSlot == INVALID) return nextHandle;
+		if(slot == nextSlot || state[nextSlot] != DELAYED) {
+			Debug.warning("Tween.then", "Tried following a tween which has already started, or already follows another");
+			return nextHandle;
+		}
+		if(next[slot] != INVALID) {
+			cancelChain(next[slot]);
+		}
+		state[nextSlot] = WAITING;
+		next[slot] = nextSlot;
+		return nextHandle;
+	}
+	
+	/**
+	 * Stops a tween where it is, along with any tweens which follow it
+	 * 
+	 * @param handle a tween handle, nothing happens if it has already ended
+	 */
+	public static void cancel(int handle) {
+		final int slot = getSlot(handle, null);
+		if(slot != INVALID) {
+			cancelChain(slot);
+		}
+	}
+	
+	/**
+	 * Stops every tween of the given types on an object, along with any tweens which follow them
+	 * 
+	 * @param object a valid object
+	 * @param types the types to stop, combined Tween constants
+	 */
+	public static void stop(DimensionalObject object, int types) {
+		int slot = object.tweenHead;
+		while(slot != INVALID) {
+			if((type[slot] & types) != 0) {
+				// The chain may include the next slot in the list, so start again from the head
+				cancelChain(slot);
+				slot = object.tweenHead;
+			} else {
+				slot = objectNext[slot];
+			}
+		}
+	}
+	
+	/**
+	 * Stops every tween on an object
+	 * 
+	 * @param object a valid object
+	 */
+	public static void stop(DimensionalObject object) {
+		stop(object, ALL);
+	}
+	
+	/**
+	 * Stops every tween on the objects which belong to a Scene, without ending them, so no callbacks are invoked once it has ended
+	 * 
+	 * @param scene a valid Scene
+	 */
+	public static void stop(Scene scene) {
+		for(int i = 0; i < count; i++) {
+			final int slot = list[i];
+			if(state[slot] != FREE && target[slot] instanceof BasicGameObject && ((BasicGameObject)target[slot]).parentScene == scene) {
+				free(slot);
+			}
+		}
+	}
+	
+	/**
+	 * Holds the tweens of an object where they are, until resume is called
+	 * 
+	 * @param object a valid object
+	 */
+	public static void pause(DimensionalObject object) {
+		if(object.tweensPaused) return;
+		object.tweensPaused = true;
+		for(int slot = object.tweenHead; slot != INVALID; slot = objectNext[slot]) {
+			paused[slot] = true;
+			pauseTime[slot] = Time.loopTicks;
+		}
+	}
+	
+	/**
+	 * Continues the tweens of an object held by pause, from where they were left.
+	 * Tweens created while the object was paused start from when it is resumed
+	 * 
+	 * @param object a valid object
+	 */
+	public static void resume(DimensionalObject object) {
+		if(!object.tweensPaused) return;
+		object.tweensPaused = false;
+		for(int slot = object.tweenHead; slot != INVALID; slot = objectNext[slot]) {
+			paused[slot] = false;
+			// A waiting tween has no start time until the one before it ends
+			if(state[slot] != WAITING) {
+				startTime[slot] += Time.loopTicks - pauseTime[slot];
+			}
+		}
+	}
+	
+	/**
+	 * Determines whether a tween is still waiting, delayed or running
+	 * 
+	 * @param handle a tween handle
+	 * 
+	 * @return TRUE if it has not ended, FALSE otherwise
+	 */
+	public static boolean isActive(int handle) {
+		return getSlot(handle, null) != INVALID;
+	}
+	
+	/**
+	 * @return the number of tweens which have not ended
+	 */
+	public static int getCount() {
+		int active = 0;
+		for(int i = 0; i < count; i++) {
+			if(state[list[i]] != FREE) {
+				active++;
+			}
+		}
+		return active;
+	}
+	
+	/**
+	 * Stops every tween, without ending them
+	 */
+	public static void clear() {
+		for(int i = 0; i < count; i++) {
+			final int slot = list[i];
+			if(state[slot] != FREE) {
+				free(slot);
+			}
+		}
+		compact();
+	}
+	
+	private static int getSlot(int handle, String method) {
+		final int slot = handle & SLOT_MASK;
+		if(handle < 0 || slot >= used || state[slot] == FREE || generation[slot] != handle >>> SLOT_BITS) {
+			if(method != null) {
+				Debug.warning(method, "Tried using a tween which has ended");
+			}
+			return INVALID;
+		}
+		return slot;
+	}
+	
+	private static void cancelChain(int slot) {
+		while(slot != INVALID && state[slot] != FREE) {
+			final int nextSlot = next[slot];
+			free(slot);
+			slot = nextSlot;
+		}
+	}
+	
+	/**
+	 * Releases a slot, it is returned to the pool at the end of the next update
+	 */
+	private static void free(int slot) {
+		final DimensionalObject object = target[slot];
+		if(state[slot] == RUNNING) {
+			object.tweenFlags &= ~type[slot];
+		}
+		final int previousSlot = objectPrevious[slot], nextSlot = objectNext[slot];
+		if(previousSlot != INVALID) {
+			objectNext[previousSlot] = nextSlot;
+		} else {
+			object.tweenHead = nextSlot;
+		}
+		if(nextSlot != INVALID) {
+			objectPrevious[nextSlot] = previousSlot;
+		}
+		object.tweenCount--;
+		state[slot] = FREE;
+		generation[slot] = (generation[slot] + 1) & GENERATION_MASK;
+		target[slot] = null;
+		callback[slot] = null;
+		hasFreed = true;
+	}
+	
+	private static void compact() {
+		int kept = 0;
+		for(int i = 0; i < count; i++) {
+			final int slot = list[i];
+			if(state[slot] == FREE) {
+				freeSlot[freeCount++] = slot;
+			} else {
+				list[kept++] = slot;
+			}
+		}
+		count = kept;
+		hasFreed = false;
+	}
+	
+	/**
+	 * Called once per loop by the GameThread, before the Scene is rendered
+	 */
+	protected static void update() {
+		final long now = Time.loopTicks;
+		for(int i = 0; i < count; i++) {
+			final int slot = list[i];
+			final int slotState = state[slot];
+			if(slotState == RUNNING) {
+				if(paused[slot]) continue;
+				final int time = duration[slot];
+				long elapsed = now - startTime[slot];
+				if(elapsed >= time) {
+					if(repeat[slot] == 0 || time <= 0) {
+						end(slot);
+						continue;
+					}
+					final long repeats = elapsed / time;
+					if(repeat[slot] != REPEAT_FOREVER) {
+						if(repeats > repeat[slot]) {
+							end(slot);
+							continue;
+						}
+						repeat[slot] -= repeats;
+					}
+					startTime[slot] += repeats * time;
+					elapsed -= repeats * time;
+				}
+				apply(slot, Movement.getPosition((float)elapsed / (float)time, movementType[slot]));
+			} else if(slotState == DELAYED && !paused[slot] && now >= startTime[slot]) {
+				begin(slot, startTime[slot]);
+			}
+		}
+		if(hasFreed) {
+			compact();
+		}
+	}
+	
+	private static void apply(int slot, float factor) {
+		final DimensionalObject object = target[slot];
+		final int o = slot * 4;
+		switch(type[slot]) {
+			case MOVE:
+				object.setXY(from[o] + (to[o] - from[o]) * factor, from[o + 1] + (to[o + 1] - from[o + 1]) * factor);
+				object.width = from[o + 2] + (to[o + 2] - from[o + 2]) * factor;
+				object.height = from[o + 3] + (to[o + 3] - from[o + 3]) * factor;
+				break;
+			case SCALE:
+				from[o] += object.speedX * Time.loopTicksFraction;
+				from[o + 1] += object.speedY * Time.loopTicksFraction;
+				object.width = from[o + 2] + (to[o + 2] - from[o + 2]) * factor;
+				object.height = from[o + 3] + (to[o + 3] - from[o + 3]) * factor;
+				object.centre(from[o], from[o + 1]);
+				break;
+			case FADE:
+				((DrawableObject)object).setAlpha(from[o] + (to[o] - from[o]) * factor);
+				break;
+			case MOVE_TO:
+				object.setXY(from[o] + (to[o] - from[o]) * factor, from[o + 1] + (to[o + 1] - from[o + 1]) * factor);
+				break;
+			case ROTATE_TO:
+				((RotationalObject)object).rotation = from[o] + (to[o] - from[o]) * factor;
+				break;
+		}
+	}
+	
+	/**
+	 * Finishes a tween at its final values, starts the tween following it, and lets the object and Scene know
+	 */
+	private static void end(int slot) {
+		apply(slot, 1f);
+		final DimensionalObject object = target[slot];
+		final int tweenType = type[slot];
+		final Callback endCallback = callback[slot];
+		final int nextSlot = next[slot];
+		free(slot);
+		if(nextSlot != INVALID && state[nextSlot] == WAITING) {
+			if(delay[nextSlot] > 0) {
+				state[nextSlot] = DELAYED;
+				startTime[nextSlot] = Time.loopTicks + delay[nextSlot];
+				pauseTime[nextSlot] = Time.loopTicks;
+			} else {
+				begin(nextSlot, Time.loopTicks);
+			}
+		}
+		object.onTweenEnd(tweenType);
+		if(endCallback != null) {
+			if(object instanceof BasicGameObject) {
+				((BasicGameObject)object).attemptInvoke(endCallback);
+			} else if(RokonActivity.currentScene != null) {
+				RokonActivity.currentScene.invoke(endCallback);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,36 @@
+package com.stickycoding.rokon;
+
+/**
+ * UpdateMode.java
+ * Contains constants for how Layers and DrawableObjects are updated while they are off screen
+ *
+ * @author Richard
+ */
+public class UpdateMode {
+
+	/**
+	 * Used for DrawableObject.setUpdateMode, follows the mode of the parent Layer
+	 */
+	public static final int DEFAULT = -1;
+
+	/**
+	 * Updated on every loop, whether on screen or not. This is the default for a Layer
+	 */
+	public static final int ALWAYS = 0;
+
+	/**
+	 * Updated once every N loops while off screen, the time in between is accumulated so movement stays correct
+	 */
+	public static final int REDUCED = 1;
+
+	/**
+	 * Not updated at all while off screen, time stands still for the object until it becomes visible again
+	 */
+	public static final int FROZEN = 2;
+
+	/**
+	 * The number of loops between updates with REDUCED, if no rate is passed
+	 */
+	public static final int DEFAULT_REDUCED_RATE = 4;
+
+}
@@ -0,0 +1,396 @@
+package com.stickycoding.rokon.gesture;
+
+import android.view.MotionEvent;
+
+import com.stickycoding.rokon.Debug;
+import com.stickycoding.rokon.MathHelper;
+import com.stickycoding.rokon.RokonActivity;
+import com.stickycoding.rokon.Time;
+import com.stickycoding.rokon.Window;
+import com.stickycoding.rokon.device.Graphics;
+import com.stickycoding.rokon.device.OS;
+
+/**
+ * GestureDetector.java
+ * Recognises taps, double taps, long presses, swipes, flings, pinches and rotations from the touch events on the game thread,
+ * and passes them to an OnGesture. Attach one to a Scene with Scene.setGestureDetector.
+ * 
+ * Distance thresholds are in game units as they would be without a Window, so zooming a Window in or out does not change how
+ * far a finger needs to travel. Positions and velocities passed to OnGesture do take the Window into account, like onTouch.
+ * 
+ * @author Richard
+ */
+
+public class GestureDetector {
+	
+	public static final int SWIPE_LEFT = 0;
+	public static final int SWIPE_RIGHT = 1;
+	public static final int SWIPE_UP = 2;
+	public static final int SWIPE_DOWN = 3;
+	
+	/**
+	 * The default thresholds, as fractions of the smallest side of the game
+	 */
+	public static final float DEFAULT_TOUCH_SLOP = 0.03f;
+	public static final float DEFAULT_DOUBLE_TAP_SLOP = 0.1f;
+	public static final float DEFAULT_SWIPE_DISTANCE = 0.15f;
+	public static final float DEFAULT_FLING_VELOCITY = 0.75f;
+
+	/**
+	 * The default times, in milliseconds
+	 */
+	public static final long DEFAULT_LONG_PRESS_TIME = 500;
+	public static final long DEFAULT_DOUBLE_TAP_TIME = 300;
+	
+	private static final int ACTION_MASK = 0x000000ff;
+	private static final int ACTION_POINTER_DOWN = 0x00000005;
+	private static final int ACTION_POINTER_UP = 0x00000006;
+	private static final int ACTION_POINTER_INDEX_MASK = 0x0000ff00;
+	private static final int ACTION_POINTER_INDEX_SHIFT = 0x00000008;
+	
+	protected OnGesture onGesture;
+	protected VelocityTracker velocityTracker = new VelocityTracker();
+	
+	protected float touchSlop = -1, doubleTapSlop = -1, swipeDistance = -1, flingVelocity = -1;
+	protected long longPressTime = DEFAULT_LONG_PRESS_TIME, doubleTapTime = DEFAULT_DOUBLE_TAP_TIME;
+	
+	protected float realScaleX, realScaleY, windowScaleX = 1, windowScaleY = 1, windowX, windowY;
+	
+	protected int primaryId = -1;
+	protected boolean moved, longPressed, multiTouched;
+	protected long downTime;
+	protected float downRealX, downRealY, lastRealX, lastRealY;
+	
+	protected boolean hasLastTap;
+	protected long lastTapTime;
+	protected float lastTapRealX, lastTapRealY;
+	
+	protected int pinchId1 = -1, pinchId2 = -1;
+	protected float pinchRealX1, pinchRealY1, pinchRealX2, pinchRealY2;
+	protected float lastSpan, lastAngle;
+	
+	/**
+	 * Creates a GestureDetector
+	 * 
+	 * @param onGesture the OnGesture to be notified, usually your Scene
+	 */
+	public GestureDetector(OnGesture onGesture) {
+		if(onGesture == null) {
+			Debug.warning("GestureDetector", "Created with null OnGesture");
+		}
+		this.onGesture = onGesture;
+	}
+	
+	/**
+	 * Passes touch events from the game thread, this is called automatically for the GestureDetector set on the current Scene
+	 * 
+	 * @param window the Window of the Scene, null if there is none
+	 */
+	public void onTouchEvent(Window window, float[] x, float[] y, int action, int pointerCount, int[] pointerId) {
+		if(onGesture == null) {
+			return;
+		}
+		realScaleX = RokonActivity.getGameWidth() / Graphics.getWidthPixels();
+		realScaleY = RokonActivity.getGameHeight() / Graphics.getHeightPixels();
+		if(window != null) {
+			windowScaleX = window.getWidth() / RokonActivity.getGameWidth();
+			windowScaleY = window.getHeight() / RokonActivity.getGameHeight();
+			windowX = window.getX();
+			windowY = window.getY();
+		} else {
+			windowScaleX = 1;
+			windowScaleY = 1;
+			windowX = 0;
+			windowY = 0;
+		}
+		final boolean multiTouch = OS.API_LEVEL >= 5;
+		if(!multiTouch) {
+			pointerCount = 1;
+		}
+		final int actionIndex = multiTouch ? (action & ACTION_POINTER_INDEX_MASK) >> ACTION_POINTER_INDEX_SHIFT : 0;
+		final int actionId = multiTouch && actionIndex < pointerCount ? pointerId[actionIndex] : 0;
+		final long time = Time.getLoopTicks();
+		switch(action & ACTION_MASK) {
+			case MotionEvent.ACTION_DOWN:
+				onDown(actionId, x[0] * realScaleX, y[0] * realScaleY, time);
+				break;
+			case ACTION_POINTER_DOWN:
+				if(actionIndex < pointerCount) {
+					onPointerDown(actionId, x[actionIndex] * realScaleX, y[actionIndex] * realScaleY);
+				}
+				break;
+			case MotionEvent.ACTION_MOVE:
+				for(int i = 0; i < pointerCount; i++) {
+					onMove(multiTouch ? pointerId[i] : 0, x[i] * realScaleX, y[i] * realScaleY, time);
+				}
+				onPinchMove();
+				break;
+			case ACTION_POINTER_UP:
+				if(actionIndex < pointerCount) {
+					onPointerUp(actionId);
+				}
+				break;
+			case MotionEvent.ACTION_UP:
+				onUp(actionId, x[actionIndex] * realScaleX, y[actionIndex] * realScaleY, time);
+				break;
+			case MotionEvent.ACTION_CANCEL:
+				primaryId = -1;
+				pinchId1 = -1;
+				pinchId2 = -1;
+				break;
+		}
+	}
+	
+	/**
+	 * Checks for long presses, this is called automatically on every loop for the GestureDetector set on the current Scene
+	 */
+	public void onUpdate() {
+		if(primaryId != -1 && !moved && !longPressed && !multiTouched && Time.getLoopTicks() - downTime >= longPressTime) {
+			longPressed = true;
+			onGesture.onLongPress(toGameX(downRealX), toGameY(downRealY));
+		}
+	}
+	
+	protected float toGameX(float realX) {
+		return windowX + realX * windowScaleX;
+	}
+	
+	protected float toGameY(float realY) {
+		return windowY + realY * windowScaleY;
+	}
+	
+	protected static float distance(float x1, float y1, float x2, float y2) {
+		final float dx = x2 - x1;
+		final float dy = y2 - y1;
+		return (float)Math.sqrt(dx * dx + dy * dy);
+	}
+	
+	protected float getSize() {
+		return Math.min(RokonActivity.getGameWidth(), RokonActivity.getGameHeight());
+	}
+	
+	protected void onDown(int id, float realX, float realY, long time) {
+		primaryId = id;
+		pinchId1 = -1;
+		pinchId2 = -1;
+		moved = false;
+		longPressed = false;
+		multiTouched = false;
+		downTime = time;
+		downRealX = lastRealX = realX;
+		downRealY = lastRealY = realY;
+		velocityTracker.clear();
+		velocityTracker.addSample(realX, realY, time);
+	}
+	
+	protected void onPointerDown(int id, float realX, float realY) {
+		multiTouched = true;
+		if(pinchId2 == -1 && primaryId != -1 && id != primaryId) {
+			pinchId1 = primaryId;
+			pinchId2 = id;
+			pinchRealX1 = lastRealX;
+			pinchRealY1 = lastRealY;
+			pinchRealX2 = realX;
+			pinchRealY2 = realY;
+			lastSpan = distance(pinchRealX1, pinchRealY1, pinchRealX2, pinchRealY2);
+			lastAngle = (float)Math.atan2(pinchRealY2 - pinchRealY1, pinchRealX2 - pinchRealX1) * MathHelper.RAD_TO_DEG;
+		}
+	}
+	
+	protected void onMove(int id, float realX, float realY, long time) {
+		if(id == primaryId) {
+			lastRealX = realX;
+			lastRealY = realY;
+			velocityTracker.addSample(realX, realY, time);
+			if(!moved && distance(downRealX, downRealY, realX, realY) > getTouchSlop()) {
+				moved = true;
+			}
+		}
+		if(id == pinchId1) {
+			pinchRealX1 = realX;
+			pinchRealY1 = realY;
+		} else if(id == pinchId2) {
+			pinchRealX2 = realX;
+			pinchRealY2 = realY;
+		}
+	}
+	
+	protected void onPinchMove() {
+		if(pinchId2 == -1) {
+			return;
+		}
+		final float span = distance(pinchRealX1, pinchRealY1, pinchRealX2, pinchRealY2);
+		final float angle = (float)Math.atan2(pinchRealY2 - pinchRealY1, pinchRealX2 - pinchRealX1) * MathHelper.RAD_TO_DEG;
+		final float focusX = toGameX((pinchRealX1 + pinchRealX2) / 2);
+		final float focusY = toGameY((pinchRealY1 + pinchRealY2) / 2);
+		if(span != lastSpan && lastSpan > 0 && span > 0) {
+			onGesture.onPinch(span / lastSpan, focusX, focusY);
+		}
+		float rotation = angle - lastAngle;
+		if(rotation > 180) {
+			rotation -= 360;
+		} else if(rotation < -180) {
+			rotation += 360;
+		}
+		if(rotation != 0) {
+			onGesture.onRotate(rotation, focusX, focusY);
+		}
+		lastSpan = span;
+		lastAngle = angle;
+	}
+	
+	protected void onPointerUp(int id) {
+		if(id == pinchId1 || id == pinchId2) {
+			pinchId1 = -1;
+			pinchId2 = -1;
+		}
+		if(id == primaryId) {
+			primaryId = -1;
+		}
+	}
+	
+	protected void onUp(int id, float realX, float realY, long time) {
+		if(id != primaryId || multiTouched) {
+			primaryId = -1;
+			pinchId1 = -1;
+			pinchId2 = -1;
+			return;
+		}
+		primaryId = -1;
+		velocityTracker.addSample(realX, realY, time);
+		final float x = toGameX(realX);
+		final float y = toGameY(realY);
+		if(!moved && distance(downRealX, downRealY, realX, realY) <= getTouchSlop()) {
+			if(longPressed) {
+				return;
+			}
+			onGesture.onTap(x, y);
+			if(hasLastTap && time - lastTapTime <= doubleTapTime && distance(lastTapRealX, lastTapRealY, realX, realY) <= getDoubleTapSlop()) {
+				hasLastTap = false;
+				onGesture.onDoubleTap(x, y);
+			} else {
+				hasLastTap = true;
+				lastTapTime = time;
+				lastTapRealX = realX;
+				lastTapRealY = realY;
+			}
+			return;
+		}
+		hasLastTap = false;
+		final float distanceX = realX - downRealX;
+		final float distanceY = realY - downRealY;
+		if(distance(downRealX, downRealY, realX, realY) >= getSwipeDistance()) {
+			int direction;
+			if(Math.abs(distanceX) > Math.abs(distanceY)) {
+				direction = distanceX > 0 ? SWIPE_RIGHT : SWIPE_LEFT;
+			} else {
+				direction = distanceY > 0 ? SWIPE_DOWN : SWIPE_UP;
+			}
+			onGesture.onSwipe(direction, toGameX(downRealX), toGameY(downRealY), x, y);
+		}
+		velocityTracker.computeVelocity();
+		final float velocityX = velocityTracker.getVelocityX();
+		final float velocityY = velocityTracker.getVelocityY();
+		if(velocityX * velocityX + velocityY * velocityY >= getFlingVelocity() * getFlingVelocity()) {
+			onGesture.onFling(x, y, velocityX * windowScaleX, velocityY * windowScaleY);
+		}
+	}
+	
+	/**
+	 * Sets the distance a pointer can move and still count as a tap or long press
+	 * 
+	 * @param touchSlop in game units, ignoring the Window
+	 */
+	public void setTouchSlop(float touchSlop) {
+		this.touchSlop = touchSlop;
+	}
+	
+	/**
+	 * @return the distance a pointer can move and still count as a tap or long press, in game units
+	 */
+	public float getTouchSlop() {
+		return touchSlop < 0 ? getSize() * DEFAULT_TOUCH_SLOP : touchSlop;
+	}
+	
+	/**
+	 * Sets the maximum distance between two taps for them to count as a double tap
+	 * 
+	 * @param doubleTapSlop in game units, ignoring the Window
+	 */
+	public void setDoubleTapSlop(float doubleTapSlop) {
+		this.doubleTapSlop = doubleTapSlop;
+	}
+	
+	/**
+	 * @return the maximum distance between two taps for them to count as a double tap, in game units
+	 */
+	public float getDoubleTapSlop() {
+		return doubleTapSlop < 0 ? getSize() * DEFAULT_DOUBLE_TAP_SLOP : doubleTapSlop;
+	}
+	
+	/**
+	 * Sets the minimum distance between a pointer going down and up for onSwipe
+	 * 
+	 * @param swipeDistance in game units, ignoring the Window
+	 */
+	public void setSwipeDistance(float swipeDistance) {
+		this.swipeDistance = swipeDistance;
+	}
+	
+	/**
+	 * @return the minimum distance between a pointer going down and up for onSwipe, in game units
+	 */
+	public float getSwipeDistance() {
+		return swipeDistance < 0 ? getSize() * DEFAULT_SWIPE_DISTANCE : swipeDistance;
+	}
+	
+	/**
+	 * Sets the minimum velocity of a pointer as it goes up for onFling
+	 * 
+	 * @param flingVelocity in game units per second, ignoring the Window
+	 */
+	public void setFlingVelocity(float flingVelocity) {
+		this.flingVelocity = flingVelocity;
+	}
+	
+	/**
+	 * @return the minimum velocity of a pointer as it goes up for onFling, in game units per second
+	 */
+	public float getFlingVelocity() {
+		return flingVelocity < 0 ? getSize() * DEFAULT_FLING_VELOCITY : flingVelocity;
+	}
+	
+	/**
+	 * Sets how long a pointer must be held still for onLongPress
+	 * 
+	 * @param longPressTime in milliseconds
+	 */
+	public void setLongPressTime(long longPressTime) {
+		this.longPressTime = longPressTime;
+	}
+	
+	public long getLongPressTime() {
+		return longPressTime;
+	}
+	
+	/**
+	 * Sets the maximum time between two taps for them to count as a double tap
+	 * 
+	 * @param doubleTapTime in milliseconds
+	 */
+	public void setDoubleTapTime(long doubleTapTime) {
+		this.doubleTapTime = doubleTapTime;
+	}
+	
+	public long getDoubleTapTime() {
+		return doubleTapTime;
+	}
+	
+	/**
+	 * @return the VelocityTracker following the first pointer
+	 */
+	public VelocityTracker getVelocityTracker() {
+		return velocityTracker;
+	}
+
+}
@@ -0,0 +1,21 @@
+package com.stickycoding.rokon.gesture;
+
+/**
+ * OnGesture.java
+ * An interface for the GestureDetector class, usual function is to be used by your Scene
+ * All positions are in game coordinates (the same as onTouch), velocities are in game units per second
+ * 
+ * @author Richard
+ */
+
+public interface OnGesture {
+
+	void onTap(float x, float y);
+	void onDoubleTap(float x, float y);
+	void onLongPress(float x, float y);
+	void onSwipe(int direction, float startX, float startY, float endX, float endY);
+	void onFling(float x, float y, float velocityX, float velocityY);
+	void onPinch(float scale, float focusX, float focusY);
+	void onRotate(float angle, float focusX, float focusY);
+
+}
@@ -0,0 +1,112 @@
+package com.stickycoding.rokon.gesture;
+
+/**
+ * VelocityTracker.java
+ * Keeps the most recent positions of a pointer in a ring buffer, and calculates its velocity from them
+ * 
+ * @author Richard
+ */
+
+public class VelocityTracker {
+	
+	/**
+	 * The number of samples kept, older samples are overwritten
+	 */
+	public static final int MAX_SAMPLES = 16;
+	
+	/**
+	 * The default age (in milliseconds) of the oldest sample used to calculate velocity
+	 */
+	public static final long DEFAULT_HORIZON = 100;
+	
+	protected float[] x = new float[MAX_SAMPLES];
+	protected float[] y = new float[MAX_SAMPLES];
+	protected long[] time = new long[MAX_SAMPLES];
+	protected int head, count;
+	protected long horizon = DEFAULT_HORIZON;
+	protected float velocityX, velocityY;
+	
+	/**
+	 * Removes all samples, and resets the velocity to zero
+	 */
+	public void clear() {
+		head = 0;
+		count = 0;
+		velocityX = 0;
+		velocityY = 0;
+	}
+	
+	/**
+	 * Adds a position to the tracker
+	 * 
+	 * @param x
+	 * @param y
+	 * @param time in milliseconds
+	 */
+	public void addSample(float x, float y, long time) {
+		this.x[head] = x;
+		this.y[head] = y;
+		this.time[head] = time;
+		head = (head + 1) % MAX_SAMPLES;
+		if(count < MAX_SAMPLES) {
+			count++;
+		}
+	}
+	
+	/**
+	 * Calculates the velocity from the samples no older than the horizon, relative to the newest. Fetch it with getVelocityX and getVelocityY
+	 */
+	public void computeVelocity() {
+		velocityX = 0;
+		velocityY = 0;
+		if(count < 2) {
+			return;
+		}
+		final int newest = (head - 1 + MAX_SAMPLES) % MAX_SAMPLES;
+		int oldest = newest;
+		for(int i = 1; i < count; i++) {
+			final int index = (newest - i + MAX_SAMPLES) % MAX_SAMPLES;
+			if(time[newest] - time[index] > horizon) {
+				break;
+			}
+			oldest = index;
+		}
+		final long duration = time[newest] - time[oldest];
+		if(duration <= 0) {
+			return;
+		}
+		velocityX = (x[newest] - x[oldest]) * 1000f / duration;
+		velocityY = (y[newest] - y[oldest]) * 1000f / duration;
+	}
+	
+	/**
+	 * @return the X velocity at the last call to computeVelocity, in units per second
+	 */
+	public float getVelocityX() {
+		return velocityX;
+	}
+	
+	/**
+	 * @return the Y velocity at the last call to computeVelocity, in units per second
+	 */
+	public float getVelocityY() {
+		return velocityY;
+	}
+	
+	/**
+	 * Sets how far back (in milliseconds) samples are used to calculate velocity
+	 * 
+	 * @param horizon in milliseconds
+	 */
+	public void setHorizon(long horizon) {
+		this.horizon = horizon;
+	}
+	
+	/**
+	 * @return how far back (in milliseconds) samples are used to calculate velocity
+	 */
+	public long getHorizon() {
+		return horizon;
+	}
+
+}
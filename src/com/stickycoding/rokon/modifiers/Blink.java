@@ -1,6 +1,7 @@
 package com.stickycoding.rokon.modifiers;
 
 import com.stickycoding.rokon.Modifier;
+import com.stickycoding.rokon.ModifierPool;
 import com.stickycoding.rokon.Sprite;
 import com.stickycoding.rokon.Time;
 
@@ -10,15 +11,40 @@ import com.stickycoding.rokon.Time;
  * Blinks between 0 and 1 alpha, every 500ms.
  * After 10s, it stops
  * 
+ * Take instances from Blink.pool, so they are reused rather than allocated for each blink
+ * 
  * @author Richard
  */
 
 public class Blink extends Modifier {
 	
+	public static final ModifierPool<Blink> pool = new ModifierPool<Blink>() {
+		@Override
+		protected Blink create() {
+			return new Blink();
+		}
+	};
+	
 	private boolean show = true;
 	private long nextFlash;
 	private long end;
 	
+	/* (non-Javadoc)
+	 * @see com.stickycoding.rokon.Modifier#getPhase()
+	 */
+	@Override
+	public int getPhase() {
+		return PRE_DRAW;
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.stickycoding.rokon.Modifier#reset()
+	 */
+	@Override
+	public void reset() {
+		show = true;
+	}
+	
 	/* (non-Javadoc)
 	 * @see com.stickycoding.rokon.Modifier#onStart()
 	 */
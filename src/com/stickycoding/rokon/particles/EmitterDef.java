@@ -0,0 +1,473 @@
+package com.stickycoding.rokon.particles;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import com.stickycoding.rokon.Debug;
+import com.stickycoding.rokon.Rokon;
+
+/**
+ * EmitterDef.java
+ * Describes how a ParticleEmitter creates and moves its particles. Each value which has a min and a max is picked at random
+ * between the two for every particle. A definition can be shared by any number of emitters, changes are seen by all of them
+ * from the next particle they emit.
+ * 
+ * Definitions can be loaded in bulk with loadFile, from .json, or the binary format written by writeBinary, and fetched by name with get.
+ * A .json file looks like { "emitters": [ { "name": "fire", "maxParticles": 2000, "rate": 400, "life": [500, 1000],
+ * "speed": [20, 60], "angle": [250, 290], "acceleration": [0, -40], "size": [24, 4], "startColour": [1, 0.8, 0.2, 1],
+ * "endColour": [1, 0, 0, 0], "tiles": [0, 3], "blend": "additive" } ] }
+ * Any value left out keeps its default, ranges can also be given as a single number.
+ * 
+ * @author Richard
+ */
+public class EmitterDef {
+	
+	/**
+	 * The first four bytes of a binary emitter file, 'RPE1'
+	 */
+	public static final int BINARY_MAGIC = 0x52504531;
+	
+	protected static final HashMap<String, EmitterDef> defs = new HashMap<String, EmitterDef>();
+	protected static final HashMap<String, EmitterDef[]> defFiles = new HashMap<String, EmitterDef[]>();
+	
+	/**
+	 * The name used to fetch this definition with get, may be NULL
+	 */
+	public String name;
+	
+	/**
+	 * The most particles alive at once, further particles are not emitted until others die.
+	 * Limited to ParticleEmitter.MAX_PARTICLES
+	 */
+	public int maxParticles = 500;
+	
+	/**
+	 * Particles emitted per second, and the number emitted all at once when the emitter starts
+	 */
+	public float rate = 50;
+	public int burst = 0;
+	
+	/**
+	 * How long the emitter emits for once started, in milliseconds, -1 to emit until stopped
+	 */
+	public int duration = -1;
+	
+	/**
+	 * The life of each particle, in milliseconds
+	 */
+	public int lifeMin = 1000, lifeMax = 1000;
+	
+	/**
+	 * The starting speed of each particle, in units per second, and the direction it travels, in degrees.
+	 * The direction is relative to the rotation of the emitter
+	 */
+	public float speedMin = 50, speedMax = 50;
+	public float angleMin = 0, angleMax = 360;
+	
+	/**
+	 * Acceleration applied to every particle, in units per second per second, eg gravity or wind
+	 */
+	public float accelerationX = 0, accelerationY = 0;
+	
+	/**
+	 * The fraction of its speed which a particle loses each second
+	 */
+	public float drag = 0;
+	
+	/**
+	 * The size of each particle at the start and end of its life, the size grows or shrinks evenly in between.
+	 * Each particle is scaled by a random factor of up to sizeVariance either way, eg 0.2 for sizes 80% to 120%
+	 */
+	public float sizeStart = 16, sizeEnd = 16;
+	public float sizeVariance = 0;
+	
+	/**
+	 * The starting rotation of each particle, and its rate of spin, in degrees and degrees per second
+	 */
+	public float rotationMin = 0, rotationMax = 0;
+	public float spinMin = 0, spinMax = 0;
+	
+	/**
+	 * The colour of each particle at the start and end of its life, from 0f to 1f, blended evenly in between
+	 */
+	public float startRed = 1, startGreen = 1, startBlue = 1, startAlpha = 1;
+	public float endRed = 1, endGreen = 1, endBlue = 1, endAlpha = 0;
+	
+	/**
+	 * The range of Texture tiles to pick from, each particle keeps one tile for its life
+	 */
+	public int tileStart = 0, tileEnd = 0;
+	
+	/**
+	 * TRUE to add particles onto what is behind them, which suits fire and sparks, FALSE for standard alpha blending
+	 */
+	public boolean additive = false;
+	
+	public EmitterDef() {
+		
+	}
+	
+	public EmitterDef(String name) {
+		this.name = name;
+	}
+	
+	/**
+	 * Sets the life of each particle
+	 * 
+	 * @param lifeMin the shortest life, in milliseconds
+	 * @param lifeMax the longest life, in milliseconds
+	 */
+	public void setLife(int lifeMin, int lifeMax) {
+		this.lifeMin = lifeMin;
+		this.lifeMax = lifeMax;
+	}
+	
+	/**
+	 * Sets the starting speed and direction of each particle
+	 * 
+	 * @param speedMin the lowest speed, in units per second
+	 * @param speedMax the highest speed, in units per second
+	 * @param angleMin the lowest angle, in degrees
+	 * @param angleMax the highest angle, in degrees
+	 */
+	public void setVelocity(float speedMin, float speedMax, float angleMin, float angleMax) {
+		this.speedMin = speedMin;
+		this.speedMax = speedMax;
+		this.angleMin = angleMin;
+		this.angleMax = angleMax;
+	}
+	
+	/**
+	 * Sets the size of each particle at the start and end of its life
+	 * 
+	 * @param sizeStart the starting size
+	 * @param sizeEnd the size at the end of its life
+	 */
+	public void setSize(float sizeStart, float sizeEnd) {
+		this.sizeStart = sizeStart;
+		this.sizeEnd = sizeEnd;
+	}
+	
+	/**
+	 * Sets the colour of each particle at the start of its life
+	 * 
+	 * @param red 0f to 1f
+	 * @param green 0f to 1f
+	 * @param blue 0f to 1f
+	 * @param alpha 0f to 1f
+	 */
+	public void setStartColour(float red, float green, float blue, float alpha) {
+		startRed = red;
+		startGreen = green;
+		startBlue = blue;
+		startAlpha = alpha;
+	}
+	
+	/**
+	 * Sets the colour of each particle at the end of its life
+	 * 
+	 * @param red 0f to 1f
+	 * @param green 0f to 1f
+	 * @param blue 0f to 1f
+	 * @param alpha 0f to 1f
+	 */
+	public void setEndColour(float red, float green, float blue, float alpha) {
+		endRed = red;
+		endGreen = green;
+		endBlue = blue;
+		endAlpha = alpha;
+	}
+	
+	/**
+	 * Sets the range of Texture tiles to pick from
+	 * 
+	 * @param tileStart the first tile
+	 * @param tileEnd the last tile, inclusive
+	 */
+	public void setTiles(int tileStart, int tileEnd) {
+		this.tileStart = tileStart;
+		this.tileEnd = tileEnd;
+	}
+	
+	/**
+	 * Reads the definitions in a .json emitter file
+	 * 
+	 * @param content the text of the file
+	 * @return an array of EmitterDefs
+	 * @throws JSONException if the file is not valid
+	 */
+	public static EmitterDef[] fromJSON(String content) throws JSONException {
+		JSONArray jsonEmitters = new JSONObject(content).getJSONArray("emitters");
+		EmitterDef[] result = new EmitterDef[jsonEmitters.length()];
+		float[] range = new float[4];
+		for(int i = 0; i < result.length; i++) {
+			JSONObject json = jsonEmitters.getJSONObject(i);
+			EmitterDef def = new EmitterDef(json.optString("name", null));
+			def.maxParticles = json.optInt("maxParticles", def.maxParticles);
+			def.rate = (float)json.optDouble("rate", def.rate);
+			def.burst = json.optInt("burst", def.burst);
+			def.duration = json.optInt("duration", def.duration);
+			if(readValues(json, "life", range, 2)) {
+				def.lifeMin = (int)range[0];
+				def.lifeMax = (int)range[1];
+			}
+			if(readValues(json, "speed", range, 2)) {
+				def.speedMin = range[0];
+				def.speedMax = range[1];
+			}
+			if(readValues(json, "angle", range, 2)) {
+				def.angleMin = range[0];
+				def.angleMax = range[1];
+			}
+			if(readValues(json, "acceleration", range, 2)) {
+				def.accelerationX = range[0];
+				def.accelerationY = range[1];
+			}
+			def.drag = (float)json.optDouble("drag", def.drag);
+			if(readValues(json, "size", range, 2)) {
+				def.sizeStart = range[0];
+				def.sizeEnd = range[1];
+			}
+			def.sizeVariance = (float)json.optDouble("sizeVariance", def.sizeVariance);
+			if(readValues(json, "rotation", range, 2)) {
+				def.rotationMin = range[0];
+				def.rotationMax = range[1];
+			}
+			if(readValues(json, "spin", range, 2)) {
+				def.spinMin = range[0];
+				def.spinMax = range[1];
+			}
+			if(readValues(json, "startColour", range, 4)) {
+				def.setStartColour(range[0], range[1], range[2], range[3]);
+			}
+			if(readValues(json, "endColour", range, 4)) {
+				def.setEndColour(range[0], range[1], range[2], range[3]);
+			}
+			if(readValues(json, "tiles", range, 2)) {
+				def.tileStart = (int)range[0];
+				def.tileEnd = (int)range[1];
+			}
+			if(json.has("blend")) {
+				String blend = json.getString("blend");
+				if(blend.equals("additive")) {
+					def.additive = true;
+				} else if(!blend.equals("alpha")) {
+					throw new JSONException("Unknown blend=" + blend);
+				}
+			}
+			result[i] = def;
+		}
+		return result;
+	}
+	
+	/**
+	 * Reads a value which is either a single number, used for every entry, or an array of count numbers
+	 * 
+	 * @return TRUE if the value was there, FALSE if it was left out
+	 */
+	private static boolean readValues(JSONObject json, String key, float[] values, int count) throws JSONException {
+		if(!json.has(key)) return false;
+		JSONArray array = json.optJSONArray(key);
+		if(array == null) {
+			float value = (float)json.getDouble(key);
+			for(int i = 0; i < count; i++) {
+				values[i] = value;
+			}
+			return true;
+		}
+		if(array.length() != count) {
+			throw new JSONException(key + " needs " + count + " values");
+		}
+		for(int i = 0; i < count; i++) {
+			values[i] = (float)array.getDouble(i);
+		}
+		return true;
+	}
+	
+	/**
+	 * Reads a binary emitter file, as written by writeBinary
+	 * 
+	 * @param data the whole file
+	 * @return an array of EmitterDefs, NULL if the data is not a binary emitter file
+	 */
+	public static EmitterDef[] fromBinary(byte[] data) {
+		ByteBuffer buffer = ByteBuffer.wrap(data);
+		if(data.length < 6 || buffer.getInt() != BINARY_MAGIC) {
+			Debug.warning("EmitterDef.fromBinary", "Not a binary emitter file");
+			return null;
+		}
+		EmitterDef[] result = new EmitterDef[buffer.getShort()];
+		for(int i = 0; i < result.length; i++) {
+			EmitterDef def = new EmitterDef(readName(buffer));
+			def.maxParticles = buffer.getInt();
+			def.rate = buffer.getFloat();
+			def.burst = buffer.getInt();
+			def.duration = buffer.getInt();
+			def.lifeMin = buffer.getInt();
+			def.lifeMax = buffer.getInt();
+			def.speedMin = buffer.getFloat();
+			def.speedMax = buffer.getFloat();
+			def.angleMin = buffer.getFloat();
+			def.angleMax = buffer.getFloat();
+			def.accelerationX = buffer.getFloat();
+			def.accelerationY = buffer.getFloat();
+			def.drag = buffer.getFloat();
+			def.sizeStart = buffer.getFloat();
+			def.sizeEnd = buffer.getFloat();
+			def.sizeVariance = buffer.getFloat();
+			def.rotationMin = buffer.getFloat();
+			def.rotationMax = buffer.getFloat();
+			def.spinMin = buffer.getFloat();
+			def.spinMax = buffer.getFloat();
+			def.setStartColour(buffer.getFloat(), buffer.getFloat(), buffer.getFloat(), buffer.getFloat());
+			def.setEndColour(buffer.getFloat(), buffer.getFloat(), buffer.getFloat(), buffer.getFloat());
+			def.tileStart = buffer.getShort();
+			def.tileEnd = buffer.getShort();
+			def.additive = buffer.get() != 0;
+			result[i] = def;
+		}
+		return result;
+	}
+	
+	private static String readName(ByteBuffer buffer) {
+		byte[] nameBytes = new byte[buffer.getShort()];
+		buffer.get(nameBytes);
+		if(nameBytes.length == 0) {
+			return null;
+		}
+		try {
+			return new String(nameBytes, "UTF-8");
+		} catch (UnsupportedEncodingException e) {
+			return new String(nameBytes);
+		}
+	}
+	
+	/**
+	 * Writes definitions in the binary format, which loads without parsing. Produce these ahead of time and
+	 * ship them in place of the .json files
+	 * 
+	 * @param outputStream a valid OutputStream, which is not closed
+	 * @param defs the definitions to write
+	 * @throws IOException
+	 */
+	public static void writeBinary(OutputStream outputStream, EmitterDef[] defs) throws IOException {
+		DataOutputStream out = new DataOutputStream(outputStream);
+		out.writeInt(BINARY_MAGIC);
+		out.writeShort(defs.length);
+		for(int i = 0; i < defs.length; i++) {
+			EmitterDef def = defs[i];
+			byte[] nameBytes = def.name != null ? def.name.getBytes("UTF-8") : new byte[0];
+			out.writeShort(nameBytes.length);
+			out.write(nameBytes);
+			out.writeInt(def.maxParticles);
+			out.writeFloat(def.rate);
+			out.writeInt(def.burst);
+			out.writeInt(def.duration);
+			out.writeInt(def.lifeMin);
+			out.writeInt(def.lifeMax);
+			out.writeFloat(def.speedMin);
+			out.writeFloat(def.speedMax);
+			out.writeFloat(def.angleMin);
+			out.writeFloat(def.angleMax);
+			out.writeFloat(def.accelerationX);
+			out.writeFloat(def.accelerationY);
+			out.writeFloat(def.drag);
+			out.writeFloat(def.sizeStart);
+			out.writeFloat(def.sizeEnd);
+			out.writeFloat(def.sizeVariance);
+			out.writeFloat(def.rotationMin);
+			out.writeFloat(def.rotationMax);
+			out.writeFloat(def.spinMin);
+			out.writeFloat(def.spinMax);
+			out.writeFloat(def.startRed);
+			out.writeFloat(def.startGreen);
+			out.writeFloat(def.startBlue);
+			out.writeFloat(def.startAlpha);
+			out.writeFloat(def.endRed);
+			out.writeFloat(def.endGreen);
+			out.writeFloat(def.endBlue);
+			out.writeFloat(def.endAlpha);
+			out.writeShort(def.tileStart);
+			out.writeShort(def.tileEnd);
+			out.writeByte(def.additive ? 1 : 0);
+		}
+		out.flush();
+	}
+	
+	/**
+	 * Loads an emitter file, or fetches it if it has already been loaded. Named definitions can then be fetched with get.
+	 * Files ending in .json are parsed, anything else is read as the binary format
+	 * 
+	 * @param filename the name of the file, in assets
+	 * @return the definitions in the file, NULL if it could not be loaded
+	 */
+	public static EmitterDef[] loadFile(String filename) {
+		synchronized(defs) {
+			EmitterDef[] fileDefs = defFiles.get(filename);
+			if(fileDefs != null) {
+				return fileDefs;
+			}
+			try {
+				InputStream stream = Rokon.getActivity().getAssets().open(filename);
+				ByteArrayOutputStream content = new ByteArrayOutputStream(stream.available() > 0 ? stream.available() : 1024);
+				byte[] buffer = new byte[4096];
+				int length = stream.read(buffer);
+				while(length != -1) {
+					content.write(buffer, 0, length);
+					length = stream.read(buffer);
+				}
+				stream.close();
+				if(filename.endsWith(".json")) {
+					fileDefs = fromJSON(content.toString());
+				} else {
+					fileDefs = fromBinary(content.toByteArray());
+				}
+			} catch (Exception e) {
+				Debug.error("Error in EmitterDef.loadFile " + filename);
+				e.printStackTrace();
+			}
+			if(fileDefs != null) {
+				defFiles.put(filename, fileDefs);
+				for(int i = 0; i < fileDefs.length; i++) {
+					if(fileDefs[i].name != null) {
+						defs.put(fileDefs[i].name, fileDefs[i]);
+					}
+				}
+			}
+			return fileDefs;
+		}
+	}
+	
+	/**
+	 * Fetches a named definition from the files loaded with loadFile
+	 * 
+	 * @param name the name of the definition
+	 * @return the EmitterDef, NULL if there is none with that name
+	 */
+	public static EmitterDef get(String name) {
+		synchronized(defs) {
+			return defs.get(name);
+		}
+	}
+	
+	/**
+	 * Forgets all loaded emitter files
+	 */
+	public static void clearDefs() {
+		synchronized(defs) {
+			defs.clear();
+			defFiles.clear();
+		}
+	}
+
+}
@@ -0,0 +1,694 @@
+package com.stickycoding.rokon.particles;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import javax.microedition.khronos.opengles.GL10;
+
+import com.stickycoding.rokon.BlendFunction;
+import com.stickycoding.rokon.Debug;
+import com.stickycoding.rokon.GLHelper;
+import com.stickycoding.rokon.GameObject;
+import com.stickycoding.rokon.MathHelper;
+import com.stickycoding.rokon.RokonActivity;
+import com.stickycoding.rokon.Texture;
+import com.stickycoding.rokon.Time;
+import com.stickycoding.rokon.Window;
+
+/**
+ * ParticleEmitter.java
+ * Emits, moves and draws particles, as described by an EmitterDef. Particles are emitted from anywhere inside the
+ * rectangle of the emitter, which may have no width or height to emit from a point. The emitter can be moved, rotated
+ * and faded like any other object, its rotation turns the direction particles are emitted in and its colour tints them.
+ * 
+ * Particles are not objects. Their position, velocity, rotation, spin, size, age and tile are kept in one primitive array each,
+ * and a single loop moves every particle and writes its vertices, texture coordinates and colour as it goes. The whole emitter
+ * is then drawn with one call to GLHelper.drawQuads. Dead particles are swapped out for the last live one, so the arrays
+ * always stay packed from the start.
+ * 
+ * With setParallel, large emitters split that loop between the game thread and a set of worker threads shared by all emitters.
+ * 
+ * @author Richard
+ */
+public class ParticleEmitter extends GameObject {
+	
+	/**
+	 * The most particles one emitter can hold, each is drawn as one quad
+	 */
+	public static final int MAX_PARTICLES = GLHelper.MAX_QUADS;
+	
+	/**
+	 * Parallel emitters with fewer particles than this are still updated on the game thread alone,
+	 * as handing out the work would cost more than it saves
+	 */
+	public static final int PARALLEL_THRESHOLD = 2048;
+	
+	protected static final BlendFunction ADDITIVE_BLEND = new BlendFunction(GL10.GL_SRC_ALPHA, GL10.GL_ONE);
+	
+	private static final int SINE_SIZE = 1024, SINE_MASK = SINE_SIZE - 1, COSINE_OFFSET = SINE_SIZE / 4;
+	private static final float SINE_SCALE = SINE_SIZE / 360f;
+	private static final float[] sine = new float[SINE_SIZE];
+	private static final boolean bigEndian = ByteOrder.nativeOrder() == ByteOrder.BIG_ENDIAN;
+	
+	private static ExecutorService workers;
+	private static int workerCount = Runtime.getRuntime().availableProcessors() - 1;
+	
+	static {
+		for(int i = 0; i < SINE_SIZE; i++) {
+			sine[i] = (float)Math.sin(i * Math.PI * 2 / SINE_SIZE);
+		}
+	}
+	
+	protected EmitterDef def;
+	protected int capacity, count;
+	
+	/**
+	 * The state of each particle. Age runs from 0 at birth to 1 at death, and goes up by ageRate each second.
+	 * Size is the starting size, tile is counted from the first tile of the EmitterDef
+	 */
+	protected float[] particleX, particleY, particleVelocityX, particleVelocityY;
+	protected float[] particleRotation, particleSpin, particleSize, particleAge, particleAgeRate;
+	protected int[] particleTile;
+	
+	protected boolean emitting, parallel, removeWhenFinished;
+	protected float emitAccumulator, emitTime;
+	
+	/**
+	 * Filled by the update loop on the game thread, then copied into the back buffers
+	 */
+	private float[] vertices, texCoords;
+	private int[] colours;
+	
+	/**
+	 * Two sets of buffers, the render thread draws the front set while the game thread fills the other
+	 */
+	private final Object bufferLock = new Object();
+	private FloatBuffer[] vertexBuffer, texCoordBuffer;
+	private IntBuffer[] colourBuffer;
+	private int[] bufferCount, bufferTexCoordVersion;
+	private boolean[] bufferReady;
+	private int frontBuffer;
+	
+	/**
+	 * Texture coordinates of each tile in use, as x1, y1, x2, y2
+	 */
+	private float[] tileCoords = new float[4];
+	private Texture tileCoordsTexture;
+	private int tileCoordsStart = -1, tileCoordsEnd = -1, tileCoordsVersion;
+	private int tileCount = 1;
+	
+	/**
+	 * Values for the current update, shared by every slice of the loop
+	 */
+	private float frameTime, frameDrag, frameVelocityX, frameVelocityY, frameSizeChange;
+	private float frameRed, frameGreen, frameBlue, frameAlpha, frameRedChange, frameGreenChange, frameBlueChange, frameAlphaChange;
+	private boolean frameRotates, frameTileCoords;
+	private float boundsX1, boundsY1, boundsX2, boundsY2;
+	
+	private Slice[] slice;
+	private int pendingSlices;
+	private final Object sliceLock = new Object();
+	private int random = 0x2545F491;
+	
+	/**
+	 * Creates a ParticleEmitter which emits from a point, and starts emitting straight away
+	 * 
+	 * @param x x-coordinate
+	 * @param y y-coordinate
+	 * @param def valid EmitterDef
+	 */
+	public ParticleEmitter(float x, float y, EmitterDef def) {
+		this(x, y, 0, 0, def);
+	}
+	
+	/**
+	 * Creates a ParticleEmitter which emits from anywhere in a rectangle, and starts emitting straight away
+	 * 
+	 * @param x x-coordinate
+	 * @param y y-coordinate
+	 * @param width width of the area to emit from
+	 * @param height height of the area to emit from
+	 * @param def valid EmitterDef
+	 */
+	public ParticleEmitter(float x, float y, float width, float height, EmitterDef def) {
+		super(x, y, width, height);
+		setDef(def);
+		start();
+	}
+	
+	/**
+	 * Creates a textured ParticleEmitter which emits from anywhere in a rectangle, and starts emitting straight away
+	 * 
+	 * @param x x-coordinate
+	 * @param y y-coordinate
+	 * @param width width of the area to emit from
+	 * @param height height of the area to emit from
+	 * @param def valid EmitterDef
+	 * @param texture valid Texture, particles use the tiles given in the EmitterDef
+	 */
+	public ParticleEmitter(float x, float y, float width, float height, EmitterDef def, Texture texture) {
+		this(x, y, width, height, def);
+		setTexture(texture);
+	}
+	
+	/**
+	 * Changes the EmitterDef, all live particles are removed
+	 * 
+	 * @param def valid EmitterDef
+	 */
+	public void setDef(EmitterDef def) {
+		if(def == null) {
+			Debug.warning("ParticleEmitter.setDef", "Tried setting a NULL EmitterDef");
+			return;
+		}
+		this.def = def;
+		int capacity = def.maxParticles;
+		if(capacity > MAX_PARTICLES) {
+			Debug.warning("ParticleEmitter.setDef", "maxParticles=" + capacity + " is more than MAX_PARTICLES, using " + MAX_PARTICLES);
+			capacity = MAX_PARTICLES;
+		}
+		if(capacity < 1) {
+			Debug.warning("ParticleEmitter.setDef", "maxParticles=" + capacity + ", using 1");
+			capacity = 1;
+		}
+		count = 0;
+		if(capacity == this.capacity) return;
+		this.capacity = capacity;
+		particleX = new float[capacity];
+		particleY = new float[capacity];
+		particleVelocityX = new float[capacity];
+		particleVelocityY = new float[capacity];
+		particleRotation = new float[capacity];
+		particleSpin = new float[capacity];
+		particleSize = new float[capacity];
+		particleAge = new float[capacity];
+		particleAgeRate = new float[capacity];
+		particleTile = new int[capacity];
+		vertices = new float[capacity * 8];
+		texCoords = new float[capacity * 8];
+		colours = new int[capacity * 4];
+		synchronized(bufferLock) {
+			vertexBuffer = new FloatBuffer[2];
+			texCoordBuffer = new FloatBuffer[2];
+			colourBuffer = new IntBuffer[2];
+			bufferCount = new int[2];
+			bufferTexCoordVersion = new int[2];
+			bufferReady = new boolean[2];
+			for(int i = 0; i < 2; i++) {
+				vertexBuffer[i] = ByteBuffer.allocateDirect(capacity * 8 * 4).order(ByteOrder.nativeOrder()).asFloatBuffer();
+				texCoordBuffer[i] = ByteBuffer.allocateDirect(capacity * 8 * 4).order(ByteOrder.nativeOrder()).asFloatBuffer();
+				colourBuffer[i] = ByteBuffer.allocateDirect(capacity * 4 * 4).order(ByteOrder.nativeOrder()).asIntBuffer();
+				bufferTexCoordVersion[i] = -1;
+			}
+		}
+	}
+	
+	/**
+	 * @return the EmitterDef in use
+	 */
+	public EmitterDef getDef() {
+		return def;
+	}
+	
+	/**
+	 * Starts emitting from the beginning, with the burst and duration of the EmitterDef
+	 */
+	public void start() {
+		emitting = true;
+		emitAccumulator = 0;
+		emitTime = 0;
+		if(def.burst > 0) {
+			emit(def.burst);
+		}
+	}
+	
+	/**
+	 * Stops emitting, particles which are already alive carry on until they die
+	 */
+	public void stop() {
+		emitting = false;
+	}
+	
+	/**
+	 * @return TRUE if the emitter is emitting particles
+	 */
+	public boolean isEmitting() {
+		return emitting;
+	}
+	
+	/**
+	 * @return TRUE if the emitter has stopped, and all of its particles have died
+	 */
+	public boolean isFinished() {
+		return !emitting && count == 0;
+	}
+	
+	/**
+	 * Sets whether the emitter removes itself from the Scene once it is finished, useful for one-off effects
+	 * 
+	 * @param removeWhenFinished TRUE to remove when finished
+	 */
+	public void setRemoveWhenFinished(boolean removeWhenFinished) {
+		this.removeWhenFinished = removeWhenFinished;
+	}
+	
+	/**
+	 * Removes every live particle straight away
+	 */
+	public void clear() {
+		count = 0;
+	}
+	
+	/**
+	 * @return the number of live particles
+	 */
+	public int getParticleCount() {
+		return count;
+	}
+	
+	/**
+	 * Sets whether large emitters are updated by the worker threads as well as the game thread.
+	 * Has no effect if there are no worker threads, see setWorkerCount
+	 * 
+	 * @param parallel TRUE to update in parallel
+	 */
+	public void setParallel(boolean parallel) {
+		this.parallel = parallel;
+	}
+	
+	/**
+	 * @return TRUE if large emitters are updated in parallel
+	 */
+	public boolean isParallel() {
+		return parallel;
+	}
+	
+	/**
+	 * Sets the number of worker threads shared by parallel emitters, the game thread works alongside them.
+	 * Defaults to one less than the number of processors. Must be set before the first parallel update
+	 * 
+	 * @param workerCount the number of worker threads, 0 to update every emitter on the game thread
+	 */
+	public static void setWorkerCount(int workerCount) {
+		if(workers != null) {
+			Debug.warning("ParticleEmitter.setWorkerCount", "The worker threads have already been started");
+			return;
+		}
+		ParticleEmitter.workerCount = workerCount < 0 ? 0 : workerCount;
+	}
+	
+	/**
+	 * @return the number of worker threads shared by parallel emitters
+	 */
+	public static int getWorkerCount() {
+		return workerCount;
+	}
+	
+	/**
+	 * Emits a number of particles straight away, whether or not the emitter is emitting. Particles beyond maxParticles are dropped
+	 * 
+	 * @param amount the number of particles to emit
+	 */
+	public void emit(int amount) {
+		if(count + amount > capacity) {
+			amount = capacity - count;
+		}
+		final EmitterDef def = this.def;
+		final float x = getX(), y = getY(), width = getWidth(), height = getHeight(), rotation = getRotation();
+		int tileRange = def.tileEnd - def.tileStart + 1;
+		tileCount = tileRange < 1 ? 1 : tileRange;
+		for(int n = 0; n < amount; n++) {
+			final int i = count++;
+			particleX[i] = x + width * nextRandom();
+			particleY[i] = y + height * nextRandom();
+			final float speed = def.speedMin + (def.speedMax - def.speedMin) * nextRandom();
+			final int angle = (int)((rotation + def.angleMin + (def.angleMax - def.angleMin) * nextRandom()) * SINE_SCALE) & SINE_MASK;
+			particleVelocityX[i] = speed * sine[(angle + COSINE_OFFSET) & SINE_MASK];
+			particleVelocityY[i] = speed * sine[angle];
+			particleRotation[i] = def.rotationMin + (def.rotationMax - def.rotationMin) * nextRandom();
+			particleSpin[i] = def.spinMin + (def.spinMax - def.spinMin) * nextRandom();
+			particleSize[i] = def.sizeStart * (1 + def.sizeVariance * (nextRandom() * 2 - 1));
+			final int life = def.lifeMin + (int)((def.lifeMax - def.lifeMin) * nextRandom());
+			particleAge[i] = 0;
+			particleAgeRate[i] = life > 0 ? 1000f / life : 1000f;
+			particleTile[i] = tileCount > 1 ? (int)(tileCount * nextRandom()) : 0;
+		}
+	}
+	
+	/**
+	 * A quick xorshift generator, from 0f up to but not including 1f
+	 */
+	private float nextRandom() {
+		random ^= random << 13;
+		random ^= random >>> 17;
+		random ^= random << 5;
+		return (random >>> 8) * (1f / (1 << 24));
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.stickycoding.rokon.DrawableObject#onUpdate()
+	 */
+	public void onUpdate() {
+		super.onUpdate();
+		final float time = Time.getLoopTicksFraction();
+		removeDead();
+		if(emitting) {
+			if(def.duration >= 0) {
+				emitTime += time * 1000;
+				if(emitTime >= def.duration) {
+					emitting = false;
+				}
+			}
+			emitAccumulator += def.rate * time;
+			if(emitAccumulator >= 1) {
+				final int amount = (int)emitAccumulator;
+				emitAccumulator -= amount;
+				emit(amount);
+			}
+		}
+		if(removeWhenFinished && isFinished()) {
+			remove();
+			return;
+		}
+		updateParticles(time);
+	}
+	
+	/**
+	 * Swaps each particle which died in the last update for the last live particle
+	 */
+	protected void removeDead() {
+		int i = 0;
+		while(i < count) {
+			if(particleAge[i] >= 1) {
+				final int last = --count;
+				particleX[i] = particleX[last];
+				particleY[i] = particleY[last];
+				particleVelocityX[i] = particleVelocityX[last];
+				particleVelocityY[i] = particleVelocityY[last];
+				particleRotation[i] = particleRotation[last];
+				particleSpin[i] = particleSpin[last];
+				particleSize[i] = particleSize[last];
+				particleAge[i] = particleAge[last];
+				particleAgeRate[i] = particleAgeRate[last];
+				particleTile[i] = particleTile[last];
+			} else {
+				i++;
+			}
+		}
+	}
+	
+	/**
+	 * Moves every particle on by the time given, then passes the results to the back buffers and swaps them to the front
+	 * 
+	 * @param time the time since the last update, in seconds
+	 */
+	protected void updateParticles(float time) {
+		final EmitterDef def = this.def;
+		final boolean tileCoordsReady = prepareTileCoords();
+		frameTime = time;
+		frameDrag = 1 - def.drag * time;
+		if(frameDrag < 0) frameDrag = 0;
+		frameVelocityX = def.accelerationX * time;
+		frameVelocityY = def.accelerationY * time;
+		frameSizeChange = def.sizeStart != 0 ? def.sizeEnd / def.sizeStart - 1 : 0;
+		frameRed = def.startRed * red * 255;
+		frameGreen = def.startGreen * green * 255;
+		frameBlue = def.startBlue * blue * 255;
+		frameAlpha = def.startAlpha * alpha * 255;
+		frameRedChange = def.endRed * red * 255 - frameRed;
+		frameGreenChange = def.endGreen * green * 255 - frameGreen;
+		frameBlueChange = def.endBlue * blue * 255 - frameBlue;
+		frameAlphaChange = def.endAlpha * alpha * 255 - frameAlpha;
+		frameRotates = def.rotationMin != 0 || def.rotationMax != 0 || def.spinMin != 0 || def.spinMax != 0;
+		frameTileCoords = texture != null && tileCoordsReady && tileCount > 1;
+		
+		final int slices = parallel && count >= PARALLEL_THRESHOLD ? prepareSlices() : 1;
+		if(slices == 1) {
+			if(slice == null) slice = new Slice[] { new Slice() };
+			slice[0].start = 0;
+			slice[0].end = count;
+			update(slice[0]);
+		} else {
+			final int sliceSize = (count + slices - 1) / slices;
+			for(int i = 0; i < slices; i++) {
+				slice[i].start = i * sliceSize;
+				slice[i].end = Math.min(count, (i + 1) * sliceSize);
+			}
+			synchronized(sliceLock) {
+				pendingSlices = slices - 1;
+			}
+			for(int i = 1; i < slices; i++) {
+				workers.execute(slice[i]);
+			}
+			update(slice[0]);
+			synchronized(sliceLock) {
+				while(pendingSlices > 0) {
+					try {
+						sliceLock.wait();
+					} catch (InterruptedException e) { }
+				}
+			}
+		}
+		
+		boundsX1 = getX();
+		boundsY1 = getY();
+		boundsX2 = boundsX1 + getWidth();
+		boundsY2 = boundsY1 + getHeight();
+		for(int i = 0; i < slices; i++) {
+			if(slice[i].start >= slice[i].end) continue;
+			if(slice[i].x1 < boundsX1) boundsX1 = slice[i].x1;
+			if(slice[i].y1 < boundsY1) boundsY1 = slice[i].y1;
+			if(slice[i].x2 > boundsX2) boundsX2 = slice[i].x2;
+			if(slice[i].y2 > boundsY2) boundsY2 = slice[i].y2;
+		}
+		
+		final int back = 1 - frontBuffer;
+		vertexBuffer[back].position(0);
+		vertexBuffer[back].put(vertices, 0, count * 8);
+		vertexBuffer[back].position(0);
+		colourBuffer[back].position(0);
+		colourBuffer[back].put(colours, 0, count * 4);
+		colourBuffer[back].position(0);
+		if(frameTileCoords) {
+			texCoordBuffer[back].position(0);
+			texCoordBuffer[back].put(texCoords, 0, count * 8);
+			texCoordBuffer[back].position(0);
+			bufferTexCoordVersion[back] = -1;
+		} else if(texture != null && tileCoordsReady && bufferTexCoordVersion[back] != tileCoordsVersion) {
+			final FloatBuffer buffer = texCoordBuffer[back];
+			buffer.position(0);
+			for(int i = 0; i < capacity; i++) {
+				buffer.put(tileCoords[0]).put(tileCoords[1]).put(tileCoords[2]).put(tileCoords[1]);
+				buffer.put(tileCoords[0]).put(tileCoords[3]).put(tileCoords[2]).put(tileCoords[3]);
+			}
+			buffer.position(0);
+			bufferTexCoordVersion[back] = tileCoordsVersion;
+		}
+		bufferCount[back] = count;
+		bufferReady[back] = texture == null || tileCoordsReady;
+		synchronized(bufferLock) {
+			frontBuffer = back;
+		}
+	}
+	
+	/**
+	 * Finds the texture coordinates of the tiles in use, once the Texture has been loaded
+	 * 
+	 * @return TRUE if the coordinates are ready, or there is no Texture
+	 */
+	private boolean prepareTileCoords() {
+		if(texture == null) return true;
+		if(texture == tileCoordsTexture && def.tileStart == tileCoordsStart && def.tileEnd == tileCoordsEnd) return true;
+		if(texture.getTextureIndex() == -1) return false;
+		int tileRange = def.tileEnd - def.tileStart + 1;
+		tileCount = tileRange < 1 ? 1 : tileRange;
+		if(tileCoords.length < tileCount * 4) {
+			tileCoords = new float[tileCount * 4];
+		}
+		for(int i = 0; i < tileCount; i++) {
+			int tile = def.tileStart + i;
+			if(tile >= texture.getTileCount()) tile = texture.getTileCount() - 1;
+			if(tile < 0) tile = 0;
+			final ByteBuffer buffer = texture.getBuffer(tile).get();
+			tileCoords[i * 4] = buffer.getFloat(0);
+			tileCoords[i * 4 + 1] = buffer.getFloat(4);
+			tileCoords[i * 4 + 2] = buffer.getFloat(24);
+			tileCoords[i * 4 + 3] = buffer.getFloat(28);
+		}
+		tileCoordsTexture = texture;
+		tileCoordsStart = def.tileStart;
+		tileCoordsEnd = def.tileEnd;
+		tileCoordsVersion++;
+		return true;
+	}
+	
+	/**
+	 * Starts the worker threads if needed, and makes sure there is a Slice for each
+	 * 
+	 * @return the number of slices to split the update into, 1 if there are no workers
+	 */
+	private int prepareSlices() {
+		if(workerCount == 0) return 1;
+		synchronized(ParticleEmitter.class) {
+			if(workers == null) {
+				workers = Executors.newFixedThreadPool(workerCount, new ThreadFactory() {
+					public Thread newThread(Runnable runnable) {
+						Thread thread = new Thread(runnable, "ParticleWorker");
+						thread.setDaemon(true);
+						return thread;
+					}
+				});
+			}
+		}
+		if(slice == null || slice.length < workerCount + 1) {
+			slice = new Slice[workerCount + 1];
+			for(int i = 0; i < slice.length; i++) {
+				slice[i] = new Slice();
+			}
+		}
+		return workerCount + 1;
+	}
+	
+	/**
+	 * Moves the particles in one slice, and writes their vertices, texture coordinates and colours.
+	 * Particles which die are drawn with no size, and removed at the start of the next update
+	 * 
+	 * @param slice the range of particles to update, which also receives their bounds
+	 */
+	private void update(Slice slice) {
+		final float[] particleX = this.particleX, particleY = this.particleY;
+		final float[] particleVelocityX = this.particleVelocityX, particleVelocityY = this.particleVelocityY;
+		final float[] particleRotation = this.particleRotation, particleSpin = this.particleSpin, particleSize = this.particleSize;
+		final float[] particleAge = this.particleAge, particleAgeRate = this.particleAgeRate;
+		final float[] vertices = this.vertices, texCoords = this.texCoords, tileCoords = this.tileCoords;
+		final int[] colours = this.colours, particleTile = this.particleTile;
+		final float time = frameTime, drag = frameDrag, velocityX = frameVelocityX, velocityY = frameVelocityY, sizeChange = frameSizeChange;
+		final float red = frameRed, green = frameGreen, blue = frameBlue, alpha = frameAlpha;
+		final float redChange = frameRedChange, greenChange = frameGreenChange, blueChange = frameBlueChange, alphaChange = frameAlphaChange;
+		final boolean rotates = frameRotates, writeTexCoords = frameTileCoords;
+		float x1 = Float.MAX_VALUE, y1 = Float.MAX_VALUE, x2 = -Float.MAX_VALUE, y2 = -Float.MAX_VALUE;
+		for(int i = slice.start; i < slice.end; i++) {
+			float age = particleAge[i] + particleAgeRate[i] * time;
+			if(age > 1) age = 1;
+			particleAge[i] = age;
+			final float vx = (particleVelocityX[i] + velocityX) * drag;
+			final float vy = (particleVelocityY[i] + velocityY) * drag;
+			particleVelocityX[i] = vx;
+			particleVelocityY[i] = vy;
+			final float x = particleX[i] + vx * time;
+			final float y = particleY[i] + vy * time;
+			particleX[i] = x;
+			particleY[i] = y;
+			
+			final float half = age < 1 ? particleSize[i] * (1 + sizeChange * age) * 0.5f : 0;
+			float a = half, b = 0, extent = half;
+			if(rotates) {
+				final float rotation = particleRotation[i] + particleSpin[i] * time;
+				particleRotation[i] = rotation;
+				final int angle = (int)(rotation * SINE_SCALE) & SINE_MASK;
+				a = half * sine[(angle + COSINE_OFFSET) & SINE_MASK];
+				b = half * sine[angle];
+				extent = half * 1.4143f;
+			}
+			final int v = i * 8;
+			vertices[v] = x - a + b;
+			vertices[v + 1] = y - b - a;
+			vertices[v + 2] = x + a + b;
+			vertices[v + 3] = y + b - a;
+			vertices[v + 4] = x - a - b;
+			vertices[v + 5] = y - b + a;
+			vertices[v + 6] = x + a - b;
+			vertices[v + 7] = y + b + a;
+			
+			if(writeTexCoords) {
+				final int t = particleTile[i] * 4;
+				texCoords[v] = tileCoords[t];
+				texCoords[v + 1] = tileCoords[t + 1];
+				texCoords[v + 2] = tileCoords[t + 2];
+				texCoords[v + 3] = tileCoords[t + 1];
+				texCoords[v + 4] = tileCoords[t];
+				texCoords[v + 5] = tileCoords[t + 3];
+				texCoords[v + 6] = tileCoords[t + 2];
+				texCoords[v + 7] = tileCoords[t + 3];
+			}
+			
+			final int r = (int)(red + redChange * age), g = (int)(green + greenChange * age);
+			final int bl = (int)(blue + blueChange * age), al = (int)(alpha + alphaChange * age);
+			final int colour = bigEndian ? (r << 24) | (g << 16) | (bl << 8) | al : (al << 24) | (bl << 16) | (g << 8) | r;
+			final int c = i * 4;
+			colours[c] = colour;
+			colours[c + 1] = colour;
+			colours[c + 2] = colour;
+			colours[c + 3] = colour;
+			
+			if(x - extent < x1) x1 = x - extent;
+			if(y - extent < y1) y1 = y - extent;
+			if(x + extent > x2) x2 = x + extent;
+			if(y + extent > y2) y2 = y + extent;
+		}
+		slice.x1 = x1;
+		slice.y1 = y1;
+		slice.x2 = x2;
+		slice.y2 = y2;
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.stickycoding.rokon.DrawableObject#isOnScreen()
+	 */
+	public boolean isOnScreen() {
+		if(invisible || parentLayer == null || parentScene == null) {
+			return false;
+		}
+		final Window window = parentScene.getWindow();
+		if(!parentLayer.isUsingWindow() || window == null) {
+			return MathHelper.rectOverlap(boundsX1, boundsY1, boundsX2, boundsY2, 0, 0, RokonActivity.getGameWidth(), RokonActivity.getGameHeight());
+		}
+		final float windowX2 = window.getX() + window.getWidth(), windowY2 = window.getY() + window.getHeight();
+		return MathHelper.rectOverlap(boundsX1, boundsY1, boundsX2, boundsY2, Math.min(window.getX(), windowX2), Math.min(window.getY(), windowY2), Math.max(window.getX(), windowX2), Math.max(window.getY(), windowY2));
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.stickycoding.rokon.DrawableObject#onDraw(javax.microedition.khronos.opengles.GL10)
+	 */
+	public void onDraw(GL10 gl) {
+		if(invisible) return;
+		synchronized(bufferLock) {
+			final int front = frontBuffer;
+			if(bufferCount[front] == 0) return;
+			if(!bufferReady[front]) {
+				GLHelper.checkTextureValid(texture);
+				return;
+			}
+			GLHelper.drawQuads(blendFunction != null ? blendFunction : def.additive ? ADDITIVE_BLEND : null, texture, vertexBuffer[front], texCoordBuffer[front], colourBuffer[front], bufferCount[front]);
+		}
+	}
+	
+	/**
+	 * A range of particles to update on one thread, and the bounds of those particles once updated
+	 */
+	private class Slice implements Runnable {
+		
+		private int start, end;
+		private float x1, y1, x2, y2;
+		
+		public void run() {
+			try {
+				update(this);
+			} finally {
+				synchronized(sliceLock) {
+					pendingSlices--;
+					if(pendingSlices == 0) {
+						sliceLock.notifyAll();
+					}
+				}
+			}
+		}
+		
+	}
+
+}